@@ -21,24 +21,38 @@ import org.wso2.siddhi.core.extension.EternalReferencedHolder;
 import org.wso2.siddhi.core.partition.PartitionRuntime;
 import org.wso2.siddhi.core.query.QueryRuntime;
 import org.wso2.siddhi.core.query.input.ProcessStreamReceiver;
+import org.wso2.siddhi.core.query.input.SharedWindowReceiver;
 import org.wso2.siddhi.core.query.input.stream.StreamRuntime;
 import org.wso2.siddhi.core.query.input.stream.single.SingleStreamRuntime;
+import org.wso2.siddhi.core.query.input.stream.single.SingleThreadEntryValveProcessor;
 import org.wso2.siddhi.core.query.output.callback.InsertIntoStreamCallback;
 import org.wso2.siddhi.core.query.output.callback.OutputCallback;
 import org.wso2.siddhi.core.query.output.callback.QueryCallback;
+import org.wso2.siddhi.core.query.processor.Processor;
+import org.wso2.siddhi.core.query.processor.SchedulingProcessor;
+import org.wso2.siddhi.core.query.processor.window.WindowProcessor;
 import org.wso2.siddhi.core.stream.StreamJunction;
 import org.wso2.siddhi.core.stream.input.InputHandler;
 import org.wso2.siddhi.core.stream.input.InputManager;
 import org.wso2.siddhi.core.stream.output.StreamCallback;
 import org.wso2.siddhi.core.table.EventTable;
+import org.wso2.siddhi.core.util.SiddhiConstants;
 import org.wso2.siddhi.core.util.parser.FunctionParser;
 import org.wso2.siddhi.core.util.parser.helper.DefinitionParserHelper;
+import org.wso2.siddhi.core.util.statistics.RingBufferStatistics;
+import org.wso2.siddhi.core.util.statistics.StatisticsManager;
+import org.wso2.siddhi.query.api.annotation.Element;
 import org.wso2.siddhi.query.api.definition.AbstractDefinition;
 import org.wso2.siddhi.query.api.definition.FunctionDefinition;
 import org.wso2.siddhi.query.api.definition.StreamDefinition;
 import org.wso2.siddhi.query.api.definition.TableDefinition;
+import org.wso2.siddhi.query.api.util.AnnotationHelper;
 import org.wso2.siddhi.query.compiler.SiddhiCompiler;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
@@ -51,8 +65,10 @@ public class ExecutionPlanRuntime {
     private ConcurrentMap<String, AbstractDefinition> tableDefinitionMap = new ConcurrentHashMap<String, AbstractDefinition>(); //contains table definition
     private InputManager inputManager;
     private ConcurrentMap<String, QueryRuntime> queryProcessorMap = new ConcurrentHashMap<String, QueryRuntime>();
+    private ConcurrentMap<String, List<QueryRuntime>> queryShardMap = new ConcurrentHashMap<String, List<QueryRuntime>>(); //contains shard clones of queries
     private ConcurrentMap<String, StreamJunction> streamJunctionMap = new ConcurrentHashMap<String, StreamJunction>(); //contains stream junctions
     private ConcurrentMap<String, EventTable> eventTableMap = new ConcurrentHashMap<String, EventTable>(); //contains event tables
+    private ConcurrentMap<String, SharedWindowReceiver> sharedWindowMap = new ConcurrentHashMap<String, SharedWindowReceiver>(); //contains windows shared between queries
     private ConcurrentMap<String, PartitionRuntime> partitionMap = new ConcurrentHashMap<String, PartitionRuntime>(); //contains partitions
     private ExecutionPlanContext executionPlanContext;
 
@@ -84,11 +100,29 @@ public class ExecutionPlanRuntime {
     public String addQuery(QueryRuntime queryRuntime) {
         queryProcessorMap.put(queryRuntime.getQueryId(), queryRuntime);
         StreamRuntime streamRuntime = queryRuntime.getStreamRuntime();
+        StreamJunction shardedStreamJunction = null;
+
+        if (streamRuntime instanceof SingleStreamRuntime) {
+            ProcessStreamReceiver processStreamReceiver = ((SingleStreamRuntime) streamRuntime).getProcessStreamReceiver();
+            StreamJunction streamJunction = streamJunctionMap.get(processStreamReceiver.getStreamId());
+            if (streamJunction != null && streamJunction.isSharded() && !processStreamReceiver.toTable() &&
+                    queryRuntime.isShardable(streamJunction.getDisruptorConfig().getShardBy())) {
+                shardedStreamJunction = streamJunction;
+            }
+        }
 
-        for (SingleStreamRuntime singleStreamRuntime : streamRuntime.getSingleStreamRuntimes()) {
-            ProcessStreamReceiver processStreamReceiver = singleStreamRuntime.getProcessStreamReceiver();
-            if (!processStreamReceiver.toTable()) {
-                streamJunctionMap.get(processStreamReceiver.getStreamId()).subscribe(processStreamReceiver);
+        WindowProcessor sharableWindowProcessor = null;
+        if (shardedStreamJunction == null) {
+            sharableWindowProcessor = getSharableWindowProcessor(queryRuntime);
+        }
+        if (sharableWindowProcessor != null) {
+            subscribeToSharedWindow(((SingleStreamRuntime) streamRuntime).getProcessStreamReceiver(), sharableWindowProcessor);
+        } else if (shardedStreamJunction == null) {
+            for (SingleStreamRuntime singleStreamRuntime : streamRuntime.getSingleStreamRuntimes()) {
+                ProcessStreamReceiver processStreamReceiver = singleStreamRuntime.getProcessStreamReceiver();
+                if (!processStreamReceiver.toTable()) {
+                    streamJunctionMap.get(processStreamReceiver.getStreamId()).subscribe(processStreamReceiver);
+                }
             }
         }
 
@@ -111,9 +145,103 @@ public class ExecutionPlanRuntime {
             insertIntoStreamCallback.init(streamJunctionMap.get(insertIntoStreamCallback.getOutputStreamDefinition().getId()));
         }
 
+        if (shardedStreamJunction != null) {
+            addQueryShards(queryRuntime, shardedStreamJunction);
+        }
+
         return queryRuntime.getQueryId();
     }
 
+    /**
+     * @return the window of a single stream query reading its stream through a window before any other
+     * processor, when the window can be shared with other queries having an equal window, else null.
+     * Queries annotated with @info(share.window='false') keep a window of their own.
+     */
+    private WindowProcessor getSharableWindowProcessor(QueryRuntime queryRuntime) {
+        StreamRuntime streamRuntime = queryRuntime.getStreamRuntime();
+        if (!(streamRuntime instanceof SingleStreamRuntime)) {
+            return null;
+        }
+        Element shareWindowElement = AnnotationHelper.getAnnotationElement("info",
+                SiddhiConstants.ANNOTATION_ELEMENT_SHARE_WINDOW, queryRuntime.getQuery().getAnnotations());
+        if (shareWindowElement != null && !Boolean.parseBoolean(shareWindowElement.getValue())) {
+            return null;
+        }
+        ProcessStreamReceiver processStreamReceiver = ((SingleStreamRuntime) streamRuntime).getProcessStreamReceiver();
+        if (processStreamReceiver.getClass() != ProcessStreamReceiver.class || processStreamReceiver.toTable() ||
+                processStreamReceiver.isStateful()) {
+            return null;
+        }
+        Processor processor = processStreamReceiver.getNext();
+        if (processor instanceof SingleThreadEntryValveProcessor) {
+            processor = processor.getNextProcessor();
+        }
+        if (!(processor instanceof WindowProcessor) || ((WindowProcessor) processor).getSharingKey() == null) {
+            return null;
+        }
+        for (Processor nextProcessor = processor.getNextProcessor(); nextProcessor != null;
+             nextProcessor = nextProcessor.getNextProcessor()) {
+            if (nextProcessor instanceof SchedulingProcessor) {
+                //its scheduler notifies the entry valve ahead of the window
+                return null;
+            }
+        }
+        return (WindowProcessor) processor;
+    }
+
+    /**
+     * Subscribe a query through the shared window of its stream and window definition, such that queries
+     * differing only in the processing after the window keep a single copy of the window
+     */
+    private void subscribeToSharedWindow(ProcessStreamReceiver processStreamReceiver, WindowProcessor windowProcessor) {
+        StreamJunction streamJunction = streamJunctionMap.get(processStreamReceiver.getStreamId());
+        String key = processStreamReceiver.getStreamId() + "#" + windowProcessor.getSharingKey();
+        SharedWindowReceiver sharedWindowReceiver = sharedWindowMap.get(key);
+        if (sharedWindowReceiver == null) {
+            sharedWindowReceiver = new SharedWindowReceiver(streamJunction.getStreamDefinition());
+            sharedWindowMap.put(key, sharedWindowReceiver);
+            streamJunction.subscribe(sharedWindowReceiver);
+        } else if (sharedWindowReceiver.getReceiverCount() > 0) {
+            unregisterWindow(windowProcessor);
+        }
+        sharedWindowReceiver.addReceiver(processStreamReceiver, windowProcessor);
+    }
+
+    /**
+     * Remove the window of a query reading through the shared window from the snapshot service and the
+     * eternal referenced holders, as it never holds events nor schedules
+     */
+    private void unregisterWindow(WindowProcessor windowProcessor) {
+        executionPlanContext.getSnapshotService().removeSnapshotable(windowProcessor);
+        executionPlanContext.removeEternalReferencedHolder(windowProcessor);
+        if (windowProcessor instanceof SchedulingProcessor) {
+            executionPlanContext.getSnapshotService().removeSnapshotable(
+                    ((SchedulingProcessor) windowProcessor).getScheduler());
+        }
+    }
+
+    /**
+     * Clone a shardable query reading from a sharded stream for each worker of the stream, so that each worker
+     * processes the events of its shard keys on a query runtime of its own. Queries that are not shardable
+     * subscribe to the stream as usual and receive the events of all shards.
+     */
+    private void addQueryShards(QueryRuntime queryRuntime, StreamJunction streamJunction) {
+        int workers = streamJunction.getDisruptorConfig().getWorkers();
+        List<QueryRuntime> shards = new ArrayList<QueryRuntime>(workers - 1);
+        List<ProcessStreamReceiver> shardReceivers = new ArrayList<ProcessStreamReceiver>(workers);
+        Object callbackLock = new Object();
+        queryRuntime.getOutputRateManager().setCallbackLock(callbackLock);
+        shardReceivers.add(((SingleStreamRuntime) queryRuntime.getStreamRuntime()).getProcessStreamReceiver());
+        for (int i = 1; i < workers; i++) {
+            QueryRuntime shard = queryRuntime.cloneShard("#shard" + i, streamJunctionMap);
+            shard.getOutputRateManager().setCallbackLock(callbackLock);
+            shards.add(shard);
+            shardReceivers.add(((SingleStreamRuntime) shard.getStreamRuntime()).getProcessStreamReceiver());
+        }
+        streamJunction.subscribeShards(shardReceivers);
+        queryShardMap.put(queryRuntime.getQueryId(), shards);
+    }
+
     public void addCallback(String streamId, StreamCallback streamCallback) {
         streamCallback.setStreamId(streamId);
         StreamJunction streamJunction = streamJunctionMap.get(streamId);
@@ -133,6 +261,12 @@ public class ExecutionPlanRuntime {
         }
         callback.setQuery(queryRuntime.getQuery());
         queryRuntime.addCallback(callback);
+        List<QueryRuntime> shards = queryShardMap.get(queryName);
+        if (shards != null) {
+            for (QueryRuntime shard : shards) {
+                shard.addCallback(callback);
+            }
+        }
     }
 
     public InputHandler getInputHandler(String streamId) {
@@ -151,6 +285,18 @@ public class ExecutionPlanRuntime {
         return eventTableMap;
     }
 
+    public ConcurrentMap<String, SharedWindowReceiver> getSharedWindowMap() {
+        return sharedWindowMap;
+    }
+
+    public ConcurrentMap<String, List<QueryRuntime>> getQueryShardMap() {
+        return queryShardMap;
+    }
+
+    public ConcurrentMap<String, PartitionRuntime> getPartitionMap() {
+        return partitionMap;
+    }
+
     public ConcurrentMap<String, AbstractDefinition> getStreamDefinitionMap() {
         return streamDefinitionMap;
     }
@@ -168,6 +314,23 @@ public class ExecutionPlanRuntime {
         for (StreamJunction streamJunction : streamJunctionMap.values()) {
             streamJunction.stopProcessing();
         }
+        if (executionPlanContext.getStatisticsManager() != null) {
+            executionPlanContext.getStatisticsManager().stop();
+        }
+    }
+
+    /**
+     * Statistics of the ring buffers of the execution plan's junctions, entry valve and async callbacks,
+     * recorded only when the execution plan is annotated with @Statistics
+     *
+     * @return statistics by ring buffer name, empty when statistics are not enabled
+     */
+    public Map<String, RingBufferStatistics> getStatistics() {
+        StatisticsManager statisticsManager = executionPlanContext.getStatisticsManager();
+        if (statisticsManager == null) {
+            return Collections.emptyMap();
+        }
+        return statisticsManager.getRingBufferStatistics();
     }
 
     public String getName() {
@@ -179,6 +342,9 @@ public class ExecutionPlanRuntime {
             eternalReferencedHolder.start();
         }
         inputManager.startProcessing();
+        if (executionPlanContext.getStatisticsManager() != null) {
+            executionPlanContext.getStatisticsManager().start(executionPlanContext.getScheduledExecutorService());
+        }
     }
 
 
@@ -0,0 +1,339 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.siddhi.core.config;
+
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.BusySpinWaitStrategy;
+import com.lmax.disruptor.SleepingWaitStrategy;
+import com.lmax.disruptor.WaitStrategy;
+import com.lmax.disruptor.YieldingWaitStrategy;
+import com.lmax.disruptor.dsl.ProducerType;
+import org.wso2.siddhi.core.exception.ExecutionPlanCreationException;
+import org.wso2.siddhi.core.stream.overflow.BlockingOverflowPolicy;
+import org.wso2.siddhi.core.stream.overflow.DropNewestOverflowPolicy;
+import org.wso2.siddhi.core.stream.overflow.DropOldestOverflowPolicy;
+import org.wso2.siddhi.core.stream.overflow.OverflowPolicy;
+import org.wso2.siddhi.core.stream.overflow.SpillOverflowPolicy;
+import org.wso2.siddhi.core.stream.overflow.TimeoutOverflowPolicy;
+import org.wso2.siddhi.core.util.SiddhiConstants;
+import org.wso2.siddhi.query.api.annotation.Annotation;
+import org.wso2.siddhi.query.api.annotation.Element;
+import org.wso2.siddhi.query.api.util.AnnotationHelper;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Disruptor settings of a StreamJunction or an async callback, given as elements of
+ * the parallel annotation, e.g. @parallel(wait='yielding', buffer='4096', producer='single').
+ * Junctions also read the overflow policy, e.g. @parallel(overflow='block.timeout', overflow.timeout='50')
+ * or @parallel(overflow='spill', overflow.dir='/var/spill'), the shard key, e.g. @parallel(shardBy='symbol', workers='8'),
+ * and per thread producer lanes, e.g. @parallel(producer='lanes', ordering='timestamp')
+ */
+public class DisruptorConfig {
+
+    private int bufferSize;
+    private String waitStrategy = SiddhiConstants.WAIT_STRATEGY_SLEEPING;
+    private ProducerType producerType;      //null when it has to be decided by the number of publishers
+    private boolean producerLanes;
+    private String ordering = SiddhiConstants.ORDERING_FAIR;
+    private String overflow = SiddhiConstants.OVERFLOW_BLOCK;
+    private long overflowTimeout = SiddhiConstants.DEFAULT_OVERFLOW_TIMEOUT;
+    private String overflowDirectory;       //null to use the system temp directory
+    private String shardBy;                 //null when events are not sharded
+    private int workers = Runtime.getRuntime().availableProcessors();
+
+    public DisruptorConfig(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Read the disruptor settings from the parallel annotation, falling back to defaults
+     * for the elements that are not given
+     *
+     * @param annotations       annotations of the stream definition or the query
+     * @param defaultBufferSize ring buffer size to use when buffer element is not given
+     * @return DisruptorConfig
+     */
+    public static DisruptorConfig parse(List<Annotation> annotations, int defaultBufferSize) {
+        DisruptorConfig disruptorConfig = new DisruptorConfig(defaultBufferSize);
+
+        Element element = AnnotationHelper.getAnnotationElement(SiddhiConstants.ANNOTATION_PARALLEL,
+                SiddhiConstants.ANNOTATION_ELEMENT_BUFFER_SIZE, annotations);
+        if (element != null) {
+            int bufferSize;
+            try {
+                bufferSize = Integer.parseInt(element.getValue().trim());
+            } catch (NumberFormatException e) {
+                throw new ExecutionPlanCreationException("Buffer size of @" + SiddhiConstants.ANNOTATION_PARALLEL +
+                        " should be an integer, but found '" + element.getValue() + "'", e);
+            }
+            if (bufferSize < 1 || Integer.bitCount(bufferSize) != 1) {
+                throw new ExecutionPlanCreationException("Buffer size of @" + SiddhiConstants.ANNOTATION_PARALLEL +
+                        " should be a power of 2, but found " + bufferSize);
+            }
+            disruptorConfig.setBufferSize(bufferSize);
+        }
+
+        element = AnnotationHelper.getAnnotationElement(SiddhiConstants.ANNOTATION_PARALLEL,
+                SiddhiConstants.ANNOTATION_ELEMENT_WAIT_STRATEGY, annotations);
+        if (element != null) {
+            String waitStrategy = element.getValue().trim().toLowerCase();
+            if (!SiddhiConstants.WAIT_STRATEGY_SLEEPING.equals(waitStrategy) &&
+                    !SiddhiConstants.WAIT_STRATEGY_YIELDING.equals(waitStrategy) &&
+                    !SiddhiConstants.WAIT_STRATEGY_BUSY_SPIN.equals(waitStrategy) &&
+                    !SiddhiConstants.WAIT_STRATEGY_BLOCKING.equals(waitStrategy)) {
+                throw new ExecutionPlanCreationException("Wait strategy '" + element.getValue() + "' of @" +
+                        SiddhiConstants.ANNOTATION_PARALLEL + " is not supported, use one of " +
+                        SiddhiConstants.WAIT_STRATEGY_SLEEPING + ", " + SiddhiConstants.WAIT_STRATEGY_YIELDING + ", " +
+                        SiddhiConstants.WAIT_STRATEGY_BUSY_SPIN + " or " + SiddhiConstants.WAIT_STRATEGY_BLOCKING);
+            }
+            disruptorConfig.setWaitStrategy(waitStrategy);
+        }
+
+        element = AnnotationHelper.getAnnotationElement(SiddhiConstants.ANNOTATION_PARALLEL,
+                SiddhiConstants.ANNOTATION_ELEMENT_PRODUCER_TYPE, annotations);
+        if (element != null) {
+            String producerType = element.getValue().trim();
+            if (SiddhiConstants.PRODUCER_TYPE_SINGLE.equalsIgnoreCase(producerType)) {
+                disruptorConfig.setProducerType(ProducerType.SINGLE);
+            } else if (SiddhiConstants.PRODUCER_TYPE_MULTI.equalsIgnoreCase(producerType)) {
+                disruptorConfig.setProducerType(ProducerType.MULTI);
+            } else if (SiddhiConstants.PRODUCER_TYPE_LANES.equalsIgnoreCase(producerType)) {
+                disruptorConfig.setProducerLanes(true);
+            } else {
+                throw new ExecutionPlanCreationException("Producer type '" + element.getValue() + "' of @" +
+                        SiddhiConstants.ANNOTATION_PARALLEL + " is not supported, use " +
+                        SiddhiConstants.PRODUCER_TYPE_SINGLE + ", " + SiddhiConstants.PRODUCER_TYPE_MULTI + " or " +
+                        SiddhiConstants.PRODUCER_TYPE_LANES);
+            }
+        }
+
+        element = AnnotationHelper.getAnnotationElement(SiddhiConstants.ANNOTATION_PARALLEL,
+                SiddhiConstants.ANNOTATION_ELEMENT_ORDERING, annotations);
+        if (element != null) {
+            String ordering = element.getValue().trim().toLowerCase();
+            if (!SiddhiConstants.ORDERING_FAIR.equals(ordering) && !SiddhiConstants.ORDERING_TIMESTAMP.equals(ordering)) {
+                throw new ExecutionPlanCreationException("Ordering '" + element.getValue() + "' of @" +
+                        SiddhiConstants.ANNOTATION_PARALLEL + " is not supported, use " +
+                        SiddhiConstants.ORDERING_FAIR + " or " + SiddhiConstants.ORDERING_TIMESTAMP);
+            }
+            disruptorConfig.setOrdering(ordering);
+        }
+
+        element = AnnotationHelper.getAnnotationElement(SiddhiConstants.ANNOTATION_PARALLEL,
+                SiddhiConstants.ANNOTATION_ELEMENT_OVERFLOW, annotations);
+        if (element != null) {
+            String overflow = element.getValue().trim().toLowerCase();
+            if (!SiddhiConstants.OVERFLOW_BLOCK.equals(overflow) &&
+                    !SiddhiConstants.OVERFLOW_BLOCK_TIMEOUT.equals(overflow) &&
+                    !SiddhiConstants.OVERFLOW_DROP_NEWEST.equals(overflow) &&
+                    !SiddhiConstants.OVERFLOW_DROP_OLDEST.equals(overflow) &&
+                    !SiddhiConstants.OVERFLOW_SPILL.equals(overflow)) {
+                throw new ExecutionPlanCreationException("Overflow policy '" + element.getValue() + "' of @" +
+                        SiddhiConstants.ANNOTATION_PARALLEL + " is not supported, use one of " +
+                        SiddhiConstants.OVERFLOW_BLOCK + ", " + SiddhiConstants.OVERFLOW_BLOCK_TIMEOUT + ", " +
+                        SiddhiConstants.OVERFLOW_DROP_NEWEST + ", " + SiddhiConstants.OVERFLOW_DROP_OLDEST + " or " +
+                        SiddhiConstants.OVERFLOW_SPILL);
+            }
+            disruptorConfig.setOverflow(overflow);
+        }
+
+        element = AnnotationHelper.getAnnotationElement(SiddhiConstants.ANNOTATION_PARALLEL,
+                SiddhiConstants.ANNOTATION_ELEMENT_OVERFLOW_TIMEOUT, annotations);
+        if (element != null) {
+            long overflowTimeout;
+            try {
+                overflowTimeout = Long.parseLong(element.getValue().trim());
+            } catch (NumberFormatException e) {
+                throw new ExecutionPlanCreationException("Overflow timeout of @" + SiddhiConstants.ANNOTATION_PARALLEL +
+                        " should be in milliseconds, but found '" + element.getValue() + "'", e);
+            }
+            if (overflowTimeout < 0) {
+                throw new ExecutionPlanCreationException("Overflow timeout of @" + SiddhiConstants.ANNOTATION_PARALLEL +
+                        " cannot be negative, but found " + overflowTimeout);
+            }
+            disruptorConfig.setOverflowTimeout(overflowTimeout);
+        }
+
+        element = AnnotationHelper.getAnnotationElement(SiddhiConstants.ANNOTATION_PARALLEL,
+                SiddhiConstants.ANNOTATION_ELEMENT_OVERFLOW_DIR, annotations);
+        if (element != null) {
+            disruptorConfig.setOverflowDirectory(element.getValue().trim());
+        }
+
+        element = AnnotationHelper.getAnnotationElement(SiddhiConstants.ANNOTATION_PARALLEL,
+                SiddhiConstants.ANNOTATION_ELEMENT_SHARD_BY, annotations);
+        if (element != null) {
+            disruptorConfig.setShardBy(element.getValue().trim());
+        }
+
+        element = AnnotationHelper.getAnnotationElement(SiddhiConstants.ANNOTATION_PARALLEL,
+                SiddhiConstants.ANNOTATION_ELEMENT_WORKERS, annotations);
+        if (element != null) {
+            int workers;
+            try {
+                workers = Integer.parseInt(element.getValue().trim());
+            } catch (NumberFormatException e) {
+                throw new ExecutionPlanCreationException("Workers of @" + SiddhiConstants.ANNOTATION_PARALLEL +
+                        " should be an integer, but found '" + element.getValue() + "'", e);
+            }
+            if (workers < 1) {
+                throw new ExecutionPlanCreationException("Workers of @" + SiddhiConstants.ANNOTATION_PARALLEL +
+                        " should be at least 1, but found " + workers);
+            }
+            disruptorConfig.setWorkers(workers);
+        }
+
+        //the drainer of spilled events publishes alongside the publishers of the stream
+        if (SiddhiConstants.OVERFLOW_SPILL.equals(disruptorConfig.getOverflow()) &&
+                disruptorConfig.getProducerType() == ProducerType.SINGLE) {
+            throw new ExecutionPlanCreationException("Producer type " + SiddhiConstants.PRODUCER_TYPE_SINGLE +
+                    " of @" + SiddhiConstants.ANNOTATION_PARALLEL + " cannot be used with the " +
+                    SiddhiConstants.OVERFLOW_SPILL + " overflow policy, as spilled events are published back by " +
+                    "a thread of their own");
+        }
+        return disruptorConfig;
+    }
+
+    public WaitStrategy constructWaitStrategy() {
+        if (SiddhiConstants.WAIT_STRATEGY_BUSY_SPIN.equals(waitStrategy)) {
+            return new BusySpinWaitStrategy();
+        } else if (SiddhiConstants.WAIT_STRATEGY_YIELDING.equals(waitStrategy)) {
+            return new YieldingWaitStrategy();
+        } else if (SiddhiConstants.WAIT_STRATEGY_BLOCKING.equals(waitStrategy)) {
+            return new BlockingWaitStrategy();
+        } else {
+            return new SleepingWaitStrategy();
+        }
+    }
+
+    public OverflowPolicy constructOverflowPolicy() {
+        if (SiddhiConstants.OVERFLOW_BLOCK_TIMEOUT.equals(overflow)) {
+            return new TimeoutOverflowPolicy(overflowTimeout);
+        } else if (SiddhiConstants.OVERFLOW_DROP_NEWEST.equals(overflow)) {
+            return new DropNewestOverflowPolicy();
+        } else if (SiddhiConstants.OVERFLOW_DROP_OLDEST.equals(overflow)) {
+            return new DropOldestOverflowPolicy();
+        } else if (SiddhiConstants.OVERFLOW_SPILL.equals(overflow)) {
+            return new SpillOverflowPolicy(overflowDirectory == null ? null : new File(overflowDirectory));
+        } else {
+            return new BlockingOverflowPolicy();
+        }
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    public String getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    public void setWaitStrategy(String waitStrategy) {
+        this.waitStrategy = waitStrategy;
+    }
+
+    public ProducerType getProducerType() {
+        return producerType;
+    }
+
+    public void setProducerType(ProducerType producerType) {
+        this.producerType = producerType;
+    }
+
+    /**
+     * @return true if each publishing thread gets a single producer lane merged in to the ring buffer
+     */
+    public boolean isProducerLanes() {
+        return producerLanes;
+    }
+
+    public void setProducerLanes(boolean producerLanes) {
+        this.producerLanes = producerLanes;
+    }
+
+    /**
+     * @return order in which producer lanes are merged, fair or timestamp
+     */
+    public String getOrdering() {
+        return ordering;
+    }
+
+    public void setOrdering(String ordering) {
+        this.ordering = ordering;
+    }
+
+    public String getOverflow() {
+        return overflow;
+    }
+
+    public void setOverflow(String overflow) {
+        this.overflow = overflow;
+    }
+
+    public long getOverflowTimeout() {
+        return overflowTimeout;
+    }
+
+    public void setOverflowTimeout(long overflowTimeout) {
+        this.overflowTimeout = overflowTimeout;
+    }
+
+    public String getOverflowDirectory() {
+        return overflowDirectory;
+    }
+
+    public void setOverflowDirectory(String overflowDirectory) {
+        this.overflowDirectory = overflowDirectory;
+    }
+
+    public String getShardBy() {
+        return shardBy;
+    }
+
+    public void setShardBy(String shardBy) {
+        this.shardBy = shardBy;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public void setWorkers(int workers) {
+        this.workers = workers;
+    }
+
+    @Override
+    public String toString() {
+        return "DisruptorConfig{" +
+                "bufferSize=" + bufferSize +
+                ", waitStrategy='" + waitStrategy + '\'' +
+                ", producerType=" + producerType +
+                ", producerLanes=" + producerLanes +
+                ", ordering='" + ordering + '\'' +
+                ", overflow='" + overflow + '\'' +
+                ", overflowTimeout=" + overflowTimeout +
+                ", overflowDirectory='" + overflowDirectory + '\'' +
+                ", shardBy='" + shardBy + '\'' +
+                ", workers=" + workers +
+                '}';
+    }
+}
@@ -17,12 +17,16 @@ package org.wso2.siddhi.core.config;
 
 import org.wso2.siddhi.core.extension.EternalReferencedHolder;
 import org.wso2.siddhi.core.util.ElementIdGenerator;
+import org.wso2.siddhi.core.util.dictionary.StringDictionary;
 import org.wso2.siddhi.core.util.persistence.PersistenceService;
 import org.wso2.siddhi.core.util.snapshot.SnapshotService;
+import org.wso2.siddhi.core.util.statistics.StatisticsManager;
 import org.wso2.siddhi.core.util.timestamp.TimestampGenerator;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.locks.Lock;
@@ -45,6 +49,8 @@ public class ExecutionPlanContext {
     private TimestampGenerator timestampGenerator=null;
     private PersistenceService persistenceService;
     private ElementIdGenerator elementIdGenerator;
+    private StatisticsManager statisticsManager = null;
+    private ConcurrentMap<String, StringDictionary> stringDictionaryMap = new ConcurrentHashMap<String, StringDictionary>();
 
     public ExecutionPlanContext() {
         this.eternalReferencedHolders = new ArrayList<EternalReferencedHolder>();
@@ -102,6 +108,10 @@ public class ExecutionPlanContext {
         eternalReferencedHolders.add(eternalReferencedHolder);
     }
 
+    public void removeEternalReferencedHolder(EternalReferencedHolder eternalReferencedHolder) {
+        eternalReferencedHolders.remove(eternalReferencedHolder);
+    }
+
     public List<EternalReferencedHolder> getEternalReferencedHolders() {
         return eternalReferencedHolders;
     }
@@ -146,6 +156,17 @@ public class ExecutionPlanContext {
         return persistenceService;
     }
 
+    /**
+     * @return statistics of the execution plan, null when statistics are not enabled
+     */
+    public StatisticsManager getStatisticsManager() {
+        return statisticsManager;
+    }
+
+    public void setStatisticsManager(StatisticsManager statisticsManager) {
+        this.statisticsManager = statisticsManager;
+    }
+
     public void setElementIdGenerator(ElementIdGenerator elementIdGenerator) {
         this.elementIdGenerator = elementIdGenerator;
     }
@@ -153,4 +174,34 @@ public class ExecutionPlanContext {
     public ElementIdGenerator getElementIdGenerator() {
         return elementIdGenerator;
     }
+
+    /**
+     * Get the dictionary of a STRING attribute of a stream, creating it if it does not exist
+     *
+     * @param streamId      id of the stream
+     * @param attributeName name of the dictionary encoded attribute
+     * @return dictionary of the attribute, shared by all junctions of the stream
+     */
+    public StringDictionary addStringDictionary(String streamId, String attributeName) {
+        String key = streamId + ":" + attributeName;
+        StringDictionary stringDictionary = stringDictionaryMap.get(key);
+        if (stringDictionary == null) {
+            stringDictionary = new StringDictionary("dictionary:" + key);
+            StringDictionary existing = stringDictionaryMap.putIfAbsent(key, stringDictionary);
+            if (existing != null) {
+                return existing;
+            }
+            if (snapshotService != null) {
+                snapshotService.addSnapshotable(stringDictionary);
+            }
+        }
+        return stringDictionary;
+    }
+
+    /**
+     * @return dictionary of the attribute, or null when the attribute is not dictionary encoded
+     */
+    public StringDictionary getStringDictionary(String streamId, String attributeName) {
+        return stringDictionaryMap.get(streamId + ":" + attributeName);
+    }
 }
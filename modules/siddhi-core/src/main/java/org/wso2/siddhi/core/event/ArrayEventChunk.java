@@ -0,0 +1,363 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.event;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Array backed {@link ComplexEventChunk}, having the same iterator, insert and remove contract, with a known
+ * size, O(1) append and traversal over an array instead of the next references of the events.
+ * <p/>
+ * The events are held in a gap buffer around the iterator: the events already iterated are at the start of
+ * the array, the events yet to be iterated at the end, and the event last returned by next() in between.
+ * Hence removing or inserting around the current event does not move the other events.
+ * <p/>
+ * The next references of the events are kept consistent with their order in the chunk, such that getFirst()
+ * returns a well formed chain for the processors consuming the events as a chain.
+ *
+ * @param <E> sub types of ComplexEvent such as StreamEvent and StateEvent
+ */
+public class ArrayEventChunk<E extends ComplexEvent> extends ComplexEventChunk<E> {
+
+    private static final long serialVersionUID = 1L;
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private ComplexEvent[] events;
+    private int iterated;           //events[0, iterated) are already iterated
+    private E current;              //event last returned by next(), held outside the array
+    private int cursor;             //events[cursor, end) are yet to be iterated
+    private int end;
+
+    public ArrayEventChunk() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ArrayEventChunk(int capacity) {
+        events = new ComplexEvent[Math.max(capacity, 2)];
+    }
+
+    /**
+     * @return number of events in the chunk
+     */
+    public int size() {
+        return iterated + (current != null ? 1 : 0) + end - cursor;
+    }
+
+    /**
+     * @param index position of the event in the chunk
+     * @return the event at the given position
+     */
+    public E get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        if (index < iterated) {
+            return event(index);
+        }
+        if (current != null) {
+            if (index == iterated) {
+                return current;
+            }
+            index--;
+        }
+        return event(cursor + index - iterated);
+    }
+
+    @Override
+    public void add(E complexEvents) {
+        E lastEvent = getLast();
+        if (lastEvent != null) {
+            lastEvent.setNext(complexEvents);
+        }
+        for (ComplexEvent event = complexEvents; event != null; event = event.getNext()) {
+            if (end == events.length) {
+                makeRoomAtEnd();
+            }
+            events[end++] = event;
+        }
+    }
+
+    @Override
+    public void insertBeforeCurrent(E complexEvents) {
+        if (current == null) {
+            throw new IllegalStateException();
+        }
+        int count = makeRoomAroundCurrent(complexEvents);
+        if (iterated > 0) {
+            events[iterated - 1].setNext(complexEvents);
+        }
+        ComplexEvent event = complexEvents;
+        for (int i = 0; i < count - 1; i++) {
+            events[iterated++] = event;
+            event = event.getNext();
+        }
+        events[iterated++] = event;
+        event.setNext(current);
+    }
+
+    @Override
+    public void insertAfterCurrent(E complexEvents) {
+        if (current == null) {
+            throw new IllegalStateException();
+        }
+        int count = makeRoomAroundCurrent(complexEvents);
+        ComplexEvent nextEvent = cursor < end ? events[cursor] : null;
+        current.setNext(complexEvents);
+        cursor -= count;
+        ComplexEvent event = complexEvents;
+        for (int i = cursor; i < cursor + count - 1; i++) {
+            events[i] = event;
+            event = event.getNext();
+        }
+        events[cursor + count - 1] = event;
+        event.setNext(nextEvent);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return cursor < end;
+    }
+
+    @Override
+    public E next() {
+        if (cursor == end) {
+            throw new NoSuchElementException();
+        }
+        if (current != null) {
+            events[iterated++] = current;
+        }
+        current = event(cursor);
+        events[cursor++] = null;
+        return current;
+    }
+
+    @Override
+    public void remove() {
+        if (current == null) {
+            throw new IllegalStateException();
+        }
+        if (iterated > 0) {
+            events[iterated - 1].setNext(cursor < end ? events[cursor] : null);
+        }
+        current.setNext(null);
+        current = null;
+    }
+
+    @Override
+    public void detach() {
+        if (current == null) {
+            throw new IllegalStateException();
+        }
+        if (iterated > 0) {
+            events[iterated - 1].setNext(null);
+            for (int i = cursor; i < end; i++) {
+                events[i] = null;
+            }
+            end = cursor;
+            current = null;
+        } else {
+            clear();
+        }
+    }
+
+    @Override
+    public E detachAllBeforeCurrent() {
+        if (current == null) {
+            throw new IllegalStateException();
+        }
+        E firstEvent = null;
+        if (iterated > 0) {
+            firstEvent = event(0);
+            events[iterated - 1].setNext(null);
+            for (int i = 0; i < iterated; i++) {
+                events[i] = null;
+            }
+            iterated = 0;
+        }
+        return firstEvent;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < iterated; i++) {
+            events[i] = null;
+        }
+        for (int i = cursor; i < end; i++) {
+            events[i] = null;
+        }
+        iterated = 0;
+        current = null;
+        cursor = 0;
+        end = 0;
+    }
+
+    @Override
+    public void reset() {
+        if (current != null) {
+            events[iterated++] = current;
+            current = null;
+        }
+        closeGap(0);
+        iterated = 0;
+        cursor = 0;
+    }
+
+    @Override
+    public E getFirst() {
+        if (iterated > 0) {
+            return event(0);
+        } else if (current != null) {
+            return current;
+        } else if (cursor < end) {
+            return event(cursor);
+        }
+        return null;
+    }
+
+    @Override
+    public E getLast() {
+        if (cursor < end) {
+            return event(end - 1);
+        } else if (current != null) {
+            return current;
+        } else if (iterated > 0) {
+            return event(iterated - 1);
+        }
+        return null;
+    }
+
+    /**
+     * Keep only the events at the given positions, removing the others at once, and reset the iterator
+     *
+     * @param positions ascending positions of the events to be kept, as of get()
+     * @param count     number of positions
+     */
+    public void retain(int[] positions, int count) {
+        reset();
+        for (int i = 0; i < count; i++) {
+            events[i] = events[positions[i]];
+        }
+        for (int i = count; i < end; i++) {
+            events[i] = null;
+        }
+        end = count;
+        for (int i = 0; i < count - 1; i++) {
+            events[i].setNext(events[i + 1]);
+        }
+        if (count > 0) {
+            events[count - 1].setNext(null);
+        }
+    }
+
+    /**
+     * Copy the events of the chunk in to the given array, in their order
+     *
+     * @param target array of at least size() elements
+     */
+    public void copyTo(ComplexEvent[] target) {
+        reset();
+        System.arraycopy(events, 0, target, 0, end);
+    }
+
+    @Override
+    public E poll() {
+        E firstEvent;
+        if (iterated > 0) {
+            firstEvent = event(0);
+            System.arraycopy(events, 1, events, 0, --iterated);
+            events[iterated] = null;
+        } else if (current != null) {
+            firstEvent = current;
+            current = null;
+        } else if (cursor < end) {
+            firstEvent = event(cursor);
+            events[cursor++] = null;
+        } else {
+            return null;
+        }
+        firstEvent.setNext(null);
+        return firstEvent;
+    }
+
+    @SuppressWarnings("unchecked")
+    private E event(int index) {
+        return (E) events[index];
+    }
+
+    /**
+     * Move the events yet to be iterated to follow the iterated events, leaving the given number of slots
+     * in between
+     */
+    private void closeGap(int reserved) {
+        moveRemaining(iterated + reserved);
+    }
+
+    private void moveRemaining(int newCursor) {
+        if (newCursor == cursor) {
+            return;
+        }
+        int remaining = end - cursor;
+        System.arraycopy(events, cursor, events, newCursor, remaining);
+        if (newCursor < cursor) {
+            for (int i = Math.max(newCursor + remaining, cursor); i < end; i++) {
+                events[i] = null;
+            }
+        } else {
+            for (int i = cursor; i < Math.min(end, newCursor); i++) {
+                events[i] = null;
+            }
+        }
+        cursor = newCursor;
+        end = newCursor + remaining;
+    }
+
+    private void makeRoomAtEnd() {
+        int reserved = current != null ? 1 : 0;
+        if (iterated + reserved + end - cursor <= events.length >>> 1) {
+            closeGap(reserved);
+        } else {
+            events = Arrays.copyOf(events, events.length << 1);
+        }
+    }
+
+    /**
+     * Ensure the gap holds the given events in addition to the current event
+     *
+     * @return number of events in the given chain
+     */
+    private int makeRoomAroundCurrent(E complexEvents) {
+        int count = 0;
+        for (ComplexEvent event = complexEvents; event != null; event = event.getNext()) {
+            count++;
+        }
+        if (cursor - iterated - 1 < count) {
+            int used = iterated + 1 + count + end - cursor;
+            if (used > events.length - (events.length >>> 2)) {
+                events = Arrays.copyOf(events, Math.max(events.length << 1, used << 1));
+            }
+            moveRemaining(events.length - (end - cursor));
+        }
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return "ArrayEventChunk{" +
+                "size=" + size() +
+                ", first=" + getFirst() +
+                '}';
+    }
+}
@@ -0,0 +1,273 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.siddhi.core.event;
+
+import org.wso2.siddhi.core.event.stream.StreamEvent;
+import org.wso2.siddhi.query.api.definition.AbstractDefinition;
+import org.wso2.siddhi.query.api.definition.Attribute;
+
+import java.lang.reflect.Array;
+import java.util.List;
+
+/**
+ * Column oriented batch of events used external to Siddhi. Each attribute of the
+ * stream definition is held in an array of its own type, i.e. int[], long[], float[],
+ * double[], boolean[], String[] or Object[], and row i of every column forms the i-th event.
+ * <p/>
+ * Column arrays are referred, not copied, hence they should not be modified after the
+ * batch is sent to Siddhi. Columns may be longer than the batch, such that they can be reused
+ * for batches of different sizes, the rows past size() are ignored.
+ */
+public class ColumnBatch {
+
+    private final Attribute.Type[] types;
+    private final Object[] columns;
+    private int size;
+
+    /**
+     * Create a batch without columns, columns are expected to be set via setColumn(). The size of
+     * the batch is 0 until it is set via setSize().
+     *
+     * @param definition definition of the stream the batch is sent to
+     */
+    public ColumnBatch(AbstractDefinition definition) {
+        List<Attribute> attributeList = definition.getAttributeList();
+        types = new Attribute.Type[attributeList.size()];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = attributeList.get(i).getType();
+        }
+        columns = new Object[types.length];
+    }
+
+    /**
+     * Create a batch having columns of the given capacity. The size of the batch is 0 until it is
+     * set via setSize().
+     *
+     * @param definition definition of the stream the batch is sent to
+     * @param capacity   number of rows each column can hold
+     */
+    public ColumnBatch(AbstractDefinition definition, int capacity) {
+        this(definition);
+        for (int i = 0; i < types.length; i++) {
+            switch (types[i]) {
+                case INT:
+                    columns[i] = new int[capacity];
+                    break;
+                case LONG:
+                    columns[i] = new long[capacity];
+                    break;
+                case FLOAT:
+                    columns[i] = new float[capacity];
+                    break;
+                case DOUBLE:
+                    columns[i] = new double[capacity];
+                    break;
+                case BOOL:
+                    columns[i] = new boolean[capacity];
+                    break;
+                case STRING:
+                    columns[i] = new String[capacity];
+                    break;
+                default:
+                    columns[i] = new Object[capacity];
+            }
+        }
+    }
+
+    /**
+     * Create a batch referring to the columns of the given batch, such that columns can be replaced
+     * without modifying the given batch
+     *
+     * @param columnBatch batch whose columns are referred
+     */
+    public ColumnBatch(ColumnBatch columnBatch) {
+        types = columnBatch.types;
+        columns = columnBatch.columns.clone();
+        size = columnBatch.size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    /**
+     * Check that the timestamps and every column hold a value for each event of the batch
+     *
+     * @param timeStamps timestamps the batch is sent with
+     * @throws IllegalArgumentException if the timestamps or a column are missing or shorter than the batch
+     */
+    public void validate(long[] timeStamps) {
+        if (timeStamps == null || timeStamps.length < size) {
+            throw new IllegalArgumentException("Column batch of " + size + " events is sent with " +
+                    (timeStamps == null ? "no" : String.valueOf(timeStamps.length)) + " timestamps");
+        }
+        for (int i = 0; i < columns.length; i++) {
+            int length = columns[i] == null ? -1 : Array.getLength(columns[i]);
+            if (length < size) {
+                throw new IllegalArgumentException("Column " + i + " of a column batch of " + size + " events " +
+                        (length < 0 ? "is not set" : "holds only " + length + " values"));
+            }
+        }
+    }
+
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    public Attribute.Type getType(int attributeIndex) {
+        return types[attributeIndex];
+    }
+
+    public void setColumn(int attributeIndex, int[] values) {
+        validateType(attributeIndex, Attribute.Type.INT);
+        columns[attributeIndex] = values;
+    }
+
+    public void setColumn(int attributeIndex, long[] values) {
+        validateType(attributeIndex, Attribute.Type.LONG);
+        columns[attributeIndex] = values;
+    }
+
+    public void setColumn(int attributeIndex, float[] values) {
+        validateType(attributeIndex, Attribute.Type.FLOAT);
+        columns[attributeIndex] = values;
+    }
+
+    public void setColumn(int attributeIndex, double[] values) {
+        validateType(attributeIndex, Attribute.Type.DOUBLE);
+        columns[attributeIndex] = values;
+    }
+
+    public void setColumn(int attributeIndex, boolean[] values) {
+        validateType(attributeIndex, Attribute.Type.BOOL);
+        columns[attributeIndex] = values;
+    }
+
+    public void setColumn(int attributeIndex, String[] values) {
+        validateType(attributeIndex, Attribute.Type.STRING);
+        columns[attributeIndex] = values;
+    }
+
+    public void setColumn(int attributeIndex, Object[] values) {
+        validateType(attributeIndex, Attribute.Type.OBJECT);
+        columns[attributeIndex] = values;
+    }
+
+    public int[] getIntColumn(int attributeIndex) {
+        return (int[]) columns[attributeIndex];
+    }
+
+    public long[] getLongColumn(int attributeIndex) {
+        return (long[]) columns[attributeIndex];
+    }
+
+    public float[] getFloatColumn(int attributeIndex) {
+        return (float[]) columns[attributeIndex];
+    }
+
+    public double[] getDoubleColumn(int attributeIndex) {
+        return (double[]) columns[attributeIndex];
+    }
+
+    public boolean[] getBoolColumn(int attributeIndex) {
+        return (boolean[]) columns[attributeIndex];
+    }
+
+    public String[] getStringColumn(int attributeIndex) {
+        return (String[]) columns[attributeIndex];
+    }
+
+    public Object[] getObjectColumn(int attributeIndex) {
+        return (Object[]) columns[attributeIndex];
+    }
+
+    /**
+     * @param attributeIndex position of the attribute in the stream definition
+     * @param row            position of the event in the batch
+     * @return the value of the attribute for the given event
+     */
+    public Object getValue(int attributeIndex, int row) {
+        switch (types[attributeIndex]) {
+            case INT:
+                return ((int[]) columns[attributeIndex])[row];
+            case LONG:
+                return ((long[]) columns[attributeIndex])[row];
+            case FLOAT:
+                return ((float[]) columns[attributeIndex])[row];
+            case DOUBLE:
+                return ((double[]) columns[attributeIndex])[row];
+            case BOOL:
+                return ((boolean[]) columns[attributeIndex])[row];
+            default:
+                return ((Object[]) columns[attributeIndex])[row];
+        }
+    }
+
+    /**
+     * Copy an attribute of an event in to the given StreamEvent through its typed mutators, such that
+     * primitive attributes are not boxed when the StreamEvent holds them in primitive form
+     *
+     * @param attributeIndex     position of the attribute in the stream definition
+     * @param row                position of the event in the batch
+     * @param streamEvent        event to be populated
+     * @param attributeTypeIndex BEFORE_WINDOW_DATA_INDEX, ON_AFTER_WINDOW_DATA_INDEX or OUTPUT_DATA_INDEX
+     * @param index              position of the attribute in the StreamEvent
+     */
+    public void copyValue(int attributeIndex, int row, StreamEvent streamEvent, int attributeTypeIndex, int index) {
+        switch (types[attributeIndex]) {
+            case INT:
+                streamEvent.setIntData(attributeTypeIndex, index, ((int[]) columns[attributeIndex])[row]);
+                break;
+            case LONG:
+                streamEvent.setLongData(attributeTypeIndex, index, ((long[]) columns[attributeIndex])[row]);
+                break;
+            case FLOAT:
+                streamEvent.setFloatData(attributeTypeIndex, index, ((float[]) columns[attributeIndex])[row]);
+                break;
+            case DOUBLE:
+                streamEvent.setDoubleData(attributeTypeIndex, index, ((double[]) columns[attributeIndex])[row]);
+                break;
+            case BOOL:
+                streamEvent.setBoolData(attributeTypeIndex, index, ((boolean[]) columns[attributeIndex])[row]);
+                break;
+            default:
+                streamEvent.setData(attributeTypeIndex, index, ((Object[]) columns[attributeIndex])[row]);
+        }
+    }
+
+    /**
+     * Copy all attributes of an event in to the given data array
+     *
+     * @param row  position of the event in the batch
+     * @param data array to be populated
+     */
+    public void copyRow(int row, Object[] data) {
+        for (int i = 0; i < columns.length; i++) {
+            data[i] = getValue(i, row);
+        }
+    }
+
+    private void validateType(int attributeIndex, Attribute.Type type) {
+        if (types[attributeIndex] != type) {
+            throw new IllegalArgumentException("Attribute at " + attributeIndex + " is of type " +
+                    types[attributeIndex] + ", but column of type " + type + " is given");
+        }
+    }
+}
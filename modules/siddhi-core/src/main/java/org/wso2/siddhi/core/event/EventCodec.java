@@ -0,0 +1,388 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package org.wso2.siddhi.core.event;
+
+import org.wso2.siddhi.core.util.snapshot.ByteSerializer;
+import org.wso2.siddhi.query.api.definition.AbstractDefinition;
+import org.wso2.siddhi.query.api.definition.Attribute;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.List;
+
+/**
+ * Compact binary format of the events of a stream, derived from the attribute types of its definition.
+ * An encoded event is laid out as
+ * <pre>
+ * timestamp (long) | flags (byte) | null bitmap (1 bit per attribute) | non null attribute values
+ * </pre>
+ * where int, long, float, double and bool values take 4, 8, 4, 8 and 1 bytes, strings are written as
+ * an int length followed by UTF-8 bytes, and objects as an int length followed by their Java serialized
+ * form. Byte order is the order of the given ByteBuffer.
+ * <p/>
+ * EventCodec holds no state other than the types, hence it can be shared across threads.
+ */
+public class EventCodec {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final byte EXPIRED_FLAG = 1;
+    private final Attribute.Type[] types;
+    private final int bitmapSize;
+
+    public EventCodec(AbstractDefinition definition) {
+        List<Attribute> attributeList = definition.getAttributeList();
+        types = new Attribute.Type[attributeList.size()];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = attributeList.get(i).getType();
+        }
+        bitmapSize = (types.length + 7) >>> 3;
+    }
+
+    public int getAttributeCount() {
+        return types.length;
+    }
+
+    public void encode(Event event, ByteBuffer buffer) {
+        encode(event.getTimestamp(), event.isExpired(), event.getData(), buffer);
+    }
+
+    public void encode(Event[] events, ByteBuffer buffer) {
+        for (Event event : events) {
+            encode(event.getTimestamp(), event.isExpired(), event.getData(), buffer);
+        }
+    }
+
+    public void encode(ComplexEvent complexEvent, ByteBuffer buffer) {
+        encode(complexEvent.getTimestamp(), complexEvent.getType() == ComplexEvent.Type.EXPIRED,
+                complexEvent.getOutputData(), buffer);
+    }
+
+    /**
+     * Write an event at the current position of the buffer
+     *
+     * @param timeStamp timestamp of the event
+     * @param expired   whether the event is an expired event
+     * @param data      attribute values, in the order of the definition
+     * @param buffer    buffer to write to
+     * @throws java.nio.BufferOverflowException if the buffer does not have encodedSize() bytes remaining
+     */
+    public void encode(long timeStamp, boolean expired, Object[] data, ByteBuffer buffer) {
+        encode(timeStamp, expired, data, null, buffer);
+    }
+
+    /**
+     * Write an event at the current position of the buffer, taking the serialized form of its OBJECT values
+     * from encodedSize(Object[], byte[][]), so that they are not serialized again
+     *
+     * @param timeStamp timestamp of the event
+     * @param expired   whether the event is an expired event
+     * @param data      attribute values, in the order of the definition
+     * @param objects   serialized OBJECT values as given by encodedSize(), or null to serialize them here
+     * @param buffer    buffer to write to
+     * @throws java.nio.BufferOverflowException if the buffer does not have encodedSize() bytes remaining
+     */
+    public void encode(long timeStamp, boolean expired, Object[] data, byte[][] objects, ByteBuffer buffer) {
+        buffer.putLong(timeStamp);
+        buffer.put(expired ? EXPIRED_FLAG : 0);
+        int bitmapPosition = buffer.position();
+        for (int i = 0; i < bitmapSize; i++) {
+            buffer.put((byte) 0);
+        }
+        for (int i = 0; i < types.length; i++) {
+            Object value = data[i];
+            if (value == null) {
+                int index = bitmapPosition + (i >>> 3);
+                buffer.put(index, (byte) (buffer.get(index) | (1 << (i & 7))));
+                continue;
+            }
+            switch (types[i]) {
+                case INT:
+                    buffer.putInt((Integer) value);
+                    break;
+                case LONG:
+                    buffer.putLong((Long) value);
+                    break;
+                case FLOAT:
+                    buffer.putFloat((Float) value);
+                    break;
+                case DOUBLE:
+                    buffer.putDouble((Double) value);
+                    break;
+                case BOOL:
+                    buffer.put((Boolean) value ? (byte) 1 : 0);
+                    break;
+                case STRING:
+                    putString((String) value, buffer);
+                    break;
+                default:
+                    byte[] bytes = objects != null ? objects[i] : ByteSerializer.OToB(value);
+                    buffer.putInt(bytes.length);
+                    buffer.put(bytes);
+            }
+        }
+    }
+
+    /**
+     * @param data attribute values, in the order of the definition
+     * @return number of bytes needed to encode an event with the given values
+     */
+    public int encodedSize(Object[] data) {
+        return encodedSize(data, null);
+    }
+
+    /**
+     * Measure an event, keeping the serialized form of its OBJECT values to be written by
+     * encode(long, boolean, Object[], byte[][], ByteBuffer)
+     *
+     * @param data    attribute values, in the order of the definition
+     * @param objects array of getAttributeCount() elements to hold the serialized OBJECT values, or null
+     * @return number of bytes needed to encode an event with the given values
+     */
+    public int encodedSize(Object[] data, byte[][] objects) {
+        int size = 9 + bitmapSize;
+        for (int i = 0; i < types.length; i++) {
+            Object value = data[i];
+            if (value == null) {
+                continue;
+            }
+            switch (types[i]) {
+                case INT:
+                case FLOAT:
+                    size += 4;
+                    break;
+                case LONG:
+                case DOUBLE:
+                    size += 8;
+                    break;
+                case BOOL:
+                    size += 1;
+                    break;
+                case STRING:
+                    size += 4 + utf8Length((String) value);
+                    break;
+                default:
+                    byte[] bytes = ByteSerializer.OToB(value);
+                    if (objects != null) {
+                        objects[i] = bytes;
+                    }
+                    size += 4 + bytes.length;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Measure the event at the current position of the buffer without decoding it, the position is not changed
+     *
+     * @param buffer buffer holding an encoded event at its position
+     * @return number of bytes taken by the event
+     * @throws IllegalArgumentException if the event does not end within the limit of the buffer
+     */
+    public int encodedLength(ByteBuffer buffer) {
+        int end = end(buffer, buffer.position());
+        if (end < 0) {
+            throw new IllegalArgumentException("Event encoded at " + buffer.position() + " is truncated by the " +
+                    "limit " + buffer.limit() + " of the buffer");
+        }
+        return end - buffer.position();
+    }
+
+    /**
+     * Count the events between the position and the limit of the buffer without decoding them, checking that
+     * each of them is complete, the position is not changed
+     *
+     * @param buffer buffer holding encoded events from its position to its limit
+     * @return number of events in the buffer
+     * @throws IllegalArgumentException if the last event does not end at the limit of the buffer
+     */
+    public int countEvents(ByteBuffer buffer) {
+        int count = 0;
+        for (int position = buffer.position(); position < buffer.limit(); count++) {
+            int end = end(buffer, position);
+            if (end < 0) {
+                throw new IllegalArgumentException("Event " + count + " encoded at " + position + " is truncated " +
+                        "by the limit " + buffer.limit() + " of the buffer");
+            }
+            position = end;
+        }
+        return count;
+    }
+
+    /**
+     * @return position at which the event encoded at the given position ends, or -1 if it does not end within
+     * the limit of the buffer
+     */
+    private int end(ByteBuffer buffer, int position) {
+        int limit = buffer.limit();
+        int bitmapPosition = position + 9;
+        position = bitmapPosition + bitmapSize;
+        if (position > limit) {
+            return -1;
+        }
+        for (int i = 0; i < types.length; i++) {
+            if ((buffer.get(bitmapPosition + (i >>> 3)) & (1 << (i & 7))) != 0) {
+                continue;
+            }
+            switch (types[i]) {
+                case INT:
+                case FLOAT:
+                    position += 4;
+                    break;
+                case LONG:
+                case DOUBLE:
+                    position += 8;
+                    break;
+                case BOOL:
+                    position += 1;
+                    break;
+                default:
+                    if (position > limit - 4) {
+                        return -1;
+                    }
+                    int length = buffer.getInt(position);
+                    if (length < 0 || length > limit - position - 4) {
+                        return -1;
+                    }
+                    position += 4 + length;
+            }
+            if (position > limit) {
+                return -1;
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Read the event at the current position of the buffer
+     *
+     * @param buffer buffer to read from
+     * @param event  event to be populated, having at least getAttributeCount() data slots
+     * @return the given event
+     */
+    public Event decode(ByteBuffer buffer, Event event) {
+        event.setTimestamp(buffer.getLong());
+        event.setIsExpired((buffer.get() & EXPIRED_FLAG) != 0);
+        decodeData(buffer, event.getData());
+        return event;
+    }
+
+    /**
+     * Read the event at the current position of the buffer in to the given data array
+     *
+     * @param buffer buffer to read from
+     * @param data   array to be populated with the attribute values
+     * @return timestamp of the event
+     */
+    public long decode(ByteBuffer buffer, Object[] data) {
+        long timeStamp = buffer.getLong();
+        buffer.get();
+        decodeData(buffer, data);
+        return timeStamp;
+    }
+
+    private void decodeData(ByteBuffer buffer, Object[] data) {
+        int bitmapPosition = buffer.position();
+        buffer.position(bitmapPosition + bitmapSize);
+        for (int i = 0; i < types.length; i++) {
+            if ((buffer.get(bitmapPosition + (i >>> 3)) & (1 << (i & 7))) != 0) {
+                data[i] = null;
+                continue;
+            }
+            switch (types[i]) {
+                case INT:
+                    data[i] = buffer.getInt();
+                    break;
+                case LONG:
+                    data[i] = buffer.getLong();
+                    break;
+                case FLOAT:
+                    data[i] = buffer.getFloat();
+                    break;
+                case DOUBLE:
+                    data[i] = buffer.getDouble();
+                    break;
+                case BOOL:
+                    data[i] = buffer.get() != 0;
+                    break;
+                case STRING:
+                    data[i] = getString(buffer);
+                    break;
+                default:
+                    byte[] bytes = new byte[buffer.getInt()];
+                    buffer.get(bytes);
+                    data[i] = ByteSerializer.BToO(bytes);
+            }
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (buffer.hasArray()) {
+            int position = buffer.position();
+            buffer.position(position + length);
+            return new String(buffer.array(), buffer.arrayOffset() + position, length, UTF_8);
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    private static void putString(String value, ByteBuffer buffer) {
+        buffer.putInt(utf8Length(value));
+        for (int i = 0, length = value.length(); i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xC0 | (c >> 6)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer.put((byte) (0xF0 | (codePoint >> 18)));
+                buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+            } else if (c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE) {
+                buffer.put((byte) '?');
+            } else {
+                buffer.put((byte) (0xE0 | (c >> 12)));
+                buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+    }
+
+    private static int utf8Length(String value) {
+        int size = 0;
+        for (int i = 0, length = value.length(); i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                size += 1;
+            } else if (c < 0x800) {
+                size += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                size += 4;
+                i++;
+            } else if (c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE) {
+                size += 1;
+            } else {
+                size += 3;
+            }
+        }
+        return size;
+    }
+}
@@ -36,6 +36,7 @@ public class MetaStreamEvent implements MetaComplexEvent {
     private String inputReferenceId;
     private StreamDefinition outputStreamDefinition;
     private boolean tableEvent = false;
+    private boolean primitiveLayout = false;
 
     public List<Attribute> getBeforeWindowData() {
         return beforeWindowData;
@@ -126,6 +127,17 @@ public class MetaStreamEvent implements MetaComplexEvent {
         this.tableEvent = tableEvent;
     }
 
+    /**
+     * @return whether the events are to be created with a {@link StreamEventLayout}, when the attributes permit
+     */
+    public boolean isPrimitiveLayout() {
+        return primitiveLayout;
+    }
+
+    public void setPrimitiveLayout(boolean primitiveLayout) {
+        this.primitiveLayout = primitiveLayout;
+    }
+
     public AbstractDefinition getLastInputDefinition() {
         return inputDefinitions.get(inputDefinitions.size() - 1);
     }
@@ -0,0 +1,433 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.event.stream;
+
+import org.wso2.siddhi.query.api.definition.Attribute;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+import static org.wso2.siddhi.core.util.SiddhiConstants.*;
+
+/**
+ * StreamEvent holding its beforeWindowData and onAfterWindowData in primitive arrays as given by a
+ * {@link StreamEventLayout}, such that numeric attributes are neither boxed when set nor unboxed
+ * when read through the typed accessors. OutputData is kept as Object[] as it is handed over to the
+ * callbacks as it is.
+ * <p/>
+ * getBeforeWindowData() and getOnAfterWindowData() return boxed copies, hence the arrays returned
+ * by them should not be modified expecting the event to change.
+ */
+public class PrimitiveStreamEvent extends StreamEvent {
+
+    private static final long serialVersionUID = 1L;
+
+    private final StreamEventLayout layout;
+    private final Slots beforeWindowSlots;
+    private final Slots onAfterWindowSlots;
+
+    public PrimitiveStreamEvent(StreamEventLayout layout, int outputDataSize) {
+        super(0, 0, outputDataSize);
+        this.layout = layout;
+        this.beforeWindowSlots = new Slots(layout.getBeforeWindowData());
+        this.onAfterWindowSlots = new Slots(layout.getOnAfterWindowData());
+    }
+
+    public StreamEventLayout getLayout() {
+        return layout;
+    }
+
+    @Override
+    public Object[] getBeforeWindowData() {
+        return beforeWindowSlots.toArray(layout.getBeforeWindowData());
+    }
+
+    @Override
+    public void setBeforeWindowData(Object[] beforeWindowData) {
+        beforeWindowSlots.setAll(layout.getBeforeWindowData(), beforeWindowData);
+    }
+
+    @Override
+    public Object[] getOnAfterWindowData() {
+        return onAfterWindowSlots.toArray(layout.getOnAfterWindowData());
+    }
+
+    @Override
+    public void setOnAfterWindowData(Object[] onAfterWindowData) {
+        onAfterWindowSlots.setAll(layout.getOnAfterWindowData(), onAfterWindowData);
+    }
+
+    @Override
+    public void setBeforeWindowData(Object object, int index) {
+        beforeWindowSlots.set(layout.getBeforeWindowData(), index, object);
+    }
+
+    @Override
+    public void setOnAfterWindowData(Object object, int index) {
+        onAfterWindowSlots.set(layout.getOnAfterWindowData(), index, object);
+    }
+
+    @Override
+    public Object getAttribute(int[] position) {
+        switch (position[STREAM_ATTRIBUTE_TYPE_INDEX]) {
+            case BEFORE_WINDOW_DATA_INDEX:
+                return beforeWindowSlots.get(layout.getBeforeWindowData(), position[STREAM_ATTRIBUTE_INDEX]);
+            case ON_AFTER_WINDOW_DATA_INDEX:
+                return onAfterWindowSlots.get(layout.getOnAfterWindowData(), position[STREAM_ATTRIBUTE_INDEX]);
+            default:
+                return super.getAttribute(position);
+        }
+    }
+
+    @Override
+    public int getIntAttribute(int[] position) {
+        int attributeTypeIndex = position[STREAM_ATTRIBUTE_TYPE_INDEX];
+        if (attributeTypeIndex == OUTPUT_DATA_INDEX) {
+            return super.getIntAttribute(position);
+        }
+        int index = position[STREAM_ATTRIBUTE_INDEX];
+        StreamEventLayout.Section section = section(attributeTypeIndex);
+        Slots slots = slots(attributeTypeIndex);
+        if (slots.isNull(index)) {
+            return 0;
+        }
+        switch (section.getType(index)) {
+            case INT:
+                return slots.ints[section.getSlotIndex(index)];
+            case LONG:
+                return (int) slots.longs[section.getSlotIndex(index)];
+            case FLOAT:
+            case DOUBLE:
+                return (int) slots.doubles[section.getSlotIndex(index)];
+            default:
+                return super.getIntAttribute(position);
+        }
+    }
+
+    @Override
+    public long getLongAttribute(int[] position) {
+        int attributeTypeIndex = position[STREAM_ATTRIBUTE_TYPE_INDEX];
+        if (attributeTypeIndex == OUTPUT_DATA_INDEX) {
+            return super.getLongAttribute(position);
+        }
+        int index = position[STREAM_ATTRIBUTE_INDEX];
+        StreamEventLayout.Section section = section(attributeTypeIndex);
+        Slots slots = slots(attributeTypeIndex);
+        if (slots.isNull(index)) {
+            return 0L;
+        }
+        switch (section.getType(index)) {
+            case INT:
+                return slots.ints[section.getSlotIndex(index)];
+            case LONG:
+                return slots.longs[section.getSlotIndex(index)];
+            case FLOAT:
+            case DOUBLE:
+                return (long) slots.doubles[section.getSlotIndex(index)];
+            default:
+                return super.getLongAttribute(position);
+        }
+    }
+
+    @Override
+    public double getDoubleAttribute(int[] position) {
+        int attributeTypeIndex = position[STREAM_ATTRIBUTE_TYPE_INDEX];
+        if (attributeTypeIndex == OUTPUT_DATA_INDEX) {
+            return super.getDoubleAttribute(position);
+        }
+        int index = position[STREAM_ATTRIBUTE_INDEX];
+        StreamEventLayout.Section section = section(attributeTypeIndex);
+        Slots slots = slots(attributeTypeIndex);
+        if (slots.isNull(index)) {
+            return 0D;
+        }
+        switch (section.getType(index)) {
+            case INT:
+                return slots.ints[section.getSlotIndex(index)];
+            case LONG:
+                return slots.longs[section.getSlotIndex(index)];
+            case FLOAT:
+            case DOUBLE:
+                return slots.doubles[section.getSlotIndex(index)];
+            default:
+                return super.getDoubleAttribute(position);
+        }
+    }
+
+    @Override
+    public boolean getBoolAttribute(int[] position) {
+        int attributeTypeIndex = position[STREAM_ATTRIBUTE_TYPE_INDEX];
+        if (attributeTypeIndex == OUTPUT_DATA_INDEX) {
+            return super.getBoolAttribute(position);
+        }
+        int index = position[STREAM_ATTRIBUTE_INDEX];
+        StreamEventLayout.Section section = section(attributeTypeIndex);
+        Slots slots = slots(attributeTypeIndex);
+        if (section.getType(index) != Attribute.Type.BOOL) {
+            return super.getBoolAttribute(position);
+        }
+        return !slots.isNull(index) && slots.ints[section.getSlotIndex(index)] != 0;
+    }
+
+    @Override
+    public boolean isNullAttribute(int[] position) {
+        int attributeTypeIndex = position[STREAM_ATTRIBUTE_TYPE_INDEX];
+        if (attributeTypeIndex == OUTPUT_DATA_INDEX) {
+            return super.isNullAttribute(position);
+        }
+        return slots(attributeTypeIndex).isNull(position[STREAM_ATTRIBUTE_INDEX]);
+    }
+
+    @Override
+    public void setIntData(int attributeTypeIndex, int index, int value) {
+        if (attributeTypeIndex != OUTPUT_DATA_INDEX &&
+                section(attributeTypeIndex).getType(index) == Attribute.Type.INT) {
+            Slots slots = slots(attributeTypeIndex);
+            slots.ints[section(attributeTypeIndex).getSlotIndex(index)] = value;
+            slots.setNotNull(index);
+        } else {
+            super.setIntData(attributeTypeIndex, index, value);
+        }
+    }
+
+    @Override
+    public void setLongData(int attributeTypeIndex, int index, long value) {
+        if (attributeTypeIndex != OUTPUT_DATA_INDEX &&
+                section(attributeTypeIndex).getType(index) == Attribute.Type.LONG) {
+            Slots slots = slots(attributeTypeIndex);
+            slots.longs[section(attributeTypeIndex).getSlotIndex(index)] = value;
+            slots.setNotNull(index);
+        } else {
+            super.setLongData(attributeTypeIndex, index, value);
+        }
+    }
+
+    @Override
+    public void setFloatData(int attributeTypeIndex, int index, float value) {
+        if (attributeTypeIndex != OUTPUT_DATA_INDEX &&
+                section(attributeTypeIndex).getType(index) == Attribute.Type.FLOAT) {
+            Slots slots = slots(attributeTypeIndex);
+            slots.doubles[section(attributeTypeIndex).getSlotIndex(index)] = value;
+            slots.setNotNull(index);
+        } else {
+            super.setFloatData(attributeTypeIndex, index, value);
+        }
+    }
+
+    @Override
+    public void setDoubleData(int attributeTypeIndex, int index, double value) {
+        if (attributeTypeIndex != OUTPUT_DATA_INDEX &&
+                section(attributeTypeIndex).getType(index) == Attribute.Type.DOUBLE) {
+            Slots slots = slots(attributeTypeIndex);
+            slots.doubles[section(attributeTypeIndex).getSlotIndex(index)] = value;
+            slots.setNotNull(index);
+        } else {
+            super.setDoubleData(attributeTypeIndex, index, value);
+        }
+    }
+
+    @Override
+    public void setBoolData(int attributeTypeIndex, int index, boolean value) {
+        if (attributeTypeIndex != OUTPUT_DATA_INDEX &&
+                section(attributeTypeIndex).getType(index) == Attribute.Type.BOOL) {
+            Slots slots = slots(attributeTypeIndex);
+            slots.ints[section(attributeTypeIndex).getSlotIndex(index)] = value ? 1 : 0;
+            slots.setNotNull(index);
+        } else {
+            super.setBoolData(attributeTypeIndex, index, value);
+        }
+    }
+
+    /**
+     * Copy the attributes of an event having the same layout, without boxing them
+     *
+     * @param streamEvent event to copy from
+     */
+    public void copyFrom(PrimitiveStreamEvent streamEvent) {
+        beforeWindowSlots.copyFrom(streamEvent.beforeWindowSlots);
+        onAfterWindowSlots.copyFrom(streamEvent.onAfterWindowSlots);
+        if (outputData != null) {
+            System.arraycopy(streamEvent.outputData, 0, outputData, 0, outputData.length);
+        }
+    }
+
+    private StreamEventLayout.Section section(int attributeTypeIndex) {
+        switch (attributeTypeIndex) {
+            case BEFORE_WINDOW_DATA_INDEX:
+                return layout.getBeforeWindowData();
+            case ON_AFTER_WINDOW_DATA_INDEX:
+                return layout.getOnAfterWindowData();
+            default:
+                throw new IllegalStateException("STREAM_ATTRIBUTE_TYPE_INDEX cannot be " + attributeTypeIndex);
+        }
+    }
+
+    private Slots slots(int attributeTypeIndex) {
+        return attributeTypeIndex == BEFORE_WINDOW_DATA_INDEX ? beforeWindowSlots : onAfterWindowSlots;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof StreamEvent)) return false;
+
+        StreamEvent event = (StreamEvent) o;
+
+        if (type != event.getType()) return false;
+        if (timestamp != event.getTimestamp()) return false;
+        if (!Arrays.equals(getBeforeWindowData(), event.getBeforeWindowData())) return false;
+        if (!Arrays.equals(getOnAfterWindowData(), event.getOnAfterWindowData())) return false;
+        if (!Arrays.equals(outputData, event.getOutputData())) return false;
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = (int) (timestamp ^ (timestamp >>> 32));
+        result = 31 * result + (beforeWindowSlots.size > 0 ? Arrays.hashCode(getBeforeWindowData()) : 0);
+        result = 31 * result + (onAfterWindowSlots.size > 0 ? Arrays.hashCode(getOnAfterWindowData()) : 0);
+        result = 31 * result + (outputData != null ? Arrays.hashCode(outputData) : 0);
+        result = 31 * result + type.hashCode();
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("PrimitiveStreamEvent{");
+        sb.append("timestamp=").append(timestamp);
+        sb.append(", beforeWindowData=").append(Arrays.asList(getBeforeWindowData()).toString());
+        sb.append(", onAfterWindowData=").append(Arrays.asList(getOnAfterWindowData()).toString());
+        sb.append(", outputData=").append(outputData == null ? "null" : Arrays.asList(outputData).toString());
+        sb.append(", type=").append(type);
+        sb.append(", next=").append(getNext());
+        sb.append('}');
+        return sb.toString();
+    }
+
+    /**
+     * Primitive storage of a section of the event
+     */
+    private static class Slots implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int size;
+        private final int[] ints;
+        private final long[] longs;
+        private final double[] doubles;
+        private final Object[] objects;
+        private long nulls;         //bit i is set when the i-th attribute is null
+
+        private Slots(StreamEventLayout.Section section) {
+            size = section.size();
+            ints = new int[section.getIntCount()];
+            longs = new long[section.getLongCount()];
+            doubles = new double[section.getDoubleCount()];
+            objects = new Object[section.getObjectCount()];
+            nulls = size == 0 ? 0L : -1L >>> (64 - size);
+        }
+
+        private boolean isNull(int index) {
+            return (nulls & (1L << index)) != 0;
+        }
+
+        private void setNotNull(int index) {
+            nulls &= ~(1L << index);
+        }
+
+        private Object get(StreamEventLayout.Section section, int index) {
+            if (isNull(index)) {
+                return null;
+            }
+            int slot = section.getSlotIndex(index);
+            switch (section.getType(index)) {
+                case INT:
+                    return ints[slot];
+                case BOOL:
+                    return ints[slot] != 0;
+                case LONG:
+                    return longs[slot];
+                case FLOAT:
+                    return (float) doubles[slot];
+                case DOUBLE:
+                    return doubles[slot];
+                default:
+                    return objects[slot];
+            }
+        }
+
+        private void set(StreamEventLayout.Section section, int index, Object value) {
+            int slot = section.getSlotIndex(index);
+            if (value == null) {
+                nulls |= 1L << index;
+                if (objects.length > 0 && isObject(section, index)) {
+                    objects[slot] = null;
+                }
+                return;
+            }
+            switch (section.getType(index)) {
+                case INT:
+                    ints[slot] = ((Number) value).intValue();
+                    break;
+                case BOOL:
+                    ints[slot] = (Boolean) value ? 1 : 0;
+                    break;
+                case LONG:
+                    longs[slot] = ((Number) value).longValue();
+                    break;
+                case FLOAT:
+                case DOUBLE:
+                    doubles[slot] = ((Number) value).doubleValue();
+                    break;
+                default:
+                    objects[slot] = value;
+            }
+            setNotNull(index);
+        }
+
+        private static boolean isObject(StreamEventLayout.Section section, int index) {
+            switch (section.getType(index)) {
+                case STRING:
+                case OBJECT:
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        private Object[] toArray(StreamEventLayout.Section section) {
+            Object[] data = new Object[size];
+            for (int i = 0; i < size; i++) {
+                data[i] = get(section, i);
+            }
+            return data;
+        }
+
+        private void setAll(StreamEventLayout.Section section, Object[] data) {
+            for (int i = 0; i < size; i++) {
+                set(section, i, data == null ? null : data[i]);
+            }
+        }
+
+        private void copyFrom(Slots slots) {
+            System.arraycopy(slots.ints, 0, ints, 0, ints.length);
+            System.arraycopy(slots.longs, 0, longs, 0, longs.length);
+            System.arraycopy(slots.doubles, 0, doubles, 0, doubles.length);
+            System.arraycopy(slots.objects, 0, objects, 0, objects.length);
+            nulls = slots.nulls;
+        }
+    }
+}
@@ -140,6 +140,85 @@ public class StreamEvent implements ComplexEvent {
         this.beforeWindowData[index] = object;
     }
 
+    /**
+     * Typed accessors of the attributes, a null attribute is read as 0 or false. Overridden by
+     * {@link PrimitiveStreamEvent} to read the attributes without boxing.
+     *
+     * @param position int array of 4 elements, as of getAttribute()
+     * @return value of the attribute
+     */
+    public int getIntAttribute(int[] position) {
+        Object value = getAttribute(position);
+        return value == null ? 0 : ((Number) value).intValue();
+    }
+
+    public long getLongAttribute(int[] position) {
+        Object value = getAttribute(position);
+        return value == null ? 0L : ((Number) value).longValue();
+    }
+
+    public double getDoubleAttribute(int[] position) {
+        Object value = getAttribute(position);
+        return value == null ? 0D : ((Number) value).doubleValue();
+    }
+
+    public boolean getBoolAttribute(int[] position) {
+        Object value = getAttribute(position);
+        return value != null && (Boolean) value;
+    }
+
+    /**
+     * @param position int array of 4 elements, as of getAttribute()
+     * @return whether the attribute is null, such that a typed accessor reading it returns 0 or false
+     */
+    public boolean isNullAttribute(int[] position) {
+        return getAttribute(position) == null;
+    }
+
+    /**
+     * Typed mutators of the attributes, overridden by {@link PrimitiveStreamEvent} to store
+     * the values without boxing.
+     *
+     * @param attributeTypeIndex BEFORE_WINDOW_DATA_INDEX, ON_AFTER_WINDOW_DATA_INDEX or OUTPUT_DATA_INDEX
+     * @param index              position of the attribute
+     * @param value              value of the attribute
+     */
+    public void setIntData(int attributeTypeIndex, int index, int value) {
+        setData(attributeTypeIndex, index, value);
+    }
+
+    public void setLongData(int attributeTypeIndex, int index, long value) {
+        setData(attributeTypeIndex, index, value);
+    }
+
+    public void setFloatData(int attributeTypeIndex, int index, float value) {
+        setData(attributeTypeIndex, index, value);
+    }
+
+    public void setDoubleData(int attributeTypeIndex, int index, double value) {
+        setData(attributeTypeIndex, index, value);
+    }
+
+    public void setBoolData(int attributeTypeIndex, int index, boolean value) {
+        setData(attributeTypeIndex, index, value);
+    }
+
+    public void setData(int attributeTypeIndex, int index, Object value) {
+        switch (attributeTypeIndex) {
+            case BEFORE_WINDOW_DATA_INDEX:
+                setBeforeWindowData(value, index);
+                break;
+            case ON_AFTER_WINDOW_DATA_INDEX:
+                setOnAfterWindowData(value, index);
+                break;
+            case OUTPUT_DATA_INDEX:
+                setOutputData(value, index);
+                break;
+            default:
+                throw new IllegalStateException("STREAM_ATTRIBUTE_TYPE_INDEX cannot be " + attributeTypeIndex);
+        }
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
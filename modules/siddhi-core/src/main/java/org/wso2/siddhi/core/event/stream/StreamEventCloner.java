@@ -38,17 +38,34 @@ public class StreamEventCloner {
      */
     public StreamEvent copyStreamEvent(StreamEvent streamEvent) {
         StreamEvent borrowedEvent = streamEventPool.borrowEvent();
-        if (beforeWindowDataSize > 0) {
-            System.arraycopy(streamEvent.getBeforeWindowData(), 0, borrowedEvent.getBeforeWindowData(), 0, beforeWindowDataSize);
-        }
-        if (onAfterWindowDataSize > 0) {
-            System.arraycopy(streamEvent.getOnAfterWindowData(), 0, borrowedEvent.getOnAfterWindowData(), 0, onAfterWindowDataSize);
-        }
-        if (outputDataSize > 0) {
-            System.arraycopy(streamEvent.getOutputData(), 0, borrowedEvent.getOutputData(), 0, outputDataSize);
+        if (borrowedEvent instanceof PrimitiveStreamEvent) {
+            copyPrimitiveStreamEvent(streamEvent, (PrimitiveStreamEvent) borrowedEvent);
+        } else {
+            if (beforeWindowDataSize > 0) {
+                System.arraycopy(streamEvent.getBeforeWindowData(), 0, borrowedEvent.getBeforeWindowData(), 0, beforeWindowDataSize);
+            }
+            if (onAfterWindowDataSize > 0) {
+                System.arraycopy(streamEvent.getOnAfterWindowData(), 0, borrowedEvent.getOnAfterWindowData(), 0, onAfterWindowDataSize);
+            }
+            if (outputDataSize > 0) {
+                System.arraycopy(streamEvent.getOutputData(), 0, borrowedEvent.getOutputData(), 0, outputDataSize);
+            }
         }
         borrowedEvent.setType(streamEvent.getType());
         borrowedEvent.setTimestamp(streamEvent.getTimestamp());
         return borrowedEvent;
     }
+
+    private void copyPrimitiveStreamEvent(StreamEvent streamEvent, PrimitiveStreamEvent borrowedEvent) {
+        if (streamEvent instanceof PrimitiveStreamEvent &&
+                ((PrimitiveStreamEvent) streamEvent).getLayout() == borrowedEvent.getLayout()) {
+            borrowedEvent.copyFrom((PrimitiveStreamEvent) streamEvent);
+        } else {
+            borrowedEvent.setBeforeWindowData(streamEvent.getBeforeWindowData());
+            borrowedEvent.setOnAfterWindowData(streamEvent.getOnAfterWindowData());
+            if (outputDataSize > 0) {
+                System.arraycopy(streamEvent.getOutputData(), 0, borrowedEvent.getOutputData(), 0, outputDataSize);
+            }
+        }
+    }
 }
@@ -24,6 +24,7 @@ public class StreamEventFactory implements EventFactory<StreamEvent> {
     private int beforeWindowDataSize;
     private int onAfterWindowDataSize;
     private int outputDataSize;
+    private StreamEventLayout layout;
 
     /**
      * Initialization of the factory with event data sizes
@@ -38,12 +39,26 @@ public class StreamEventFactory implements EventFactory<StreamEvent> {
         this.outputDataSize = outputDataSize;
     }
 
+    /**
+     * Initialization of the factory to create {@link PrimitiveStreamEvent}s of the given layout
+     *
+     * @param layout
+     * @param outputDataSize
+     */
+    public StreamEventFactory(StreamEventLayout layout, int outputDataSize) {
+        this.layout = layout;
+        this.outputDataSize = outputDataSize;
+    }
+
     /**
      * Constructs new Events
      *
      * @return StreamEvent
      */
     public StreamEvent newInstance() {
+        if (layout != null) {
+            return new PrimitiveStreamEvent(layout, outputDataSize);
+        }
         return new StreamEvent(beforeWindowDataSize, onAfterWindowDataSize, outputDataSize);
     }
 
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.event.stream;
+
+import org.wso2.siddhi.query.api.definition.Attribute;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Primitive slot layout of the beforeWindowData and onAfterWindowData of a {@link PrimitiveStreamEvent},
+ * derived from the attribute types of a MetaStreamEvent. INT and BOOL attributes are placed in an int[],
+ * LONG in a long[], FLOAT and DOUBLE in a double[], and STRING and OBJECT in an Object[].
+ * <p/>
+ * The layout is immutable and shared by all events of the same MetaStreamEvent.
+ */
+public class StreamEventLayout implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Null flags of a section are held in a single long
+     */
+    public static final int MAX_SECTION_SIZE = 64;
+
+    private final Section beforeWindowData;
+    private final Section onAfterWindowData;
+
+    private StreamEventLayout(Section beforeWindowData, Section onAfterWindowData) {
+        this.beforeWindowData = beforeWindowData;
+        this.onAfterWindowData = onAfterWindowData;
+    }
+
+    /**
+     * @param metaStreamEvent meta event holding the attributes of the events
+     * @return layout of the events, or null when a primitive layout brings no benefit, i.e. there are no
+     * numeric attributes, or is not possible as a section has more than MAX_SECTION_SIZE attributes
+     */
+    public static StreamEventLayout create(MetaStreamEvent metaStreamEvent) {
+        List<Attribute> beforeWindowAttributes = metaStreamEvent.getBeforeWindowData();
+        List<Attribute> onAfterWindowAttributes = metaStreamEvent.getOnAfterWindowData();
+        if (beforeWindowAttributes.size() > MAX_SECTION_SIZE || onAfterWindowAttributes.size() > MAX_SECTION_SIZE) {
+            return null;
+        }
+        Section beforeWindowData = new Section(beforeWindowAttributes);
+        Section onAfterWindowData = new Section(onAfterWindowAttributes);
+        if (beforeWindowData.objectCount == beforeWindowAttributes.size() &&
+                onAfterWindowData.objectCount == onAfterWindowAttributes.size()) {
+            return null;
+        }
+        return new StreamEventLayout(beforeWindowData, onAfterWindowData);
+    }
+
+    public Section getBeforeWindowData() {
+        return beforeWindowData;
+    }
+
+    public Section getOnAfterWindowData() {
+        return onAfterWindowData;
+    }
+
+    /**
+     * Layout of one of the attribute sections of the event
+     */
+    public static class Section implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Attribute.Type[] types;
+        private final int[] slotIndex;     //position of each attribute within the array of its type
+        private int intCount;
+        private int longCount;
+        private int doubleCount;
+        private int objectCount;
+
+        private Section(List<Attribute> attributes) {
+            types = new Attribute.Type[attributes.size()];
+            slotIndex = new int[types.length];
+            for (int i = 0; i < types.length; i++) {
+                types[i] = attributes.get(i).getType();
+                switch (types[i]) {
+                    case INT:
+                    case BOOL:
+                        slotIndex[i] = intCount++;
+                        break;
+                    case LONG:
+                        slotIndex[i] = longCount++;
+                        break;
+                    case FLOAT:
+                    case DOUBLE:
+                        slotIndex[i] = doubleCount++;
+                        break;
+                    default:
+                        slotIndex[i] = objectCount++;
+                }
+            }
+        }
+
+        public int size() {
+            return types.length;
+        }
+
+        public Attribute.Type getType(int index) {
+            return types[index];
+        }
+
+        public int getSlotIndex(int index) {
+            return slotIndex[index];
+        }
+
+        public int getIntCount() {
+            return intCount;
+        }
+
+        public int getLongCount() {
+            return longCount;
+        }
+
+        public int getDoubleCount() {
+            return doubleCount;
+        }
+
+        public int getObjectCount() {
+            return objectCount;
+        }
+    }
+}
@@ -14,27 +14,85 @@
  */
 package org.wso2.siddhi.core.event.stream;
 
+import java.lang.ref.WeakReference;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 /**
  * Event pool containing StreamEvent for reuse
- * This is not a thread safe implementation
+ * <p/>
+ * The first thread borrowing from the pool owns it and keeps its free events in a thread confined cache
+ * that is accessed without synchronization. Any other thread gets a cache of its own, and when that
+ * overflows, the overflowing events are moved to one of the shared stripes, from where they are taken
+ * when a cache runs empty. Hence events borrowed on one thread can be returned on another, e.g. when
+ * they are borrowed by a receiver and returned by a window running on a different thread.
+ * <p/>
+ * The capacity of the caches starts at the given size and is doubled, up to maxSize, when more than a
+ * quarter of the borrows of a sizing window miss the pool. The hit, miss and discard counts are
+ * maintained per thread and are approximate when read while the pool is in use.
+ * <p/>
+ * Caches of threads that have terminated are pruned whenever a new thread gets a cache, moving their
+ * free events to the stripes and their counts to the pool, such that pools used by short lived threads
+ * do not keep growing their list of caches.
  */
 public class StreamEventPool {
 
+    public static final int DEFAULT_MAX_SIZE = 1024;
+    static final int SIZING_WINDOW = 256;
+    private static final int STRIPE_COUNT = stripeCount();
+
     private StreamEventFactory eventFactory;
-    private int size;
-    private int index = 0;
-    private StreamEvent streamEventList;
+    private final int size;
+    private final int maxSize;
+    private volatile int capacity;
+    private final Stripe[] stripes = new Stripe[STRIPE_COUNT];
+    private final CopyOnWriteArrayList<Cache> caches = new CopyOnWriteArrayList<Cache>();
+    private final ThreadLocal<Cache> threadCache = new ThreadLocal<Cache>();
+    private volatile Thread owner;      //written under the pool lock, only compared by other threads
+    private Cache ownerCache;
+    private int nextStripe = 0;
+    //counts of the pruned caches, written under the pool lock
+    private volatile long retiredHits;
+    private volatile long retiredMisses;
+    private volatile long retiredDiscards;
 
     public StreamEventPool(MetaStreamEvent metaStreamEvent, int size) {
-        eventFactory = new StreamEventFactory(metaStreamEvent.getBeforeWindowData().size(),
-                metaStreamEvent.getOnAfterWindowData().size(),
-                metaStreamEvent.getOutputData().size());
+        StreamEventLayout layout = null;
+        if (metaStreamEvent.isPrimitiveLayout()) {
+            layout = StreamEventLayout.create(metaStreamEvent);
+        }
+        if (layout != null) {
+            eventFactory = new StreamEventFactory(layout, metaStreamEvent.getOutputData().size());
+        } else {
+            eventFactory = new StreamEventFactory(metaStreamEvent.getBeforeWindowData().size(),
+                    metaStreamEvent.getOnAfterWindowData().size(),
+                    metaStreamEvent.getOutputData().size());
+        }
         this.size = size;
+        this.maxSize = Math.max(size, DEFAULT_MAX_SIZE);
+        init();
     }
 
     public StreamEventPool(int beforeWindowDataSize, int onAfterWindowDataSize, int outputDataSize, int poolSize) {
+        this(beforeWindowDataSize, onAfterWindowDataSize, outputDataSize, poolSize, Math.max(poolSize, DEFAULT_MAX_SIZE));
+    }
+
+    /**
+     * @param poolSize initial number of events the pool holds per thread
+     * @param maxSize  number of events up to which the pool may grow per thread, on observed demand
+     */
+    public StreamEventPool(int beforeWindowDataSize, int onAfterWindowDataSize, int outputDataSize, int poolSize,
+                           int maxSize) {
         eventFactory = new StreamEventFactory(beforeWindowDataSize, onAfterWindowDataSize, outputDataSize);
         this.size = poolSize;
+        this.maxSize = Math.max(poolSize, maxSize);
+        init();
+    }
+
+    private void init() {
+        capacity = size;
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
     }
 
     /**
@@ -43,48 +101,281 @@ public class StreamEventPool {
      * @return if StreamEvent exist in the pool an existing event if not a new StreamEvent will be returned
      */
     public StreamEvent borrowEvent() {
-        if (index > 0) {
-            StreamEvent event = streamEventList;
-            streamEventList = streamEventList.getNext();
+        Cache cache = cache(true);
+        if (cache.count == 0) {
+            refill(cache);
+        }
+        if (++cache.windowBorrows == SIZING_WINDOW) {
+            resize(cache);
+        }
+        if (cache.count > 0) {
+            StreamEvent event = cache.head;
+            cache.head = event.getNext();
             event.setNext(null);
-            index--;
+            cache.count--;
+            cache.hits++;
             return event;
         } else {
+            cache.misses++;
+            cache.windowMisses++;
             return eventFactory.newInstance();
         }
     }
 
     /**
      * Collects the used InnerStreamEvents
-     * If the pool has space the returned event will be added to the pool else it will be dropped
+     * If the pool has space the returned events will be added to the pool else they will be dropped
      *
-     * @param streamEvent used event
+     * @param streamEvent used event, or a chain of used events
      */
     public void returnEvents(StreamEvent streamEvent) {
-        if (streamEvent != null) {
-            if (index < size) {
-                StreamEvent first = streamEvent;
-                StreamEvent last = streamEvent;
-                while (streamEvent != null) {
-                    last = streamEvent;
-                    index++;
-                    streamEvent = streamEvent.getNext();
+        if (streamEvent == null) {
+            return;
+        }
+        Cache cache = cache(false);
+        int capacity = this.capacity;
+        while (streamEvent != null) {
+            StreamEvent next = streamEvent.getNext();
+            if (cache.count >= capacity) {
+                if (cache == ownerCache || capacity == 0) {
+                    //owner's cache is full, hence the rest will not be needed soon
+                    while (streamEvent != null) {
+                        cache.discards++;
+                        streamEvent = streamEvent.getNext();
+                    }
+                    return;
+                }
+                spill(cache, capacity);
+            }
+            streamEvent.setNext(cache.head);
+            cache.head = streamEvent;
+            cache.count++;
+            streamEvent = next;
+        }
+    }
+
+    private Cache cache(boolean borrowing) {
+        if (owner == Thread.currentThread()) {
+            return ownerCache;
+        }
+        Cache cache = threadCache.get();
+        if (cache == null) {
+            synchronized (this) {
+                pruneDeadCaches();
+                cache = new Cache(nextStripe++ & (stripes.length - 1), Thread.currentThread());
+                if (owner == null && borrowing) {
+                    ownerCache = cache;
+                    owner = Thread.currentThread();
+                }
+            }
+            threadCache.set(cache);
+            caches.add(cache);
+        } else if (owner == null && borrowing) {
+            synchronized (this) {
+                if (owner == null) {
+                    ownerCache = cache;
+                    owner = Thread.currentThread();
                 }
-                last.setNext(streamEventList);
-                streamEventList = first;
             }
         }
+        return cache;
+    }
+
+    /**
+     * Remove the caches of terminated threads, which are no longer accessed by their thread
+     */
+    private void pruneDeadCaches() {
+        for (Cache cache : caches) {
+            Thread thread = cache.thread.get();
+            if (thread == null || !thread.isAlive()) {
+                caches.remove(cache);
+                if (cache == ownerCache) {
+                    owner = null;
+                    ownerCache = null;
+                }
+                retiredHits += cache.hits;
+                retiredMisses += cache.misses;
+                retiredDiscards += cache.discards;
+                if (cache.head != null) {
+                    retiredDiscards += stripes[cache.stripe].push(cache.head, capacity);
+                    cache.head = null;
+                    cache.count = 0;
+                }
+            }
+        }
+    }
 
+    /**
+     * @return number of threads having a cache of the pool
+     */
+    public int getCacheCount() {
+        return caches.size();
+    }
+
+    /**
+     * Move half of the events of a full cache to its stripe, discarding what the stripe cannot hold
+     */
+    private void spill(Cache cache, int capacity) {
+        int spillCount = Math.max(1, cache.count >>> 1);
+        StreamEvent first = cache.head;
+        StreamEvent last = first;
+        for (int i = 1; i < spillCount; i++) {
+            last = last.getNext();
+        }
+        cache.head = last.getNext();
+        cache.count -= spillCount;
+        last.setNext(null);
+        cache.discards += stripes[cache.stripe].push(first, capacity);
+    }
+
+    /**
+     * Take up to half the capacity worth of events from the stripes in to an empty cache
+     */
+    private void refill(Cache cache) {
+        int wanted = Math.max(1, capacity >>> 1);
+        for (int i = 0; i < stripes.length && cache.count == 0; i++) {
+            Stripe stripe = stripes[(cache.stripe + i) & (stripes.length - 1)];
+            if (stripe.count > 0) {
+                stripe.pop(cache, wanted);
+            }
+        }
+    }
+
+    private void resize(Cache cache) {
+        if (cache.windowMisses * 4 > SIZING_WINDOW && capacity < maxSize) {
+            capacity = Math.min(capacity << 1, maxSize);
+        }
+        cache.windowBorrows = 0;
+        cache.windowMisses = 0;
     }
 
     /**
      * @return Occupied buffer size
      */
     public int getBufferedEventsSize() {
-        return index;
+        int bufferedEvents = 0;
+        for (Cache cache : caches) {
+            bufferedEvents += cache.count;
+        }
+        for (Stripe stripe : stripes) {
+            bufferedEvents += stripe.count;
+        }
+        return bufferedEvents;
     }
 
     public int getSize() {
         return size;
     }
+
+    /**
+     * @return number of events each cache currently holds at most
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @return number of borrows served from the pool
+     */
+    public long getHitCount() {
+        long hits = retiredHits;
+        for (Cache cache : caches) {
+            hits += cache.hits;
+        }
+        return hits;
+    }
+
+    /**
+     * @return number of borrows that had to create a new event
+     */
+    public long getMissCount() {
+        long misses = retiredMisses;
+        for (Cache cache : caches) {
+            misses += cache.misses;
+        }
+        return misses;
+    }
+
+    /**
+     * @return number of returned events dropped as the pool was full
+     */
+    public long getDiscardCount() {
+        long discards = retiredDiscards;
+        for (Cache cache : caches) {
+            discards += cache.discards;
+        }
+        return discards;
+    }
+
+    private static int stripeCount() {
+        int stripeCount = 1;
+        while (stripeCount < Runtime.getRuntime().availableProcessors() && stripeCount < 16) {
+            stripeCount <<= 1;
+        }
+        return stripeCount;
+    }
+
+    /**
+     * Free events of a thread, only accessed by that thread except for the counters being read
+     */
+    private static class Cache {
+        private final int stripe;
+        private final WeakReference<Thread> thread;
+        private StreamEvent head;
+        private int count;
+        private long hits;
+        private long misses;
+        private long discards;
+        private int windowBorrows;
+        private int windowMisses;
+
+        private Cache(int stripe, Thread thread) {
+            this.stripe = stripe;
+            this.thread = new WeakReference<Thread>(thread);
+        }
+    }
+
+    /**
+     * Free events shared across threads
+     */
+    private static class Stripe {
+        private StreamEvent head;
+        private volatile int count;
+
+        /**
+         * @return number of events discarded as the stripe is full
+         */
+        private synchronized int push(StreamEvent first, int capacity) {
+            int discarded = 0;
+            StreamEvent event = first;
+            while (event != null) {
+                StreamEvent next = event.getNext();
+                if (count < capacity) {
+                    event.setNext(head);
+                    head = event;
+                    count++;
+                } else {
+                    event.setNext(null);
+                    discarded++;
+                }
+                event = next;
+            }
+            return discarded;
+        }
+
+        private synchronized void pop(Cache cache, int wanted) {
+            while (head != null && cache.count < wanted) {
+                StreamEvent event = head;
+                head = event.getNext();
+                count--;
+                event.setNext(cache.head);
+                cache.head = event;
+                cache.count++;
+            }
+        }
+    }
 }
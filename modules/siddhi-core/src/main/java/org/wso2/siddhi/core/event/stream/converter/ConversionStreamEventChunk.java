@@ -15,17 +15,19 @@
 
 package org.wso2.siddhi.core.event.stream.converter;
 
+import org.wso2.siddhi.core.event.ArrayEventChunk;
+import org.wso2.siddhi.core.event.ColumnBatch;
 import org.wso2.siddhi.core.event.ComplexEvent;
-import org.wso2.siddhi.core.event.ComplexEventChunk;
 import org.wso2.siddhi.core.event.Event;
 import org.wso2.siddhi.core.event.stream.MetaStreamEvent;
 import org.wso2.siddhi.core.event.stream.StreamEvent;
 import org.wso2.siddhi.core.event.stream.StreamEventPool;
 
 /**
- * A StreamEvent holder that can also convert other events into StreamEvents
+ * A StreamEvent holder that can also convert other events into StreamEvents, holding the converted
+ * events in an array such that the processors traverse the batch without chasing next references
  */
-public class ConversionStreamEventChunk extends ComplexEventChunk<StreamEvent> {
+public class ConversionStreamEventChunk extends ArrayEventChunk<StreamEvent> {
 
     private StreamEventConverter streamEventConverter;
     private StreamEventPool streamEventPool;
@@ -43,20 +45,25 @@ public class ConversionStreamEventChunk extends ComplexEventChunk<StreamEvent> {
     public void convertAndAssign(Event event) {
         StreamEvent borrowedEvent = streamEventPool.borrowEvent();
         streamEventConverter.convertEvent(event, borrowedEvent);
-        first = borrowedEvent;
-        last = first;
+        clear();
+        add(borrowedEvent);
     }
 
     public void convertAndAssign(long timeStamp, Object[] data) {
         StreamEvent borrowedEvent = streamEventPool.borrowEvent();
         streamEventConverter.convertData(timeStamp, data, borrowedEvent);
-        first = borrowedEvent;
-        last = first;
+        clear();
+        add(borrowedEvent);
     }
 
     public void convertAndAssign(ComplexEvent complexEvent) {
-        first = streamEventPool.borrowEvent();
-        last = convertAllStreamEvents(complexEvent, first);
+        clear();
+        while (complexEvent != null) {
+            StreamEvent borrowedEvent = streamEventPool.borrowEvent();
+            streamEventConverter.convertStreamEvent(complexEvent, borrowedEvent);
+            add(borrowedEvent);
+            complexEvent = complexEvent.getNext();
+        }
     }
 
 //    @Override
@@ -68,76 +75,27 @@ public class ConversionStreamEventChunk extends ComplexEventChunk<StreamEvent> {
 //    }
 
     public void convertAndAssign(Event[] events) {
-        StreamEvent firstEvent = streamEventPool.borrowEvent();
-        streamEventConverter.convertEvent(events[0], firstEvent);
-        StreamEvent currentEvent = firstEvent;
-        for (int i = 1, eventsLength = events.length; i < eventsLength; i++) {
-            StreamEvent nextEvent = streamEventPool.borrowEvent();
-            streamEventConverter.convertEvent(events[i], nextEvent);
-            currentEvent.setNext(nextEvent);
-            currentEvent = nextEvent;
-        }
-        first = firstEvent;
-        last = currentEvent;
-    }
-
-    public void convertAndAdd(Event event) {
-        StreamEvent borrowedEvent = streamEventPool.borrowEvent();
-        streamEventConverter.convertEvent(event, borrowedEvent);
-
-        if (first == null) {
-            first = borrowedEvent;
-            last = first;
-        } else {
-            last.setNext(borrowedEvent);
-            last = borrowedEvent;
+        clear();
+        for (Event event : events) {
+            StreamEvent borrowedEvent = streamEventPool.borrowEvent();
+            streamEventConverter.convertEvent(event, borrowedEvent);
+            add(borrowedEvent);
         }
-
     }
 
-    private StreamEvent convertAllStreamEvents(ComplexEvent complexEvents, StreamEvent firstEvent) {
-        streamEventConverter.convertStreamEvent(complexEvents, firstEvent);
-        StreamEvent currentEvent = firstEvent;
-        complexEvents = complexEvents.getNext();
-        while (complexEvents != null) {
-            StreamEvent nextEvent = streamEventPool.borrowEvent();
-            streamEventConverter.convertStreamEvent(complexEvents, nextEvent);
-            currentEvent.setNext(nextEvent);
-            currentEvent = nextEvent;
-            complexEvents = complexEvents.getNext();
+    public void convertAndAssign(long[] timeStamps, ColumnBatch columnBatch) {
+        clear();
+        for (int i = 0, size = columnBatch.size(); i < size; i++) {
+            StreamEvent borrowedEvent = streamEventPool.borrowEvent();
+            streamEventConverter.convertColumns(timeStamps[i], columnBatch, i, borrowedEvent);
+            add(borrowedEvent);
         }
-        return currentEvent;
     }
 
-    /**
-     * Removes from the underlying collection the last element returned by the
-     * iterator (optional operation).  This method can be called only once per
-     * call to <tt>next</tt>.  The behavior of an iterator is unspecified if
-     * the underlying collection is modified while the iteration is in
-     * progress in any way other than by calling this method.
-     *
-     * @throws UnsupportedOperationException if the <tt>remove</tt>
-     *                                       operation is not supported by this Iterator.
-     * @throws IllegalStateException         if the <tt>next</tt> method has not
-     *                                       yet been called, or the <tt>remove</tt> method has already
-     *                                       been called after the last call to the <tt>next</tt>
-     *                                       method.
-     */
-    @Override
-    public void remove() {
-        if (lastReturned == null) {
-            throw new IllegalStateException();
-        }
-        if (previousToLastReturned != null) {
-            previousToLastReturned.setNext(lastReturned.getNext());
-        } else {
-            first = lastReturned.getNext();
-            if (first == null) {
-                last = null;
-            }
-        }
-        lastReturned.setNext(null);
-        lastReturned = null;
+    public void convertAndAdd(Event event) {
+        StreamEvent borrowedEvent = streamEventPool.borrowEvent();
+        streamEventConverter.convertEvent(event, borrowedEvent);
+        add(borrowedEvent);
     }
 
 }
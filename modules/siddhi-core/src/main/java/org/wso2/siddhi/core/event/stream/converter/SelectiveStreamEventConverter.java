@@ -14,6 +14,7 @@
  */
 package org.wso2.siddhi.core.event.stream.converter;
 
+import org.wso2.siddhi.core.event.ColumnBatch;
 import org.wso2.siddhi.core.event.ComplexEvent;
 import org.wso2.siddhi.core.event.Event;
 import org.wso2.siddhi.core.event.stream.StreamEvent;
@@ -69,4 +70,15 @@ public class SelectiveStreamEventConverter implements StreamEventConverter {
         convertToInnerStreamEvent(data, StreamEvent.Type.CURRENT, timeStamp, borrowedEvent);
     }
 
+    @Override
+    public void convertColumns(long timeStamp, ColumnBatch columnBatch, int row, StreamEvent borrowedEvent) {
+        for (ConversionMapping conversionMapping : conversionMappings) {
+            int[] position = conversionMapping.getToPosition();
+            columnBatch.copyValue(conversionMapping.getFromPosition(), row, borrowedEvent, position[0], position[1]);
+        }
+
+        borrowedEvent.setType(StreamEvent.Type.CURRENT);
+        borrowedEvent.setTimestamp(timeStamp);
+    }
+
 }
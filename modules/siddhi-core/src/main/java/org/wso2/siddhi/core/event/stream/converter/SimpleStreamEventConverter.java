@@ -14,12 +14,15 @@
  */
 package org.wso2.siddhi.core.event.stream.converter;
 
+import org.wso2.siddhi.core.event.ColumnBatch;
 import org.wso2.siddhi.core.event.ComplexEvent;
 import org.wso2.siddhi.core.event.Event;
 import org.wso2.siddhi.core.event.stream.StreamEvent;
 
 import java.util.List;
 
+import static org.wso2.siddhi.core.util.SiddhiConstants.OUTPUT_DATA_INDEX;
+
 /**
  * The converter class that only converts the OutputData of the events to StreamEvent
  */
@@ -53,4 +56,14 @@ public class SimpleStreamEventConverter implements StreamEventConverter {
         convertToInnerStreamEvent(data, StreamEvent.Type.CURRENT, timeStamp, borrowedEvent);
     }
 
+    @Override
+    public void convertColumns(long timeStamp, ColumnBatch columnBatch, int row, StreamEvent borrowedEvent) {
+        for (ConversionMapping element : conversionMappings) {
+            columnBatch.copyValue(element.getFromPosition(), row, borrowedEvent, OUTPUT_DATA_INDEX,
+                    element.getToPosition()[1]);
+        }
+        borrowedEvent.setType(StreamEvent.Type.CURRENT);
+        borrowedEvent.setTimestamp(timeStamp);
+    }
+
 }
@@ -14,6 +14,7 @@
  */
 package org.wso2.siddhi.core.event.stream.converter;
 
+import org.wso2.siddhi.core.event.ColumnBatch;
 import org.wso2.siddhi.core.event.ComplexEvent;
 import org.wso2.siddhi.core.event.Event;
 import org.wso2.siddhi.core.event.stream.StreamEvent;
@@ -48,6 +49,16 @@ public interface StreamEventConverter {
      */
     public void convertData(long timeStamp, Object[] data, StreamEvent borrowedEvent);
 
+    /**
+     * Method to construct StreamEvent from a row of a ColumnBatch
+     *
+     * @param timeStamp     timeStamp of the event
+     * @param columnBatch   batch holding the data of the event
+     * @param row           position of the event in the batch
+     * @param borrowedEvent Event that will be populated
+     */
+    public void convertColumns(long timeStamp, ColumnBatch columnBatch, int row, StreamEvent borrowedEvent);
+
     /**
      * Element to hold information about event conversion
      */
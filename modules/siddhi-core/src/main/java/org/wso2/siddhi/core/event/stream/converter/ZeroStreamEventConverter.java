@@ -14,6 +14,7 @@
  */
 package org.wso2.siddhi.core.event.stream.converter;
 
+import org.wso2.siddhi.core.event.ColumnBatch;
 import org.wso2.siddhi.core.event.ComplexEvent;
 import org.wso2.siddhi.core.event.Event;
 import org.wso2.siddhi.core.event.stream.StreamEvent;
@@ -44,4 +45,11 @@ public class ZeroStreamEventConverter implements StreamEventConverter {
         convertToInnerStreamEvent(data, StreamEvent.Type.CURRENT, timeStamp, borrowedEvent);
     }
 
+    @Override
+    public void convertColumns(long timeStamp, ColumnBatch columnBatch, int row, StreamEvent borrowedEvent) {
+        columnBatch.copyRow(row, borrowedEvent.getOutputData());
+        borrowedEvent.setType(StreamEvent.Type.CURRENT);
+        borrowedEvent.setTimestamp(timeStamp);
+    }
+
 }
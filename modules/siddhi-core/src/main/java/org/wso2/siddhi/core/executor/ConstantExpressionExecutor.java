@@ -18,7 +18,9 @@ package org.wso2.siddhi.core.executor;
 import org.wso2.siddhi.core.event.ComplexEvent;
 import org.wso2.siddhi.query.api.definition.Attribute;
 
-public class ConstantExpressionExecutor implements ExpressionExecutor {
+import java.util.Arrays;
+
+public class ConstantExpressionExecutor implements PrimitiveExpressionExecutor {
     private Object value;
     private Attribute.Type type;
 
@@ -27,6 +29,66 @@ public class ConstantExpressionExecutor implements ExpressionExecutor {
         this.type = type;
     }
 
+    @Override
+    public boolean isPrimitive() {
+        return true;
+    }
+
+    @Override
+    public boolean isNull(ComplexEvent event) {
+        return value == null;
+    }
+
+    @Override
+    public int executeInt(ComplexEvent event) {
+        return ((Number) value).intValue();
+    }
+
+    @Override
+    public long executeLong(ComplexEvent event) {
+        return ((Number) value).longValue();
+    }
+
+    @Override
+    public float executeFloat(ComplexEvent event) {
+        return ((Number) value).floatValue();
+    }
+
+    @Override
+    public double executeDouble(ComplexEvent event) {
+        return ((Number) value).doubleValue();
+    }
+
+    @Override
+    public boolean executeBool(ComplexEvent event) {
+        return (Boolean) value;
+    }
+
+    @Override
+    public int selectNotNull(ComplexEvent[] events, int[] selection, int size) {
+        return value == null ? 0 : size;
+    }
+
+    @Override
+    public void executeInt(ComplexEvent[] events, int[] selection, int size, int[] values) {
+        Arrays.fill(values, 0, size, ((Number) value).intValue());
+    }
+
+    @Override
+    public void executeLong(ComplexEvent[] events, int[] selection, int size, long[] values) {
+        Arrays.fill(values, 0, size, ((Number) value).longValue());
+    }
+
+    @Override
+    public void executeFloat(ComplexEvent[] events, int[] selection, int size, float[] values) {
+        Arrays.fill(values, 0, size, ((Number) value).floatValue());
+    }
+
+    @Override
+    public void executeDouble(ComplexEvent[] events, int[] selection, int size, double[] values) {
+        Arrays.fill(values, 0, size, ((Number) value).doubleValue());
+    }
+
     @Override
     public Object execute(ComplexEvent event) {
         return value;
@@ -18,6 +18,13 @@ package org.wso2.siddhi.core.executor;
 import org.wso2.siddhi.core.event.ComplexEvent;
 import org.wso2.siddhi.query.api.definition.Attribute;
 
+/**
+ * Executor of an expression over events. An executor belongs to one processing stage of a query, such as the
+ * filter or the selector, which processes one chunk at a time. The stage may be run by different threads over
+ * time, but never by two at once, as stages run in parallel, such as those of partition keys and query shards,
+ * are given executors of their own through cloneExecutor(). Hence executors may keep state and scratch buffers in
+ * plain fields.
+ */
 public interface ExpressionExecutor {
 
     public Object execute(ComplexEvent event);
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.executor;
+
+import org.wso2.siddhi.core.event.ComplexEvent;
+
+/**
+ * Executor which can be evaluated in to primitive values without boxing the result.
+ * <p/>
+ * The numeric methods convert the result to the requested type as Number.xxxValue() does, and are to be called
+ * only when isNull() is false for the event. Condition executors are never null.
+ */
+public interface PrimitiveExpressionExecutor extends ExpressionExecutor {
+
+    /**
+     * @return whether this executor evaluates its sub executors through their typed methods as well, such that
+     * isNull() and a typed method can be called for the same event without evaluating any executor twice
+     */
+    boolean isPrimitive();
+
+    boolean isNull(ComplexEvent event);
+
+    int executeInt(ComplexEvent event);
+
+    long executeLong(ComplexEvent event);
+
+    float executeFloat(ComplexEvent event);
+
+    double executeDouble(ComplexEvent event);
+
+    boolean executeBool(ComplexEvent event);
+
+    /**
+     * Batch variants, evaluating a column of values for the events at the positions of a selection vector
+     *
+     * @param events    events of the batch
+     * @param selection ascending positions of the events to be evaluated
+     * @param size      number of positions in the selection
+     * @return number of positions kept, the positions whose value is not null are moved to the start of selection
+     */
+    int selectNotNull(ComplexEvent[] events, int[] selection, int size);
+
+    void executeInt(ComplexEvent[] events, int[] selection, int size, int[] values);
+
+    void executeLong(ComplexEvent[] events, int[] selection, int size, long[] values);
+
+    void executeFloat(ComplexEvent[] events, int[] selection, int size, float[] values);
+
+    void executeDouble(ComplexEvent[] events, int[] selection, int size, double[] values);
+
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.executor;
+
+import org.wso2.siddhi.core.event.ComplexEvent;
+import org.wso2.siddhi.query.api.definition.Attribute;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Executor of a subexpression occurring more than once within a processing stage of a query, such as the filter
+ * or the selector. The result of the last event is kept and returned to the other occurrences evaluating the same
+ * event, until the {@link Scope} of the stage is invalidated. Stages invalidate their scope before each chunk they
+ * process, such that pooled events reused with new data are evaluated again.
+ * <p/>
+ * The result is kept in plain fields, as a stage processes one chunk at a time, see {@link ExpressionExecutor}.
+ */
+public class SharedExpressionExecutor implements ExpressionExecutor {
+
+    private final ExpressionExecutor expressionExecutor;
+    private final Scope scope;
+    private ComplexEvent lastEvent;
+    private int lastVersion;
+    private Object lastValue;
+
+    public SharedExpressionExecutor(ExpressionExecutor expressionExecutor, Scope scope) {
+        this.expressionExecutor = expressionExecutor;
+        this.scope = scope;
+    }
+
+    @Override
+    public Object execute(ComplexEvent event) {
+        int version = scope.version;
+        if (lastEvent == event && lastVersion == version) {
+            return lastValue;
+        }
+        Object value = expressionExecutor.execute(event);
+        lastEvent = event;
+        lastVersion = version;
+        lastValue = value;
+        return value;
+    }
+
+    @Override
+    public Attribute.Type getReturnType() {
+        return expressionExecutor.getReturnType();
+    }
+
+    /**
+     * Occurrences cloned while their stage is being cloned share one executor in the scope of the cloned stage.
+     * Cloned outside of a stage clone there is no scope invalidating the result, hence the clone is not shared.
+     */
+    @Override
+    public ExpressionExecutor cloneExecutor(String key) {
+        Scope clonedScope = scope.cloning.get();
+        if (clonedScope == null) {
+            return expressionExecutor.cloneExecutor(key);
+        }
+        SharedExpressionExecutor clonedExecutor = clonedScope.clonedExecutors.get(this);
+        if (clonedExecutor == null) {
+            clonedExecutor = new SharedExpressionExecutor(expressionExecutor.cloneExecutor(key), clonedScope);
+            clonedScope.clonedExecutors.put(this, clonedExecutor);
+        }
+        return clonedExecutor;
+    }
+
+    public ExpressionExecutor getExpressionExecutor() {
+        return expressionExecutor;
+    }
+
+    /**
+     * Validity of the results kept by the shared executors of a stage
+     */
+    public static final class Scope {
+
+        private final ThreadLocal<Scope> cloning = new ThreadLocal<Scope>();
+        private Map<SharedExpressionExecutor, SharedExpressionExecutor> clonedExecutors;
+        private int version;
+
+        /**
+         * Discard the results kept by the shared executors of this scope
+         */
+        public void invalidate() {
+            version++;
+        }
+
+        /**
+         * Start cloning the stage of this scope on the calling thread, the shared executors cloned until
+         * endClone() is called share their clones in the returned scope
+         *
+         * @return scope of the cloned stage
+         */
+        public Scope beginClone() {
+            Scope clonedScope = new Scope();
+            clonedScope.clonedExecutors = new IdentityHashMap<SharedExpressionExecutor, SharedExpressionExecutor>();
+            cloning.set(clonedScope);
+            return clonedScope;
+        }
+
+        /**
+         * Finish cloning the stage of this scope on the calling thread
+         */
+        public void endClone() {
+            Scope clonedScope = cloning.get();
+            if (clonedScope != null) {
+                clonedScope.clonedExecutors = null;
+                cloning.remove();
+            }
+        }
+    }
+}
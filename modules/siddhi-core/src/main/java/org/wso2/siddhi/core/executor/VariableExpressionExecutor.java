@@ -16,11 +16,12 @@
 package org.wso2.siddhi.core.executor;
 
 import org.wso2.siddhi.core.event.ComplexEvent;
+import org.wso2.siddhi.core.event.stream.StreamEvent;
 import org.wso2.siddhi.query.api.definition.Attribute;
 
 import static org.wso2.siddhi.core.util.SiddhiConstants.*;
 
-public class VariableExpressionExecutor implements ExpressionExecutor {
+public class VariableExpressionExecutor implements PrimitiveExpressionExecutor {
     private Attribute attribute;
     private int[] position = new int[]{UNKNOWN_STATE, UNKNOWN_STATE, UNKNOWN_STATE, UNKNOWN_STATE};
     //Position[stream event chain index, stream event index, stream attribute type index, stream attribute index]
@@ -37,6 +38,114 @@ public class VariableExpressionExecutor implements ExpressionExecutor {
         return event.getAttribute(position);
     }
 
+    @Override
+    public boolean isPrimitive() {
+        return true;
+    }
+
+    @Override
+    public boolean isNull(ComplexEvent event) {
+        if (event instanceof StreamEvent) {
+            return ((StreamEvent) event).isNullAttribute(position);
+        }
+        return event.getAttribute(position) == null;
+    }
+
+    /**
+     * Typed variants of execute(), reading the attribute without boxing when the event holds it
+     * in primitive form. A null attribute is read as 0 or false.
+     *
+     * @param event event holding the attribute
+     * @return value of the attribute
+     */
+    @Override
+    public int executeInt(ComplexEvent event) {
+        if (event instanceof StreamEvent) {
+            return ((StreamEvent) event).getIntAttribute(position);
+        }
+        Object value = event.getAttribute(position);
+        return value == null ? 0 : ((Number) value).intValue();
+    }
+
+    @Override
+    public long executeLong(ComplexEvent event) {
+        if (event instanceof StreamEvent) {
+            return ((StreamEvent) event).getLongAttribute(position);
+        }
+        Object value = event.getAttribute(position);
+        return value == null ? 0L : ((Number) value).longValue();
+    }
+
+    @Override
+    public float executeFloat(ComplexEvent event) {
+        if (event instanceof StreamEvent) {
+            if (attribute.getType() == Attribute.Type.LONG) {
+                //converting through double could round twice
+                return (float) ((StreamEvent) event).getLongAttribute(position);
+            }
+            return (float) ((StreamEvent) event).getDoubleAttribute(position);
+        }
+        Object value = event.getAttribute(position);
+        return value == null ? 0F : ((Number) value).floatValue();
+    }
+
+    @Override
+    public double executeDouble(ComplexEvent event) {
+        if (event instanceof StreamEvent) {
+            return ((StreamEvent) event).getDoubleAttribute(position);
+        }
+        Object value = event.getAttribute(position);
+        return value == null ? 0D : ((Number) value).doubleValue();
+    }
+
+    @Override
+    public boolean executeBool(ComplexEvent event) {
+        if (event instanceof StreamEvent) {
+            return ((StreamEvent) event).getBoolAttribute(position);
+        }
+        Object value = event.getAttribute(position);
+        return value != null && (Boolean) value;
+    }
+
+    @Override
+    public int selectNotNull(ComplexEvent[] events, int[] selection, int size) {
+        int selected = 0;
+        for (int i = 0; i < size; i++) {
+            if (!isNull(events[selection[i]])) {
+                selection[selected++] = selection[i];
+            }
+        }
+        return selected;
+    }
+
+    @Override
+    public void executeInt(ComplexEvent[] events, int[] selection, int size, int[] values) {
+        for (int i = 0; i < size; i++) {
+            values[i] = executeInt(events[selection[i]]);
+        }
+    }
+
+    @Override
+    public void executeLong(ComplexEvent[] events, int[] selection, int size, long[] values) {
+        for (int i = 0; i < size; i++) {
+            values[i] = executeLong(events[selection[i]]);
+        }
+    }
+
+    @Override
+    public void executeFloat(ComplexEvent[] events, int[] selection, int size, float[] values) {
+        for (int i = 0; i < size; i++) {
+            values[i] = executeFloat(events[selection[i]]);
+        }
+    }
+
+    @Override
+    public void executeDouble(ComplexEvent[] events, int[] selection, int size, double[] values) {
+        for (int i = 0; i < size; i++) {
+            values[i] = executeDouble(events[selection[i]]);
+        }
+    }
+
 
     public Attribute.Type getReturnType() {
         return attribute.getType();
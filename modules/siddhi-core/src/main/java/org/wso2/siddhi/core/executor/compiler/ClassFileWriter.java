@@ -0,0 +1,416 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.executor.compiler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal writer of class files, supporting only what the {@link ExpressionCompiler} generates: a public final
+ * class with public fields and methods whose code has no exception handlers.
+ * <p/>
+ * Classes are written in the Java 5 class file format, such that the methods need no stack map frames and
+ * are verified by type inference.
+ */
+final class ClassFileWriter {
+
+    static final int ACC_PUBLIC = 0x0001;
+    static final int ACC_FINAL = 0x0010;
+    static final int ACC_SUPER = 0x0020;
+
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final int MAJOR_VERSION = 49;
+
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_INTEGER = 3;
+    private static final int CONSTANT_FLOAT = 4;
+    private static final int CONSTANT_LONG = 5;
+    private static final int CONSTANT_DOUBLE = 6;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_FIELD_REF = 9;
+    private static final int CONSTANT_METHOD_REF = 10;
+    private static final int CONSTANT_INTERFACE_METHOD_REF = 11;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+    private final ByteArrayOutputStream constantPoolBytes = new ByteArrayOutputStream();
+    private final DataOutputStream constantPool = new DataOutputStream(constantPoolBytes);
+    private final Map<String, Integer> constantIndexes = new HashMap<String, Integer>();
+    private int constantCount = 1;
+
+    private final int thisClass;
+    private final int superClass;
+    private final List<byte[]> fields = new ArrayList<byte[]>();
+    private final List<byte[]> methods = new ArrayList<byte[]>();
+
+    /**
+     * @param className      internal name of the class, e.g. org/wso2/Foo
+     * @param superClassName internal name of its super class
+     */
+    ClassFileWriter(String className, String superClassName) {
+        thisClass = classConstant(className);
+        superClass = classConstant(superClassName);
+    }
+
+    void addField(int access, String name, String descriptor) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeShort(access);
+            out.writeShort(utf8Constant(name));
+            out.writeShort(utf8Constant(descriptor));
+            out.writeShort(0);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        fields.add(bytes.toByteArray());
+    }
+
+    MethodWriter addMethod(int access, String name, String descriptor) {
+        return new MethodWriter(access, name, descriptor);
+    }
+
+    byte[] toByteArray() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(MAGIC);
+            out.writeShort(0);
+            out.writeShort(MAJOR_VERSION);
+            out.writeShort(constantCount);
+            constantPool.flush();
+            constantPoolBytes.writeTo(out);
+            out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(0);
+            out.writeShort(fields.size());
+            for (byte[] field : fields) {
+                out.write(field);
+            }
+            out.writeShort(methods.size());
+            for (byte[] method : methods) {
+                out.write(method);
+            }
+            out.writeShort(0);
+            out.flush();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    int utf8Constant(String value) {
+        Integer index = constantIndexes.get("U" + value);
+        if (index == null) {
+            try {
+                constantPool.writeByte(CONSTANT_UTF8);
+                constantPool.writeUTF(value);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            index = newConstant("U" + value, 1);
+        }
+        return index;
+    }
+
+    int classConstant(String internalName) {
+        Integer index = constantIndexes.get("C" + internalName);
+        if (index == null) {
+            int nameIndex = utf8Constant(internalName);
+            writeConstant(CONSTANT_CLASS, nameIndex);
+            index = newConstant("C" + internalName, 1);
+        }
+        return index;
+    }
+
+    int intConstant(int value) {
+        Integer index = constantIndexes.get("I" + value);
+        if (index == null) {
+            try {
+                constantPool.writeByte(CONSTANT_INTEGER);
+                constantPool.writeInt(value);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            index = newConstant("I" + value, 1);
+        }
+        return index;
+    }
+
+    int floatConstant(float value) {
+        int bits = Float.floatToRawIntBits(value);
+        Integer index = constantIndexes.get("F" + bits);
+        if (index == null) {
+            try {
+                constantPool.writeByte(CONSTANT_FLOAT);
+                constantPool.writeInt(bits);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            index = newConstant("F" + bits, 1);
+        }
+        return index;
+    }
+
+    int longConstant(long value) {
+        Integer index = constantIndexes.get("J" + value);
+        if (index == null) {
+            try {
+                constantPool.writeByte(CONSTANT_LONG);
+                constantPool.writeLong(value);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            index = newConstant("J" + value, 2);
+        }
+        return index;
+    }
+
+    int doubleConstant(double value) {
+        long bits = Double.doubleToRawLongBits(value);
+        Integer index = constantIndexes.get("D" + bits);
+        if (index == null) {
+            try {
+                constantPool.writeByte(CONSTANT_DOUBLE);
+                constantPool.writeLong(bits);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            index = newConstant("D" + bits, 2);
+        }
+        return index;
+    }
+
+    int fieldConstant(String owner, String name, String descriptor) {
+        return memberConstant(CONSTANT_FIELD_REF, owner, name, descriptor);
+    }
+
+    int methodConstant(String owner, String name, String descriptor, boolean isInterface) {
+        return memberConstant(isInterface ? CONSTANT_INTERFACE_METHOD_REF : CONSTANT_METHOD_REF, owner, name,
+                descriptor);
+    }
+
+    private int memberConstant(int tag, String owner, String name, String descriptor) {
+        String key = tag + owner + "." + name + ":" + descriptor;
+        Integer index = constantIndexes.get(key);
+        if (index == null) {
+            int classIndex = classConstant(owner);
+            String nameAndTypeKey = "N" + name + ":" + descriptor;
+            Integer nameAndTypeIndex = constantIndexes.get(nameAndTypeKey);
+            if (nameAndTypeIndex == null) {
+                int nameIndex = utf8Constant(name);
+                int descriptorIndex = utf8Constant(descriptor);
+                try {
+                    constantPool.writeByte(CONSTANT_NAME_AND_TYPE);
+                    constantPool.writeShort(nameIndex);
+                    constantPool.writeShort(descriptorIndex);
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+                nameAndTypeIndex = newConstant(nameAndTypeKey, 1);
+            }
+            try {
+                constantPool.writeByte(tag);
+                constantPool.writeShort(classIndex);
+                constantPool.writeShort(nameAndTypeIndex);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            index = newConstant(key, 1);
+        }
+        return index;
+    }
+
+    private void writeConstant(int tag, int reference) {
+        try {
+            constantPool.writeByte(tag);
+            constantPool.writeShort(reference);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private int newConstant(String key, int slots) {
+        int index = constantCount;
+        constantCount += slots;
+        if (constantCount > 0xFFFF) {
+            throw new IllegalStateException("Constant pool of the generated class is too large");
+        }
+        constantIndexes.put(key, index);
+        return index;
+    }
+
+    /**
+     * Jump target within the code of a method
+     */
+    static final class Label {
+        private int position = -1;
+        private final List<Integer> jumps = new ArrayList<Integer>();   //offsets of the jumps to the label
+    }
+
+    /**
+     * Writer of the code of a method, the method is added to the class on end()
+     */
+    final class MethodWriter {
+
+        private final int access;
+        private final int name;
+        private final int descriptor;
+        private final ByteArrayOutputStream code = new ByteArrayOutputStream();
+        private final List<Label> labels = new ArrayList<Label>();
+        private int maxLocals;
+
+        private MethodWriter(int access, String name, String descriptor) {
+            this.access = access;
+            this.name = utf8Constant(name);
+            this.descriptor = utf8Constant(descriptor);
+        }
+
+        /**
+         * @param slots number of local variable slots, including this and the parameters
+         */
+        void setMaxLocals(int slots) {
+            maxLocals = slots;
+        }
+
+        void op(int opcode) {
+            code.write(opcode);
+        }
+
+        void varOp(int opcode, int slot) {
+            if (slot > 0xFF) {
+                throw new IllegalStateException("Too many local variables in the generated method");
+            }
+            code.write(opcode);
+            code.write(slot);
+        }
+
+        /**
+         * Write an instruction referring to a constant, such as getfield, invokevirtual or checkcast
+         */
+        void constantOp(int opcode, int constantIndex) {
+            code.write(opcode);
+            writeShort(constantIndex);
+        }
+
+        void invokeInterface(int constantIndex, int argumentSlots) {
+            code.write(Opcodes.INVOKEINTERFACE);
+            writeShort(constantIndex);
+            code.write(argumentSlots + 1);
+            code.write(0);
+        }
+
+        void pushInt(int value) {
+            if (value >= -1 && value <= 5) {
+                code.write(Opcodes.ICONST_0 + value);
+            } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+                code.write(Opcodes.BIPUSH);
+                code.write(value);
+            } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+                code.write(Opcodes.SIPUSH);
+                writeShort(value);
+            } else {
+                constantOp(Opcodes.LDC_W, intConstant(value));
+            }
+        }
+
+        void pushLong(long value) {
+            if (value == 0L || value == 1L) {
+                code.write(Opcodes.LCONST_0 + (int) value);
+            } else {
+                constantOp(Opcodes.LDC2_W, longConstant(value));
+            }
+        }
+
+        void pushFloat(float value) {
+            constantOp(Opcodes.LDC_W, floatConstant(value));
+        }
+
+        void pushDouble(double value) {
+            constantOp(Opcodes.LDC2_W, doubleConstant(value));
+        }
+
+        void jump(int opcode, Label label) {
+            label.jumps.add(code.size());
+            if (!labels.contains(label)) {
+                labels.add(label);
+            }
+            code.write(opcode);
+            writeShort(0);
+        }
+
+        void mark(Label label) {
+            label.position = code.size();
+            if (!labels.contains(label)) {
+                labels.add(label);
+            }
+        }
+
+        /**
+         * Resolve the jumps and add the method to the class
+         *
+         * @param maxStack maximum depth of the operand stack
+         */
+        void end(int maxStack) {
+            byte[] bytes = code.toByteArray();
+            if (bytes.length > 0xFFFF) {
+                throw new IllegalStateException("Generated method is too large");
+            }
+            for (Label label : labels) {
+                if (label.position < 0 && !label.jumps.isEmpty()) {
+                    throw new IllegalStateException("Jump to an unmarked label in the generated method");
+                }
+                for (int jump : label.jumps) {
+                    int offset = label.position - jump;
+                    if (offset < Short.MIN_VALUE || offset > Short.MAX_VALUE) {
+                        throw new IllegalStateException("Generated method is too large");
+                    }
+                    bytes[jump + 1] = (byte) (offset >> 8);
+                    bytes[jump + 2] = (byte) offset;
+                }
+            }
+            ByteArrayOutputStream methodBytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(methodBytes);
+            try {
+                out.writeShort(access);
+                out.writeShort(name);
+                out.writeShort(descriptor);
+                out.writeShort(1);
+                out.writeShort(utf8Constant("Code"));
+                out.writeInt(12 + bytes.length);
+                out.writeShort(maxStack);
+                out.writeShort(maxLocals);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+                out.writeShort(0);
+                out.writeShort(0);
+                out.flush();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            methods.add(methodBytes.toByteArray());
+        }
+
+        private void writeShort(int value) {
+            code.write(value >> 8);
+            code.write(value);
+        }
+    }
+}
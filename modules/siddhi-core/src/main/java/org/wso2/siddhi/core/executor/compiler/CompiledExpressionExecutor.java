@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.executor.compiler;
+
+import org.wso2.siddhi.core.event.ComplexEvent;
+import org.wso2.siddhi.core.event.stream.StreamEvent;
+import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.query.api.definition.Attribute;
+
+/**
+ * Super class of the numeric executors generated by the {@link ExpressionCompiler}, evaluating a math expression
+ * of a tree of interpreted executors, the source, with generated code. Events other than StreamEvents are
+ * evaluated by the source.
+ */
+public abstract class CompiledExpressionExecutor implements ExpressionExecutor {
+
+    private ExpressionExecutor source;
+
+    @Override
+    public Object execute(ComplexEvent event) {
+        if (event instanceof StreamEvent) {
+            return evaluate((StreamEvent) event);
+        }
+        return source.execute(event);
+    }
+
+    /**
+     * Generated evaluation of the expression
+     *
+     * @param event event to be evaluated
+     * @return result of the expression, or null when an attribute it reads is null
+     */
+    public abstract Object evaluate(StreamEvent event);
+
+    @Override
+    public Attribute.Type getReturnType() {
+        return source.getReturnType();
+    }
+
+    /**
+     * @return the interpreted executor tree this executor is compiled from
+     */
+    public ExpressionExecutor getSource() {
+        return source;
+    }
+
+    void setSource(ExpressionExecutor source) {
+        this.source = source;
+    }
+
+    @Override
+    public ExpressionExecutor cloneExecutor(String key) {
+        return ExpressionCompiler.bind(getClass(), source.cloneExecutor(key));
+    }
+}
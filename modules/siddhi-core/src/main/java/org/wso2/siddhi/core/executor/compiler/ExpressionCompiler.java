@@ -0,0 +1,677 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.executor.compiler;
+
+import org.apache.log4j.Logger;
+import org.wso2.siddhi.core.exception.ExecutionPlanRuntimeException;
+import org.wso2.siddhi.core.executor.ConstantExpressionExecutor;
+import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.core.executor.VariableExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.AndConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.NotConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.OrConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.compare.CompareConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.compare.equal.EqualCompareConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.compare.greater_than.GreaterThanCompareConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.compare.greater_than_equal.GreaterThanEqualCompareConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.compare.less_than.LessThanCompareConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.compare.less_than_equal.LessThanEqualCompareConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.compare.not_equal.NotEqualCompareConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.math.MathExpressionExecutor;
+import org.wso2.siddhi.core.executor.math.Subtract.SubtractExpressionExecutorDouble;
+import org.wso2.siddhi.core.executor.math.Subtract.SubtractExpressionExecutorFloat;
+import org.wso2.siddhi.core.executor.math.Subtract.SubtractExpressionExecutorInt;
+import org.wso2.siddhi.core.executor.math.Subtract.SubtractExpressionExecutorLong;
+import org.wso2.siddhi.core.executor.math.add.AddExpressionExecutorDouble;
+import org.wso2.siddhi.core.executor.math.add.AddExpressionExecutorFloat;
+import org.wso2.siddhi.core.executor.math.add.AddExpressionExecutorInt;
+import org.wso2.siddhi.core.executor.math.add.AddExpressionExecutorLong;
+import org.wso2.siddhi.core.executor.math.divide.DivideExpressionExecutorDouble;
+import org.wso2.siddhi.core.executor.math.mod.ModExpressionExecutorDouble;
+import org.wso2.siddhi.core.executor.math.mod.ModExpressionExecutorFloat;
+import org.wso2.siddhi.core.executor.math.mod.ModExpressionExecutorInt;
+import org.wso2.siddhi.core.executor.math.mod.ModExpressionExecutorLong;
+import org.wso2.siddhi.core.executor.math.multiply.MultiplyExpressionExecutorDouble;
+import org.wso2.siddhi.core.executor.math.multiply.MultiplyExpressionExecutorFloat;
+import org.wso2.siddhi.core.executor.math.multiply.MultiplyExpressionExecutorInt;
+import org.wso2.siddhi.core.executor.math.multiply.MultiplyExpressionExecutorLong;
+import org.wso2.siddhi.query.api.definition.Attribute;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.wso2.siddhi.core.executor.compiler.Opcodes.*;
+
+/**
+ * Compiles a tree of interpreted executors in to a single generated executor class, evaluating the tree with
+ * straight line, type specialized code: attributes are read through the typed accessors of the StreamEvent,
+ * constants are inlined, and the And, Or, Not, numeric compare and math operations are evaluated on primitives
+ * without boxing the intermediate values.
+ * <p/>
+ * Executors the compiler does not know, such as functions, extensions and scripts, as well as compare executors
+ * on STRING and BOOL values, are kept interpreted and called from the generated code. A tree which does not
+ * have a compilable root is returned as is.
+ * <p/>
+ * The generated code evaluates compare operations reading a null attribute to false as the interpreted compare
+ * executors do, and returns null from math expressions reading a null attribute, where the interpreted math
+ * executors would fail.
+ */
+public final class ExpressionCompiler {
+
+    private static final Logger log = Logger.getLogger(ExpressionCompiler.class);
+
+    private static final String STREAM_EVENT = "org/wso2/siddhi/core/event/stream/StreamEvent";
+    private static final String COMPLEX_EVENT = "org/wso2/siddhi/core/event/ComplexEvent";
+    private static final String EXPRESSION_EXECUTOR = "org/wso2/siddhi/core/executor/ExpressionExecutor";
+    private static final String GENERATED_CLASS_PREFIX =
+            ExpressionCompiler.class.getPackage().getName() + ".GeneratedExpressionExecutor";
+    private static final int MAX_STACK = 6;
+
+    private static final int FALLBACK = 0;
+    private static final int VARIABLE = 1;
+    private static final int CONSTANT = 2;
+    private static final int AND = 3;
+    private static final int OR = 4;
+    private static final int NOT = 5;
+    private static final int COMPARE = 6;
+    private static final int MATH = 7;
+
+    //compare operations, ordered as the if<cond> instructions such that negation flips the lowest bit
+    private static final int EQUAL = 0;
+    private static final int NOT_EQUAL = 1;
+    private static final int LESS_THAN = 2;
+    private static final int GREATER_THAN_EQUAL = 3;
+    private static final int GREATER_THAN = 4;
+    private static final int LESS_THAN_EQUAL = 5;
+
+    //math operations, as offsets from the int variant of the instruction
+    private static final int ADD = IADD;
+    private static final int SUBTRACT = ISUB;
+    private static final int MULTIPLY = IMUL;
+    private static final int DIVIDE = IDIV;
+    private static final int MOD = IREM;
+
+    private static final Map<Class<?>, Integer> MATH_OPERATIONS = new HashMap<Class<?>, Integer>();
+    private static final AtomicInteger generatedClassCount = new AtomicInteger();
+
+    static {
+        MATH_OPERATIONS.put(AddExpressionExecutorInt.class, ADD);
+        MATH_OPERATIONS.put(AddExpressionExecutorLong.class, ADD);
+        MATH_OPERATIONS.put(AddExpressionExecutorFloat.class, ADD);
+        MATH_OPERATIONS.put(AddExpressionExecutorDouble.class, ADD);
+        MATH_OPERATIONS.put(SubtractExpressionExecutorInt.class, SUBTRACT);
+        MATH_OPERATIONS.put(SubtractExpressionExecutorLong.class, SUBTRACT);
+        MATH_OPERATIONS.put(SubtractExpressionExecutorFloat.class, SUBTRACT);
+        MATH_OPERATIONS.put(SubtractExpressionExecutorDouble.class, SUBTRACT);
+        MATH_OPERATIONS.put(MultiplyExpressionExecutorInt.class, MULTIPLY);
+        MATH_OPERATIONS.put(MultiplyExpressionExecutorLong.class, MULTIPLY);
+        MATH_OPERATIONS.put(MultiplyExpressionExecutorFloat.class, MULTIPLY);
+        MATH_OPERATIONS.put(MultiplyExpressionExecutorDouble.class, MULTIPLY);
+        MATH_OPERATIONS.put(ModExpressionExecutorInt.class, MOD);
+        MATH_OPERATIONS.put(ModExpressionExecutorLong.class, MOD);
+        MATH_OPERATIONS.put(ModExpressionExecutorFloat.class, MOD);
+        MATH_OPERATIONS.put(ModExpressionExecutorDouble.class, MOD);
+        //the other divide executors compute in double regardless of their return type, hence kept interpreted
+        MATH_OPERATIONS.put(DivideExpressionExecutorDouble.class, DIVIDE);
+    }
+
+    private ExpressionCompiler() {
+    }
+
+    /**
+     * Compile an executor tree
+     *
+     * @param executor root of the interpreted executor tree, with the positions of its variables resolved
+     * @return generated executor evaluating the tree, or the given executor when the tree cannot be compiled
+     */
+    public static ExpressionExecutor compile(ExpressionExecutor executor) {
+        int kind = kindOf(executor);
+        if (kind == FALLBACK || kind == VARIABLE || kind == CONSTANT) {
+            return executor;
+        }
+        String className = GENERATED_CLASS_PREFIX + generatedClassCount.incrementAndGet();
+        try {
+            Generator generator = new Generator(className.replace('.', '/'), kind != MATH);
+            byte[] classBytes = generator.generate(executor);
+            Class<?> generatedClass = new GeneratedClassLoader(ExpressionCompiler.class.getClassLoader())
+                    .define(className, classBytes);
+            return (ExpressionExecutor) bind(generatedClass, executor);
+        } catch (RuntimeException e) {
+            log.warn("Cannot compile executor " + executor + ", hence evaluating it interpreted", e);
+            return executor;
+        } catch (LinkageError e) {
+            log.warn("Cannot load compiled executor of " + executor + ", hence evaluating it interpreted", e);
+            return executor;
+        }
+    }
+
+    /**
+     * Create an instance of a generated class, evaluating the given executor tree
+     *
+     * @param generatedClass class generated from an executor tree of the same shape
+     * @param source         executor tree providing the variable positions and the interpreted executors
+     * @return the generated executor
+     */
+    static <T> T bind(Class<T> generatedClass, ExpressionExecutor source) {
+        List<int[]> positions = new ArrayList<int[]>();
+        List<ExpressionExecutor> executors = new ArrayList<ExpressionExecutor>();
+        collectLeaves(source, positions, executors);
+        try {
+            T instance = generatedClass.newInstance();
+            for (int i = 0; i < positions.size(); i++) {
+                generatedClass.getField("p" + i).set(instance, positions.get(i));
+            }
+            for (int i = 0; i < executors.size(); i++) {
+                generatedClass.getField("e" + i).set(instance, executors.get(i));
+            }
+            if (instance instanceof CompiledConditionExpressionExecutor) {
+                ((CompiledConditionExpressionExecutor) instance).setSource(source);
+            } else {
+                ((CompiledExpressionExecutor) instance).setSource(source);
+            }
+            return instance;
+        } catch (InstantiationException e) {
+            throw new ExecutionPlanRuntimeException("Cannot create compiled executor of " + source, e);
+        } catch (IllegalAccessException e) {
+            throw new ExecutionPlanRuntimeException("Cannot create compiled executor of " + source, e);
+        } catch (NoSuchFieldException e) {
+            throw new ExecutionPlanRuntimeException("Compiled executor does not match " + source, e);
+        }
+    }
+
+    /**
+     * Collect the variable positions and interpreted executors of a tree, in the order the generator visits them
+     */
+    private static void collectLeaves(ExpressionExecutor executor, List<int[]> positions,
+                                      List<ExpressionExecutor> executors) {
+        switch (kindOf(executor)) {
+            case VARIABLE:
+                positions.add(((VariableExpressionExecutor) executor).getPosition());
+                break;
+            case CONSTANT:
+                break;
+            case AND:
+                collectLeaves(((AndConditionExpressionExecutor) executor).getLeftConditionExecutor(), positions,
+                        executors);
+                collectLeaves(((AndConditionExpressionExecutor) executor).getRightConditionExecutor(), positions,
+                        executors);
+                break;
+            case OR:
+                collectLeaves(((OrConditionExpressionExecutor) executor).getLeftConditionExecutor(), positions,
+                        executors);
+                collectLeaves(((OrConditionExpressionExecutor) executor).getRightConditionExecutor(), positions,
+                        executors);
+                break;
+            case NOT:
+                collectLeaves(((NotConditionExpressionExecutor) executor).getConditionExecutor(), positions,
+                        executors);
+                break;
+            case COMPARE:
+                collectLeaves(((CompareConditionExpressionExecutor) executor).getLeftExpressionExecutor(), positions,
+                        executors);
+                collectLeaves(((CompareConditionExpressionExecutor) executor).getRightExpressionExecutor(), positions,
+                        executors);
+                break;
+            case MATH:
+                collectLeaves(((MathExpressionExecutor) executor).getLeftExpressionExecutor(), positions, executors);
+                collectLeaves(((MathExpressionExecutor) executor).getRightExpressionExecutor(), positions, executors);
+                break;
+            default:
+                executors.add(executor);
+        }
+    }
+
+    private static int kindOf(ExpressionExecutor executor) {
+        if (executor instanceof VariableExpressionExecutor) {
+            Attribute.Type type = executor.getReturnType();
+            return isNumeric(type) || type == Attribute.Type.BOOL ? VARIABLE : FALLBACK;
+        } else if (executor instanceof ConstantExpressionExecutor) {
+            Attribute.Type type = executor.getReturnType();
+            Object value = ((ConstantExpressionExecutor) executor).getValue();
+            if (isNumeric(type) && value instanceof Number || type == Attribute.Type.BOOL && value instanceof Boolean) {
+                return CONSTANT;
+            }
+            return FALLBACK;
+        } else if (executor instanceof AndConditionExpressionExecutor) {
+            return AND;
+        } else if (executor instanceof OrConditionExpressionExecutor) {
+            return OR;
+        } else if (executor instanceof NotConditionExpressionExecutor) {
+            return NOT;
+        } else if (executor instanceof CompareConditionExpressionExecutor) {
+            CompareConditionExpressionExecutor compareExecutor = (CompareConditionExpressionExecutor) executor;
+            if (compareOperation(compareExecutor) >= 0 &&
+                    isNumeric(compareExecutor.getLeftExpressionExecutor().getReturnType()) &&
+                    isNumeric(compareExecutor.getRightExpressionExecutor().getReturnType())) {
+                return COMPARE;
+            }
+            return FALLBACK;
+        } else if (MATH_OPERATIONS.containsKey(executor.getClass())) {
+            return MATH;
+        }
+        return FALLBACK;
+    }
+
+    private static int compareOperation(CompareConditionExpressionExecutor executor) {
+        if (executor instanceof EqualCompareConditionExpressionExecutor) {
+            return EQUAL;
+        } else if (executor instanceof NotEqualCompareConditionExpressionExecutor) {
+            return NOT_EQUAL;
+        } else if (executor instanceof LessThanCompareConditionExpressionExecutor) {
+            return LESS_THAN;
+        } else if (executor instanceof GreaterThanEqualCompareConditionExpressionExecutor) {
+            return GREATER_THAN_EQUAL;
+        } else if (executor instanceof GreaterThanCompareConditionExpressionExecutor) {
+            return GREATER_THAN;
+        } else if (executor instanceof LessThanEqualCompareConditionExpressionExecutor) {
+            return LESS_THAN_EQUAL;
+        }
+        return -1;
+    }
+
+    private static boolean isNumeric(Attribute.Type type) {
+        switch (type) {
+            case INT:
+            case LONG:
+            case FLOAT:
+            case DOUBLE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Type the operands of a compare are converted to, as of the interpreted compare executors: the binary
+     * numeric promotion of Java, except for equality of FLOAT and LONG values which is decided on doubles
+     */
+    private static Attribute.Type compareType(int operation, Attribute.Type left, Attribute.Type right) {
+        if (left == Attribute.Type.DOUBLE || right == Attribute.Type.DOUBLE) {
+            return Attribute.Type.DOUBLE;
+        } else if (left == Attribute.Type.FLOAT || right == Attribute.Type.FLOAT) {
+            if ((operation == EQUAL || operation == NOT_EQUAL) &&
+                    (left == Attribute.Type.LONG || right == Attribute.Type.LONG)) {
+                return Attribute.Type.DOUBLE;
+            }
+            return Attribute.Type.FLOAT;
+        } else if (left == Attribute.Type.LONG || right == Attribute.Type.LONG) {
+            return Attribute.Type.LONG;
+        }
+        return Attribute.Type.INT;
+    }
+
+    /**
+     * Generator of the class of one executor tree
+     */
+    private static final class Generator {
+
+        private final String className;
+        private final boolean condition;
+        private final ClassFileWriter writer;
+        private ClassFileWriter.MethodWriter method;
+        private int positionCount = 0;
+        private int executorCount = 0;
+        private int nextLocal = 2;          //slot 0 holds this and slot 1 the event
+
+        private Generator(String className, boolean condition) {
+            this.className = className;
+            this.condition = condition;
+            this.writer = new ClassFileWriter(className, superClassName());
+        }
+
+        private String superClassName() {
+            return (condition ? CompiledConditionExpressionExecutor.class : CompiledExpressionExecutor.class)
+                    .getName().replace('.', '/');
+        }
+
+        private byte[] generate(ExpressionExecutor executor) {
+            ClassFileWriter.MethodWriter constructor = writer.addMethod(ClassFileWriter.ACC_PUBLIC, "<init>", "()V");
+            constructor.setMaxLocals(1);
+            constructor.varOp(ALOAD, 0);
+            constructor.constantOp(INVOKESPECIAL, writer.methodConstant(superClassName(), "<init>", "()V", false));
+            constructor.op(RETURN);
+            constructor.end(1);
+
+            if (condition) {
+                method = writer.addMethod(ClassFileWriter.ACC_PUBLIC, "evaluate", "(L" + STREAM_EVENT + ";)Z");
+                ClassFileWriter.Label falseLabel = new ClassFileWriter.Label();
+                emitCondition(executor, falseLabel, false);
+                method.op(ICONST_1);
+                method.op(IRETURN);
+                method.mark(falseLabel);
+                method.op(ICONST_0);
+                method.op(IRETURN);
+            } else {
+                method = writer.addMethod(ClassFileWriter.ACC_PUBLIC, "evaluate",
+                        "(L" + STREAM_EVENT + ";)Ljava/lang/Object;");
+                ClassFileWriter.Label nullLabel = new ClassFileWriter.Label();
+                Attribute.Type type = emitNumeric(executor, nullLabel);
+                box(type);
+                method.op(ARETURN);
+                method.mark(nullLabel);
+                method.op(ACONST_NULL);
+                method.op(ARETURN);
+            }
+            method.setMaxLocals(nextLocal);
+            method.end(MAX_STACK);
+
+            for (int i = 0; i < positionCount; i++) {
+                writer.addField(ClassFileWriter.ACC_PUBLIC, "p" + i, "[I");
+            }
+            for (int i = 0; i < executorCount; i++) {
+                writer.addField(ClassFileWriter.ACC_PUBLIC, "e" + i, "L" + EXPRESSION_EXECUTOR + ";");
+            }
+            return writer.toByteArray();
+        }
+
+        /**
+         * Emit the evaluation of a BOOL executor, jumping to the target when the result equals jumpIf and
+         * falling through otherwise. The operand stack is empty before and after.
+         */
+        private void emitCondition(ExpressionExecutor executor, ClassFileWriter.Label target, boolean jumpIf) {
+            switch (kindOf(executor)) {
+                case AND: {
+                    AndConditionExpressionExecutor andExecutor = (AndConditionExpressionExecutor) executor;
+                    if (jumpIf) {
+                        ClassFileWriter.Label skip = new ClassFileWriter.Label();
+                        emitCondition(andExecutor.getLeftConditionExecutor(), skip, false);
+                        emitCondition(andExecutor.getRightConditionExecutor(), target, true);
+                        method.mark(skip);
+                    } else {
+                        emitCondition(andExecutor.getLeftConditionExecutor(), target, false);
+                        emitCondition(andExecutor.getRightConditionExecutor(), target, false);
+                    }
+                    break;
+                }
+                case OR: {
+                    OrConditionExpressionExecutor orExecutor = (OrConditionExpressionExecutor) executor;
+                    if (jumpIf) {
+                        emitCondition(orExecutor.getLeftConditionExecutor(), target, true);
+                        emitCondition(orExecutor.getRightConditionExecutor(), target, true);
+                    } else {
+                        ClassFileWriter.Label skip = new ClassFileWriter.Label();
+                        emitCondition(orExecutor.getLeftConditionExecutor(), skip, true);
+                        emitCondition(orExecutor.getRightConditionExecutor(), target, false);
+                        method.mark(skip);
+                    }
+                    break;
+                }
+                case NOT:
+                    emitCondition(((NotConditionExpressionExecutor) executor).getConditionExecutor(), target, !jumpIf);
+                    break;
+                case COMPARE:
+                    emitCompare((CompareConditionExpressionExecutor) executor, target, jumpIf);
+                    break;
+                case VARIABLE:
+                    loadPosition(positionCount++);
+                    invokeStreamEvent("getBoolAttribute", "([I)Z");
+                    method.jump(jumpIf ? IFNE : IFEQ, target);
+                    break;
+                case CONSTANT:
+                    method.op((Boolean) ((ConstantExpressionExecutor) executor).getValue() ? ICONST_1 : ICONST_0);
+                    method.jump(jumpIf ? IFNE : IFEQ, target);
+                    break;
+                default:
+                    if (executor.getReturnType() != Attribute.Type.BOOL) {
+                        throw new IllegalStateException("Condition " + executor + " is not of type BOOL");
+                    }
+                    callExecutor(executorCount++);
+                    method.constantOp(CHECKCAST, writer.classConstant("java/lang/Boolean"));
+                    method.constantOp(INVOKEVIRTUAL, writer.methodConstant("java/lang/Boolean", "booleanValue", "()Z",
+                            false));
+                    method.jump(jumpIf ? IFNE : IFEQ, target);
+            }
+        }
+
+        private void emitCompare(CompareConditionExpressionExecutor executor, ClassFileWriter.Label target,
+                                 boolean jumpIf) {
+            int operation = compareOperation(executor);
+            ClassFileWriter.Label nullLabel = jumpIf ? new ClassFileWriter.Label() : target;
+            Attribute.Type type = compareType(operation, executor.getLeftExpressionExecutor().getReturnType(),
+                    executor.getRightExpressionExecutor().getReturnType());
+
+            convert(emitNumeric(executor.getLeftExpressionExecutor(), nullLabel), type);
+            int left = store(type);
+            convert(emitNumeric(executor.getRightExpressionExecutor(), nullLabel), type);
+            int right = store(type);
+            load(type, left);
+            load(type, right);
+
+            int condition = jumpIf ? operation : operation ^ 1;
+            switch (type) {
+                case INT:
+                    method.jump(IF_ICMPEQ + condition, target);
+                    break;
+                case LONG:
+                    method.op(LCMP);
+                    method.jump(IFEQ + condition, target);
+                    break;
+                default:
+                    //compare such that NaN fails every operation except NOT_EQUAL
+                    boolean lessThan = operation == LESS_THAN || operation == LESS_THAN_EQUAL;
+                    if (type == Attribute.Type.FLOAT) {
+                        method.op(lessThan ? FCMPG : FCMPL);
+                    } else {
+                        method.op(lessThan ? DCMPG : DCMPL);
+                    }
+                    method.jump(IFEQ + condition, target);
+            }
+            if (jumpIf) {
+                method.mark(nullLabel);
+            }
+        }
+
+        /**
+         * Emit the evaluation of a numeric executor, leaving its value on the operand stack, or jumping to the
+         * null label with an empty operand stack when an attribute it reads is null
+         *
+         * @return type of the value left on the stack
+         */
+        private Attribute.Type emitNumeric(ExpressionExecutor executor, ClassFileWriter.Label nullLabel) {
+            Attribute.Type type = executor.getReturnType();
+            if (!isNumeric(type)) {
+                throw new IllegalStateException("Expression " + executor + " is not numeric");
+            }
+            switch (kindOf(executor)) {
+                case VARIABLE: {
+                    int position = positionCount++;
+                    loadPosition(position);
+                    invokeStreamEvent("isNullAttribute", "([I)Z");
+                    method.jump(IFNE, nullLabel);
+                    loadPosition(position);
+                    switch (type) {
+                        case INT:
+                            invokeStreamEvent("getIntAttribute", "([I)I");
+                            break;
+                        case LONG:
+                            invokeStreamEvent("getLongAttribute", "([I)J");
+                            break;
+                        case FLOAT:
+                            invokeStreamEvent("getDoubleAttribute", "([I)D");
+                            method.op(D2F);
+                            break;
+                        default:
+                            invokeStreamEvent("getDoubleAttribute", "([I)D");
+                    }
+                    return type;
+                }
+                case CONSTANT: {
+                    Number value = (Number) ((ConstantExpressionExecutor) executor).getValue();
+                    switch (type) {
+                        case INT:
+                            method.pushInt(value.intValue());
+                            break;
+                        case LONG:
+                            method.pushLong(value.longValue());
+                            break;
+                        case FLOAT:
+                            method.pushFloat(value.floatValue());
+                            break;
+                        default:
+                            method.pushDouble(value.doubleValue());
+                    }
+                    return type;
+                }
+                case MATH: {
+                    MathExpressionExecutor mathExecutor = (MathExpressionExecutor) executor;
+                    convert(emitNumeric(mathExecutor.getLeftExpressionExecutor(), nullLabel), type);
+                    int left = store(type);
+                    convert(emitNumeric(mathExecutor.getRightExpressionExecutor(), nullLabel), type);
+                    int right = store(type);
+                    load(type, left);
+                    load(type, right);
+                    method.op(MATH_OPERATIONS.get(executor.getClass()) + typeOffset(type));
+                    return type;
+                }
+                default: {
+                    callExecutor(executorCount++);
+                    int value = store(Attribute.Type.OBJECT);
+                    load(Attribute.Type.OBJECT, value);
+                    method.jump(IFNULL, nullLabel);
+                    load(Attribute.Type.OBJECT, value);
+                    method.constantOp(CHECKCAST, writer.classConstant("java/lang/Number"));
+                    switch (type) {
+                        case INT:
+                            invokeNumber("intValue", "()I");
+                            break;
+                        case LONG:
+                            invokeNumber("longValue", "()J");
+                            break;
+                        case FLOAT:
+                            invokeNumber("floatValue", "()F");
+                            break;
+                        default:
+                            invokeNumber("doubleValue", "()D");
+                    }
+                    return type;
+                }
+            }
+        }
+
+        /**
+         * Push the event and the position of a variable
+         */
+        private void loadPosition(int position) {
+            method.varOp(ALOAD, 1);
+            method.varOp(ALOAD, 0);
+            method.constantOp(GETFIELD, writer.fieldConstant(className, "p" + position, "[I"));
+        }
+
+        /**
+         * Push the result of an interpreted executor
+         */
+        private void callExecutor(int executor) {
+            method.varOp(ALOAD, 0);
+            method.constantOp(GETFIELD, writer.fieldConstant(className, "e" + executor,
+                    "L" + EXPRESSION_EXECUTOR + ";"));
+            method.varOp(ALOAD, 1);
+            method.invokeInterface(writer.methodConstant(EXPRESSION_EXECUTOR, "execute",
+                    "(L" + COMPLEX_EVENT + ";)Ljava/lang/Object;", true), 1);
+        }
+
+        private void invokeStreamEvent(String name, String descriptor) {
+            method.constantOp(INVOKEVIRTUAL, writer.methodConstant(STREAM_EVENT, name, descriptor, false));
+        }
+
+        private void invokeNumber(String name, String descriptor) {
+            method.constantOp(INVOKEVIRTUAL, writer.methodConstant("java/lang/Number", name, descriptor, false));
+        }
+
+        private void box(Attribute.Type type) {
+            switch (type) {
+                case INT:
+                    method.constantOp(INVOKESTATIC, writer.methodConstant("java/lang/Integer", "valueOf",
+                            "(I)Ljava/lang/Integer;", false));
+                    break;
+                case LONG:
+                    method.constantOp(INVOKESTATIC, writer.methodConstant("java/lang/Long", "valueOf",
+                            "(J)Ljava/lang/Long;", false));
+                    break;
+                case FLOAT:
+                    method.constantOp(INVOKESTATIC, writer.methodConstant("java/lang/Float", "valueOf",
+                            "(F)Ljava/lang/Float;", false));
+                    break;
+                default:
+                    method.constantOp(INVOKESTATIC, writer.methodConstant("java/lang/Double", "valueOf",
+                            "(D)Ljava/lang/Double;", false));
+            }
+        }
+
+        private void convert(Attribute.Type from, Attribute.Type to) {
+            if (from == to) {
+                return;
+            }
+            switch (from) {
+                case INT:
+                    method.op(to == Attribute.Type.LONG ? I2L : to == Attribute.Type.FLOAT ? I2F : I2D);
+                    break;
+                case LONG:
+                    method.op(to == Attribute.Type.INT ? L2I : to == Attribute.Type.FLOAT ? L2F : L2D);
+                    break;
+                case FLOAT:
+                    method.op(to == Attribute.Type.INT ? F2I : to == Attribute.Type.LONG ? F2L : F2D);
+                    break;
+                default:
+                    method.op(to == Attribute.Type.INT ? D2I : to == Attribute.Type.LONG ? D2L : D2F);
+            }
+        }
+
+        /**
+         * Store the value on top of the stack in a new local variable
+         *
+         * @return slot of the local variable
+         */
+        private int store(Attribute.Type type) {
+            int slot = nextLocal;
+            nextLocal += type == Attribute.Type.LONG || type == Attribute.Type.DOUBLE ? 2 : 1;
+            method.varOp(type == Attribute.Type.OBJECT ? ASTORE : ISTORE + typeOffset(type), slot);
+            return slot;
+        }
+
+        private void load(Attribute.Type type, int slot) {
+            method.varOp(type == Attribute.Type.OBJECT ? ALOAD : ILOAD + typeOffset(type), slot);
+        }
+
+        private static int typeOffset(Attribute.Type type) {
+            switch (type) {
+                case INT:
+                    return 0;
+                case LONG:
+                    return 1;
+                case FLOAT:
+                    return 2;
+                default:
+                    return 3;
+            }
+        }
+    }
+
+    /**
+     * Class loader of a generated class, such that the class can be unloaded once its executors are released
+     */
+    private static final class GeneratedClassLoader extends ClassLoader {
+
+        private GeneratedClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        private Class<?> define(String name, byte[] classBytes) {
+            return defineClass(name, classBytes, 0, classBytes.length);
+        }
+    }
+}
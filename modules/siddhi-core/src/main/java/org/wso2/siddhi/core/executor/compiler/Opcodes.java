@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.executor.compiler;
+
+/**
+ * JVM instructions used by the generated executors
+ */
+final class Opcodes {
+
+    static final int ACONST_NULL = 0x01;
+    static final int ICONST_0 = 0x03;
+    static final int ICONST_1 = 0x04;
+    static final int LCONST_0 = 0x09;
+    static final int BIPUSH = 0x10;
+    static final int SIPUSH = 0x11;
+    static final int LDC_W = 0x13;
+    static final int LDC2_W = 0x14;
+
+    static final int ILOAD = 0x15;
+    static final int LLOAD = 0x16;
+    static final int FLOAD = 0x17;
+    static final int DLOAD = 0x18;
+    static final int ALOAD = 0x19;
+    static final int ISTORE = 0x36;
+    static final int LSTORE = 0x37;
+    static final int FSTORE = 0x38;
+    static final int DSTORE = 0x39;
+    static final int ASTORE = 0x3A;
+
+    static final int IADD = 0x60;
+    static final int ISUB = 0x64;
+    static final int IMUL = 0x68;
+    static final int IDIV = 0x6C;
+    static final int IREM = 0x70;
+
+    static final int I2L = 0x85;
+    static final int I2F = 0x86;
+    static final int I2D = 0x87;
+    static final int L2I = 0x88;
+    static final int L2F = 0x89;
+    static final int L2D = 0x8A;
+    static final int F2I = 0x8B;
+    static final int F2L = 0x8C;
+    static final int F2D = 0x8D;
+    static final int D2I = 0x8E;
+    static final int D2L = 0x8F;
+    static final int D2F = 0x90;
+
+    static final int LCMP = 0x94;
+    static final int FCMPL = 0x95;
+    static final int FCMPG = 0x96;
+    static final int DCMPL = 0x97;
+    static final int DCMPG = 0x98;
+
+    static final int IFEQ = 0x99;
+    static final int IFNE = 0x9A;
+    static final int IFLT = 0x9B;
+    static final int IFGE = 0x9C;
+    static final int IFGT = 0x9D;
+    static final int IFLE = 0x9E;
+    static final int IF_ICMPEQ = 0x9F;
+    static final int IF_ICMPNE = 0xA0;
+    static final int IF_ICMPLT = 0xA1;
+    static final int IF_ICMPGE = 0xA2;
+    static final int IF_ICMPGT = 0xA3;
+    static final int IF_ICMPLE = 0xA4;
+    static final int GOTO = 0xA7;
+
+    static final int IRETURN = 0xAC;
+    static final int ARETURN = 0xB0;
+    static final int RETURN = 0xB1;
+
+    static final int GETFIELD = 0xB4;
+    static final int INVOKEVIRTUAL = 0xB6;
+    static final int INVOKESPECIAL = 0xB7;
+    static final int INVOKESTATIC = 0xB8;
+    static final int INVOKEINTERFACE = 0xB9;
+    static final int CHECKCAST = 0xC0;
+    static final int IFNULL = 0xC6;
+
+    private Opcodes() {
+    }
+}
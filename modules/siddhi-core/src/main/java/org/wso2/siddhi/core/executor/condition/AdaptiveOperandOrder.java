@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.executor.condition;
+
+import org.wso2.siddhi.core.executor.ConstantExpressionExecutor;
+import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.core.executor.VariableExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.compare.CompareConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.math.MathExpressionExecutor;
+import org.wso2.siddhi.core.executor.math.mod.ModExpressionExecutorInt;
+import org.wso2.siddhi.core.executor.math.mod.ModExpressionExecutorLong;
+
+/**
+ * Evaluation order of the operands of an And or Or condition, adapted at runtime to the cost and selectivity
+ * sampled for each operand. The operand evaluated first is the one minimizing the expected cost,
+ * cost(first) + p * cost(second), where p is the probability of the first operand not deciding the result.
+ * <p/>
+ * Every few evaluations both operands are evaluated and timed, hence the order is only adapted for operands which
+ * are free of side effects and cannot fail, such that the result and the behaviour of the condition is the same
+ * in either order. The statistics are not synchronized, as a lost update only delays a reordering.
+ */
+public class AdaptiveOperandOrder {
+
+    private static final int SAMPLE_INTERVAL_MASK = 31;
+    private static final int SAMPLES_PER_REORDER = 64;
+    private static final double REORDER_THRESHOLD = 0.9;
+
+    private final boolean conjunction;
+    private volatile boolean swapped;
+    private int evaluations;
+    private int samples;
+    private long leftCost;
+    private long rightCost;
+    private int leftTrueCount;
+    private int rightTrueCount;
+
+    /**
+     * @param conjunction true for an And condition, whose second operand is evaluated when the first is true,
+     *                    false for an Or condition
+     */
+    public AdaptiveOperandOrder(boolean conjunction) {
+        this.conjunction = conjunction;
+    }
+
+    /**
+     * @return whether the right operand is to be evaluated first
+     */
+    public boolean isSwapped() {
+        return swapped;
+    }
+
+    /**
+     * @return whether both operands are to be evaluated and recorded for the current evaluation
+     */
+    public boolean sample() {
+        return (++evaluations & SAMPLE_INTERVAL_MASK) == 0;
+    }
+
+    /**
+     * Record a sampled evaluation, reordering the operands once enough samples are recorded
+     *
+     * @param leftCost    nanoseconds taken by the left operand
+     * @param leftResult  result of the left operand
+     * @param rightCost   nanoseconds taken by the right operand
+     * @param rightResult result of the right operand
+     */
+    public void record(long leftCost, boolean leftResult, long rightCost, boolean rightResult) {
+        this.leftCost += leftCost;
+        this.rightCost += rightCost;
+        if (leftResult) {
+            leftTrueCount++;
+        }
+        if (rightResult) {
+            rightTrueCount++;
+        }
+        if (++samples >= SAMPLES_PER_REORDER) {
+            reorder();
+        }
+    }
+
+    private void reorder() {
+        double leftContinue = (double) (conjunction ? leftTrueCount : samples - leftTrueCount) / samples;
+        double rightContinue = (double) (conjunction ? rightTrueCount : samples - rightTrueCount) / samples;
+        double leftFirstCost = leftCost + leftContinue * rightCost;
+        double rightFirstCost = rightCost + rightContinue * leftCost;
+        if (swapped) {
+            if (leftFirstCost < rightFirstCost * REORDER_THRESHOLD) {
+                swapped = false;
+            }
+        } else if (rightFirstCost < leftFirstCost * REORDER_THRESHOLD) {
+            swapped = true;
+        }
+        //halving the statistics lets older samples decay as the stream changes
+        samples /= 2;
+        leftCost /= 2;
+        rightCost /= 2;
+        leftTrueCount /= 2;
+        rightTrueCount /= 2;
+    }
+
+    /**
+     * @param executor operand of an And or Or condition
+     * @return whether the operand is free of side effects and cannot fail, such that it can be evaluated in any
+     * order and even when its result is not needed
+     */
+    public static boolean isReorderable(ExpressionExecutor executor) {
+        if (executor instanceof VariableExpressionExecutor || executor instanceof ConstantExpressionExecutor ||
+                executor instanceof InConditionExpressionExecutor) {
+            return true;
+        } else if (executor instanceof AndConditionExpressionExecutor) {
+            return isReorderable(((AndConditionExpressionExecutor) executor).getLeftConditionExecutor()) &&
+                    isReorderable(((AndConditionExpressionExecutor) executor).getRightConditionExecutor());
+        } else if (executor instanceof OrConditionExpressionExecutor) {
+            return isReorderable(((OrConditionExpressionExecutor) executor).getLeftConditionExecutor()) &&
+                    isReorderable(((OrConditionExpressionExecutor) executor).getRightConditionExecutor());
+        } else if (executor instanceof NotConditionExpressionExecutor) {
+            return isReorderable(((NotConditionExpressionExecutor) executor).getConditionExecutor());
+        } else if (executor instanceof CompareConditionExpressionExecutor) {
+            return isReorderable(((CompareConditionExpressionExecutor) executor).getLeftExpressionExecutor()) &&
+                    isReorderable(((CompareConditionExpressionExecutor) executor).getRightExpressionExecutor());
+        } else if (executor instanceof MathExpressionExecutor) {
+            //null operands are checked before typed evaluation only, and integer modulo by zero fails
+            MathExpressionExecutor mathExecutor = (MathExpressionExecutor) executor;
+            return mathExecutor.isPrimitive() && !(executor instanceof ModExpressionExecutorInt ||
+                    executor instanceof ModExpressionExecutorLong) &&
+                    isReorderable(mathExecutor.getLeftExpressionExecutor()) &&
+                    isReorderable(mathExecutor.getRightExpressionExecutor());
+        }
+        return false;
+    }
+}
@@ -18,12 +18,16 @@ package org.wso2.siddhi.core.executor.condition;
 import org.wso2.siddhi.core.event.ComplexEvent;
 import org.wso2.siddhi.core.exception.OperationNotSupportedException;
 import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.core.executor.PrimitiveExpressionExecutor;
 import org.wso2.siddhi.query.api.definition.Attribute;
 
 public class AndConditionExpressionExecutor extends ConditionExpressionExecutor {
 
     protected ExpressionExecutor leftConditionExecutor;
     protected ExpressionExecutor rightConditionExecutor;
+    private PrimitiveExpressionExecutor primitiveLeftConditionExecutor;
+    private PrimitiveExpressionExecutor primitiveRightConditionExecutor;
+    private AdaptiveOperandOrder operandOrder;
 
     public AndConditionExpressionExecutor(ExpressionExecutor leftConditionExecutor,
                                           ExpressionExecutor rightConditionExecutor) {
@@ -32,6 +36,12 @@ public class AndConditionExpressionExecutor extends ConditionExpressionExecutor
 
             this.leftConditionExecutor = leftConditionExecutor;
             this.rightConditionExecutor = rightConditionExecutor;
+            this.primitiveLeftConditionExecutor = toPrimitiveExecutor(leftConditionExecutor);
+            this.primitiveRightConditionExecutor = toPrimitiveExecutor(rightConditionExecutor);
+            if (AdaptiveOperandOrder.isReorderable(leftConditionExecutor) &&
+                    AdaptiveOperandOrder.isReorderable(rightConditionExecutor)) {
+                this.operandOrder = new AdaptiveOperandOrder(true);
+            }
         } else {
             if (!leftConditionExecutor.getReturnType().equals(Attribute.Type.BOOL)) {
                 throw new OperationNotSupportedException("Return type of condition executor " + leftConditionExecutor.toString() + " should be of type BOOL. " +
@@ -49,7 +59,69 @@ public class AndConditionExpressionExecutor extends ConditionExpressionExecutor
     }
 
     public Boolean execute(ComplexEvent event) {
-        return (Boolean) leftConditionExecutor.execute(event) && (Boolean) rightConditionExecutor.execute(event);
+        return executeBool(event);
+    }
+
+    /**
+     * Operands free of side effects are evaluated in the order found cheaper at runtime
+     */
+    @Override
+    public boolean executeBool(ComplexEvent event) {
+        if (operandOrder != null) {
+            if (operandOrder.sample()) {
+                long start = System.nanoTime();
+                boolean left = executeLeft(event);
+                long leftEnd = System.nanoTime();
+                boolean right = executeRight(event);
+                operandOrder.record(leftEnd - start, left, System.nanoTime() - leftEnd, right);
+                return left && right;
+            } else if (operandOrder.isSwapped()) {
+                return executeRight(event) && executeLeft(event);
+            }
+        }
+        return executeLeft(event) && executeRight(event);
+    }
+
+    /**
+     * The right operand is evaluated only for the events satisfying the left one, in the order found cheaper
+     */
+    @Override
+    public int select(ComplexEvent[] events, int[] selection, int size) {
+        if (operandOrder != null && operandOrder.isSwapped()) {
+            size = select(rightConditionExecutor, primitiveRightConditionExecutor, events, selection, size);
+            return select(leftConditionExecutor, primitiveLeftConditionExecutor, events, selection, size);
+        }
+        size = select(leftConditionExecutor, primitiveLeftConditionExecutor, events, selection, size);
+        return select(rightConditionExecutor, primitiveRightConditionExecutor, events, selection, size);
+    }
+
+    private boolean executeLeft(ComplexEvent event) {
+        if (primitiveLeftConditionExecutor != null) {
+            return primitiveLeftConditionExecutor.executeBool(event);
+        }
+        return (Boolean) leftConditionExecutor.execute(event);
+    }
+
+    private boolean executeRight(ComplexEvent event) {
+        if (primitiveRightConditionExecutor != null) {
+            return primitiveRightConditionExecutor.executeBool(event);
+        }
+        return (Boolean) rightConditionExecutor.execute(event);
+    }
+
+    /**
+     * @return whether the right operand is currently evaluated first
+     */
+    public boolean isReordered() {
+        return operandOrder != null && operandOrder.isSwapped();
+    }
+
+    public ExpressionExecutor getLeftConditionExecutor() {
+        return leftConditionExecutor;
+    }
+
+    public ExpressionExecutor getRightConditionExecutor() {
+        return rightConditionExecutor;
     }
 
     @Override
@@ -16,14 +16,16 @@
 package org.wso2.siddhi.core.executor.condition;
 
 import org.wso2.siddhi.core.event.ComplexEvent;
+import org.wso2.siddhi.core.exception.OperationNotSupportedException;
 import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.core.executor.PrimitiveExpressionExecutor;
 import org.wso2.siddhi.query.api.definition.Attribute;
 
 /**
  * Super class for Condition Executors. Condition Executors are
  * special type of Executors which will always return Boolean type.
  */
-public abstract class ConditionExpressionExecutor implements ExpressionExecutor {
+public abstract class ConditionExpressionExecutor implements PrimitiveExpressionExecutor {
 
     public Attribute.Type getReturnType() {
         return Attribute.Type.BOOL;
@@ -31,4 +33,138 @@ public abstract class ConditionExpressionExecutor implements ExpressionExecutor
 
     public abstract Boolean execute(ComplexEvent event);
 
+    /**
+     * Typed variant of execute(), to be overridden by the conditions evaluating without boxing
+     */
+    @Override
+    public boolean executeBool(ComplexEvent event) {
+        return execute(event);
+    }
+
+    @Override
+    public boolean isPrimitive() {
+        return true;
+    }
+
+    @Override
+    public boolean isNull(ComplexEvent event) {
+        return false;
+    }
+
+    @Override
+    public int executeInt(ComplexEvent event) {
+        throw new OperationNotSupportedException("Condition " + this + " cannot be evaluated in to an int");
+    }
+
+    @Override
+    public long executeLong(ComplexEvent event) {
+        throw new OperationNotSupportedException("Condition " + this + " cannot be evaluated in to a long");
+    }
+
+    @Override
+    public float executeFloat(ComplexEvent event) {
+        throw new OperationNotSupportedException("Condition " + this + " cannot be evaluated in to a float");
+    }
+
+    @Override
+    public double executeDouble(ComplexEvent event) {
+        throw new OperationNotSupportedException("Condition " + this + " cannot be evaluated in to a double");
+    }
+
+    /**
+     * Batch variant of executeBool(), to be overridden by the conditions evaluating a batch column at a time
+     *
+     * @param events    events of the batch
+     * @param selection ascending positions of the events to be evaluated
+     * @param size      number of positions in the selection
+     * @return number of positions kept, the positions whose events satisfy the condition are moved to the start
+     * of selection keeping their order
+     */
+    public int select(ComplexEvent[] events, int[] selection, int size) {
+        int selected = 0;
+        for (int i = 0; i < size; i++) {
+            if (executeBool(events[selection[i]])) {
+                selection[selected++] = selection[i];
+            }
+        }
+        return selected;
+    }
+
+    @Override
+    public int selectNotNull(ComplexEvent[] events, int[] selection, int size) {
+        return size;
+    }
+
+    @Override
+    public void executeInt(ComplexEvent[] events, int[] selection, int size, int[] values) {
+        throw new OperationNotSupportedException("Condition " + this + " cannot be evaluated in to an int");
+    }
+
+    @Override
+    public void executeLong(ComplexEvent[] events, int[] selection, int size, long[] values) {
+        throw new OperationNotSupportedException("Condition " + this + " cannot be evaluated in to a long");
+    }
+
+    @Override
+    public void executeFloat(ComplexEvent[] events, int[] selection, int size, float[] values) {
+        throw new OperationNotSupportedException("Condition " + this + " cannot be evaluated in to a float");
+    }
+
+    @Override
+    public void executeDouble(ComplexEvent[] events, int[] selection, int size, double[] values) {
+        throw new OperationNotSupportedException("Condition " + this + " cannot be evaluated in to a double");
+    }
+
+    /**
+     * Batch evaluation of a bool sub executor, which may not be a condition
+     *
+     * @return number of positions kept, as of select()
+     */
+    protected static int select(ExpressionExecutor executor, PrimitiveExpressionExecutor primitiveExecutor,
+                                ComplexEvent[] events, int[] selection, int size) {
+        if (executor instanceof ConditionExpressionExecutor) {
+            return ((ConditionExpressionExecutor) executor).select(events, selection, size);
+        }
+        int selected = 0;
+        for (int i = 0; i < size; i++) {
+            ComplexEvent event = events[selection[i]];
+            if (primitiveExecutor != null ? primitiveExecutor.executeBool(event) : (Boolean) executor.execute(event)) {
+                selection[selected++] = selection[i];
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * @param selection       ascending positions
+     * @param size            number of positions in selection
+     * @param subset          ascending positions, all contained in selection
+     * @param subsetSize      number of positions in subset
+     * @param complement      array receiving the positions of selection not in subset
+     * @return number of positions in the complement
+     */
+    protected static int complement(int[] selection, int size, int[] subset, int subsetSize, int[] complement) {
+        int complementSize = 0;
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            if (j < subsetSize && subset[j] == selection[i]) {
+                j++;
+            } else {
+                complement[complementSize++] = selection[i];
+            }
+        }
+        return complementSize;
+    }
+
+    /**
+     * @param executor sub executor
+     * @return the executor when it can be evaluated through its typed methods, otherwise null
+     */
+    protected static PrimitiveExpressionExecutor toPrimitiveExecutor(ExpressionExecutor executor) {
+        if (executor instanceof PrimitiveExpressionExecutor && ((PrimitiveExpressionExecutor) executor).isPrimitive()) {
+            return (PrimitiveExpressionExecutor) executor;
+        }
+        return null;
+    }
+
 }
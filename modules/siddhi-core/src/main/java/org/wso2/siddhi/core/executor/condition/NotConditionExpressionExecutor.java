@@ -18,15 +18,19 @@ package org.wso2.siddhi.core.executor.condition;
 import org.wso2.siddhi.core.event.ComplexEvent;
 import org.wso2.siddhi.core.exception.OperationNotSupportedException;
 import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.core.executor.PrimitiveExpressionExecutor;
 import org.wso2.siddhi.query.api.definition.Attribute;
 
 public class NotConditionExpressionExecutor extends ConditionExpressionExecutor {
 
     protected ExpressionExecutor conditionExecutor;
+    private PrimitiveExpressionExecutor primitiveConditionExecutor;
+    private int[] satisfied = new int[0];       //scratch array of select(), grown on demand
 
     public NotConditionExpressionExecutor(ExpressionExecutor conditionExecutor) {
         if (conditionExecutor.getReturnType().equals(Attribute.Type.BOOL)) {
             this.conditionExecutor = conditionExecutor;
+            this.primitiveConditionExecutor = toPrimitiveExecutor(conditionExecutor);
         } else {
             throw new OperationNotSupportedException("Return type of condition executor " + conditionExecutor.toString() + " should be of type BOOL. " +
                     "Actual Type: " + conditionExecutor.getReturnType().toString());
@@ -34,9 +38,32 @@ public class NotConditionExpressionExecutor extends ConditionExpressionExecutor
     }
 
     public Boolean execute(ComplexEvent event) {
+        return executeBool(event);
+    }
+
+    @Override
+    public boolean executeBool(ComplexEvent event) {
+        if (primitiveConditionExecutor != null) {
+            return !primitiveConditionExecutor.executeBool(event);
+        }
         return !(Boolean) conditionExecutor.execute(event);
     }
 
+    @Override
+    public int select(ComplexEvent[] events, int[] selection, int size) {
+        if (satisfied.length < size) {
+            satisfied = new int[size];
+        }
+        int[] satisfied = this.satisfied;
+        System.arraycopy(selection, 0, satisfied, 0, size);
+        int satisfiedSize = select(conditionExecutor, primitiveConditionExecutor, events, satisfied, size);
+        return complement(selection, size, satisfied, satisfiedSize, selection);
+    }
+
+    public ExpressionExecutor getConditionExecutor() {
+        return conditionExecutor;
+    }
+
     @Override
     public ExpressionExecutor cloneExecutor(String key) {
         return new NotConditionExpressionExecutor(conditionExecutor.cloneExecutor(key));
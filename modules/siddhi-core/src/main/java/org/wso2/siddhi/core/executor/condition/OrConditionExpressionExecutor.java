@@ -18,12 +18,18 @@ package org.wso2.siddhi.core.executor.condition;
 import org.wso2.siddhi.core.event.ComplexEvent;
 import org.wso2.siddhi.core.exception.OperationNotSupportedException;
 import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.core.executor.PrimitiveExpressionExecutor;
 import org.wso2.siddhi.query.api.definition.Attribute;
 
 public class OrConditionExpressionExecutor extends ConditionExpressionExecutor {
 
     protected ExpressionExecutor leftConditionExecutor;
     protected ExpressionExecutor rightConditionExecutor;
+    private PrimitiveExpressionExecutor primitiveLeftConditionExecutor;
+    private PrimitiveExpressionExecutor primitiveRightConditionExecutor;
+    private AdaptiveOperandOrder operandOrder;
+    private int[] firstSelection = new int[0];      //scratch arrays of select(), grown on demand
+    private int[] secondSelection = new int[0];
 
     public OrConditionExpressionExecutor(ExpressionExecutor leftConditionExecutor,
                                          ExpressionExecutor rightConditionExecutor) {
@@ -32,6 +38,12 @@ public class OrConditionExpressionExecutor extends ConditionExpressionExecutor {
 
             this.leftConditionExecutor = leftConditionExecutor;
             this.rightConditionExecutor = rightConditionExecutor;
+            this.primitiveLeftConditionExecutor = toPrimitiveExecutor(leftConditionExecutor);
+            this.primitiveRightConditionExecutor = toPrimitiveExecutor(rightConditionExecutor);
+            if (AdaptiveOperandOrder.isReorderable(leftConditionExecutor) &&
+                    AdaptiveOperandOrder.isReorderable(rightConditionExecutor)) {
+                this.operandOrder = new AdaptiveOperandOrder(false);
+            }
         } else {
             if (!leftConditionExecutor.getReturnType().equals(Attribute.Type.BOOL)) {
                 throw new OperationNotSupportedException("Return type of condition executor " + leftConditionExecutor.toString() + " should be of type BOOL. " +
@@ -48,7 +60,96 @@ public class OrConditionExpressionExecutor extends ConditionExpressionExecutor {
     }
 
     public Boolean execute(ComplexEvent event) {
-        return (Boolean) leftConditionExecutor.execute(event) || (Boolean) rightConditionExecutor.execute(event);
+        return executeBool(event);
+    }
+
+    /**
+     * Operands free of side effects are evaluated in the order found cheaper at runtime
+     */
+    @Override
+    public boolean executeBool(ComplexEvent event) {
+        if (operandOrder != null) {
+            if (operandOrder.sample()) {
+                long start = System.nanoTime();
+                boolean left = executeLeft(event);
+                long leftEnd = System.nanoTime();
+                boolean right = executeRight(event);
+                operandOrder.record(leftEnd - start, left, System.nanoTime() - leftEnd, right);
+                return left || right;
+            } else if (operandOrder.isSwapped()) {
+                return executeRight(event) || executeLeft(event);
+            }
+        }
+        return executeLeft(event) || executeRight(event);
+    }
+
+    /**
+     * The second operand is evaluated only for the events not satisfying the first, in the order found cheaper
+     */
+    @Override
+    public int select(ComplexEvent[] events, int[] selection, int size) {
+        ExpressionExecutor firstExecutor = leftConditionExecutor;
+        PrimitiveExpressionExecutor primitiveFirstExecutor = primitiveLeftConditionExecutor;
+        ExpressionExecutor secondExecutor = rightConditionExecutor;
+        PrimitiveExpressionExecutor primitiveSecondExecutor = primitiveRightConditionExecutor;
+        if (operandOrder != null && operandOrder.isSwapped()) {
+            firstExecutor = rightConditionExecutor;
+            primitiveFirstExecutor = primitiveRightConditionExecutor;
+            secondExecutor = leftConditionExecutor;
+            primitiveSecondExecutor = primitiveLeftConditionExecutor;
+        }
+        if (firstSelection.length < size) {
+            firstSelection = new int[size];
+            secondSelection = new int[size];
+        }
+        int[] firstSelection = this.firstSelection;
+        int[] secondSelection = this.secondSelection;
+        System.arraycopy(selection, 0, firstSelection, 0, size);
+        int firstSize = select(firstExecutor, primitiveFirstExecutor, events, firstSelection, size);
+        if (firstSize == size) {
+            return size;
+        }
+        int secondSize = select(secondExecutor, primitiveSecondExecutor, events, secondSelection,
+                complement(selection, size, firstSelection, firstSize, secondSelection));
+        //merge the positions satisfying either operand, both being ascending
+        int i = 0, j = 0, selected = 0;
+        while (i < firstSize || j < secondSize) {
+            if (j == secondSize || (i < firstSize && firstSelection[i] < secondSelection[j])) {
+                selection[selected++] = firstSelection[i++];
+            } else {
+                selection[selected++] = secondSelection[j++];
+            }
+        }
+        return selected;
+    }
+
+    private boolean executeLeft(ComplexEvent event) {
+        if (primitiveLeftConditionExecutor != null) {
+            return primitiveLeftConditionExecutor.executeBool(event);
+        }
+        return (Boolean) leftConditionExecutor.execute(event);
+    }
+
+    private boolean executeRight(ComplexEvent event) {
+        if (primitiveRightConditionExecutor != null) {
+            return primitiveRightConditionExecutor.executeBool(event);
+        }
+        return (Boolean) rightConditionExecutor.execute(event);
+    }
+
+    /**
+     * @return whether the right operand is currently evaluated first
+     */
+    public boolean isReordered() {
+        return operandOrder != null && operandOrder.isSwapped();
+    }
+
+    public ExpressionExecutor getLeftConditionExecutor() {
+        return leftConditionExecutor;
+    }
+
+    public ExpressionExecutor getRightConditionExecutor() {
+        return rightConditionExecutor;
     }
 
     @Override
@@ -15,28 +15,198 @@
 package org.wso2.siddhi.core.executor.condition.compare;
 
 import org.wso2.siddhi.core.event.ComplexEvent;
+import org.wso2.siddhi.core.exception.OperationNotSupportedException;
 import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.core.executor.PrimitiveExpressionExecutor;
 import org.wso2.siddhi.core.executor.condition.ConditionExpressionExecutor;
+import org.wso2.siddhi.query.api.definition.Attribute;
 
 
 public abstract class CompareConditionExpressionExecutor extends ConditionExpressionExecutor {
 
     protected ExpressionExecutor leftExpressionExecutor;
     protected ExpressionExecutor rightExpressionExecutor;
+    protected PrimitiveExpressionExecutor primitiveLeftExpressionExecutor;
+    protected PrimitiveExpressionExecutor primitiveRightExpressionExecutor;
+    private Attribute.Type compareType;
+    //scratch arrays of select(), grown on demand, only those of the compare type are used
+    private long[] leftLongs = new long[0];
+    private long[] rightLongs = new long[0];
+    private float[] leftFloats = new float[0];
+    private float[] rightFloats = new float[0];
+    private double[] leftDoubles = new double[0];
+    private double[] rightDoubles = new double[0];
 
     public CompareConditionExpressionExecutor(ExpressionExecutor leftExpressionExecutor,
                                               ExpressionExecutor rightExpressionExecutor) {
         this.leftExpressionExecutor = leftExpressionExecutor;
         this.rightExpressionExecutor = rightExpressionExecutor;
+        this.primitiveLeftExpressionExecutor = toPrimitiveExecutor(leftExpressionExecutor);
+        this.primitiveRightExpressionExecutor = toPrimitiveExecutor(rightExpressionExecutor);
+        if (primitiveLeftExpressionExecutor != null && primitiveRightExpressionExecutor != null) {
+            this.compareType = promote(leftExpressionExecutor.getReturnType(), rightExpressionExecutor.getReturnType());
+        }
     }
 
 
     public Boolean execute(ComplexEvent event) {
+        if (compareType != null) {
+            return executeBool(event);
+        }
         Object left = leftExpressionExecutor.execute(event);
         Object right = rightExpressionExecutor.execute(event);
         return !(left == null || right == null) && execute(left, right);
     }
 
+    @Override
+    public boolean executeBool(ComplexEvent event) {
+        if (compareType == null) {
+            return execute(event);
+        }
+        if (primitiveLeftExpressionExecutor.isNull(event) || primitiveRightExpressionExecutor.isNull(event)) {
+            return false;
+        }
+        switch (compareType) {
+            case LONG:
+                return compare(primitiveLeftExpressionExecutor.executeLong(event),
+                        primitiveRightExpressionExecutor.executeLong(event));
+            case FLOAT:
+                return compare(primitiveLeftExpressionExecutor.executeFloat(event),
+                        primitiveRightExpressionExecutor.executeFloat(event));
+            default:
+                return compare(primitiveLeftExpressionExecutor.executeDouble(event),
+                        primitiveRightExpressionExecutor.executeDouble(event));
+        }
+    }
+
+    /**
+     * Compares the operands a column at a time, after dropping the events having a null operand
+     */
+    @Override
+    public int select(ComplexEvent[] events, int[] selection, int size) {
+        if (compareType == null) {
+            return super.select(events, selection, size);
+        }
+        size = primitiveLeftExpressionExecutor.selectNotNull(events, selection, size);
+        size = primitiveRightExpressionExecutor.selectNotNull(events, selection, size);
+        switch (compareType) {
+            case LONG: {
+                if (leftLongs.length < size) {
+                    leftLongs = new long[size];
+                    rightLongs = new long[size];
+                }
+                long[] left = leftLongs;
+                long[] right = rightLongs;
+                primitiveLeftExpressionExecutor.executeLong(events, selection, size, left);
+                primitiveRightExpressionExecutor.executeLong(events, selection, size, right);
+                return select(left, right, selection, size);
+            }
+            case FLOAT: {
+                if (leftFloats.length < size) {
+                    leftFloats = new float[size];
+                    rightFloats = new float[size];
+                }
+                float[] left = leftFloats;
+                float[] right = rightFloats;
+                primitiveLeftExpressionExecutor.executeFloat(events, selection, size, left);
+                primitiveRightExpressionExecutor.executeFloat(events, selection, size, right);
+                return select(left, right, selection, size);
+            }
+            default: {
+                if (leftDoubles.length < size) {
+                    leftDoubles = new double[size];
+                    rightDoubles = new double[size];
+                }
+                double[] left = leftDoubles;
+                double[] right = rightDoubles;
+                primitiveLeftExpressionExecutor.executeDouble(events, selection, size, left);
+                primitiveRightExpressionExecutor.executeDouble(events, selection, size, right);
+                return select(left, right, selection, size);
+            }
+        }
+    }
+
     protected abstract Boolean execute(Object left, Object right);
 
+    /**
+     * Type both operands are converted to before comparing them without boxing, as the binary numeric promotion of
+     * the typed execute(Object, Object) implementations does
+     *
+     * @param leftType  return type of the left operand
+     * @param rightType return type of the right operand
+     * @return LONG, FLOAT or DOUBLE, or null when the operands can only be compared as objects
+     */
+    protected Attribute.Type promote(Attribute.Type leftType, Attribute.Type rightType) {
+        if (!isNumeric(leftType) || !isNumeric(rightType)) {
+            return null;
+        } else if (leftType == Attribute.Type.DOUBLE || rightType == Attribute.Type.DOUBLE) {
+            return Attribute.Type.DOUBLE;
+        } else if (leftType == Attribute.Type.FLOAT || rightType == Attribute.Type.FLOAT) {
+            return Attribute.Type.FLOAT;
+        }
+        return Attribute.Type.LONG;
+    }
+
+    protected boolean compare(long left, long right) {
+        throw new OperationNotSupportedException(this + " cannot compare long values");
+    }
+
+    protected boolean compare(float left, float right) {
+        throw new OperationNotSupportedException(this + " cannot compare float values");
+    }
+
+    protected boolean compare(double left, double right) {
+        throw new OperationNotSupportedException(this + " cannot compare double values");
+    }
+
+    protected int select(long[] left, long[] right, int[] selection, int size) {
+        int selected = 0;
+        for (int i = 0; i < size; i++) {
+            if (compare(left[i], right[i])) {
+                selection[selected++] = selection[i];
+            }
+        }
+        return selected;
+    }
+
+    protected int select(float[] left, float[] right, int[] selection, int size) {
+        int selected = 0;
+        for (int i = 0; i < size; i++) {
+            if (compare(left[i], right[i])) {
+                selection[selected++] = selection[i];
+            }
+        }
+        return selected;
+    }
+
+    protected int select(double[] left, double[] right, int[] selection, int size) {
+        int selected = 0;
+        for (int i = 0; i < size; i++) {
+            if (compare(left[i], right[i])) {
+                selection[selected++] = selection[i];
+            }
+        }
+        return selected;
+    }
+
+    private static boolean isNumeric(Attribute.Type type) {
+        return type == Attribute.Type.INT || type == Attribute.Type.LONG || type == Attribute.Type.FLOAT ||
+                type == Attribute.Type.DOUBLE;
+    }
+
+    /**
+     * @return type the operands are compared in without boxing, or null when they are compared as objects
+     */
+    public Attribute.Type getCompareType() {
+        return compareType;
+    }
+
+    public ExpressionExecutor getLeftExpressionExecutor() {
+        return leftExpressionExecutor;
+    }
+
+    public ExpressionExecutor getRightExpressionExecutor() {
+        return rightExpressionExecutor;
+    }
+
 }
@@ -14,8 +14,10 @@
  */
 package org.wso2.siddhi.core.executor.condition.compare.equal;
 
+import org.wso2.siddhi.core.event.ComplexEvent;
 import org.wso2.siddhi.core.executor.ExpressionExecutor;
 import org.wso2.siddhi.core.executor.condition.compare.CompareConditionExpressionExecutor;
+import org.wso2.siddhi.query.api.definition.Attribute;
 
 public abstract class EqualCompareConditionExpressionExecutor extends CompareConditionExpressionExecutor {
 
@@ -23,4 +25,97 @@ public abstract class EqualCompareConditionExpressionExecutor extends CompareCon
                                                    ExpressionExecutor rightExpressionExecutor) {
         super(leftExpressionExecutor, rightExpressionExecutor);
     }
+
+    @Override
+    protected boolean compare(long left, long right) {
+        return left == right;
+    }
+
+    @Override
+    protected boolean compare(float left, float right) {
+        return left == right;
+    }
+
+    @Override
+    protected boolean compare(double left, double right) {
+        return left == right;
+    }
+
+    @Override
+    protected int select(long[] left, long[] right, int[] selection, int size) {
+        int selected = 0;
+        for (int i = 0; i < size; i++) {
+            if (left[i] == right[i]) {
+                selection[selected++] = selection[i];
+            }
+        }
+        return selected;
+    }
+
+    @Override
+    protected int select(float[] left, float[] right, int[] selection, int size) {
+        int selected = 0;
+        for (int i = 0; i < size; i++) {
+            if (left[i] == right[i]) {
+                selection[selected++] = selection[i];
+            }
+        }
+        return selected;
+    }
+
+    @Override
+    protected int select(double[] left, double[] right, int[] selection, int size) {
+        int selected = 0;
+        for (int i = 0; i < size; i++) {
+            if (left[i] == right[i]) {
+                selection[selected++] = selection[i];
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Bool operands, which only equality compares without boxing, are compared here
+     */
+    @Override
+    public boolean executeBool(ComplexEvent event) {
+        if (getCompareType() != Attribute.Type.BOOL) {
+            return super.executeBool(event);
+        }
+        return !primitiveLeftExpressionExecutor.isNull(event) && !primitiveRightExpressionExecutor.isNull(event) &&
+                (primitiveLeftExpressionExecutor.executeBool(event) ==
+                        primitiveRightExpressionExecutor.executeBool(event));
+    }
+
+    @Override
+    public int select(ComplexEvent[] events, int[] selection, int size) {
+        if (getCompareType() != Attribute.Type.BOOL) {
+            return super.select(events, selection, size);
+        }
+        size = primitiveLeftExpressionExecutor.selectNotNull(events, selection, size);
+        size = primitiveRightExpressionExecutor.selectNotNull(events, selection, size);
+        int selected = 0;
+        for (int i = 0; i < size; i++) {
+            ComplexEvent event = events[selection[i]];
+            if (primitiveLeftExpressionExecutor.executeBool(event) ==
+                    primitiveRightExpressionExecutor.executeBool(event)) {
+                selection[selected++] = selection[i];
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Bool operands are compared by value, and float and long operands as doubles as the typed implementations do
+     */
+    @Override
+    protected Attribute.Type promote(Attribute.Type leftType, Attribute.Type rightType) {
+        if (leftType == Attribute.Type.BOOL && rightType == Attribute.Type.BOOL) {
+            return Attribute.Type.BOOL;
+        } else if ((leftType == Attribute.Type.FLOAT && rightType == Attribute.Type.LONG) ||
+                (leftType == Attribute.Type.LONG && rightType == Attribute.Type.FLOAT)) {
+            return Attribute.Type.DOUBLE;
+        }
+        return super.promote(leftType, rightType);
+    }
 }
@@ -23,4 +23,52 @@ public abstract class LessThanCompareConditionExpressionExecutor extends Compare
                                                       ExpressionExecutor rightExpressionExecutor) {
         super(leftExpressionExecutor, rightExpressionExecutor);
     }
+
+    @Override
+    protected boolean compare(long left, long right) {
+        return left < right;
+    }
+
+    @Override
+    protected boolean compare(float left, float right) {
+        return left < right;
+    }
+
+    @Override
+    protected boolean compare(double left, double right) {
+        return left < right;
+    }
+
+    @Override
+    protected int select(long[] left, long[] right, int[] selection, int size) {
+        int selected = 0;
+        for (int i = 0; i < size; i++) {
+            if (left[i] < right[i]) {
+                selection[selected++] = selection[i];
+            }
+        }
+        return selected;
+    }
+
+    @Override
+    protected int select(float[] left, float[] right, int[] selection, int size) {
+        int selected = 0;
+        for (int i = 0; i < size; i++) {
+            if (left[i] < right[i]) {
+                selection[selected++] = selection[i];
+            }
+        }
+        return selected;
+    }
+
+    @Override
+    protected int select(double[] left, double[] right, int[] selection, int size) {
+        int selected = 0;
+        for (int i = 0; i < size; i++) {
+            if (left[i] < right[i]) {
+                selection[selected++] = selection[i];
+            }
+        }
+        return selected;
+    }
 }
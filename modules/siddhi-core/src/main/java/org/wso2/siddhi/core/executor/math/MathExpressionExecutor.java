@@ -0,0 +1,493 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.executor.math;
+
+import org.wso2.siddhi.core.event.ComplexEvent;
+import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.core.executor.PrimitiveExpressionExecutor;
+import org.wso2.siddhi.query.api.definition.Attribute;
+
+/**
+ * Super class of the executors of the binary math operations
+ * <p/>
+ * Sub classes compute the typed method of their result type without boxing, and the other typed methods convert
+ * that result. The operands are evaluated through their typed methods when both of them support it.
+ */
+public abstract class MathExpressionExecutor implements PrimitiveExpressionExecutor {
+
+    protected ExpressionExecutor leftExpressionExecutor;
+    protected ExpressionExecutor rightExpressionExecutor;
+    private PrimitiveExpressionExecutor primitiveLeftExpressionExecutor;
+    private PrimitiveExpressionExecutor primitiveRightExpressionExecutor;
+    //scratch arrays of the batch methods, grown on demand, see ExpressionExecutor on why plain fields are safe
+    private int[] resultInts = new int[0];
+    private long[] resultLongs = new long[0];
+    private float[] resultFloats = new float[0];
+    private double[] resultDoubles = new double[0];
+    private int[] rightInts = new int[0];
+    private long[] rightLongs = new long[0];
+    private float[] rightFloats = new float[0];
+    private double[] rightDoubles = new double[0];
+
+    public MathExpressionExecutor(ExpressionExecutor leftExpressionExecutor,
+                                  ExpressionExecutor rightExpressionExecutor) {
+        this.leftExpressionExecutor = leftExpressionExecutor;
+        this.rightExpressionExecutor = rightExpressionExecutor;
+        if (isPrimitive(leftExpressionExecutor) && isPrimitive(rightExpressionExecutor)) {
+            this.primitiveLeftExpressionExecutor = (PrimitiveExpressionExecutor) leftExpressionExecutor;
+            this.primitiveRightExpressionExecutor = (PrimitiveExpressionExecutor) rightExpressionExecutor;
+        }
+    }
+
+    public ExpressionExecutor getLeftExpressionExecutor() {
+        return leftExpressionExecutor;
+    }
+
+    public ExpressionExecutor getRightExpressionExecutor() {
+        return rightExpressionExecutor;
+    }
+
+    @Override
+    public boolean isPrimitive() {
+        return primitiveLeftExpressionExecutor != null;
+    }
+
+    @Override
+    public boolean isNull(ComplexEvent event) {
+        if (primitiveLeftExpressionExecutor != null) {
+            return primitiveLeftExpressionExecutor.isNull(event) || primitiveRightExpressionExecutor.isNull(event);
+        }
+        return execute(event) == null;
+    }
+
+    @Override
+    public int executeInt(ComplexEvent event) {
+        switch (getResultType()) {
+            case LONG:
+                return (int) executeLong(event);
+            case FLOAT:
+                return (int) executeFloat(event);
+            case DOUBLE:
+                return (int) executeDouble(event);
+            default:
+                return ((Number) execute(event)).intValue();
+        }
+    }
+
+    @Override
+    public long executeLong(ComplexEvent event) {
+        switch (getResultType()) {
+            case INT:
+                return executeInt(event);
+            case FLOAT:
+                return (long) executeFloat(event);
+            case DOUBLE:
+                return (long) executeDouble(event);
+            default:
+                return ((Number) execute(event)).longValue();
+        }
+    }
+
+    @Override
+    public float executeFloat(ComplexEvent event) {
+        switch (getResultType()) {
+            case INT:
+                return executeInt(event);
+            case LONG:
+                return executeLong(event);
+            case DOUBLE:
+                return (float) executeDouble(event);
+            default:
+                return ((Number) execute(event)).floatValue();
+        }
+    }
+
+    @Override
+    public double executeDouble(ComplexEvent event) {
+        switch (getResultType()) {
+            case INT:
+                return executeInt(event);
+            case LONG:
+                return executeLong(event);
+            case FLOAT:
+                return executeFloat(event);
+            default:
+                return ((Number) execute(event)).doubleValue();
+        }
+    }
+
+    @Override
+    public boolean executeBool(ComplexEvent event) {
+        return (Boolean) execute(event);
+    }
+
+    @Override
+    public int selectNotNull(ComplexEvent[] events, int[] selection, int size) {
+        if (primitiveLeftExpressionExecutor != null) {
+            size = primitiveLeftExpressionExecutor.selectNotNull(events, selection, size);
+            return primitiveRightExpressionExecutor.selectNotNull(events, selection, size);
+        }
+        int selected = 0;
+        for (int i = 0; i < size; i++) {
+            if (execute(events[selection[i]]) != null) {
+                selection[selected++] = selection[i];
+            }
+        }
+        return selected;
+    }
+
+    @Override
+    public void executeInt(ComplexEvent[] events, int[] selection, int size, int[] values) {
+        switch (getResultType()) {
+            case LONG: {
+                long[] results = resultLongs(size);
+                executeLong(events, selection, size, results);
+                for (int i = 0; i < size; i++) {
+                    values[i] = (int) results[i];
+                }
+                break;
+            }
+            case FLOAT: {
+                float[] results = resultFloats(size);
+                executeFloat(events, selection, size, results);
+                for (int i = 0; i < size; i++) {
+                    values[i] = (int) results[i];
+                }
+                break;
+            }
+            case DOUBLE: {
+                double[] results = resultDoubles(size);
+                executeDouble(events, selection, size, results);
+                for (int i = 0; i < size; i++) {
+                    values[i] = (int) results[i];
+                }
+                break;
+            }
+            default:
+                for (int i = 0; i < size; i++) {
+                    values[i] = executeInt(events[selection[i]]);
+                }
+        }
+    }
+
+    @Override
+    public void executeLong(ComplexEvent[] events, int[] selection, int size, long[] values) {
+        switch (getResultType()) {
+            case INT: {
+                int[] results = resultInts(size);
+                executeInt(events, selection, size, results);
+                for (int i = 0; i < size; i++) {
+                    values[i] = results[i];
+                }
+                break;
+            }
+            case FLOAT: {
+                float[] results = resultFloats(size);
+                executeFloat(events, selection, size, results);
+                for (int i = 0; i < size; i++) {
+                    values[i] = (long) results[i];
+                }
+                break;
+            }
+            case DOUBLE: {
+                double[] results = resultDoubles(size);
+                executeDouble(events, selection, size, results);
+                for (int i = 0; i < size; i++) {
+                    values[i] = (long) results[i];
+                }
+                break;
+            }
+            default:
+                for (int i = 0; i < size; i++) {
+                    values[i] = executeLong(events[selection[i]]);
+                }
+        }
+    }
+
+    @Override
+    public void executeFloat(ComplexEvent[] events, int[] selection, int size, float[] values) {
+        switch (getResultType()) {
+            case INT: {
+                int[] results = resultInts(size);
+                executeInt(events, selection, size, results);
+                for (int i = 0; i < size; i++) {
+                    values[i] = results[i];
+                }
+                break;
+            }
+            case LONG: {
+                long[] results = resultLongs(size);
+                executeLong(events, selection, size, results);
+                for (int i = 0; i < size; i++) {
+                    values[i] = results[i];
+                }
+                break;
+            }
+            case DOUBLE: {
+                double[] results = resultDoubles(size);
+                executeDouble(events, selection, size, results);
+                for (int i = 0; i < size; i++) {
+                    values[i] = (float) results[i];
+                }
+                break;
+            }
+            default:
+                for (int i = 0; i < size; i++) {
+                    values[i] = executeFloat(events[selection[i]]);
+                }
+        }
+    }
+
+    @Override
+    public void executeDouble(ComplexEvent[] events, int[] selection, int size, double[] values) {
+        switch (getResultType()) {
+            case INT: {
+                int[] results = resultInts(size);
+                executeInt(events, selection, size, results);
+                for (int i = 0; i < size; i++) {
+                    values[i] = results[i];
+                }
+                break;
+            }
+            case LONG: {
+                long[] results = resultLongs(size);
+                executeLong(events, selection, size, results);
+                for (int i = 0; i < size; i++) {
+                    values[i] = results[i];
+                }
+                break;
+            }
+            case FLOAT: {
+                float[] results = resultFloats(size);
+                executeFloat(events, selection, size, results);
+                for (int i = 0; i < size; i++) {
+                    values[i] = results[i];
+                }
+                break;
+            }
+            default:
+                for (int i = 0; i < size; i++) {
+                    values[i] = executeDouble(events[selection[i]]);
+                }
+        }
+    }
+
+    /**
+     * @return scratch array of at least the given size, for the values of the right operand in the batch methods
+     * of the sub classes
+     */
+    protected int[] rightInts(int size) {
+        if (rightInts.length < size) {
+            rightInts = new int[size];
+        }
+        return rightInts;
+    }
+
+    protected long[] rightLongs(int size) {
+        if (rightLongs.length < size) {
+            rightLongs = new long[size];
+        }
+        return rightLongs;
+    }
+
+    protected float[] rightFloats(int size) {
+        if (rightFloats.length < size) {
+            rightFloats = new float[size];
+        }
+        return rightFloats;
+    }
+
+    protected double[] rightDoubles(int size) {
+        if (rightDoubles.length < size) {
+            rightDoubles = new double[size];
+        }
+        return rightDoubles;
+    }
+
+    private int[] resultInts(int size) {
+        if (resultInts.length < size) {
+            resultInts = new int[size];
+        }
+        return resultInts;
+    }
+
+    private long[] resultLongs(int size) {
+        if (resultLongs.length < size) {
+            resultLongs = new long[size];
+        }
+        return resultLongs;
+    }
+
+    private float[] resultFloats(int size) {
+        if (resultFloats.length < size) {
+            resultFloats = new float[size];
+        }
+        return resultFloats;
+    }
+
+    private double[] resultDoubles(int size) {
+        if (resultDoubles.length < size) {
+            resultDoubles = new double[size];
+        }
+        return resultDoubles;
+    }
+
+    /**
+     * @return type of the values execute() returns, which is the type whose typed method the sub class computes
+     */
+    protected Attribute.Type getResultType() {
+        return getReturnType();
+    }
+
+    protected int leftInt(ComplexEvent event) {
+        if (primitiveLeftExpressionExecutor != null) {
+            return primitiveLeftExpressionExecutor.executeInt(event);
+        }
+        return ((Number) leftExpressionExecutor.execute(event)).intValue();
+    }
+
+    protected int rightInt(ComplexEvent event) {
+        if (primitiveRightExpressionExecutor != null) {
+            return primitiveRightExpressionExecutor.executeInt(event);
+        }
+        return ((Number) rightExpressionExecutor.execute(event)).intValue();
+    }
+
+    protected long leftLong(ComplexEvent event) {
+        if (primitiveLeftExpressionExecutor != null) {
+            return primitiveLeftExpressionExecutor.executeLong(event);
+        }
+        return ((Number) leftExpressionExecutor.execute(event)).longValue();
+    }
+
+    protected long rightLong(ComplexEvent event) {
+        if (primitiveRightExpressionExecutor != null) {
+            return primitiveRightExpressionExecutor.executeLong(event);
+        }
+        return ((Number) rightExpressionExecutor.execute(event)).longValue();
+    }
+
+    protected float leftFloat(ComplexEvent event) {
+        if (primitiveLeftExpressionExecutor != null) {
+            return primitiveLeftExpressionExecutor.executeFloat(event);
+        }
+        return ((Number) leftExpressionExecutor.execute(event)).floatValue();
+    }
+
+    protected float rightFloat(ComplexEvent event) {
+        if (primitiveRightExpressionExecutor != null) {
+            return primitiveRightExpressionExecutor.executeFloat(event);
+        }
+        return ((Number) rightExpressionExecutor.execute(event)).floatValue();
+    }
+
+    protected double leftDouble(ComplexEvent event) {
+        if (primitiveLeftExpressionExecutor != null) {
+            return primitiveLeftExpressionExecutor.executeDouble(event);
+        }
+        return ((Number) leftExpressionExecutor.execute(event)).doubleValue();
+    }
+
+    protected double rightDouble(ComplexEvent event) {
+        if (primitiveRightExpressionExecutor != null) {
+            return primitiveRightExpressionExecutor.executeDouble(event);
+        }
+        return ((Number) rightExpressionExecutor.execute(event)).doubleValue();
+    }
+
+    protected void leftInt(ComplexEvent[] events, int[] selection, int size, int[] values) {
+        if (primitiveLeftExpressionExecutor != null) {
+            primitiveLeftExpressionExecutor.executeInt(events, selection, size, values);
+        } else {
+            for (int i = 0; i < size; i++) {
+                values[i] = ((Number) leftExpressionExecutor.execute(events[selection[i]])).intValue();
+            }
+        }
+    }
+
+    protected void rightInt(ComplexEvent[] events, int[] selection, int size, int[] values) {
+        if (primitiveRightExpressionExecutor != null) {
+            primitiveRightExpressionExecutor.executeInt(events, selection, size, values);
+        } else {
+            for (int i = 0; i < size; i++) {
+                values[i] = ((Number) rightExpressionExecutor.execute(events[selection[i]])).intValue();
+            }
+        }
+    }
+
+    protected void leftLong(ComplexEvent[] events, int[] selection, int size, long[] values) {
+        if (primitiveLeftExpressionExecutor != null) {
+            primitiveLeftExpressionExecutor.executeLong(events, selection, size, values);
+        } else {
+            for (int i = 0; i < size; i++) {
+                values[i] = ((Number) leftExpressionExecutor.execute(events[selection[i]])).longValue();
+            }
+        }
+    }
+
+    protected void rightLong(ComplexEvent[] events, int[] selection, int size, long[] values) {
+        if (primitiveRightExpressionExecutor != null) {
+            primitiveRightExpressionExecutor.executeLong(events, selection, size, values);
+        } else {
+            for (int i = 0; i < size; i++) {
+                values[i] = ((Number) rightExpressionExecutor.execute(events[selection[i]])).longValue();
+            }
+        }
+    }
+
+    protected void leftFloat(ComplexEvent[] events, int[] selection, int size, float[] values) {
+        if (primitiveLeftExpressionExecutor != null) {
+            primitiveLeftExpressionExecutor.executeFloat(events, selection, size, values);
+        } else {
+            for (int i = 0; i < size; i++) {
+                values[i] = ((Number) leftExpressionExecutor.execute(events[selection[i]])).floatValue();
+            }
+        }
+    }
+
+    protected void rightFloat(ComplexEvent[] events, int[] selection, int size, float[] values) {
+        if (primitiveRightExpressionExecutor != null) {
+            primitiveRightExpressionExecutor.executeFloat(events, selection, size, values);
+        } else {
+            for (int i = 0; i < size; i++) {
+                values[i] = ((Number) rightExpressionExecutor.execute(events[selection[i]])).floatValue();
+            }
+        }
+    }
+
+    protected void leftDouble(ComplexEvent[] events, int[] selection, int size, double[] values) {
+        if (primitiveLeftExpressionExecutor != null) {
+            primitiveLeftExpressionExecutor.executeDouble(events, selection, size, values);
+        } else {
+            for (int i = 0; i < size; i++) {
+                values[i] = ((Number) leftExpressionExecutor.execute(events[selection[i]])).doubleValue();
+            }
+        }
+    }
+
+    protected void rightDouble(ComplexEvent[] events, int[] selection, int size, double[] values) {
+        if (primitiveRightExpressionExecutor != null) {
+            primitiveRightExpressionExecutor.executeDouble(events, selection, size, values);
+        } else {
+            for (int i = 0; i < size; i++) {
+                values[i] = ((Number) rightExpressionExecutor.execute(events[selection[i]])).doubleValue();
+            }
+        }
+    }
+
+    private static boolean isPrimitive(ExpressionExecutor executor) {
+        return executor instanceof PrimitiveExpressionExecutor && ((PrimitiveExpressionExecutor) executor).isPrimitive();
+    }
+}
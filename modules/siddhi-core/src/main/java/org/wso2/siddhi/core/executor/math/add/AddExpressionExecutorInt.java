@@ -16,16 +16,14 @@ package org.wso2.siddhi.core.executor.math.add;
 
 import org.wso2.siddhi.core.event.ComplexEvent;
 import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.core.executor.math.MathExpressionExecutor;
 import org.wso2.siddhi.query.api.definition.Attribute;
 
-public class AddExpressionExecutorInt implements ExpressionExecutor {
-    private ExpressionExecutor leftExpressionExecutor;
-    private ExpressionExecutor rightExpressionExecutor;
+public class AddExpressionExecutorInt extends MathExpressionExecutor {
 
     public AddExpressionExecutorInt(ExpressionExecutor leftExpressionExecutor,
                                     ExpressionExecutor rightExpressionExecutor) {
-        this.leftExpressionExecutor = leftExpressionExecutor;
-        this.rightExpressionExecutor = rightExpressionExecutor;
+        super(leftExpressionExecutor, rightExpressionExecutor);
     }
 
     @Override
@@ -35,6 +33,21 @@ public class AddExpressionExecutorInt implements ExpressionExecutor {
 
     }
 
+    @Override
+    public int executeInt(ComplexEvent event) {
+        return leftInt(event) + rightInt(event);
+    }
+
+    @Override
+    public void executeInt(ComplexEvent[] events, int[] selection, int size, int[] values) {
+        int[] rightValues = rightInts(size);
+        leftInt(events, selection, size, values);
+        rightInt(events, selection, size, rightValues);
+        for (int i = 0; i < size; i++) {
+            values[i] = values[i] + rightValues[i];
+        }
+    }
+
     public Attribute.Type getReturnType() {
         return Attribute.Type.INT;
     }
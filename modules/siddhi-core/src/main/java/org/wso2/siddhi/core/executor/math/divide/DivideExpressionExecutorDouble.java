@@ -16,17 +16,14 @@ package org.wso2.siddhi.core.executor.math.divide;
 
 import org.wso2.siddhi.core.event.ComplexEvent;
 import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.core.executor.math.MathExpressionExecutor;
 import org.wso2.siddhi.query.api.definition.Attribute;
 
-public class DivideExpressionExecutorDouble implements ExpressionExecutor {
-    private ExpressionExecutor leftExpressionExecutor;
-    private ExpressionExecutor rightExpressionExecutor;
-
+public class DivideExpressionExecutorDouble extends MathExpressionExecutor {
 
     public DivideExpressionExecutorDouble(ExpressionExecutor leftExpressionExecutor,
                                           ExpressionExecutor rightExpressionExecutor) {
-        this.leftExpressionExecutor = leftExpressionExecutor;
-        this.rightExpressionExecutor = rightExpressionExecutor;
+        super(leftExpressionExecutor, rightExpressionExecutor);
     }
 
     @Override
@@ -35,6 +32,21 @@ public class DivideExpressionExecutorDouble implements ExpressionExecutor {
 
     }
 
+    @Override
+    public double executeDouble(ComplexEvent event) {
+        return leftDouble(event) / rightDouble(event);
+    }
+
+    @Override
+    public void executeDouble(ComplexEvent[] events, int[] selection, int size, double[] values) {
+        double[] rightValues = rightDoubles(size);
+        leftDouble(events, selection, size, values);
+        rightDouble(events, selection, size, rightValues);
+        for (int i = 0; i < size; i++) {
+            values[i] = values[i] / rightValues[i];
+        }
+    }
+
     public Attribute.Type getReturnType() {
         return Attribute.Type.DOUBLE;
     }
@@ -16,17 +16,14 @@ package org.wso2.siddhi.core.executor.math.multiply;
 
 import org.wso2.siddhi.core.event.ComplexEvent;
 import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.core.executor.math.MathExpressionExecutor;
 import org.wso2.siddhi.query.api.definition.Attribute;
 
-public class MultiplyExpressionExecutorFloat implements ExpressionExecutor {
-    private ExpressionExecutor leftExpressionExecutor;
-    private ExpressionExecutor rightExpressionExecutor;
-
+public class MultiplyExpressionExecutorFloat extends MathExpressionExecutor {
 
     public MultiplyExpressionExecutorFloat(ExpressionExecutor leftExpressionExecutor,
                                            ExpressionExecutor rightExpressionExecutor) {
-        this.leftExpressionExecutor = leftExpressionExecutor;
-        this.rightExpressionExecutor = rightExpressionExecutor;
+        super(leftExpressionExecutor, rightExpressionExecutor);
     }
 
     @Override
@@ -35,6 +32,21 @@ public class MultiplyExpressionExecutorFloat implements ExpressionExecutor {
 
     }
 
+    @Override
+    public float executeFloat(ComplexEvent event) {
+        return leftFloat(event) * rightFloat(event);
+    }
+
+    @Override
+    public void executeFloat(ComplexEvent[] events, int[] selection, int size, float[] values) {
+        float[] rightValues = rightFloats(size);
+        leftFloat(events, selection, size, values);
+        rightFloat(events, selection, size, rightValues);
+        for (int i = 0; i < size; i++) {
+            values[i] = values[i] * rightValues[i];
+        }
+    }
+
     public Attribute.Type getReturnType() {
         return Attribute.Type.FLOAT;
     }
@@ -17,17 +17,14 @@ package org.wso2.siddhi.core.executor.math.multiply;
 
 import org.wso2.siddhi.core.event.ComplexEvent;
 import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.core.executor.math.MathExpressionExecutor;
 import org.wso2.siddhi.query.api.definition.Attribute;
 
-public class MultiplyExpressionExecutorLong implements ExpressionExecutor {
-    private ExpressionExecutor leftExpressionExecutor;
-    private ExpressionExecutor rightExpressionExecutor;
-
+public class MultiplyExpressionExecutorLong extends MathExpressionExecutor {
 
     public MultiplyExpressionExecutorLong(ExpressionExecutor leftExpressionExecutor,
                                           ExpressionExecutor rightExpressionExecutor) {
-        this.leftExpressionExecutor = leftExpressionExecutor;
-        this.rightExpressionExecutor = rightExpressionExecutor;
+        super(leftExpressionExecutor, rightExpressionExecutor);
     }
 
     @Override
@@ -36,6 +33,21 @@ public class MultiplyExpressionExecutorLong implements ExpressionExecutor {
 
     }
 
+    @Override
+    public long executeLong(ComplexEvent event) {
+        return leftLong(event) * rightLong(event);
+    }
+
+    @Override
+    public void executeLong(ComplexEvent[] events, int[] selection, int size, long[] values) {
+        long[] rightValues = rightLongs(size);
+        leftLong(events, selection, size, values);
+        rightLong(events, selection, size, rightValues);
+        for (int i = 0; i < size; i++) {
+            values[i] = values[i] * rightValues[i];
+        }
+    }
+
     public Attribute.Type getReturnType() {
         return Attribute.Type.LONG;
     }
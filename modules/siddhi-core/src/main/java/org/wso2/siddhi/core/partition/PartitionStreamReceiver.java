@@ -15,6 +15,7 @@
 package org.wso2.siddhi.core.partition;
 
 import org.wso2.siddhi.core.config.ExecutionPlanContext;
+import org.wso2.siddhi.core.event.ColumnBatch;
 import org.wso2.siddhi.core.event.ComplexEvent;
 import org.wso2.siddhi.core.event.ComplexEventChunk;
 import org.wso2.siddhi.core.event.Event;
@@ -204,6 +205,20 @@ public class PartitionStreamReceiver implements StreamJunction.Receiver {
 
     }
 
+    @Override
+    public void receive(long[] timeStamps, ColumnBatch columnBatch) {
+        StreamEvent firstEvent = eventPool.borrowEvent();
+        streamEventConverter.convertColumns(timeStamps[0], columnBatch, 0, firstEvent);
+        StreamEvent currentEvent = firstEvent;
+        for (int row = 1, size = columnBatch.size(); row < size; row++) {
+            StreamEvent nextEvent = eventPool.borrowEvent();
+            streamEventConverter.convertColumns(timeStamps[row], columnBatch, row, nextEvent);
+            currentEvent.setNext(nextEvent);
+            currentEvent = nextEvent;
+        }
+        receive(firstEvent);
+    }
+
     private void send(String key, ComplexEvent event) {
         if (key != null) {
             partitionRuntime.cloneIfNotExist(key);
@@ -17,20 +17,31 @@ package org.wso2.siddhi.core.query;
 import org.wso2.siddhi.core.config.ExecutionPlanContext;
 import org.wso2.siddhi.core.event.MetaComplexEvent;
 import org.wso2.siddhi.core.query.input.stream.StreamRuntime;
+import org.wso2.siddhi.core.query.input.stream.single.SingleStreamRuntime;
+import org.wso2.siddhi.core.query.output.callback.InsertIntoStreamCallback;
 import org.wso2.siddhi.core.query.output.callback.OutputCallback;
 import org.wso2.siddhi.core.query.output.callback.QueryCallback;
 import org.wso2.siddhi.core.query.output.rateLimit.OutputRateLimiter;
+import org.wso2.siddhi.core.query.output.rateLimit.PassThroughOutputRateLimiter;
+import org.wso2.siddhi.core.query.processor.Processor;
+import org.wso2.siddhi.core.query.processor.filter.FilterProcessor;
 import org.wso2.siddhi.core.query.selector.QuerySelector;
 import org.wso2.siddhi.core.stream.StreamJunction;
 import org.wso2.siddhi.core.util.parser.OutputParser;
+import org.wso2.siddhi.core.util.parser.helper.CommonSubexpressionHelper;
 import org.wso2.siddhi.core.util.parser.helper.QueryParserHelper;
 import org.wso2.siddhi.query.api.annotation.Element;
 import org.wso2.siddhi.query.api.definition.StreamDefinition;
 import org.wso2.siddhi.query.api.exception.DuplicateAnnotationException;
 import org.wso2.siddhi.query.api.execution.query.Query;
+import org.wso2.siddhi.query.api.execution.query.input.handler.Filter;
+import org.wso2.siddhi.query.api.execution.query.input.handler.StreamHandler;
 import org.wso2.siddhi.query.api.execution.query.input.stream.JoinInputStream;
 import org.wso2.siddhi.query.api.execution.query.input.stream.SingleInputStream;
 import org.wso2.siddhi.query.api.execution.query.input.stream.StateInputStream;
+import org.wso2.siddhi.query.api.execution.query.selection.OutputAttribute;
+import org.wso2.siddhi.query.api.execution.query.selection.Selector;
+import org.wso2.siddhi.query.api.expression.Variable;
 import org.wso2.siddhi.query.api.util.AnnotationHelper;
 
 import java.util.List;
@@ -151,6 +162,72 @@ public class QueryRuntime {
 
     }
 
+    /**
+     * Whether the query can be cloned per shard of its input stream and still produce the same output. Only
+     * single stream queries filtering and projecting each event on its own qualify, or whose groups never span
+     * shards as they are grouped by the shard attribute. Windows, stream processors, output rate limiting and
+     * ungrouped aggregations keep state across events of all keys, so queries having them are not sharded.
+     * As functions are not told apart from aggregations before they are loaded, an ungrouped query selecting
+     * a function is not sharded either. Nor are queries reading tables, as tables are not read concurrently.
+     *
+     * @param shardAttribute attribute the input stream is sharded by
+     * @return whether the query can be sharded
+     */
+    public boolean isShardable(String shardAttribute) {
+        if (!(streamRuntime instanceof SingleStreamRuntime) || !(outputRateLimiter instanceof PassThroughOutputRateLimiter)) {
+            return false;
+        }
+        for (Processor processor = ((SingleStreamRuntime) streamRuntime).getProcessorChain();
+             processor != null && processor != selector; processor = processor.getNextProcessor()) {
+            if (!(processor instanceof FilterProcessor)) {
+                return false;
+            }
+        }
+        for (StreamHandler streamHandler : ((SingleInputStream) query.getInputStream()).getStreamHandlers()) {
+            if (streamHandler instanceof Filter && !CommonSubexpressionHelper.isPure(streamHandler.getParameters()[0])) {
+                return false;
+            }
+        }
+        Selector querySelector = query.getSelector();
+        if (!querySelector.getGroupByList().isEmpty()) {
+            for (Variable variable : querySelector.getGroupByList()) {
+                if (variable.getAttributeName().equals(shardAttribute)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        for (OutputAttribute outputAttribute : querySelector.getSelectionList()) {
+            if (!CommonSubexpressionHelper.isPure(outputAttribute.getExpression())) {
+                return false;
+            }
+        }
+        return querySelector.getHavingExpression() == null ||
+                CommonSubexpressionHelper.isPure(querySelector.getHavingExpression());
+    }
+
+    /**
+     * Clone the query to process a shard of its sharded input stream. Unlike partition clones, a shard
+     * inserts into its output stream through a publisher of its own, as shards run on different workers.
+     * Other output callbacks are shared with the query, see {@link OutputRateLimiter#setCallbackLock(Object)}.
+     *
+     * @param key               key identifying the shard
+     * @param streamJunctionMap stream junctions of the execution plan
+     * @return cloned query runtime
+     */
+    public QueryRuntime cloneShard(String key, ConcurrentMap<String, StreamJunction> streamJunctionMap) {
+        QueryRuntime queryRuntime = clone(key, null);
+        if (outputCallback instanceof InsertIntoStreamCallback) {
+            StreamDefinition streamDefinition = ((InsertIntoStreamCallback) outputCallback).getOutputStreamDefinition();
+            InsertIntoStreamCallback insertIntoStreamCallback = new InsertIntoStreamCallback(streamDefinition);
+            insertIntoStreamCallback.init(streamJunctionMap.get(streamDefinition.getId()));
+            queryRuntime.outputRateLimiter.setOutputCallback(insertIntoStreamCallback);
+            queryRuntime.outputCallback = insertIntoStreamCallback;
+        }
+        executionPlanContext.addEternalReferencedHolder(queryRuntime.outputRateLimiter);
+        return queryRuntime;
+    }
+
     private void setOutputRateLimiter(OutputRateLimiter outputRateLimiter) {
         this.outputRateLimiter = outputRateLimiter;
         selector.setNextProcessor(outputRateLimiter);
@@ -14,6 +14,7 @@
  */
 package org.wso2.siddhi.core.query.input;
 
+import org.wso2.siddhi.core.event.ColumnBatch;
 import org.wso2.siddhi.core.event.ComplexEvent;
 import org.wso2.siddhi.core.event.ComplexEventChunk;
 import org.wso2.siddhi.core.event.Event;
@@ -130,6 +131,20 @@ public class MultiProcessStreamReceiver extends ProcessStreamReceiver {
         }
     }
 
+    @Override
+    public void receive(long[] timeStamps, ColumnBatch columnBatch) {
+        for (int row = 0, size = columnBatch.size(); row < size; row++) {
+            stabilizeStates();
+            for (int i = metaStreamEvents.length - 1; i > -1; i--) {
+                StreamEventConverter aStreamEventConverter = streamEventConverters[i];
+                StreamEventPool aStreamEventPool = streamEventPools[i];
+                StreamEvent borrowedEvent = aStreamEventPool.borrowEvent();
+                aStreamEventConverter.convertColumns(timeStamps[row], columnBatch, row, borrowedEvent);
+                processAndClear(i, borrowedEvent);
+            }
+        }
+    }
+
     private void processAndClear(int processIndex, StreamEvent streamEvent) {
         currentStreamEventChunk.add(streamEvent);
         nextProcessors[processIndex].process(currentStreamEventChunk);
@@ -14,6 +14,7 @@
  */
 package org.wso2.siddhi.core.query.input;
 
+import org.wso2.siddhi.core.event.ColumnBatch;
 import org.wso2.siddhi.core.event.ComplexEvent;
 import org.wso2.siddhi.core.event.ComplexEventChunk;
 import org.wso2.siddhi.core.event.Event;
@@ -85,6 +86,12 @@ public class ProcessStreamReceiver implements StreamJunction.Receiver {
         processAndClear(streamEventChunk);
     }
 
+    @Override
+    public void receive(long[] timeStamps, ColumnBatch columnBatch) {
+        streamEventChunk.convertAndAssign(timeStamps, columnBatch);
+        processAndClear(streamEventChunk);
+    }
+
     protected void processAndClear(ComplexEventChunk<StreamEvent> streamEventChunk) {
         if (stateProcessorsSize != 0) {
             stateProcessors.get(0).updateState();
@@ -105,6 +112,17 @@ public class ProcessStreamReceiver implements StreamJunction.Receiver {
         this.next = next;
     }
 
+    public Processor getNext() {
+        return next;
+    }
+
+    /**
+     * @return whether the receiver is feeding a pattern or sequence, having state processors
+     */
+    public boolean isStateful() {
+        return stateProcessorsSize != 0;
+    }
+
     public void setStreamEventPool(StreamEventPool streamEventPool) {
         this.streamEventPool = streamEventPool;
     }
@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.query.input;
+
+import org.wso2.siddhi.core.event.ColumnBatch;
+import org.wso2.siddhi.core.event.ComplexEvent;
+import org.wso2.siddhi.core.event.ComplexEventChunk;
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.event.stream.MetaStreamEvent;
+import org.wso2.siddhi.core.event.stream.StreamEventCloner;
+import org.wso2.siddhi.core.event.stream.StreamEventPool;
+import org.wso2.siddhi.core.query.processor.Processor;
+import org.wso2.siddhi.core.query.processor.SchedulingProcessor;
+import org.wso2.siddhi.core.query.processor.window.WindowProcessor;
+import org.wso2.siddhi.query.api.definition.Attribute;
+import org.wso2.siddhi.query.api.definition.StreamDefinition;
+
+import java.util.Arrays;
+
+/**
+ * Receiver of the queries reading a stream through the same window definition, subscribed to the stream
+ * junction in place of their ProcessStreamReceivers.
+ * <p/>
+ * While a single query reads through the window, events are handed to the receiver of that query as they are.
+ * Once other queries join, the window of the first query becomes the shared window: it keeps a single copy of
+ * the events, holding all the attributes of the stream, and schedules a single timer. Its current and expired
+ * output is then converted to the layout of each query by the query's receiver, and processed by the
+ * processors following the window in that query. Queries annotated with @info(share.window='false') are not
+ * subscribed through a shared window.
+ */
+public class SharedWindowReceiver extends ProcessStreamReceiver {
+
+    private final MetaStreamEvent metaStreamEvent;
+    private ProcessStreamReceiver[] receivers = new ProcessStreamReceiver[0];
+    private WindowProcessor windowProcessor;
+    private volatile ProcessStreamReceiver directReceiver;
+
+    public SharedWindowReceiver(StreamDefinition streamDefinition) {
+        super(streamDefinition.getId());
+        metaStreamEvent = new MetaStreamEvent();
+        metaStreamEvent.addInputDefinition(streamDefinition);
+        for (Attribute attribute : streamDefinition.getAttributeList()) {
+            metaStreamEvent.addOutputData(attribute);
+        }
+        setMetaStreamEvent(metaStreamEvent);
+    }
+
+    /**
+     * Add a query reading the stream through the window, must be called before events are received
+     *
+     * @param processStreamReceiver receiver of the query
+     * @param windowProcessor       window of the query, being its first processor or following its entry valve
+     */
+    public synchronized void addReceiver(ProcessStreamReceiver processStreamReceiver, WindowProcessor windowProcessor) {
+        if (receivers.length == 0) {
+            this.windowProcessor = windowProcessor;
+            directReceiver = processStreamReceiver;
+        } else {
+            if (receivers.length == 1) {
+                share();
+            }
+            processStreamReceiver.setNext(windowProcessor.getNextProcessor());
+        }
+        receivers = Arrays.copyOf(receivers, receivers.length + 1);
+        receivers[receivers.length - 1] = processStreamReceiver;
+    }
+
+    /**
+     * @return number of queries reading through the window
+     */
+    public int getReceiverCount() {
+        return receivers.length;
+    }
+
+    private void share() {
+        StreamEventPool streamEventPool = new StreamEventPool(metaStreamEvent, 5);
+        setStreamEventPool(streamEventPool);
+        init();
+        ProcessStreamReceiver firstReceiver = receivers[0];
+        setNext(firstReceiver.getNext());
+        windowProcessor.setStreamEventCloner(new StreamEventCloner(metaStreamEvent, streamEventPool));
+        if (windowProcessor instanceof SchedulingProcessor) {
+            ((SchedulingProcessor) windowProcessor).getScheduler().setStreamEventPool(streamEventPool);
+        }
+        firstReceiver.setNext(windowProcessor.getNextProcessor());
+        windowProcessor.setNextProcessor(new FanOutProcessor());
+        directReceiver = null;
+    }
+
+    @Override
+    public void receive(ComplexEvent complexEvent) {
+        ProcessStreamReceiver directReceiver = this.directReceiver;
+        if (directReceiver != null) {
+            directReceiver.receive(complexEvent);
+        } else {
+            super.receive(complexEvent);
+        }
+    }
+
+    @Override
+    public void receive(Event event) {
+        ProcessStreamReceiver directReceiver = this.directReceiver;
+        if (directReceiver != null) {
+            directReceiver.receive(event);
+        } else {
+            super.receive(event);
+        }
+    }
+
+    @Override
+    public void receive(Event[] events) {
+        ProcessStreamReceiver directReceiver = this.directReceiver;
+        if (directReceiver != null) {
+            directReceiver.receive(events);
+        } else {
+            super.receive(events);
+        }
+    }
+
+    @Override
+    public void receive(Event event, boolean endOfBatch) {
+        ProcessStreamReceiver directReceiver = this.directReceiver;
+        if (directReceiver != null) {
+            directReceiver.receive(event, endOfBatch);
+        } else {
+            super.receive(event, endOfBatch);
+        }
+    }
+
+    @Override
+    public void receive(long timeStamp, Object[] data) {
+        ProcessStreamReceiver directReceiver = this.directReceiver;
+        if (directReceiver != null) {
+            directReceiver.receive(timeStamp, data);
+        } else {
+            super.receive(timeStamp, data);
+        }
+    }
+
+    @Override
+    public void receive(long[] timeStamps, ColumnBatch columnBatch) {
+        ProcessStreamReceiver directReceiver = this.directReceiver;
+        if (directReceiver != null) {
+            directReceiver.receive(timeStamps, columnBatch);
+        } else {
+            super.receive(timeStamps, columnBatch);
+        }
+    }
+
+    /**
+     * Last processor of the shared window, handing its output to the receiver of each query
+     */
+    private class FanOutProcessor implements Processor {
+
+        @Override
+        public void process(ComplexEventChunk complexEventChunk) {
+            ComplexEvent complexEvent = complexEventChunk.getFirst();
+            if (complexEvent != null) {
+                for (ProcessStreamReceiver receiver : receivers) {
+                    receiver.receive(complexEvent);
+                }
+            }
+        }
+
+        @Override
+        public Processor getNextProcessor() {
+            return null;
+        }
+
+        @Override
+        public void setNextProcessor(Processor processor) {
+            //the receivers of the queries follow the shared window
+        }
+
+        @Override
+        public void setToLast(Processor processor) {
+            //the receivers of the queries follow the shared window
+        }
+
+        @Override
+        public Processor cloneProcessor(String key) {
+            throw new IllegalStateException("Shared window of stream " + streamId + " cannot be cloned");
+        }
+    }
+}
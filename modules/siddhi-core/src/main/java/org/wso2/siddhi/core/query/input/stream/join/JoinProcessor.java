@@ -148,6 +148,10 @@ public class JoinProcessor implements Processor {
         this.findableProcessor = findableProcessor;
     }
 
+    public Finder getFinder() {
+        return finder;
+    }
+
     public void setFinder(Finder finder) {
         this.finder = finder;
     }
@@ -21,6 +21,7 @@ import org.wso2.siddhi.core.query.input.stream.StreamRuntime;
 import org.wso2.siddhi.core.query.input.stream.single.SingleStreamRuntime;
 import org.wso2.siddhi.core.query.processor.Processor;
 import org.wso2.siddhi.core.query.processor.window.FindableProcessor;
+import org.wso2.siddhi.core.query.processor.window.IndexedFindableProcessor;
 import org.wso2.siddhi.core.query.processor.window.WindowProcessor;
 
 import java.util.ArrayList;
@@ -82,9 +83,21 @@ public class JoinStreamRuntime implements StreamRuntime {
 
         leftPreJoinProcessor.setFindableProcessor((FindableProcessor) rightWindowProcessor);
         leftPostJoinProcessor.setFindableProcessor((FindableProcessor) rightWindowProcessor);
+
+        //the cloned windows start with no indexes, the cloned finders have to be registered to them
+        registerFinder(rightPreJoinProcessor, leftWindowProcessor);
+        registerFinder(rightPostJoinProcessor, leftWindowProcessor);
+        registerFinder(leftPreJoinProcessor, rightWindowProcessor);
+        registerFinder(leftPostJoinProcessor, rightWindowProcessor);
         return joinStreamRuntime;
     }
 
+    private static void registerFinder(JoinProcessor joinProcessor, WindowProcessor windowProcessor) {
+        if (joinProcessor.getFinder() != null && windowProcessor instanceof IndexedFindableProcessor) {
+            ((IndexedFindableProcessor) windowProcessor).getEventIndexSet().register(joinProcessor.getFinder());
+        }
+    }
+
     @Override
     public void setCommonProcessor(Processor commonProcessor) {
         for (SingleStreamRuntime singleStreamRuntime : singleStreamRuntimeList) {
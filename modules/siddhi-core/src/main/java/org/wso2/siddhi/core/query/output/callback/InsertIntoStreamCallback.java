@@ -21,6 +21,7 @@ import org.wso2.siddhi.query.api.definition.StreamDefinition;
 
 public class InsertIntoStreamCallback implements OutputCallback {
     private StreamDefinition outputStreamDefinition;
+    private StreamJunction outputStreamJunction;
     private StreamJunction.Publisher publisher;
 
     public InsertIntoStreamCallback(StreamDefinition outputStreamDefinition) {
@@ -28,6 +29,7 @@ public class InsertIntoStreamCallback implements OutputCallback {
     }
 
     public void init(StreamJunction outputStreamJunction) {
+        this.outputStreamJunction = outputStreamJunction;
         this.publisher = outputStreamJunction.constructPublisher();
     }
 
@@ -40,4 +42,11 @@ public class InsertIntoStreamCallback implements OutputCallback {
         return outputStreamDefinition;
     }
 
+    /**
+     * @return whether the output stream hands the events over to its receivers through its ring buffer
+     */
+    public boolean isAsync() {
+        return outputStreamJunction.isAsync();
+    }
+
 }
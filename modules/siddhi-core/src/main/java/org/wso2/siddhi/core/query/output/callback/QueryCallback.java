@@ -17,16 +17,21 @@ package org.wso2.siddhi.core.query.output.callback;
 
 import com.lmax.disruptor.EventHandler;
 import com.lmax.disruptor.RingBuffer;
-import com.lmax.disruptor.SleepingWaitStrategy;
 import com.lmax.disruptor.dsl.Disruptor;
 import com.lmax.disruptor.dsl.ProducerType;
 import org.apache.log4j.Logger;
+import org.wso2.siddhi.core.config.DisruptorConfig;
 import org.wso2.siddhi.core.config.ExecutionPlanContext;
 import org.wso2.siddhi.core.event.ComplexEvent;
 import org.wso2.siddhi.core.event.ComplexEventChunk;
 import org.wso2.siddhi.core.event.Event;
 import org.wso2.siddhi.core.event.stream.StreamEvent;
+import org.wso2.siddhi.core.util.statistics.ConsumerStatistics;
+import org.wso2.siddhi.core.util.statistics.RingBufferStatistics;
+import org.wso2.siddhi.core.util.statistics.StatisticsManager;
+import org.wso2.siddhi.query.api.annotation.Element;
 import org.wso2.siddhi.query.api.execution.query.Query;
+import org.wso2.siddhi.query.api.util.AnnotationHelper;
 
 import java.lang.reflect.Constructor;
 import java.util.ArrayList;
@@ -45,6 +50,7 @@ public abstract class QueryCallback {
     private Disruptor<EventHolder> disruptor;
     private RingBuffer<EventHolder> ringBuffer;
     private AsyncEventHandler asyncEventHandler;
+    private RingBufferStatistics statistics;    //null when statistics are not enabled
 
     public void setQuery(Query query) {
         this.query = query;
@@ -88,7 +94,7 @@ public abstract class QueryCallback {
     }
 
     private void sendAsync(long timeStamp, Event[] currentEvents, Event[] expiredEvents) {
-        long sequenceNo = ringBuffer.next();
+        long sequenceNo = claim(1);
         try {
             EventHolder holder = ringBuffer.get(sequenceNo);
             holder.timeStamp = timeStamp;
@@ -149,25 +155,50 @@ public abstract class QueryCallback {
 //        }
 
         if (asyncEnabled != null && asyncEnabled || asyncEnabled == null) {
+            DisruptorConfig disruptorConfig = DisruptorConfig.parse(query.getAnnotations(),
+                    executionPlanContext.getSiddhiContext().getEventBufferSize());
+            ProducerType producerType = disruptorConfig.getProducerType();
+            if (producerType == null) {
+                producerType = ProducerType.SINGLE;
+            }
             for (Constructor constructor : Disruptor.class.getConstructors()) {
                 if (constructor.getParameterTypes().length == 5) {      //if new disruptor implementation available
                     disruptor = new Disruptor<EventHolder>(new EventHolderFactory(),
-                            executionPlanContext.getSiddhiContext().getEventBufferSize(),
-                            executionPlanContext.getExecutorService(), ProducerType.SINGLE, new SleepingWaitStrategy());
+                            disruptorConfig.getBufferSize(), executionPlanContext.getExecutorService(),
+                            producerType, disruptorConfig.constructWaitStrategy());
                     break;
                 }
             }
             if (disruptor == null) {
                 disruptor = new Disruptor<EventHolder>(new EventHolderFactory(),
-                        executionPlanContext.getSiddhiContext().getEventBufferSize(),
-                        executionPlanContext.getExecutorService());
+                        disruptorConfig.getBufferSize(), executionPlanContext.getExecutorService());
             }
             asyncEventHandler = new AsyncEventHandler(this);
+            StatisticsManager statisticsManager = executionPlanContext.getStatisticsManager();
+            if (statisticsManager != null) {
+                Element element = AnnotationHelper.getAnnotationElement("info", "name", query.getAnnotations());
+                String queryName = element != null ? element.getValue() : Integer.toHexString(System.identityHashCode(query));
+                statistics = statisticsManager.createRingBufferStatistics("queryCallback:" + queryName);
+                asyncEventHandler.consumerStatistics = statistics.addConsumer(getClass().getName());
+            }
             disruptor.handleEventsWith(asyncEventHandler);
             ringBuffer = disruptor.start();
+            if (statistics != null) {
+                statistics.setRingBuffer(ringBuffer);
+            }
         }
     }
 
+    private long claim(int batchSize) {
+        if (statistics == null) {
+            return ringBuffer.next(batchSize);
+        }
+        long startTime = System.nanoTime();
+        long sequenceNo = ringBuffer.next(batchSize);
+        statistics.claimed(startTime, batchSize);
+        return sequenceNo;
+    }
+
     public synchronized void stopProcessing() {
         if (disruptor != null) {
             asyncEventHandler.queryCallback = null;
@@ -181,6 +212,7 @@ public abstract class QueryCallback {
     public class AsyncEventHandler implements EventHandler<EventHolder> {
 
         private QueryCallback queryCallback;
+        private ConsumerStatistics consumerStatistics;
 
         public AsyncEventHandler(QueryCallback queryCallback) {
             this.queryCallback = queryCallback;
@@ -196,6 +228,9 @@ public abstract class QueryCallback {
          */
         @Override
         public void onEvent(EventHolder eventHolder, long sequence, boolean endOfBatch) throws Exception {
+            if (consumerStatistics != null) {
+                consumerStatistics.consumed(sequence, endOfBatch);
+            }
             if (queryCallback != null) {
                 queryCallback.send(eventHolder.timeStamp, eventHolder.currentEvents, eventHolder.expiredEvents);
             }
@@ -17,6 +17,7 @@ package org.wso2.siddhi.core.query.output.rateLimit;
 import org.wso2.siddhi.core.event.ComplexEvent;
 import org.wso2.siddhi.core.event.ComplexEventChunk;
 import org.wso2.siddhi.core.extension.EternalReferencedHolder;
+import org.wso2.siddhi.core.query.output.callback.InsertIntoStreamCallback;
 import org.wso2.siddhi.core.query.output.callback.OutputCallback;
 import org.wso2.siddhi.core.query.output.callback.QueryCallback;
 
@@ -29,18 +30,48 @@ public abstract class OutputRateLimiter implements EternalReferencedHolder{
     protected List<QueryCallback> queryCallbacks = new ArrayList<QueryCallback>();
     protected OutputCallback outputCallback = null;
     private boolean hasCallBack = false;
+    private Object callbackLock = null;     //null unless the callbacks are shared by the shards of a query
 
     protected void sendToCallBacks(ComplexEventChunk complexEventChunk) {
         if (outputCallback != null && complexEventChunk.getFirst()!=null) {
-            outputCallback.send(complexEventChunk);
+            if (callbackLock == null || (outputCallback instanceof InsertIntoStreamCallback &&
+                    ((InsertIntoStreamCallback) outputCallback).isAsync())) {
+                outputCallback.send(complexEventChunk);
+            } else {
+                synchronized (callbackLock) {
+                    outputCallback.send(complexEventChunk);
+                }
+            }
         }
         if (!queryCallbacks.isEmpty()) {
-            for (QueryCallback callback : queryCallbacks) {
-                callback.receiveStreamEvent(complexEventChunk);
+            if (callbackLock == null) {
+                sendToQueryCallBacks(complexEventChunk);
+            } else {
+                synchronized (callbackLock) {
+                    sendToQueryCallBacks(complexEventChunk);
+                }
             }
         }
     }
 
+    private void sendToQueryCallBacks(ComplexEventChunk complexEventChunk) {
+        for (QueryCallback callback : queryCallbacks) {
+            callback.receiveStreamEvent(complexEventChunk);
+        }
+    }
+
+    /**
+     * Serialize the callbacks of the shards of a query on a common lock, as the shards share the query
+     * callbacks and table output callbacks of the query while running on different workers. Shards insert
+     * into streams through publishers of their own, so inserting in to a stream is serialized only when the
+     * stream processes the events on the publishing threads, as its receivers are not thread safe.
+     *
+     * @param callbackLock lock common to the shards of the query
+     */
+    public void setCallbackLock(Object callbackLock) {
+        this.callbackLock = callbackLock;
+    }
+
     public void addQueryCallback(QueryCallback callback) {
         queryCallbacks.add(callback);
         hasCallBack = true;
@@ -34,7 +34,7 @@ public class FirstGroupByPerEventOutputRateLimiter extends OutputRateLimiter {
     private List<ComplexEvent> complexEventList;
 
     private volatile int counter = 0;
-    List<String> groupByKeys = new ArrayList<String>();
+    List<Object> groupByKeys = new ArrayList<Object>();
 
     public FirstGroupByPerEventOutputRateLimiter(String id, Integer value) {
         this.id = id;
@@ -59,7 +59,7 @@ public class FirstGroupByPerEventOutputRateLimiter extends OutputRateLimiter {
 
     @Override
     public void add(ComplexEvent complexEvent) {
-        String groupByKey = QuerySelector.getThreadLocalGroupByKey();
+        Object groupByKey = QuerySelector.getThreadLocalGroupByKey();
         if (!groupByKeys.contains(groupByKey)) {
             groupByKeys.add(groupByKey);
             complexEventList.add(complexEvent);
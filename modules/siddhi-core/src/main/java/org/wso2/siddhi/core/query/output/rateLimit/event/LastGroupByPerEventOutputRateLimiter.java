@@ -52,8 +52,8 @@ public class LastGroupByPerEventOutputRateLimiter extends OutputRateLimiter {
 
     @Override
     public void add(ComplexEvent complexEvent) {
-        String groupByKey = QuerySelector.getThreadLocalGroupByKey();
-        allGroupByKeyEvents.put(groupByKey+complexEvent.getType(),complexEvent);
+        Object groupByKey = QuerySelector.getThreadLocalGroupByKey();
+        allGroupByKeyEvents.put(String.valueOf(groupByKey) + complexEvent.getType(), complexEvent);
         if (++counter == value) {
             sendEvents();
         }
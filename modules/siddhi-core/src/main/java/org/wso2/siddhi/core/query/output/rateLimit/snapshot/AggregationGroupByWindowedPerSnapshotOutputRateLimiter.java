@@ -29,13 +29,13 @@ import java.util.Map;
 import java.util.concurrent.ScheduledExecutorService;
 
 public class AggregationGroupByWindowedPerSnapshotOutputRateLimiter extends AggregationWindowedPerSnapshotOutputRateLimiter {
-    private final Map<String, Map<Integer, Object>> groupByAggregateAttributeValueMap;
-    String currentKey = null;
+    private final Map<Object, Map<Integer, Object>> groupByAggregateAttributeValueMap;
+    Object currentKey = null;
     ComplexEventChunk<ComplexEvent> eventChunk;
 
     protected AggregationGroupByWindowedPerSnapshotOutputRateLimiter(String id, Long value, ScheduledExecutorService scheduledExecutorService, List<Integer> aggregateAttributePositionList, WrappedSnapshotOutputRateLimiter wrappedSnapshotOutputRateLimiter) {
         super(id, value, scheduledExecutorService, aggregateAttributePositionList, wrappedSnapshotOutputRateLimiter);
-        groupByAggregateAttributeValueMap = new HashMap<String, Map<Integer, Object>>();
+        groupByAggregateAttributeValueMap = new HashMap<Object, Map<Integer, Object>>();
         eventChunk = new ComplexEventChunk<ComplexEvent>();
     }
 
@@ -54,7 +54,7 @@ public class AggregationGroupByWindowedPerSnapshotOutputRateLimiter extends Aggr
     }
 
     public synchronized void add(ComplexEvent complexEvent) {
-        String groupByKey = QuerySelector.getThreadLocalGroupByKey();
+        Object groupByKey = QuerySelector.getThreadLocalGroupByKey();
         if (currentKey == null) {
             currentKey = groupByKey;
             eventChunk.add(complexEvent);
@@ -82,7 +82,7 @@ public class AggregationGroupByWindowedPerSnapshotOutputRateLimiter extends Aggr
         return ((GroupedEvent) eventObject).event;
     }
 
-    protected void addEventToList(ComplexEvent event, String groupByKey) {
+    protected void addEventToList(ComplexEvent event, Object groupByKey) {
         eventList.add(new GroupedEvent(event, groupByKey));
     }
 
@@ -93,9 +93,9 @@ public class AggregationGroupByWindowedPerSnapshotOutputRateLimiter extends Aggr
 
     private class GroupedEvent {
         ComplexEvent event;
-        String groupByKey;
+        Object groupByKey;
 
-        public GroupedEvent(ComplexEvent event, String groupByKey) {
+        public GroupedEvent(ComplexEvent event, Object groupByKey) {
             this.event = event;
             this.groupByKey = groupByKey;
         }
@@ -88,7 +88,7 @@ public class AggregationWindowedPerSnapshotOutputRateLimiter extends SnapshotOut
         eventChunk.add(complexEvent);
     }
 
-    protected void processAndSend(ComplexEventChunk complexEventChunk, Map<Integer, Object> aggregateAttributeValueMap, String groupByKey) {
+    protected void processAndSend(ComplexEventChunk complexEventChunk, Map<Integer, Object> aggregateAttributeValueMap, Object groupByKey) {
         ComplexEvent complexEvent = complexEventChunk.getFirst();
 
         while (complexEvent != null) {
@@ -177,7 +177,7 @@ public class AggregationWindowedPerSnapshotOutputRateLimiter extends SnapshotOut
         return (ComplexEvent) eventObject;
     }
 
-    protected void addEventToList(ComplexEvent event, String groupByKey) {
+    protected void addEventToList(ComplexEvent event, Object groupByKey) {
         eventList.add(event);
     }
 
@@ -33,7 +33,7 @@ public class AllAggregationGroupByWindowedPerSnapshotOutputRateLimiter extends S
     private String id;
     private final Long value;
     private final ScheduledExecutorService scheduledExecutorService;
-    Map<String, LastEventHolder> groupByKeyEvents = new LinkedHashMap<String, LastEventHolder>();
+    Map<Object, LastEventHolder> groupByKeyEvents = new LinkedHashMap<Object, LastEventHolder>();
 
     public AllAggregationGroupByWindowedPerSnapshotOutputRateLimiter(String id, Long value, ScheduledExecutorService scheduledExecutorService, WrappedSnapshotOutputRateLimiter wrappedSnapshotOutputRateLimiter) {
         super(wrappedSnapshotOutputRateLimiter);
@@ -53,7 +53,7 @@ public class AllAggregationGroupByWindowedPerSnapshotOutputRateLimiter extends S
 
     @Override
     public void add(ComplexEvent complexEvent) {
-        String groupByKey = QuerySelector.getThreadLocalGroupByKey();
+        Object groupByKey = QuerySelector.getThreadLocalGroupByKey();
         LastEventHolder lastEventHolder = groupByKeyEvents.get(groupByKey);
         if (lastEventHolder == null) {
             lastEventHolder = new LastEventHolder();
@@ -34,8 +34,8 @@ public class GroupByPerSnapshotOutputRateLimiter extends SnapshotOutputRateLimit
     private String id;
     private final Long value;
     private ScheduledExecutorService scheduledExecutorService;
-    private Map<String, List<ComplexEvent>> tempGroupByKeyEvents = new LinkedHashMap<String, List<ComplexEvent>>();
-    private Map<String, List<ComplexEvent>> groupByKeyEvents = new LinkedHashMap<String, List<ComplexEvent>>();
+    private Map<Object, List<ComplexEvent>> tempGroupByKeyEvents = new LinkedHashMap<Object, List<ComplexEvent>>();
+    private Map<Object, List<ComplexEvent>> groupByKeyEvents = new LinkedHashMap<Object, List<ComplexEvent>>();
 
     public GroupByPerSnapshotOutputRateLimiter(String id, Long value, ScheduledExecutorService scheduledExecutorService, WrappedSnapshotOutputRateLimiter wrappedSnapshotOutputRateLimiter) {
         super(wrappedSnapshotOutputRateLimiter);
@@ -46,7 +46,7 @@ public class GroupByPerSnapshotOutputRateLimiter extends SnapshotOutputRateLimit
 
     @Override
     public void send(ComplexEventChunk complexEventChunk) {
-        for (String key : tempGroupByKeyEvents.keySet()) {
+        for (Object key : tempGroupByKeyEvents.keySet()) {
             groupByKeyEvents.put(key, tempGroupByKeyEvents.get(key));
         }
         tempGroupByKeyEvents.clear();
@@ -55,7 +55,7 @@ public class GroupByPerSnapshotOutputRateLimiter extends SnapshotOutputRateLimit
     @Override
     public void add(ComplexEvent complexEvent) {
         if (complexEvent.getType() == ComplexEvent.Type.CURRENT) {
-            String groupByKey = QuerySelector.getThreadLocalGroupByKey();
+            Object groupByKey = QuerySelector.getThreadLocalGroupByKey();
             if (tempGroupByKeyEvents.containsKey(groupByKey)) {
                 tempGroupByKeyEvents.get(groupByKey).add(complexEvent);
             } else {
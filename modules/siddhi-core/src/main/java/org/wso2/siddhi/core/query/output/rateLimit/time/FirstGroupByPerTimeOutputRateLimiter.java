@@ -36,7 +36,7 @@ public class FirstGroupByPerTimeOutputRateLimiter extends OutputRateLimiter {
 
     private String id;
     private final Long value;
-    private List<String> groupByKeys = new ArrayList<String>();
+    private List<Object> groupByKeys = new ArrayList<Object>();
     private List<ComplexEvent> complexEventList = new ArrayList<ComplexEvent>();
     private ScheduledExecutorService scheduledExecutorService;
 
@@ -63,7 +63,7 @@ public class FirstGroupByPerTimeOutputRateLimiter extends OutputRateLimiter {
 
     @Override
     public void add(ComplexEvent complexEvent) {
-        String groupByKey = QuerySelector.getThreadLocalGroupByKey();
+        Object groupByKey = QuerySelector.getThreadLocalGroupByKey();
         if (!groupByKeys.contains(groupByKey)) {
             groupByKeys.add(groupByKey);
             complexEventList.add(complexEvent);
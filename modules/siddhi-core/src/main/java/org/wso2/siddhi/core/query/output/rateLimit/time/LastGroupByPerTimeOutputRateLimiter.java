@@ -76,8 +76,8 @@ public class LastGroupByPerTimeOutputRateLimiter extends OutputRateLimiter {
 
     @Override
     public void add(ComplexEvent complexEvent) {
-        String groupByKey = QuerySelector.getThreadLocalGroupByKey();
-        allGroupByKeyEvents.put(groupByKey + complexEvent.getType(), complexEvent);
+        Object groupByKey = QuerySelector.getThreadLocalGroupByKey();
+        allGroupByKeyEvents.put(String.valueOf(groupByKey) + complexEvent.getType(), complexEvent);
     }
 
     private synchronized void sendEvents() {
@@ -14,22 +14,37 @@
  */
 package org.wso2.siddhi.core.query.processor.filter;
 
+import org.wso2.siddhi.core.event.ArrayEventChunk;
 import org.wso2.siddhi.core.event.ComplexEvent;
 import org.wso2.siddhi.core.event.ComplexEventChunk;
 import org.wso2.siddhi.core.exception.OperationNotSupportedException;
 import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.core.executor.PrimitiveExpressionExecutor;
+import org.wso2.siddhi.core.executor.SharedExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.ConditionExpressionExecutor;
 import org.wso2.siddhi.core.query.processor.Processor;
 import org.wso2.siddhi.query.api.definition.Attribute;
 
+import java.util.Arrays;
+
 
 public class FilterProcessor implements Processor {
 
+    /**
+     * Smallest array backed chunk filtered a column at a time, smaller chunks are filtered an event at a time
+     */
+    public static final int MIN_BATCH_SIZE = 16;
+
     protected Processor next;
     private ExpressionExecutor conditionExecutor;
+    private PrimitiveExpressionExecutor primitiveConditionExecutor;
+    private SharedExpressionExecutor.Scope sharedExpressionScope;
+    private ComplexEvent[] batchEvents = new ComplexEvent[0];     //scratch arrays of processBatch(), grown on demand
+    private int[] batchSelection = new int[0];
 
     public FilterProcessor(ExpressionExecutor conditionExecutor) {
         if (Attribute.Type.BOOL.equals(conditionExecutor.getReturnType())) {
-            this.conditionExecutor = conditionExecutor;
+            setConditionExecutor(conditionExecutor);
         } else {
             throw new OperationNotSupportedException("Return type of " + conditionExecutor.toString() + " should be of type BOOL. " +
                     "Actual type: " + conditionExecutor.getReturnType().toString());
@@ -37,21 +52,90 @@ public class FilterProcessor implements Processor {
     }
 
     public FilterProcessor cloneProcessor(String key) {
-        return new FilterProcessor(conditionExecutor.cloneExecutor(key));
+        if (sharedExpressionScope == null) {
+            return new FilterProcessor(conditionExecutor.cloneExecutor(key));
+        }
+        SharedExpressionExecutor.Scope clonedScope = sharedExpressionScope.beginClone();
+        try {
+            FilterProcessor filterProcessor = new FilterProcessor(conditionExecutor.cloneExecutor(key));
+            filterProcessor.sharedExpressionScope = clonedScope;
+            return filterProcessor;
+        } finally {
+            sharedExpressionScope.endClone();
+        }
     }
 
     @Override
     public void process(ComplexEventChunk complexEventChunk) {
+        if (sharedExpressionScope != null) {
+            sharedExpressionScope.invalidate();
+        }
+        if (primitiveConditionExecutor instanceof ConditionExpressionExecutor &&
+                complexEventChunk instanceof ArrayEventChunk &&
+                ((ArrayEventChunk) complexEventChunk).size() >= MIN_BATCH_SIZE) {
+            processBatch((ArrayEventChunk) complexEventChunk);
+        } else {
+            processEvents(complexEventChunk);
+        }
+        if (complexEventChunk.getFirst() != null) {
+            this.next.process(complexEventChunk);
+        }
+    }
+
+    private void processEvents(ComplexEventChunk complexEventChunk) {
         complexEventChunk.reset();
         while (complexEventChunk.hasNext()) {
             ComplexEvent complexEvent = complexEventChunk.next();
-            if (!(Boolean) conditionExecutor.execute(complexEvent)) {
+            if (primitiveConditionExecutor != null) {
+                if (!primitiveConditionExecutor.executeBool(complexEvent)) {
+                    complexEventChunk.remove();
+                }
+            } else if (!(Boolean) conditionExecutor.execute(complexEvent)) {
                 complexEventChunk.remove();
             }
         }
-        if (complexEventChunk.getFirst() != null) {
-            this.next.process(complexEventChunk);
+    }
+
+    /**
+     * Evaluate the condition over the whole chunk, narrowing a selection vector of the event positions, and
+     * remove the events not selected at once
+     */
+    private void processBatch(ArrayEventChunk complexEventChunk) {
+        int size = complexEventChunk.size();
+        if (batchEvents.length < size) {
+            batchEvents = new ComplexEvent[size];
+            batchSelection = new int[size];
+        }
+        ComplexEvent[] events = batchEvents;
+        int[] selection = batchSelection;
+        complexEventChunk.copyTo(events);
+        for (int i = 0; i < size; i++) {
+            selection[i] = i;
         }
+        int selected = ((ConditionExpressionExecutor) primitiveConditionExecutor).select(events, selection, size);
+        //the events are passed on, hence not kept beyond the batch
+        Arrays.fill(events, 0, size, null);
+        if (selected < size) {
+            complexEventChunk.retain(selection, selected);
+        }
+    }
+
+    public ExpressionExecutor getConditionExecutor() {
+        return conditionExecutor;
+    }
+
+    public void setConditionExecutor(ExpressionExecutor conditionExecutor) {
+        this.conditionExecutor = conditionExecutor;
+        if (conditionExecutor instanceof PrimitiveExpressionExecutor &&
+                ((PrimitiveExpressionExecutor) conditionExecutor).isPrimitive()) {
+            this.primitiveConditionExecutor = (PrimitiveExpressionExecutor) conditionExecutor;
+        } else {
+            this.primitiveConditionExecutor = null;
+        }
+    }
+
+    public void setSharedExpressionScope(SharedExpressionExecutor.Scope sharedExpressionScope) {
+        this.sharedExpressionScope = sharedExpressionScope;
     }
 
     @Override
@@ -31,7 +31,10 @@ import org.wso2.siddhi.core.executor.ExpressionExecutor;
 import org.wso2.siddhi.core.executor.VariableExpressionExecutor;
 import org.wso2.siddhi.core.query.processor.Processor;
 import org.wso2.siddhi.core.table.EventTable;
+import org.wso2.siddhi.core.util.finder.EventIndex;
+import org.wso2.siddhi.core.util.finder.EventIndexSet;
 import org.wso2.siddhi.core.util.finder.Finder;
+import org.wso2.siddhi.core.util.finder.IndexedFinder;
 import org.wso2.siddhi.core.util.parser.SimpleFinderParser;
 import org.wso2.siddhi.query.api.definition.Attribute;
 import org.wso2.siddhi.query.api.expression.Expression;
@@ -39,10 +42,11 @@ import org.wso2.siddhi.query.api.expression.Expression;
 import java.util.List;
 import java.util.Map;
 
-public class ExternalTimeWindowProcessor extends WindowProcessor implements FindableProcessor{
+public class ExternalTimeWindowProcessor extends WindowProcessor implements IndexedFindableProcessor {
     static final Logger log = Logger.getLogger(ExternalTimeWindowProcessor.class);
     private long timeToKeep;
     private ComplexEventChunk<StreamEvent> expiredEventChunk;
+    private EventIndexSet eventIndexSet = new EventIndexSet();
     private VariableExpressionExecutor timeStampVariableExpressionExecutor;
 
     @Override
@@ -75,6 +79,7 @@ public class ExternalTimeWindowProcessor extends WindowProcessor implements Find
                 long timeDiff = expiredEvent.getTimestamp() - currentTime;
                 if (timeDiff <= 0) {
                     expiredEventChunk.remove();
+                    eventIndexSet.remove(expiredEvent);
                     streamEventChunk.insertBeforeCurrent(expiredEvent);
                 } else {
                     expiredEventChunk.reset();
@@ -84,6 +89,7 @@ public class ExternalTimeWindowProcessor extends WindowProcessor implements Find
 
             if (streamEvent.getType() == StreamEvent.Type.CURRENT) {
                 this.expiredEventChunk.add(clonedEvent);
+                eventIndexSet.add(clonedEvent);
             }
             expiredEventChunk.reset();
         }
@@ -108,10 +114,15 @@ public class ExternalTimeWindowProcessor extends WindowProcessor implements Find
     @Override
     public void restoreState(Object[] state) {
         expiredEventChunk = (ComplexEventChunk<StreamEvent>) state[0];
+        eventIndexSet.rebuild(expiredEventChunk);
     }
 
     @Override
     public StreamEvent find(ComplexEvent matchingEvent, Finder finder) {
+        EventIndex eventIndex = eventIndexSet.getIndex(finder);
+        if (eventIndex != null) {
+            return eventIndex.find(matchingEvent, (IndexedFinder) finder, streamEventCloner);
+        }
         finder.setMatchingEvent(matchingEvent);
         ComplexEventChunk<StreamEvent> returnEventChunk = new ComplexEventChunk<StreamEvent>();
         expiredEventChunk.reset();
@@ -127,6 +138,11 @@ public class ExternalTimeWindowProcessor extends WindowProcessor implements Find
 
     @Override
     public Finder constructFinder(Expression expression, MetaComplexEvent metaComplexEvent, ExecutionPlanContext executionPlanContext, List<VariableExpressionExecutor> variableExpressionExecutors, Map<String, EventTable> eventTableMap, int matchingStreamIndex) {
-        return SimpleFinderParser.parse(expression, metaComplexEvent, executionPlanContext, variableExpressionExecutors, eventTableMap, matchingStreamIndex, inputDefinition);
+        return eventIndexSet.register(SimpleFinderParser.parse(expression, metaComplexEvent, executionPlanContext, variableExpressionExecutors, eventTableMap, matchingStreamIndex, inputDefinition));
+    }
+
+    @Override
+    public EventIndexSet getEventIndexSet() {
+        return eventIndexSet;
     }
 }
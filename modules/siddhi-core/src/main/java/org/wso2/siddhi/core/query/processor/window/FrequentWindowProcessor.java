@@ -30,8 +30,11 @@ import org.wso2.siddhi.core.executor.ExpressionExecutor;
 import org.wso2.siddhi.core.executor.VariableExpressionExecutor;
 import org.wso2.siddhi.core.query.processor.Processor;
 import org.wso2.siddhi.core.table.EventTable;
+import org.wso2.siddhi.core.util.dictionary.StringDictionary;
 import org.wso2.siddhi.core.util.finder.Finder;
 import org.wso2.siddhi.core.util.parser.SimpleFinderParser;
+import org.wso2.siddhi.query.api.definition.AbstractDefinition;
+import org.wso2.siddhi.query.api.definition.Attribute;
 import org.wso2.siddhi.query.api.expression.Expression;
 
 import java.util.ArrayList;
@@ -44,12 +47,36 @@ import java.util.concurrent.ConcurrentHashMap;
  * Misra-Gries counting algorithm
  */
 public class FrequentWindowProcessor extends WindowProcessor implements FindableProcessor{
-    private ConcurrentHashMap<String, Integer> countMap = new ConcurrentHashMap<String, Integer>();
-    private ConcurrentHashMap<String, StreamEvent> map = new ConcurrentHashMap<String, StreamEvent>();
+    private ConcurrentHashMap<Object, Integer> countMap = new ConcurrentHashMap<Object, Integer>();
+    private ConcurrentHashMap<Object, StreamEvent> map = new ConcurrentHashMap<Object, StreamEvent>();
     private VariableExpressionExecutor[] variableExpressionExecutors;
+    private StringDictionary[] dictionaries;    //dictionary of each key attribute, null unless all are encoded
 
     private int mostFrequentCount;
 
+    @Override
+    protected List<Attribute> init(AbstractDefinition inputDefinition, ExpressionExecutor[] attributeExpressionExecutors,
+                                   ExecutionPlanContext executionPlanContext) {
+        List<Attribute> attributes = super.init(inputDefinition, attributeExpressionExecutors, executionPlanContext);
+        if (variableExpressionExecutors.length == 0 || variableExpressionExecutors.length > 2) {
+            return attributes;
+        }
+        //keys of up to two encoded attributes fit in to an int or a long of their codes
+        StringDictionary[] keyDictionaries = new StringDictionary[variableExpressionExecutors.length];
+        for (int i = 0; i < variableExpressionExecutors.length; i++) {
+            Attribute attribute = variableExpressionExecutors[i].getAttribute();
+            if (attribute.getType() != Attribute.Type.STRING) {
+                return attributes;
+            }
+            keyDictionaries[i] = executionPlanContext.getStringDictionary(inputDefinition.getId(), attribute.getName());
+            if (keyDictionaries[i] == null) {
+                return attributes;
+            }
+        }
+        dictionaries = keyDictionaries;
+        return attributes;
+    }
+
     @Override
     protected void init(ExpressionExecutor[] attributeExpressionExecutors, ExecutionPlanContext executionPlanContext) {
         mostFrequentCount = Integer.parseInt(String.valueOf(((ConstantExpressionExecutor)attributeExpressionExecutors[0]).getValue()));
@@ -72,14 +99,15 @@ public class FrequentWindowProcessor extends WindowProcessor implements Findable
             StreamEvent clonedEvent = streamEventCloner.copyStreamEvent(streamEvent);
             clonedEvent.setType(StreamEvent.Type.EXPIRED);
 
-            StreamEvent oldEvent = map.put(generateKey(streamEvent), clonedEvent);
+            Object key = generateKey(streamEvent);
+            StreamEvent oldEvent = map.put(key, clonedEvent);
             if (oldEvent != null) {
-                countMap.put(generateKey(streamEvent), countMap.get(generateKey(streamEvent)) + 1);
+                countMap.put(key, countMap.get(key) + 1);
                 complexEventChunk.add(streamEvent);
             } else {
                 //  This is a new event
                 if (map.size() > mostFrequentCount) {
-                    List<String> keys = new ArrayList<String>();
+                    List<Object> keys = new ArrayList<Object>();
                     keys.addAll(countMap.keySet());
                     for (int i = 0; i < mostFrequentCount; i++) {
                         int count = countMap.get(keys.get(i)) - 1;
@@ -94,17 +122,17 @@ public class FrequentWindowProcessor extends WindowProcessor implements Findable
                     if (map.size() > mostFrequentCount) {
                         //nothing happend by the attempt to remove one from the
                         // map so we are ignoring this event
-                        map.remove(generateKey(streamEvent));
+                        map.remove(key);
                         // Here we do nothing just drop the message
                     } else {
                         // we got some space, event is already there in map object
                         // we just have to add it to the countMap
-                        countMap.put(generateKey(streamEvent), 1);
+                        countMap.put(key, 1);
                         complexEventChunk.add(streamEvent);
                     }
 
                 } else {
-                    countMap.put(generateKey(streamEvent), 1);
+                    countMap.put(key, 1);
                     complexEventChunk.add(streamEvent);
                 }
 
@@ -133,10 +161,20 @@ public class FrequentWindowProcessor extends WindowProcessor implements Findable
 
     @Override
     public void restoreState(Object[] state) {
-        countMap = (ConcurrentHashMap<String, Integer>) state[0];
+        countMap = (ConcurrentHashMap<Object, Integer>) state[0];
     }
 
-    private String generateKey(StreamEvent event) {      // for performance reason if its all attribute we don't do the attribute list check
+    /**
+     * @return key of the event, which is an Integer or a Long built of the codes of the values when the key
+     * attributes are dictionary encoded, else a String
+     */
+    private Object generateKey(StreamEvent event) {      // for performance reason if its all attribute we don't do the attribute list check
+        if (dictionaries != null) {
+            if (dictionaries.length == 1) {
+                return encode(0, event);
+            }
+            return ((long) encode(0, event) << 32) | (encode(1, event) & 0xFFFFFFFFL);
+        }
         StringBuilder stringBuilder = new StringBuilder();
         if (variableExpressionExecutors.length == 0) {
             for (Object data : event.getOutputData()) {
@@ -150,6 +188,11 @@ public class FrequentWindowProcessor extends WindowProcessor implements Findable
         return stringBuilder.toString();
     }
 
+    private int encode(int keyIndex, StreamEvent event) {
+        Object value = event.getAttribute(variableExpressionExecutors[keyIndex].getPosition());
+        return value == null ? -1 : dictionaries[keyIndex].encode((String) value);
+    }
+
     @Override
     public StreamEvent find(ComplexEvent matchingEvent, Finder finder) {
         finder.setMatchingEvent(matchingEvent);
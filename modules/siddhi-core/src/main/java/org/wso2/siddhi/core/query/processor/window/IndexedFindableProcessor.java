@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.query.processor.window;
+
+import org.wso2.siddhi.core.util.finder.EventIndexSet;
+
+/**
+ * FindableProcessor keeping an {@link org.wso2.siddhi.core.util.finder.EventIndex} for each indexed finder it
+ * constructs. Processors cloned for a partition key start with no indexes, hence the finders cloned along with
+ * them have to be registered to the index set of the clones.
+ */
+public interface IndexedFindableProcessor extends FindableProcessor {
+
+    /**
+     * @return the indexes of the events held by the processor
+     */
+    public EventIndexSet getEventIndexSet();
+
+}
@@ -25,18 +25,22 @@ import org.wso2.siddhi.core.executor.ExpressionExecutor;
 import org.wso2.siddhi.core.executor.VariableExpressionExecutor;
 import org.wso2.siddhi.core.query.processor.Processor;
 import org.wso2.siddhi.core.table.EventTable;
+import org.wso2.siddhi.core.util.finder.EventIndex;
+import org.wso2.siddhi.core.util.finder.EventIndexSet;
 import org.wso2.siddhi.core.util.finder.Finder;
+import org.wso2.siddhi.core.util.finder.IndexedFinder;
 import org.wso2.siddhi.core.util.parser.SimpleFinderParser;
 import org.wso2.siddhi.query.api.expression.Expression;
 
 import java.util.List;
 import java.util.Map;
 
-public class LengthWindowProcessor extends WindowProcessor implements FindableProcessor {
+public class LengthWindowProcessor extends WindowProcessor implements IndexedFindableProcessor {
 
     private int length;
     private int count = 0;
     private ComplexEventChunk<StreamEvent> expiredEventChunk;
+    private EventIndexSet eventIndexSet = new EventIndexSet();
 
     public int getLength() {
         return length;
@@ -66,15 +70,21 @@ public class LengthWindowProcessor extends WindowProcessor implements FindablePr
                 this.expiredEventChunk.add(clonedEvent);
             } else {
                 StreamEvent firstEvent = this.expiredEventChunk.poll();
+                eventIndexSet.remove(firstEvent);
                 streamEventChunk.insertBeforeCurrent(firstEvent);
                 this.expiredEventChunk.add(clonedEvent);
             }
+            eventIndexSet.add(clonedEvent);
         }
         nextProcessor.process(streamEventChunk);
     }
 
     @Override
     public StreamEvent find(ComplexEvent matchingEvent, Finder finder) {
+        EventIndex eventIndex = eventIndexSet.getIndex(finder);
+        if (eventIndex != null) {
+            return eventIndex.find(matchingEvent, (IndexedFinder) finder, streamEventCloner);
+        }
         finder.setMatchingEvent(matchingEvent);
         ComplexEventChunk<StreamEvent> returnEventChunk = new ComplexEventChunk<StreamEvent>();
         expiredEventChunk.reset();
@@ -90,7 +100,12 @@ public class LengthWindowProcessor extends WindowProcessor implements FindablePr
 
     @Override
     public Finder constructFinder(Expression expression, MetaComplexEvent metaComplexEvent, ExecutionPlanContext executionPlanContext, List<VariableExpressionExecutor> variableExpressionExecutors, Map<String, EventTable> eventTableMap, int matchingStreamIndex) {
-        return SimpleFinderParser.parse(expression, metaComplexEvent, executionPlanContext, variableExpressionExecutors, null, matchingStreamIndex, inputDefinition);
+        return eventIndexSet.register(SimpleFinderParser.parse(expression, metaComplexEvent, executionPlanContext, variableExpressionExecutors, null, matchingStreamIndex, inputDefinition));
+    }
+
+    @Override
+    public EventIndexSet getEventIndexSet() {
+        return eventIndexSet;
     }
 
     @Override
@@ -112,5 +127,6 @@ public class LengthWindowProcessor extends WindowProcessor implements FindablePr
     public void restoreState(Object[] state) {
         expiredEventChunk = (ComplexEventChunk<StreamEvent>) state[0];
         count = (Integer) state[1];
+        eventIndexSet.rebuild(expiredEventChunk);
     }
 }
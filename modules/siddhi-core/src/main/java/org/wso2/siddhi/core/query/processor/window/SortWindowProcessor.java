@@ -30,12 +30,18 @@ import org.wso2.siddhi.core.executor.ExpressionExecutor;
 import org.wso2.siddhi.core.executor.VariableExpressionExecutor;
 import org.wso2.siddhi.core.query.processor.Processor;
 import org.wso2.siddhi.core.table.EventTable;
+import org.wso2.siddhi.core.util.finder.EventIndex;
+import org.wso2.siddhi.core.util.finder.EventIndexSet;
 import org.wso2.siddhi.core.util.finder.Finder;
+import org.wso2.siddhi.core.util.finder.IndexedFinder;
 import org.wso2.siddhi.core.util.parser.SimpleFinderParser;
 import org.wso2.siddhi.query.api.definition.Attribute;
 import org.wso2.siddhi.query.api.expression.Expression;
 
-import java.util.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 
 /*
 * Sample Query:
@@ -48,29 +54,161 @@ import java.util.*;
 * The arguements following the size of the window are optional.
 * If neither "asc" nor "desc" is given for a certain attribute, order defaults to "asc"
 * */
-public class SortWindowProcessor extends WindowProcessor implements FindableProcessor{
+public class SortWindowProcessor extends WindowProcessor implements IndexedFindableProcessor {
     private int lengthToKeep;
-    private ArrayList<StreamEvent> sortedWindow = new ArrayList<StreamEvent>();
-    private ArrayList<Object[]> parameterInfo;
-    private EventComparator eventComparator;
+    private SortedWindow sortedWindow;
+    private AttributeComparator[] attributeComparators;
+    private EventIndexSet eventIndexSet = new EventIndexSet();
 
     private static final String ASC = "asc";
     private static final String DESC = "desc";
 
-    private class EventComparator implements Comparator<StreamEvent> {
-        @Override
+    /**
+     * Compares an attribute of two events, specialized to the attribute type at init to avoid casting to
+     * Comparable on each comparison
+     */
+    private abstract static class AttributeComparator {
+        protected final int[] position;
+        protected final int order;
+
+        protected AttributeComparator(int[] position, int order) {
+            this.position = position;
+            this.order = order;
+        }
+
+        protected abstract int compare(Object value1, Object value2);
+
         public int compare(StreamEvent e1, StreamEvent e2) {
-            int comparisonResult;
-            for (Object[] listItem: parameterInfo){
-                int[] variablePosition = ((VariableExpressionExecutor)listItem[0]).getPosition();
-                Comparable comparableVariable1 = (Comparable)e1.getAttribute(variablePosition);
-                Comparable comparableVariable2 = (Comparable)e2.getAttribute(variablePosition);
-                comparisonResult = comparableVariable1.compareTo(comparableVariable2);
-                if(comparisonResult != 0){
-                    return ((Integer)listItem[1])*comparisonResult;
+            return order * compare(e1.getAttribute(position), e2.getAttribute(position));
+        }
+
+        public static AttributeComparator create(VariableExpressionExecutor variableExpressionExecutor, int order) {
+            int[] position = variableExpressionExecutor.getPosition();
+            switch (variableExpressionExecutor.getReturnType()) {
+                case INT:
+                    return new AttributeComparator(position, order) {
+                        @Override
+                        protected int compare(Object value1, Object value2) {
+                            int int1 = (Integer) value1;
+                            int int2 = (Integer) value2;
+                            return int1 < int2 ? -1 : (int1 == int2 ? 0 : 1);
+                        }
+                    };
+                case LONG:
+                    return new AttributeComparator(position, order) {
+                        @Override
+                        protected int compare(Object value1, Object value2) {
+                            long long1 = (Long) value1;
+                            long long2 = (Long) value2;
+                            return long1 < long2 ? -1 : (long1 == long2 ? 0 : 1);
+                        }
+                    };
+                case FLOAT:
+                    return new AttributeComparator(position, order) {
+                        @Override
+                        protected int compare(Object value1, Object value2) {
+                            return Float.compare((Float) value1, (Float) value2);
+                        }
+                    };
+                case DOUBLE:
+                    return new AttributeComparator(position, order) {
+                        @Override
+                        protected int compare(Object value1, Object value2) {
+                            return Double.compare((Double) value1, (Double) value2);
+                        }
+                    };
+                case STRING:
+                    return new AttributeComparator(position, order) {
+                        @Override
+                        protected int compare(Object value1, Object value2) {
+                            return ((String) value1).compareTo((String) value2);
+                        }
+                    };
+                default:
+                    return new AttributeComparator(position, order) {
+                        @Override
+                        protected int compare(Object value1, Object value2) {
+                            return ((Comparable) value1).compareTo(value2);
+                        }
+                    };
+            }
+        }
+    }
+
+    /**
+     * Binary heap of the events in the window having the event to be expired next, the last in the sort order,
+     * at its root. Events equal in the sort order are expired latest arrival first.
+     */
+    private class SortedWindow {
+        private StreamEvent[] events;
+        private long[] arrivals;
+        private int size;
+        private long arrivalCount;
+
+        private SortedWindow(int capacity) {
+            events = new StreamEvent[capacity];
+            arrivals = new long[capacity];
+        }
+
+        private int compare(int i, int j) {
+            for (AttributeComparator attributeComparator : attributeComparators) {
+                int comparisonResult = attributeComparator.compare(events[i], events[j]);
+                if (comparisonResult != 0) {
+                    return comparisonResult;
+                }
+            }
+            return arrivals[i] < arrivals[j] ? -1 : (arrivals[i] == arrivals[j] ? 0 : 1);
+        }
+
+        private void swap(int i, int j) {
+            StreamEvent event = events[i];
+            events[i] = events[j];
+            events[j] = event;
+            long arrival = arrivals[i];
+            arrivals[i] = arrivals[j];
+            arrivals[j] = arrival;
+        }
+
+        private void add(StreamEvent streamEvent) {
+            if (size == events.length) {
+                events = Arrays.copyOf(events, size * 2);
+                arrivals = Arrays.copyOf(arrivals, size * 2);
+            }
+            events[size] = streamEvent;
+            arrivals[size] = arrivalCount++;
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (compare(i, parent) <= 0) {
+                    break;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private StreamEvent removeLast() {
+            StreamEvent last = events[0];
+            size--;
+            events[0] = events[size];
+            arrivals[0] = arrivals[size];
+            events[size] = null;
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
                 }
+                if (child + 1 < size && compare(child + 1, child) > 0) {
+                    child++;
+                }
+                if (compare(child, i) <= 0) {
+                    break;
+                }
+                swap(i, child);
+                i = child;
             }
-            return 0;
+            return last;
         }
     }
 
@@ -81,13 +219,12 @@ public class SortWindowProcessor extends WindowProcessor implements FindableProc
         } else {
             throw new UnsupportedOperationException("The first parameter should be an integer");
         }
-        parameterInfo = new ArrayList<Object[]>();
-        eventComparator = new EventComparator();
+        List<AttributeComparator> comparators = new ArrayList<AttributeComparator>();
         for (int i = 1, parametersLength = attributeExpressionExecutors.length  ; i < parametersLength; i++) {
             if (!(attributeExpressionExecutors[i] instanceof VariableExpressionExecutor)){
                 throw new UnsupportedOperationException("Required a variable, but found a string parameter");
             } else{
-                ExpressionExecutor variableExpressionExecutor = attributeExpressionExecutors[i];
+                VariableExpressionExecutor variableExpressionExecutor = (VariableExpressionExecutor) attributeExpressionExecutors[i];
                 int order;
                 String nextParameter;
                 if(i+1 < parametersLength && attributeExpressionExecutors[i+1].getReturnType() == Attribute.Type.STRING){
@@ -104,10 +241,11 @@ public class SortWindowProcessor extends WindowProcessor implements FindableProc
                 } else {
                     order = 1; //assigning the default order: "asc"
                 }
-                parameterInfo.add(new Object[]{variableExpressionExecutor, order});
+                comparators.add(AttributeComparator.create(variableExpressionExecutor, order));
             }
         }
-
+        attributeComparators = comparators.toArray(new AttributeComparator[comparators.size()]);
+        sortedWindow = new SortedWindow(Math.min(lengthToKeep + 1, 1024));
     }
 
     @Override
@@ -124,9 +262,11 @@ public class SortWindowProcessor extends WindowProcessor implements FindableProc
             complexEventChunk.add(streamEvent);
 
             sortedWindow.add(clonedEvent);
-            if (sortedWindow.size() > lengthToKeep) {
-                Collections.sort(sortedWindow, eventComparator);
-                complexEventChunk.add(sortedWindow.remove(sortedWindow.size()-1));
+            eventIndexSet.add(clonedEvent);
+            if (sortedWindow.size > lengthToKeep) {
+                StreamEvent expiredEvent = sortedWindow.removeLast();
+                eventIndexSet.remove(expiredEvent);
+                complexEventChunk.add(expiredEvent);
             }
 
             streamEvent = next;
@@ -148,21 +288,35 @@ public class SortWindowProcessor extends WindowProcessor implements FindableProc
 
     @Override
     public Object[] currentState() {
-        return new Object[]{sortedWindow};
+        return new Object[]{Arrays.copyOf(sortedWindow.events, sortedWindow.size),
+                Arrays.copyOf(sortedWindow.arrivals, sortedWindow.size), sortedWindow.arrivalCount};
     }
 
     @Override
     public void restoreState(Object[] state) {
-        sortedWindow = (ArrayList<StreamEvent>) state[0];
+        StreamEvent[] events = (StreamEvent[]) state[0];
+        sortedWindow = new SortedWindow(Math.max(events.length, 1));
+        System.arraycopy(events, 0, sortedWindow.events, 0, events.length);
+        System.arraycopy((long[]) state[1], 0, sortedWindow.arrivals, 0, events.length);
+        sortedWindow.size = events.length;
+        sortedWindow.arrivalCount = (Long) state[2];
+        eventIndexSet.clear();
+        for (StreamEvent event : events) {
+            eventIndexSet.add(event);
+        }
     }
 
     @Override
     public StreamEvent find(ComplexEvent matchingEvent, Finder finder) {
+        EventIndex eventIndex = eventIndexSet.getIndex(finder);
+        if (eventIndex != null) {
+            return eventIndex.find(matchingEvent, (IndexedFinder) finder, streamEventCloner);
+        }
         finder.setMatchingEvent(matchingEvent);
         ComplexEventChunk<StreamEvent> returnEventChunk = new ComplexEventChunk<StreamEvent>();
-        for(StreamEvent streamEvent:sortedWindow){
-            if (finder.execute(streamEvent)) {
-                returnEventChunk.add(streamEventCloner.copyStreamEvent(streamEvent));
+        for (int i = 0; i < sortedWindow.size; i++) {
+            if (finder.execute(sortedWindow.events[i])) {
+                returnEventChunk.add(streamEventCloner.copyStreamEvent(sortedWindow.events[i]));
             }
         }
         finder.setMatchingEvent(null);
@@ -171,6 +325,11 @@ public class SortWindowProcessor extends WindowProcessor implements FindableProc
 
     @Override
     public Finder constructFinder(Expression expression, MetaComplexEvent metaComplexEvent, ExecutionPlanContext executionPlanContext, List<VariableExpressionExecutor> variableExpressionExecutors, Map<String, EventTable> eventTableMap, int matchingStreamIndex) {
-        return SimpleFinderParser.parse(expression, metaComplexEvent, executionPlanContext, variableExpressionExecutors, eventTableMap, matchingStreamIndex, inputDefinition);
+        return eventIndexSet.register(SimpleFinderParser.parse(expression, metaComplexEvent, executionPlanContext, variableExpressionExecutors, eventTableMap, matchingStreamIndex, inputDefinition));
+    }
+
+    @Override
+    public EventIndexSet getEventIndexSet() {
+        return eventIndexSet;
     }
 }
@@ -27,7 +27,10 @@ import org.wso2.siddhi.core.query.processor.Processor;
 import org.wso2.siddhi.core.query.processor.SchedulingProcessor;
 import org.wso2.siddhi.core.table.EventTable;
 import org.wso2.siddhi.core.util.Scheduler;
+import org.wso2.siddhi.core.util.finder.EventIndex;
+import org.wso2.siddhi.core.util.finder.EventIndexSet;
 import org.wso2.siddhi.core.util.finder.Finder;
+import org.wso2.siddhi.core.util.finder.IndexedFinder;
 import org.wso2.siddhi.core.util.parser.SimpleFinderParser;
 import org.wso2.siddhi.query.api.definition.Attribute;
 import org.wso2.siddhi.query.api.exception.ExecutionPlanValidationException;
@@ -36,10 +39,11 @@ import org.wso2.siddhi.query.api.expression.Expression;
 import java.util.List;
 import java.util.Map;
 
-public class TimeWindowProcessor extends WindowProcessor implements SchedulingProcessor, FindableProcessor {
+public class TimeWindowProcessor extends WindowProcessor implements SchedulingProcessor, IndexedFindableProcessor {
 
     private long timeInMilliSeconds;
     private ComplexEventChunk<StreamEvent> expiredEventChunk;
+    private EventIndexSet eventIndexSet = new EventIndexSet();
     private Scheduler scheduler;
     private ExecutionPlanContext executionPlanContext;
 
@@ -99,6 +103,7 @@ public class TimeWindowProcessor extends WindowProcessor implements SchedulingPr
                 long timeDiff = expiredEvent.getTimestamp() - currentTime;
                 if (timeDiff <= 0) {
                     expiredEventChunk.remove();
+                    eventIndexSet.remove(expiredEvent);
                     streamEventChunk.insertBeforeCurrent(expiredEvent);
                 } else {
                     scheduler.notifyAt(expiredEvent.getTimestamp());
@@ -110,6 +115,7 @@ public class TimeWindowProcessor extends WindowProcessor implements SchedulingPr
 
             if (streamEvent.getType() == StreamEvent.Type.CURRENT) {
                 this.expiredEventChunk.add(clonedEvent);
+                eventIndexSet.add(clonedEvent);
                 if (!eventScheduled) {
                     scheduler.notifyAt(clonedEvent.getTimestamp());
                 }
@@ -121,6 +127,10 @@ public class TimeWindowProcessor extends WindowProcessor implements SchedulingPr
 
     @Override
     public StreamEvent find(ComplexEvent matchingEvent, Finder finder) {
+        EventIndex eventIndex = eventIndexSet.getIndex(finder);
+        if (eventIndex != null) {
+            return eventIndex.find(matchingEvent, (IndexedFinder) finder, streamEventCloner);
+        }
         finder.setMatchingEvent(matchingEvent);
         ComplexEventChunk<StreamEvent> returnEventChunk = new ComplexEventChunk<StreamEvent>();
         expiredEventChunk.reset();
@@ -136,7 +146,12 @@ public class TimeWindowProcessor extends WindowProcessor implements SchedulingPr
 
     @Override
     public Finder constructFinder(Expression expression, MetaComplexEvent metaComplexEvent, ExecutionPlanContext executionPlanContext, List<VariableExpressionExecutor> variableExpressionExecutors, Map<String, EventTable> eventTableMap, int matchingStreamIndex) {
-        return SimpleFinderParser.parse(expression, metaComplexEvent, executionPlanContext, variableExpressionExecutors, eventTableMap, matchingStreamIndex, inputDefinition);
+        return eventIndexSet.register(SimpleFinderParser.parse(expression, metaComplexEvent, executionPlanContext, variableExpressionExecutors, eventTableMap, matchingStreamIndex, inputDefinition));
+    }
+
+    @Override
+    public EventIndexSet getEventIndexSet() {
+        return eventIndexSet;
     }
 
     @Override
@@ -157,5 +172,6 @@ public class TimeWindowProcessor extends WindowProcessor implements SchedulingPr
     @Override
     public void restoreState(Object[] state) {
         expiredEventChunk = (ComplexEventChunk<StreamEvent>) state[0];
+        eventIndexSet.rebuild(expiredEventChunk);
     }
 }
@@ -19,6 +19,7 @@ import org.wso2.siddhi.core.event.ComplexEventChunk;
 import org.wso2.siddhi.core.event.stream.StreamEvent;
 import org.wso2.siddhi.core.event.stream.StreamEventCloner;
 import org.wso2.siddhi.core.event.stream.populater.StreamEventPopulater;
+import org.wso2.siddhi.core.executor.ConstantExpressionExecutor;
 import org.wso2.siddhi.core.executor.ExpressionExecutor;
 import org.wso2.siddhi.core.query.processor.Processor;
 import org.wso2.siddhi.core.query.processor.stream.StreamProcessor;
@@ -59,4 +60,23 @@ public abstract class WindowProcessor extends StreamProcessor {
     protected abstract void process(ComplexEventChunk<StreamEvent> streamEventChunk, Processor nextProcessor,
                                     StreamEventCloner streamEventCloner);
 
+    /**
+     * Key of the window definition, being equal for windows of the same type having the same constant parameters,
+     * such that queries reading a stream through windows of equal keys can share a single window.
+     *
+     * @return the key, or null when the window has non constant parameters and cannot be shared
+     */
+    public String getSharingKey() {
+        StringBuilder key = new StringBuilder(getClass().getName()).append('(');
+        for (ExpressionExecutor attributeExpressionExecutor : attributeExpressionExecutors) {
+            if (!(attributeExpressionExecutor instanceof ConstantExpressionExecutor)) {
+                return null;
+            }
+            String value = String.valueOf(((ConstantExpressionExecutor) attributeExpressionExecutor).getValue());
+            key.append(attributeExpressionExecutor.getReturnType()).append(':').append(value.length()).append(':')
+                    .append(value).append(',');
+        }
+        return key.append(')').toString();
+    }
+
 }
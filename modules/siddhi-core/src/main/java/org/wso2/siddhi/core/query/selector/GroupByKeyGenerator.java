@@ -17,11 +17,15 @@ package org.wso2.siddhi.core.query.selector;
 import org.wso2.siddhi.core.config.ExecutionPlanContext;
 import org.wso2.siddhi.core.event.ComplexEvent;
 import org.wso2.siddhi.core.event.MetaComplexEvent;
-import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.core.event.state.MetaStateEvent;
+import org.wso2.siddhi.core.event.stream.MetaStreamEvent;
 import org.wso2.siddhi.core.executor.VariableExpressionExecutor;
 import org.wso2.siddhi.core.table.EventTable;
 import org.wso2.siddhi.core.util.SiddhiConstants;
+import org.wso2.siddhi.core.util.dictionary.StringDictionary;
 import org.wso2.siddhi.core.util.parser.ExpressionParser;
+import org.wso2.siddhi.query.api.definition.AbstractDefinition;
+import org.wso2.siddhi.query.api.definition.Attribute;
 import org.wso2.siddhi.query.api.expression.Variable;
 
 import java.util.List;
@@ -30,6 +34,7 @@ import java.util.Map;
 public class GroupByKeyGenerator {
 
     private VariableExpressionExecutor[] groupByExecutors = null;
+    private StringDictionary[] dictionaries = null;     //dictionary of each group by attribute, when all are encoded
 
     public GroupByKeyGenerator(List<Variable> groupByList,
                                MetaComplexEvent metaComplexEvent,
@@ -38,23 +43,63 @@ public class GroupByKeyGenerator {
                                ExecutionPlanContext siddhiContext) {
         if (!groupByList.isEmpty()) {
             groupByExecutors = new VariableExpressionExecutor[groupByList.size()];
+            StringDictionary[] groupByDictionaries = new StringDictionary[groupByList.size()];
+            boolean encoded = groupByList.size() <= 2;
             for (int i = 0, expressionsSize = groupByList.size(); i < expressionsSize; i++) {
                 groupByExecutors[i] = (VariableExpressionExecutor) ExpressionParser.parseExpression(groupByList.get(i),
                         metaComplexEvent, SiddhiConstants.UNKNOWN_STATE, eventTableMap, executors, siddhiContext, false, 0);
+                groupByDictionaries[i] = findDictionary(groupByExecutors[i], metaComplexEvent, siddhiContext);
+                encoded = encoded && groupByDictionaries[i] != null;
+            }
+            if (encoded) {
+                //keys of up to two encoded attributes fit in to an int or a long of their codes
+                dictionaries = groupByDictionaries;
+            }
+        }
+    }
+
+    private static StringDictionary findDictionary(VariableExpressionExecutor executor,
+                                                   MetaComplexEvent metaComplexEvent,
+                                                   ExecutionPlanContext executionPlanContext) {
+        if (executor.getAttribute().getType() != Attribute.Type.STRING) {
+            return null;
+        }
+        MetaStreamEvent metaStreamEvent;
+        if (metaComplexEvent instanceof MetaStateEvent) {
+            int streamEventChainIndex = executor.getPosition()[SiddhiConstants.STREAM_EVENT_CHAIN_INDEX];
+            metaStreamEvent = ((MetaStateEvent) metaComplexEvent).getMetaStreamEvent(
+                    Math.max(streamEventChainIndex, 0));
+        } else {
+            metaStreamEvent = (MetaStreamEvent) metaComplexEvent;
+        }
+        for (AbstractDefinition inputDefinition : metaStreamEvent.getInputDefinitions()) {
+            StringDictionary dictionary = executionPlanContext.getStringDictionary(inputDefinition.getId(),
+                    executor.getAttribute().getName());
+            if (dictionary != null) {
+                return dictionary;
             }
         }
+        return null;
     }
 
     /**
-     * generate groupBy key of a streamEvent
+     * generate groupBy key of a streamEvent, which is an Integer or a Long built of the codes of the values
+     * when the group by attributes are dictionary encoded, else a String as keyed in earlier versions, such that
+     * snapshots persisted without dictionaries can still be restored
      *
      * @param event complexEvent
      * @return GroupByKey
      */
-    protected String constructEventKey(ComplexEvent event) {
+    protected Object constructEventKey(ComplexEvent event) {
         if (groupByExecutors != null) {
+            if (dictionaries != null) {
+                if (groupByExecutors.length == 1) {
+                    return encode(0, event);
+                }
+                return ((long) encode(0, event) << 32) | (encode(1, event) & 0xFFFFFFFFL);
+            }
             StringBuilder sb = new StringBuilder();
-            for (ExpressionExecutor executor : groupByExecutors) {
+            for (VariableExpressionExecutor executor : groupByExecutors) {
                 sb.append(executor.execute(event)).append("::");
             }
             return sb.toString();
@@ -62,4 +107,9 @@ public class GroupByKeyGenerator {
             return null;
         }
     }
+
+    private int encode(int groupByIndex, ComplexEvent event) {
+        Object value = groupByExecutors[groupByIndex].execute(event);
+        return value == null ? -1 : dictionaries[groupByIndex].encode((String) value);
+    }
 }
@@ -21,6 +21,7 @@ import org.wso2.siddhi.core.event.ComplexEventChunk;
 import org.wso2.siddhi.core.event.state.populater.StateEventPopulator;
 import org.wso2.siddhi.core.event.stream.StreamEvent;
 import org.wso2.siddhi.core.exception.ExecutionPlanCreationException;
+import org.wso2.siddhi.core.executor.SharedExpressionExecutor;
 import org.wso2.siddhi.core.executor.condition.ConditionExpressionExecutor;
 import org.wso2.siddhi.core.query.output.rateLimit.OutputRateLimiter;
 import org.wso2.siddhi.core.query.processor.Processor;
@@ -34,7 +35,7 @@ public class QuerySelector implements Processor {
 
 
     private static final Logger log = Logger.getLogger(QuerySelector.class);
-    private static final ThreadLocal<String> keyThreadLocal = new ThreadLocal<String>();
+    private static final ThreadLocal<Object> keyThreadLocal = new ThreadLocal<Object>();
     private Selector selector;
     private ExecutionPlanContext executionPlanContext;
     private boolean currentOn = false;
@@ -46,6 +47,7 @@ public class QuerySelector implements Processor {
     private GroupByKeyGenerator groupByKeyGenerator;
     private String id;
     private StateEventPopulator eventPopulator;
+    private SharedExpressionExecutor.Scope sharedExpressionScope;
 
     public QuerySelector(String id, Selector selector, boolean currentOn, boolean expiredOn, ExecutionPlanContext executionPlanContext) {
         this.id = id;
@@ -55,13 +57,16 @@ public class QuerySelector implements Processor {
         this.executionPlanContext = executionPlanContext;
     }
 
-    public static String getThreadLocalGroupByKey() {
+    public static Object getThreadLocalGroupByKey() {
         return keyThreadLocal.get();
     }
 
     @Override
     public void process(ComplexEventChunk complexEventChunk) {
         boolean eventSent = false;
+        if (sharedExpressionScope != null) {
+            sharedExpressionScope.invalidate();
+        }
         complexEventChunk.reset();
 
         if (log.isTraceEnabled()) {
@@ -164,8 +169,17 @@ public class QuerySelector implements Processor {
     public QuerySelector clone(String key) {
         QuerySelector clonedQuerySelector = new QuerySelector(id + key, selector, currentOn, expiredOn, executionPlanContext);
         List<AttributeProcessor> clonedAttributeProcessorList = new ArrayList<AttributeProcessor>();
-        for (AttributeProcessor attributeProcessor : attributeProcessorList) {
-            clonedAttributeProcessorList.add(attributeProcessor.cloneProcessor(key));
+        if (sharedExpressionScope != null) {
+            clonedQuerySelector.sharedExpressionScope = sharedExpressionScope.beginClone();
+        }
+        try {
+            for (AttributeProcessor attributeProcessor : attributeProcessorList) {
+                clonedAttributeProcessorList.add(attributeProcessor.cloneProcessor(key));
+            }
+        } finally {
+            if (sharedExpressionScope != null) {
+                sharedExpressionScope.endClone();
+            }
         }
         clonedQuerySelector.attributeProcessorList = clonedAttributeProcessorList;
         clonedQuerySelector.isGroupBy = isGroupBy;
@@ -179,4 +193,8 @@ public class QuerySelector implements Processor {
         this.eventPopulator = eventPopulator;
     }
 
+    public void setSharedExpressionScope(SharedExpressionExecutor.Scope sharedExpressionScope) {
+        this.sharedExpressionScope = sharedExpressionScope;
+    }
+
 }
@@ -18,6 +18,7 @@ import org.wso2.siddhi.core.config.ExecutionPlanContext;
 import org.wso2.siddhi.core.event.ComplexEvent;
 import org.wso2.siddhi.core.exception.ExecutionPlanRuntimeException;
 import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.core.executor.PrimitiveExpressionExecutor;
 import org.wso2.siddhi.core.extension.EternalReferencedHolder;
 import org.wso2.siddhi.core.util.snapshot.Snapshotable;
 import org.wso2.siddhi.query.api.definition.Attribute;
@@ -28,11 +29,16 @@ public abstract class AttributeAggregator implements EternalReferencedHolder, Sn
     protected ExecutionPlanContext executionPlanContext;
     protected String elementId;
     private int attributeSize;
+    private PrimitiveExpressionExecutor primitiveExpressionExecutor;
 
     public void initAggregator(ExpressionExecutor[] attributeExpressionExecutors, ExecutionPlanContext executionPlanContext) {
         this.executionPlanContext = executionPlanContext;
         this.attributeExpressionExecutors = attributeExpressionExecutors;
         this.attributeSize = attributeExpressionExecutors.length;
+        if (attributeSize == 1 && attributeExpressionExecutors[0] instanceof PrimitiveExpressionExecutor &&
+                ((PrimitiveExpressionExecutor) attributeExpressionExecutors[0]).isPrimitive()) {
+            this.primitiveExpressionExecutor = (PrimitiveExpressionExecutor) attributeExpressionExecutors[0];
+        }
         executionPlanContext.addEternalReferencedHolder(this);
         if (elementId == null) {
             elementId = executionPlanContext.getElementIdGenerator().createNewId();
@@ -71,6 +77,15 @@ public abstract class AttributeAggregator implements EternalReferencedHolder, Sn
                 case RESET:
                     return reset();
             }
+        } else if (primitiveExpressionExecutor != null) {
+            switch (event.getType()) {
+                case CURRENT:
+                    return processAdd(event, primitiveExpressionExecutor);
+                case EXPIRED:
+                    return processRemove(event, primitiveExpressionExecutor);
+                case RESET:
+                    return reset();
+            }
         } else {
             switch (event.getType()) {
                 case CURRENT:
@@ -102,6 +117,31 @@ public abstract class AttributeAggregator implements EternalReferencedHolder, Sn
 
     public abstract Object processRemove(Object[] data);
 
+    /**
+     * Typed variant of processAdd(Object), for aggregators reading the attribute without boxing it. Only the
+     * read is unboxed, the aggregated value is still returned boxed, as the selector sets it in the Object[]
+     * output data of the event.
+     *
+     * @param event              event being aggregated
+     * @param expressionExecutor executor of the single attribute of the aggregator
+     * @return aggregated value
+     */
+    protected Object processAdd(ComplexEvent event, PrimitiveExpressionExecutor expressionExecutor) {
+        return processAdd(expressionExecutor.execute(event));
+    }
+
+    /**
+     * Typed variant of processRemove(Object), for aggregators reading the attribute without boxing it. The
+     * aggregated value is returned boxed, as with processAdd(ComplexEvent, PrimitiveExpressionExecutor).
+     *
+     * @param event              event being aggregated
+     * @param expressionExecutor executor of the single attribute of the aggregator
+     * @return aggregated value
+     */
+    protected Object processRemove(ComplexEvent event, PrimitiveExpressionExecutor expressionExecutor) {
+        return processRemove(expressionExecutor.execute(event));
+    }
+
     public abstract Object reset();
 
     @Override
@@ -15,8 +15,10 @@
 package org.wso2.siddhi.core.query.selector.attribute.aggergator;
 
 import org.wso2.siddhi.core.config.ExecutionPlanContext;
+import org.wso2.siddhi.core.event.ComplexEvent;
 import org.wso2.siddhi.core.exception.OperationNotSupportedException;
 import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.core.executor.PrimitiveExpressionExecutor;
 import org.wso2.siddhi.query.api.definition.Attribute;
 
 import java.util.Arrays;
@@ -82,6 +84,16 @@ public class AvgAttributeAggregator extends AttributeAggregator {
         return new IllegalStateException("Avg cannot process data array, but found " + Arrays.deepToString(data));
     }
 
+    @Override
+    protected Object processAdd(ComplexEvent event, PrimitiveExpressionExecutor expressionExecutor) {
+        return avgOutputAttributeAggregator.processAdd(event, expressionExecutor);
+    }
+
+    @Override
+    protected Object processRemove(ComplexEvent event, PrimitiveExpressionExecutor expressionExecutor) {
+        return avgOutputAttributeAggregator.processRemove(event, expressionExecutor);
+    }
+
     @Override
     public Object reset() {
         return avgOutputAttributeAggregator.reset();
@@ -137,6 +149,32 @@ public class AvgAttributeAggregator extends AttributeAggregator {
             return value / count;
         }
 
+        @Override
+        protected Object processAdd(ComplexEvent event, PrimitiveExpressionExecutor expressionExecutor) {
+            if (expressionExecutor.isNull(event)) {
+                return processAdd(expressionExecutor.execute(event));
+            }
+            count++;
+            value += expressionExecutor.executeDouble(event);
+            if (count == 0) {
+                return 0;
+            }
+            return value / count;
+        }
+
+        @Override
+        protected Object processRemove(ComplexEvent event, PrimitiveExpressionExecutor expressionExecutor) {
+            if (expressionExecutor.isNull(event)) {
+                return processRemove(expressionExecutor.execute(event));
+            }
+            count--;
+            value -= expressionExecutor.executeDouble(event);
+            if (count == 0) {
+                return 0;
+            }
+            return value / count;
+        }
+
         @Override
         public Object reset() {
             value = 0.0;
@@ -186,6 +224,32 @@ public class AvgAttributeAggregator extends AttributeAggregator {
             return value / count;
         }
 
+        @Override
+        protected Object processAdd(ComplexEvent event, PrimitiveExpressionExecutor expressionExecutor) {
+            if (expressionExecutor.isNull(event)) {
+                return processAdd(expressionExecutor.execute(event));
+            }
+            count++;
+            value += expressionExecutor.executeFloat(event);
+            if (count == 0) {
+                return 0;
+            }
+            return value / count;
+        }
+
+        @Override
+        protected Object processRemove(ComplexEvent event, PrimitiveExpressionExecutor expressionExecutor) {
+            if (expressionExecutor.isNull(event)) {
+                return processRemove(expressionExecutor.execute(event));
+            }
+            count--;
+            value -= expressionExecutor.executeFloat(event);
+            if (count == 0) {
+                return 0;
+            }
+            return value / count;
+        }
+
         @Override
         public Object reset() {
             value = 0.0;
@@ -235,6 +299,32 @@ public class AvgAttributeAggregator extends AttributeAggregator {
             return value / count;
         }
 
+        @Override
+        protected Object processAdd(ComplexEvent event, PrimitiveExpressionExecutor expressionExecutor) {
+            if (expressionExecutor.isNull(event)) {
+                return processAdd(expressionExecutor.execute(event));
+            }
+            count++;
+            value += expressionExecutor.executeInt(event);
+            if (count == 0) {
+                return 0;
+            }
+            return value / count;
+        }
+
+        @Override
+        protected Object processRemove(ComplexEvent event, PrimitiveExpressionExecutor expressionExecutor) {
+            if (expressionExecutor.isNull(event)) {
+                return processRemove(expressionExecutor.execute(event));
+            }
+            count--;
+            value -= expressionExecutor.executeInt(event);
+            if (count == 0) {
+                return 0;
+            }
+            return value / count;
+        }
+
         @Override
         public Object reset() {
             value = 0.0;
@@ -285,6 +375,32 @@ public class AvgAttributeAggregator extends AttributeAggregator {
             return value / count;
         }
 
+        @Override
+        protected Object processAdd(ComplexEvent event, PrimitiveExpressionExecutor expressionExecutor) {
+            if (expressionExecutor.isNull(event)) {
+                return processAdd(expressionExecutor.execute(event));
+            }
+            count++;
+            value += expressionExecutor.executeLong(event);
+            if (count == 0) {
+                return 0;
+            }
+            return value / count;
+        }
+
+        @Override
+        protected Object processRemove(ComplexEvent event, PrimitiveExpressionExecutor expressionExecutor) {
+            if (expressionExecutor.isNull(event)) {
+                return processRemove(expressionExecutor.execute(event));
+            }
+            count--;
+            value -= expressionExecutor.executeLong(event);
+            if (count == 0) {
+                return 0;
+            }
+            return value / count;
+        }
+
         @Override
         public Object reset() {
             value = 0.0;
@@ -15,14 +15,15 @@
 package org.wso2.siddhi.core.query.selector.attribute.aggergator;
 
 import org.wso2.siddhi.core.config.ExecutionPlanContext;
+import org.wso2.siddhi.core.event.ComplexEvent;
 import org.wso2.siddhi.core.exception.OperationNotSupportedException;
 import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.core.executor.PrimitiveExpressionExecutor;
+import org.wso2.siddhi.core.util.aggregation.SlidingDoubleExtremum;
+import org.wso2.siddhi.core.util.aggregation.SlidingLongExtremum;
 import org.wso2.siddhi.query.api.definition.Attribute;
 
 import java.util.Arrays;
-import java.util.Deque;
-import java.util.Iterator;
-import java.util.LinkedList;
 
 public class MaxAttributeAggregator extends AttributeAggregator {
 
@@ -113,8 +114,7 @@ public class MaxAttributeAggregator extends AttributeAggregator {
     class MaxAttributeAggregatorDouble extends MaxAttributeAggregator {
 
         private final Attribute.Type type = Attribute.Type.DOUBLE;
-        private Deque<Double> maxDeque = new LinkedList<Double>();
-        private volatile Double maxValue = null;
+        private SlidingDoubleExtremum maxWindow = new SlidingDoubleExtremum(true);
 
         public Attribute.Type getReturnType() {
             return type;
@@ -122,46 +122,54 @@ public class MaxAttributeAggregator extends AttributeAggregator {
 
         @Override
         public synchronized Object processAdd(Object data) {
-            Double value = (Double) data;
-            for (Iterator<Double> iterator = maxDeque.descendingIterator(); iterator.hasNext(); ) {
-                if (iterator.next() < value) {
-                    iterator.remove();
-                } else {
-                    break;
-                }
+            if (data != null) {
+                maxWindow.add((Double) data);
             }
-            maxDeque.addLast(value);
-            if (maxValue == null) {
-                maxValue = value;
-            } else if (maxValue < value) {
-                maxValue = value;
-            }
-            return maxValue;
+            return currentMax();
         }
 
         @Override
         public synchronized Object processRemove(Object data) {
-            maxDeque.removeFirstOccurrence(data);
-            maxValue = maxDeque.peekFirst();
-            return maxValue;
+            if (data != null) {
+                maxWindow.remove((Double) data);
+            }
+            return currentMax();
+        }
+
+        @Override
+        protected synchronized Object processAdd(ComplexEvent event, PrimitiveExpressionExecutor expressionExecutor) {
+            if (!expressionExecutor.isNull(event)) {
+                maxWindow.add(expressionExecutor.executeDouble(event));
+            }
+            return currentMax();
         }
 
         @Override
-        public Object reset() {
-            maxDeque.clear();
-            maxValue = null;
+        protected synchronized Object processRemove(ComplexEvent event, PrimitiveExpressionExecutor expressionExecutor) {
+            if (!expressionExecutor.isNull(event)) {
+                maxWindow.remove(expressionExecutor.executeDouble(event));
+            }
+            return currentMax();
+        }
+
+        @Override
+        public synchronized Object reset() {
+            maxWindow.clear();
             return null;
         }
 
         @Override
         public Object[] currentState() {
-            return new Object[]{maxDeque, maxValue};
+            return new Object[]{maxWindow};
         }
 
         @Override
         public void restoreState(Object[] state) {
-            maxDeque = (Deque<Double>) state[0];
-            maxValue = (Double) state[1];
+            maxWindow = (SlidingDoubleExtremum) state[0];
+        }
+
+        private Double currentMax() {
+            return maxWindow.isEmpty() ? null : maxWindow.get();
         }
 
     }
@@ -169,8 +177,7 @@ public class MaxAttributeAggregator extends AttributeAggregator {
     class MaxAttributeAggregatorFloat extends MaxAttributeAggregator {
 
         private final Attribute.Type type = Attribute.Type.FLOAT;
-        private Deque<Float> maxDeque = new LinkedList<Float>();
-        private volatile Float maxValue = null;
+        private SlidingDoubleExtremum maxWindow = new SlidingDoubleExtremum(true);
 
         public Attribute.Type getReturnType() {
             return type;
@@ -178,47 +185,54 @@ public class MaxAttributeAggregator extends AttributeAggregator {
 
         @Override
         public synchronized Object processAdd(Object data) {
-            Float value = (Float) data;
-            for (Iterator<Float> iterator = maxDeque.descendingIterator(); iterator.hasNext(); ) {
-
-                if (iterator.next() < value) {
-                    iterator.remove();
-                } else {
-                    break;
-                }
+            if (data != null) {
+                maxWindow.add((Float) data);
             }
-            maxDeque.addLast(value);
-            if (maxValue == null) {
-                maxValue = value;
-            } else if (maxValue < value) {
-                maxValue = value;
-            }
-            return maxValue;
+            return currentMax();
         }
 
         @Override
         public synchronized Object processRemove(Object data) {
-            maxDeque.removeFirstOccurrence(data);
-            maxValue = maxDeque.peekFirst();
-            return maxValue;
+            if (data != null) {
+                maxWindow.remove((Float) data);
+            }
+            return currentMax();
+        }
+
+        @Override
+        protected synchronized Object processAdd(ComplexEvent event, PrimitiveExpressionExecutor expressionExecutor) {
+            if (!expressionExecutor.isNull(event)) {
+                maxWindow.add(expressionExecutor.executeFloat(event));
+            }
+            return currentMax();
         }
 
         @Override
-        public Object reset() {
-            maxDeque.clear();
-            maxValue = null;
+        protected synchronized Object processRemove(ComplexEvent event, PrimitiveExpressionExecutor expressionExecutor) {
+            if (!expressionExecutor.isNull(event)) {
+                maxWindow.remove(expressionExecutor.executeFloat(event));
+            }
+            return currentMax();
+        }
+
+        @Override
+        public synchronized Object reset() {
+            maxWindow.clear();
             return null;
         }
 
         @Override
         public Object[] currentState() {
-            return new Object[]{maxDeque, maxValue};
+            return new Object[]{maxWindow};
         }
 
         @Override
         public void restoreState(Object[] state) {
-            maxDeque = (Deque<Float>) state[0];
-            maxValue = (Float) state[1];
+            maxWindow = (SlidingDoubleExtremum) state[0];
+        }
+
+        private Float currentMax() {
+            return maxWindow.isEmpty() ? null : (float) maxWindow.get();
         }
 
     }
@@ -226,8 +240,7 @@ public class MaxAttributeAggregator extends AttributeAggregator {
     class MaxAttributeAggregatorInt extends MaxAttributeAggregator {
 
         private final Attribute.Type type = Attribute.Type.INT;
-        private Deque<Integer> maxDeque = new LinkedList<Integer>();
-        private volatile Integer maxValue = null;
+        private SlidingLongExtremum maxWindow = new SlidingLongExtremum(true);
 
         public Attribute.Type getReturnType() {
             return type;
@@ -235,46 +248,54 @@ public class MaxAttributeAggregator extends AttributeAggregator {
 
         @Override
         public synchronized Object processAdd(Object data) {
-            Integer value = (Integer) data;
-            for (Iterator<Integer> iterator = maxDeque.descendingIterator(); iterator.hasNext(); ) {
-                if (iterator.next() < value) {
-                    iterator.remove();
-                } else {
-                    break;
-                }
+            if (data != null) {
+                maxWindow.add((Integer) data);
             }
-            maxDeque.addLast(value);
-            if (maxValue == null) {
-                maxValue = value;
-            } else if (maxValue < value) {
-                maxValue = value;
-            }
-            return maxValue;
+            return currentMax();
         }
 
         @Override
         public synchronized Object processRemove(Object data) {
-            maxDeque.removeFirstOccurrence(data);
-            maxValue = maxDeque.peekFirst();
-            return maxValue;
+            if (data != null) {
+                maxWindow.remove((Integer) data);
+            }
+            return currentMax();
+        }
+
+        @Override
+        protected synchronized Object processAdd(ComplexEvent event, PrimitiveExpressionExecutor expressionExecutor) {
+            if (!expressionExecutor.isNull(event)) {
+                maxWindow.add(expressionExecutor.executeInt(event));
+            }
+            return currentMax();
         }
 
         @Override
-        public Object reset() {
-            maxDeque.clear();
-            maxValue = null;
+        protected synchronized Object processRemove(ComplexEvent event, PrimitiveExpressionExecutor expressionExecutor) {
+            if (!expressionExecutor.isNull(event)) {
+                maxWindow.remove(expressionExecutor.executeInt(event));
+            }
+            return currentMax();
+        }
+
+        @Override
+        public synchronized Object reset() {
+            maxWindow.clear();
             return null;
         }
 
         @Override
         public Object[] currentState() {
-            return new Object[]{maxDeque, maxValue};
+            return new Object[]{maxWindow};
         }
 
         @Override
         public void restoreState(Object[] state) {
-            maxDeque = (Deque<Integer>) state[0];
-            maxValue = (Integer) state[1];
+            maxWindow = (SlidingLongExtremum) state[0];
+        }
+
+        private Integer currentMax() {
+            return maxWindow.isEmpty() ? null : (int) maxWindow.get();
         }
 
     }
@@ -282,8 +303,7 @@ public class MaxAttributeAggregator extends AttributeAggregator {
     class MaxAttributeAggregatorLong extends MaxAttributeAggregator {
 
         private final Attribute.Type type = Attribute.Type.LONG;
-        private Deque<Long> maxDeque = new LinkedList<Long>();
-        private volatile Long maxValue = null;
+        private SlidingLongExtremum maxWindow = new SlidingLongExtremum(true);
 
         public Attribute.Type getReturnType() {
             return type;
@@ -291,46 +311,54 @@ public class MaxAttributeAggregator extends AttributeAggregator {
 
         @Override
         public synchronized Object processAdd(Object data) {
-            Long value = (Long) data;
-            for (Iterator<Long> iterator = maxDeque.descendingIterator(); iterator.hasNext(); ) {
-                if (iterator.next() < value) {
-                    iterator.remove();
-                } else {
-                    break;
-                }
+            if (data != null) {
+                maxWindow.add((Long) data);
             }
-            maxDeque.addLast(value);
-            if (maxValue == null) {
-                maxValue = value;
-            } else if (maxValue < value) {
-                maxValue = value;
-            }
-            return maxValue;
+            return currentMax();
         }
 
         @Override
         public synchronized Object processRemove(Object data) {
-            maxDeque.removeFirstOccurrence(data);
-            maxValue = maxDeque.peekFirst();
-            return maxValue;
+            if (data != null) {
+                maxWindow.remove((Long) data);
+            }
+            return currentMax();
+        }
+
+        @Override
+        protected synchronized Object processAdd(ComplexEvent event, PrimitiveExpressionExecutor expressionExecutor) {
+            if (!expressionExecutor.isNull(event)) {
+                maxWindow.add(expressionExecutor.executeLong(event));
+            }
+            return currentMax();
         }
 
         @Override
-        public Object reset() {
-            maxDeque.clear();
-            maxValue = null;
+        protected synchronized Object processRemove(ComplexEvent event, PrimitiveExpressionExecutor expressionExecutor) {
+            if (!expressionExecutor.isNull(event)) {
+                maxWindow.remove(expressionExecutor.executeLong(event));
+            }
+            return currentMax();
+        }
+
+        @Override
+        public synchronized Object reset() {
+            maxWindow.clear();
             return null;
         }
 
         @Override
         public Object[] currentState() {
-            return new Object[]{maxDeque, maxValue};
+            return new Object[]{maxWindow};
         }
 
         @Override
         public void restoreState(Object[] state) {
-            maxDeque = (Deque<Long>) state[0];
-            maxValue = (Long) state[1];
+            maxWindow = (SlidingLongExtremum) state[0];
+        }
+
+        private Long currentMax() {
+            return maxWindow.isEmpty() ? null : maxWindow.get();
         }
 
     }
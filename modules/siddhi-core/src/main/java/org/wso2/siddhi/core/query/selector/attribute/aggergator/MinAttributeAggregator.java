@@ -15,14 +15,15 @@
 package org.wso2.siddhi.core.query.selector.attribute.aggergator;
 
 import org.wso2.siddhi.core.config.ExecutionPlanContext;
+import org.wso2.siddhi.core.event.ComplexEvent;
 import org.wso2.siddhi.core.exception.OperationNotSupportedException;
 import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.core.executor.PrimitiveExpressionExecutor;
+import org.wso2.siddhi.core.util.aggregation.SlidingDoubleExtremum;
+import org.wso2.siddhi.core.util.aggregation.SlidingLongExtremum;
 import org.wso2.siddhi.query.api.definition.Attribute;
 
 import java.util.Arrays;
-import java.util.Deque;
-import java.util.Iterator;
-import java.util.LinkedList;
 
 public class MinAttributeAggregator extends AttributeAggregator {
 
@@ -115,11 +116,10 @@ public class MinAttributeAggregator extends AttributeAggregator {
         minOutputAttributeAggregator.restoreState(state);
     }
 
-    class MinAttributeAggregatorDouble extends MinAttributeAggregator  {
+    class MinAttributeAggregatorDouble extends MinAttributeAggregator {
 
         private final Attribute.Type type = Attribute.Type.DOUBLE;
-        private Deque<Double> minDeque = new LinkedList<Double>();
-        private volatile Double minValue = null;
+        private SlidingDoubleExtremum minWindow = new SlidingDoubleExtremum(false);
 
         public Attribute.Type getReturnType() {
             return type;
@@ -127,54 +127,62 @@ public class MinAttributeAggregator extends AttributeAggregator {
 
         @Override
         public synchronized Object processAdd(Object data) {
-            Double value = (Double) data;
-            for (Iterator<Double> iterator = minDeque.descendingIterator(); iterator.hasNext(); ) {
+            if (data != null) {
+                minWindow.add((Double) data);
+            }
+            return currentMin();
+        }
 
-                if (iterator.next() > value) {
-                    iterator.remove();
-                }
+        @Override
+        public synchronized Object processRemove(Object data) {
+            if (data != null) {
+                minWindow.remove((Double) data);
             }
-            minDeque.addLast(value);
-            if (minValue == null) {
-                minValue = value;
-            } else if (minValue > value) {
-                minValue = value;
+            return currentMin();
+        }
+
+        @Override
+        protected synchronized Object processAdd(ComplexEvent event, PrimitiveExpressionExecutor expressionExecutor) {
+            if (!expressionExecutor.isNull(event)) {
+                minWindow.add(expressionExecutor.executeDouble(event));
             }
-            return minValue;
+            return currentMin();
         }
 
         @Override
-        public synchronized Object processRemove(Object data) {
-            minDeque.removeFirstOccurrence(data);
-            minValue = minDeque.peekFirst();
-            return minValue;
+        protected synchronized Object processRemove(ComplexEvent event, PrimitiveExpressionExecutor expressionExecutor) {
+            if (!expressionExecutor.isNull(event)) {
+                minWindow.remove(expressionExecutor.executeDouble(event));
+            }
+            return currentMin();
         }
 
         @Override
-        public Object reset() {
-            minDeque.clear();
-            minValue = null;
+        public synchronized Object reset() {
+            minWindow.clear();
             return null;
         }
 
         @Override
         public Object[] currentState() {
-            return new Object[]{minDeque, minValue};
+            return new Object[]{minWindow};
         }
 
         @Override
         public void restoreState(Object[] state) {
-            minDeque = (Deque<Double>) state[0];
-            minValue = (Double) state[1];
+            minWindow = (SlidingDoubleExtremum) state[0];
+        }
+
+        private Double currentMin() {
+            return minWindow.isEmpty() ? null : minWindow.get();
         }
 
     }
 
-    class MinAttributeAggregatorFloat extends MinAttributeAggregator  {
+    class MinAttributeAggregatorFloat extends MinAttributeAggregator {
 
         private final Attribute.Type type = Attribute.Type.FLOAT;
-        private Deque<Float> minDeque = new LinkedList<Float>();
-        private volatile Float minValue = null;
+        private SlidingDoubleExtremum minWindow = new SlidingDoubleExtremum(false);
 
         public Attribute.Type getReturnType() {
             return type;
@@ -182,54 +190,62 @@ public class MinAttributeAggregator extends AttributeAggregator {
 
         @Override
         public synchronized Object processAdd(Object data) {
-            Float value = (Float) data;
-            for (Iterator<Float> iterator = minDeque.descendingIterator(); iterator.hasNext(); ) {
+            if (data != null) {
+                minWindow.add((Float) data);
+            }
+            return currentMin();
+        }
 
-                if (iterator.next() > value) {
-                    iterator.remove();
-                }
+        @Override
+        public synchronized Object processRemove(Object data) {
+            if (data != null) {
+                minWindow.remove((Float) data);
             }
-            minDeque.addLast(value);
-            if (minValue == null) {
-                minValue = value;
-            } else if (minValue > value) {
-                minValue = value;
+            return currentMin();
+        }
+
+        @Override
+        protected synchronized Object processAdd(ComplexEvent event, PrimitiveExpressionExecutor expressionExecutor) {
+            if (!expressionExecutor.isNull(event)) {
+                minWindow.add(expressionExecutor.executeFloat(event));
             }
-            return minValue;
+            return currentMin();
         }
 
         @Override
-        public synchronized Object processRemove(Object data) {
-            minDeque.removeFirstOccurrence(data);
-            minValue = minDeque.peekFirst();
-            return minValue;
+        protected synchronized Object processRemove(ComplexEvent event, PrimitiveExpressionExecutor expressionExecutor) {
+            if (!expressionExecutor.isNull(event)) {
+                minWindow.remove(expressionExecutor.executeFloat(event));
+            }
+            return currentMin();
         }
 
         @Override
-        public Object reset() {
-            minDeque.clear();
-            minValue = null;
+        public synchronized Object reset() {
+            minWindow.clear();
             return null;
         }
 
         @Override
         public Object[] currentState() {
-            return new Object[]{minDeque, minValue};
+            return new Object[]{minWindow};
         }
 
         @Override
         public void restoreState(Object[] state) {
-            minDeque = (Deque<Float>) state[0];
-            minValue = (Float) state[1];
+            minWindow = (SlidingDoubleExtremum) state[0];
+        }
+
+        private Float currentMin() {
+            return minWindow.isEmpty() ? null : (float) minWindow.get();
         }
 
     }
 
-    class MinAttributeAggregatorInt extends MinAttributeAggregator  {
+    class MinAttributeAggregatorInt extends MinAttributeAggregator {
 
         private final Attribute.Type type = Attribute.Type.INT;
-        private Deque<Integer> minDeque = new LinkedList<Integer>();
-        private volatile Integer minValue = null;
+        private SlidingLongExtremum minWindow = new SlidingLongExtremum(false);
 
         public Attribute.Type getReturnType() {
             return type;
@@ -237,54 +253,62 @@ public class MinAttributeAggregator extends AttributeAggregator {
 
         @Override
         public synchronized Object processAdd(Object data) {
-            Integer value = (Integer) data;
-            for (Iterator<Integer> iterator = minDeque.descendingIterator(); iterator.hasNext(); ) {
+            if (data != null) {
+                minWindow.add((Integer) data);
+            }
+            return currentMin();
+        }
 
-                if (iterator.next() > value) {
-                    iterator.remove();
-                }
+        @Override
+        public synchronized Object processRemove(Object data) {
+            if (data != null) {
+                minWindow.remove((Integer) data);
             }
-            minDeque.addLast(value);
-            if (minValue == null) {
-                minValue = value;
-            } else if (minValue > value) {
-                minValue = value;
+            return currentMin();
+        }
+
+        @Override
+        protected synchronized Object processAdd(ComplexEvent event, PrimitiveExpressionExecutor expressionExecutor) {
+            if (!expressionExecutor.isNull(event)) {
+                minWindow.add(expressionExecutor.executeInt(event));
             }
-            return minValue;
+            return currentMin();
         }
 
         @Override
-        public Object reset() {
-            minDeque.clear();
-            minValue = null;
-            return null;
+        protected synchronized Object processRemove(ComplexEvent event, PrimitiveExpressionExecutor expressionExecutor) {
+            if (!expressionExecutor.isNull(event)) {
+                minWindow.remove(expressionExecutor.executeInt(event));
+            }
+            return currentMin();
         }
 
         @Override
-        public synchronized Object processRemove(Object data) {
-            minDeque.removeFirstOccurrence(data);
-            minValue = minDeque.peekFirst();
-            return minValue;
+        public synchronized Object reset() {
+            minWindow.clear();
+            return null;
         }
 
         @Override
         public Object[] currentState() {
-            return new Object[]{minDeque, minValue};
+            return new Object[]{minWindow};
         }
 
         @Override
         public void restoreState(Object[] state) {
-            minDeque = (Deque<Integer>) state[0];
-            minValue = (Integer) state[1];
+            minWindow = (SlidingLongExtremum) state[0];
+        }
+
+        private Integer currentMin() {
+            return minWindow.isEmpty() ? null : (int) minWindow.get();
         }
 
     }
 
-    class MinAttributeAggregatorLong extends MinAttributeAggregator  {
+    class MinAttributeAggregatorLong extends MinAttributeAggregator {
 
         private final Attribute.Type type = Attribute.Type.LONG;
-        private Deque<Long> minDeque = new LinkedList<Long>();
-        private volatile Long minValue = null;
+        private SlidingLongExtremum minWindow = new SlidingLongExtremum(false);
 
         public Attribute.Type getReturnType() {
             return type;
@@ -292,45 +316,54 @@ public class MinAttributeAggregator extends AttributeAggregator {
 
         @Override
         public synchronized Object processAdd(Object data) {
-            Long value = (Long) data;
-            for (Iterator<Long> iterator = minDeque.descendingIterator(); iterator.hasNext(); ) {
+            if (data != null) {
+                minWindow.add((Long) data);
+            }
+            return currentMin();
+        }
 
-                if (iterator.next() > value) {
-                    iterator.remove();
-                }
+        @Override
+        public synchronized Object processRemove(Object data) {
+            if (data != null) {
+                minWindow.remove((Long) data);
             }
-            minDeque.addLast(value);
-            if (minValue == null) {
-                minValue = value;
-            } else if (minValue > value) {
-                minValue = value;
+            return currentMin();
+        }
+
+        @Override
+        protected synchronized Object processAdd(ComplexEvent event, PrimitiveExpressionExecutor expressionExecutor) {
+            if (!expressionExecutor.isNull(event)) {
+                minWindow.add(expressionExecutor.executeLong(event));
             }
-            return minValue;
+            return currentMin();
         }
 
         @Override
-        public Object reset() {
-            minDeque.clear();
-            minValue = null;
-            return null;
+        protected synchronized Object processRemove(ComplexEvent event, PrimitiveExpressionExecutor expressionExecutor) {
+            if (!expressionExecutor.isNull(event)) {
+                minWindow.remove(expressionExecutor.executeLong(event));
+            }
+            return currentMin();
         }
 
         @Override
-        public synchronized Object processRemove(Object data) {
-            minDeque.removeFirstOccurrence(data);
-            minValue = minDeque.peekFirst();
-            return minValue;
+        public synchronized Object reset() {
+            minWindow.clear();
+            return null;
         }
 
         @Override
         public Object[] currentState() {
-            return new Object[]{minDeque, minValue};
+            return new Object[]{minWindow};
         }
 
         @Override
         public void restoreState(Object[] state) {
-            minDeque = (Deque<Long>) state[0];
-            minValue = (Long) state[1];
+            minWindow = (SlidingLongExtremum) state[0];
+        }
+
+        private Long currentMin() {
+            return minWindow.isEmpty() ? null : minWindow.get();
         }
 
     }
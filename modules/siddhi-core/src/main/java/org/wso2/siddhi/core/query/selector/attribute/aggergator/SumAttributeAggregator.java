@@ -15,8 +15,10 @@
 package org.wso2.siddhi.core.query.selector.attribute.aggergator;
 
 import org.wso2.siddhi.core.config.ExecutionPlanContext;
+import org.wso2.siddhi.core.event.ComplexEvent;
 import org.wso2.siddhi.core.exception.OperationNotSupportedException;
 import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.core.executor.PrimitiveExpressionExecutor;
 import org.wso2.siddhi.query.api.definition.Attribute;
 
 import java.util.Arrays;
@@ -83,6 +85,16 @@ public class SumAttributeAggregator extends AttributeAggregator {
         return new IllegalStateException("Sin cannot process data array, but found " + Arrays.deepToString(data));
     }
 
+    @Override
+    protected Object processAdd(ComplexEvent event, PrimitiveExpressionExecutor expressionExecutor) {
+        return sumOutputAttributeAggregator.processAdd(event, expressionExecutor);
+    }
+
+    @Override
+    protected Object processRemove(ComplexEvent event, PrimitiveExpressionExecutor expressionExecutor) {
+        return sumOutputAttributeAggregator.processRemove(event, expressionExecutor);
+    }
+
     @Override
     public Object reset() {
         return sumOutputAttributeAggregator.reset();
@@ -129,6 +141,24 @@ public class SumAttributeAggregator extends AttributeAggregator {
             return value;
         }
 
+        @Override
+        protected Object processAdd(ComplexEvent event, PrimitiveExpressionExecutor expressionExecutor) {
+            if (expressionExecutor.isNull(event)) {
+                return processAdd(expressionExecutor.execute(event));
+            }
+            value += expressionExecutor.executeDouble(event);
+            return value;
+        }
+
+        @Override
+        protected Object processRemove(ComplexEvent event, PrimitiveExpressionExecutor expressionExecutor) {
+            if (expressionExecutor.isNull(event)) {
+                return processRemove(expressionExecutor.execute(event));
+            }
+            value -= expressionExecutor.executeDouble(event);
+            return value;
+        }
+
         @Override
         public Object reset() {
             value = 0.0;
@@ -168,6 +198,24 @@ public class SumAttributeAggregator extends AttributeAggregator {
             return value;
         }
 
+        @Override
+        protected Object processAdd(ComplexEvent event, PrimitiveExpressionExecutor expressionExecutor) {
+            if (expressionExecutor.isNull(event)) {
+                return processAdd(expressionExecutor.execute(event));
+            }
+            value += expressionExecutor.executeFloat(event);
+            return value;
+        }
+
+        @Override
+        protected Object processRemove(ComplexEvent event, PrimitiveExpressionExecutor expressionExecutor) {
+            if (expressionExecutor.isNull(event)) {
+                return processRemove(expressionExecutor.execute(event));
+            }
+            value -= expressionExecutor.executeFloat(event);
+            return value;
+        }
+
         public Object reset() {
             value = 0.0;
             return value;
@@ -206,6 +254,24 @@ public class SumAttributeAggregator extends AttributeAggregator {
             return value;
         }
 
+        @Override
+        protected Object processAdd(ComplexEvent event, PrimitiveExpressionExecutor expressionExecutor) {
+            if (expressionExecutor.isNull(event)) {
+                return processAdd(expressionExecutor.execute(event));
+            }
+            value += expressionExecutor.executeLong(event);
+            return value;
+        }
+
+        @Override
+        protected Object processRemove(ComplexEvent event, PrimitiveExpressionExecutor expressionExecutor) {
+            if (expressionExecutor.isNull(event)) {
+                return processRemove(expressionExecutor.execute(event));
+            }
+            value -= expressionExecutor.executeLong(event);
+            return value;
+        }
+
         public Object reset() {
             value = 0L;
             return value;
@@ -244,6 +310,24 @@ public class SumAttributeAggregator extends AttributeAggregator {
             return value;
         }
 
+        @Override
+        protected Object processAdd(ComplexEvent event, PrimitiveExpressionExecutor expressionExecutor) {
+            if (expressionExecutor.isNull(event)) {
+                return processAdd(expressionExecutor.execute(event));
+            }
+            value += expressionExecutor.executeLong(event);
+            return value;
+        }
+
+        @Override
+        protected Object processRemove(ComplexEvent event, PrimitiveExpressionExecutor expressionExecutor) {
+            if (expressionExecutor.isNull(event)) {
+                return processRemove(expressionExecutor.execute(event));
+            }
+            value -= expressionExecutor.executeLong(event);
+            return value;
+        }
+
         public Object reset() {
             value = 0L;
             return value;
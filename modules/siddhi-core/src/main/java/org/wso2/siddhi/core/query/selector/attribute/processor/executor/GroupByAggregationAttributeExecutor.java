@@ -25,7 +25,7 @@ import java.util.Map;
 
 public class GroupByAggregationAttributeExecutor extends AbstractAggregationAttributeExecutor {
 
-    protected Map<String, AttributeAggregator> aggregatorMap = new HashMap<String, AttributeAggregator>();
+    protected Map<Object, AttributeAggregator> aggregatorMap = new HashMap<Object, AttributeAggregator>();
 
     public GroupByAggregationAttributeExecutor(AttributeAggregator attributeAggregator,
                                                ExpressionExecutor[] attributeExpressionExecutors,
@@ -35,7 +35,7 @@ public class GroupByAggregationAttributeExecutor extends AbstractAggregationAttr
 
     @Override
     public Object execute(ComplexEvent event) {
-        String key = QuerySelector.getThreadLocalGroupByKey();
+        Object key = QuerySelector.getThreadLocalGroupByKey();
         AttributeAggregator currentAttributeAggregator = aggregatorMap.get(key);
         if (currentAttributeAggregator == null) {
             currentAttributeAggregator = attributeAggregator.cloneAggregator(key);
@@ -0,0 +1,519 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.stream;
+
+import org.wso2.siddhi.core.event.ComplexEvent;
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.executor.ConstantExpressionExecutor;
+import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.core.executor.VariableExpressionExecutor;
+import org.wso2.siddhi.core.executor.compiler.CompiledConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.AndConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.compare.CompareConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.compare.equal.EqualCompareConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.compare.greater_than.GreaterThanCompareConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.compare.greater_than_equal.GreaterThanEqualCompareConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.compare.less_than.LessThanCompareConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.compare.less_than_equal.LessThanEqualCompareConditionExpressionExecutor;
+import org.wso2.siddhi.core.query.input.ProcessStreamReceiver;
+import org.wso2.siddhi.core.query.processor.Processor;
+import org.wso2.siddhi.core.query.processor.filter.FilterProcessor;
+import org.wso2.siddhi.core.util.finder.EventIndex;
+import org.wso2.siddhi.query.api.definition.Attribute;
+import org.wso2.siddhi.query.api.definition.StreamDefinition;
+import org.wso2.siddhi.query.api.expression.condition.Compare;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of the filters of the queries consuming a stream, used by the {@link StreamJunction} to hand each event
+ * only to the receivers whose filter can match it.
+ * <p/>
+ * A receiver is indexed when its query starts with a filter having a conjunct comparing an attribute of the stream
+ * with a constant. Equality conjuncts of the same attribute are grouped in to hash tables and range conjuncts in
+ * to sorted arrays of their bounds, such that finding the matching receivers of an event costs a lookup per
+ * indexed attribute and a step per matching receiver. The index only skips receivers whose conjunct is false, the
+ * filters still evaluate their whole condition.
+ * <p/>
+ * The index is immutable and rebuilt when a receiver subscribes, such that it can be used by concurrent senders.
+ */
+public class PredicateIndex {
+
+    /**
+     * Least number of indexed receivers for the index to be used, below which evaluating the filters is cheaper
+     */
+    public static final int MIN_INDEXED_RECEIVERS = 4;
+
+    private final StreamJunction.Receiver[] receivers;
+    private final boolean[] indexed;
+    private final int indexedCount;
+    private final AttributeIndex[] attributeIndexes;
+
+    /**
+     * @param streamDefinition definition of the stream
+     * @param receivers        receivers of the stream, in their delivery order
+     */
+    public PredicateIndex(StreamDefinition streamDefinition, List<StreamJunction.Receiver> receivers) {
+        this.receivers = receivers.toArray(new StreamJunction.Receiver[receivers.size()]);
+        this.indexed = new boolean[this.receivers.length];
+        Map<String, AttributeIndex> attributeIndexMap = new LinkedHashMap<String, AttributeIndex>();
+        int count = 0;
+        for (int i = 0; i < this.receivers.length; i++) {
+            Predicate predicate = findPredicate(streamDefinition, this.receivers[i]);
+            if (predicate != null) {
+                String key = predicate.attributePosition + ":" + predicate.compareType;
+                AttributeIndex attributeIndex = attributeIndexMap.get(key);
+                if (attributeIndex == null) {
+                    attributeIndex = new AttributeIndex(predicate.attributePosition, predicate.compareType);
+                    attributeIndexMap.put(key, attributeIndex);
+                }
+                attributeIndex.add(predicate, i);
+                indexed[i] = true;
+                count++;
+            }
+        }
+        this.indexedCount = count;
+        this.attributeIndexes = attributeIndexMap.values().toArray(new AttributeIndex[attributeIndexMap.size()]);
+        for (AttributeIndex attributeIndex : attributeIndexes) {
+            attributeIndex.build();
+        }
+    }
+
+    /**
+     * @return whether enough receivers are indexed for the index to be used
+     */
+    public boolean isEffective() {
+        return indexedCount >= MIN_INDEXED_RECEIVERS;
+    }
+
+    public int getIndexedCount() {
+        return indexedCount;
+    }
+
+    /**
+     * @param data attribute values of an event
+     * @return bit set of the positions of the indexed receivers which can match the event
+     */
+    public long[] match(Object[] data) {
+        long[] matches = new long[(receivers.length + 63) >>> 6];
+        if (data != null) {
+            for (AttributeIndex attributeIndex : attributeIndexes) {
+                attributeIndex.match(data[attributeIndex.attributePosition], matches);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * @return whether the receiver at the given position is to get the event of the given matches
+     */
+    public boolean accepts(long[] matches, int receiverIndex) {
+        return !indexed[receiverIndex] || (matches[receiverIndex >>> 6] & (1L << receiverIndex)) != 0;
+    }
+
+    public void send(Event event) {
+        long[] matches = match(event.getData());
+        for (int i = 0; i < receivers.length; i++) {
+            if (accepts(matches, i)) {
+                receivers[i].receive(event);
+            }
+        }
+    }
+
+    public void send(long timeStamp, Object[] data) {
+        long[] matches = match(data);
+        for (int i = 0; i < receivers.length; i++) {
+            if (accepts(matches, i)) {
+                receivers[i].receive(timeStamp, data);
+            }
+        }
+    }
+
+    /**
+     * Send a chain of events, a chain of more than one event is sent to all receivers as the events of a chain
+     * cannot be handed to the receivers separately
+     */
+    public void send(ComplexEvent complexEvent) {
+        if (complexEvent.getNext() != null) {
+            for (StreamJunction.Receiver receiver : receivers) {
+                receiver.receive(complexEvent);
+            }
+            return;
+        }
+        long[] matches = match(complexEvent.getOutputData());
+        for (int i = 0; i < receivers.length; i++) {
+            if (accepts(matches, i)) {
+                receivers[i].receive(complexEvent);
+            }
+        }
+    }
+
+    /**
+     * Send each indexed receiver the events of the batch it can match, keeping their order
+     */
+    public void send(Event[] events) {
+        long[][] matches = new long[events.length][];
+        for (int i = 0; i < events.length; i++) {
+            matches[i] = match(events[i].getData());
+        }
+        for (int i = 0; i < receivers.length; i++) {
+            if (!indexed[i]) {
+                receivers[i].receive(events);
+                continue;
+            }
+            int count = 0;
+            for (long[] eventMatches : matches) {
+                if (accepts(eventMatches, i)) {
+                    count++;
+                }
+            }
+            if (count == events.length) {
+                receivers[i].receive(events);
+            } else if (count > 0) {
+                Event[] matchingEvents = new Event[count];
+                count = 0;
+                for (int j = 0; j < events.length; j++) {
+                    if (accepts(matches[j], i)) {
+                        matchingEvents[count++] = events[j];
+                    }
+                }
+                receivers[i].receive(matchingEvents);
+            }
+        }
+    }
+
+    /**
+     * @return the indexable conjunct of the filter the receiver starts with, or null
+     */
+    private static Predicate findPredicate(StreamDefinition streamDefinition, StreamJunction.Receiver receiver) {
+        if (receiver.getClass() != ProcessStreamReceiver.class || ((ProcessStreamReceiver) receiver).isStateful()) {
+            return null;
+        }
+        Processor processor = ((ProcessStreamReceiver) receiver).getNext();
+        if (!(processor instanceof FilterProcessor)) {
+            return null;
+        }
+        List<Predicate> predicates = new ArrayList<Predicate>();
+        collectPredicates(streamDefinition, ((FilterProcessor) processor).getConditionExecutor(), predicates);
+        Predicate rangePredicate = null;
+        for (Predicate predicate : predicates) {
+            if (predicate.operator == Compare.Operator.EQUAL) {
+                //equality conjuncts are the most selective
+                return predicate;
+            } else if (rangePredicate == null) {
+                rangePredicate = predicate;
+            }
+        }
+        return rangePredicate;
+    }
+
+    private static void collectPredicates(StreamDefinition streamDefinition, ExpressionExecutor executor,
+                                          List<Predicate> predicates) {
+        if (executor instanceof CompiledConditionExpressionExecutor) {
+            collectPredicates(streamDefinition, ((CompiledConditionExpressionExecutor) executor).getSource(),
+                    predicates);
+        } else if (executor instanceof AndConditionExpressionExecutor) {
+            collectPredicates(streamDefinition, ((AndConditionExpressionExecutor) executor).getLeftConditionExecutor(),
+                    predicates);
+            collectPredicates(streamDefinition, ((AndConditionExpressionExecutor) executor).getRightConditionExecutor(),
+                    predicates);
+        } else if (executor instanceof CompareConditionExpressionExecutor) {
+            Predicate predicate = toPredicate(streamDefinition, (CompareConditionExpressionExecutor) executor);
+            if (predicate != null) {
+                predicates.add(predicate);
+            }
+        }
+    }
+
+    private static Predicate toPredicate(StreamDefinition streamDefinition,
+                                         CompareConditionExpressionExecutor compareExecutor) {
+        Compare.Operator operator;
+        if (compareExecutor instanceof EqualCompareConditionExpressionExecutor) {
+            operator = Compare.Operator.EQUAL;
+        } else if (compareExecutor instanceof GreaterThanCompareConditionExpressionExecutor) {
+            operator = Compare.Operator.GREATER_THAN;
+        } else if (compareExecutor instanceof GreaterThanEqualCompareConditionExpressionExecutor) {
+            operator = Compare.Operator.GREATER_THAN_EQUAL;
+        } else if (compareExecutor instanceof LessThanCompareConditionExpressionExecutor) {
+            operator = Compare.Operator.LESS_THAN;
+        } else if (compareExecutor instanceof LessThanEqualCompareConditionExpressionExecutor) {
+            operator = Compare.Operator.LESS_THAN_EQUAL;
+        } else {
+            return null;
+        }
+        ExpressionExecutor variableExecutor = compareExecutor.getLeftExpressionExecutor();
+        ExpressionExecutor constantExecutor = compareExecutor.getRightExpressionExecutor();
+        if (variableExecutor instanceof ConstantExpressionExecutor) {
+            //constant op attribute is indexed as attribute mirrored-op constant
+            variableExecutor = compareExecutor.getRightExpressionExecutor();
+            constantExecutor = compareExecutor.getLeftExpressionExecutor();
+            operator = mirror(operator);
+        }
+        if (!(variableExecutor instanceof VariableExpressionExecutor) ||
+                !(constantExecutor instanceof ConstantExpressionExecutor)) {
+            return null;
+        }
+        Attribute attribute = ((VariableExpressionExecutor) variableExecutor).getAttribute();
+        int attributePosition = -1;
+        List<Attribute> attributeList = streamDefinition.getAttributeList();
+        for (int i = 0; i < attributeList.size(); i++) {
+            if (attributeList.get(i).getName().equals(attribute.getName()) &&
+                    attributeList.get(i).getType() == attribute.getType()) {
+                attributePosition = i;
+            }
+        }
+        Object constant = ((ConstantExpressionExecutor) constantExecutor).getValue();
+        if (attributePosition < 0 || constant == null) {
+            return null;
+        }
+        Attribute.Type compareType = compareExecutor.getCompareType();
+        if (compareType == null) {
+            if (operator != Compare.Operator.EQUAL || attribute.getType() != Attribute.Type.STRING ||
+                    constantExecutor.getReturnType() != Attribute.Type.STRING) {
+                return null;
+            }
+            compareType = Attribute.Type.STRING;
+        } else if (compareType == Attribute.Type.BOOL && operator != Compare.Operator.EQUAL) {
+            return null;
+        }
+        Object key = EventIndex.toKey(constant, compareType);
+        if (key == null) {
+            return null;
+        }
+        return new Predicate(attributePosition, compareType, operator, key);
+    }
+
+    private static Compare.Operator mirror(Compare.Operator operator) {
+        switch (operator) {
+            case GREATER_THAN:
+                return Compare.Operator.LESS_THAN;
+            case GREATER_THAN_EQUAL:
+                return Compare.Operator.LESS_THAN_EQUAL;
+            case LESS_THAN:
+                return Compare.Operator.GREATER_THAN;
+            case LESS_THAN_EQUAL:
+                return Compare.Operator.GREATER_THAN_EQUAL;
+            default:
+                return operator;
+        }
+    }
+
+    private static int lowerBound(long[] keys, long value) {
+        int low = 0, high = keys.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys[middle] < value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static int upperBound(long[] keys, long value) {
+        int low = 0, high = keys.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys[middle] <= value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static int lowerBound(double[] keys, double value) {
+        int low = 0, high = keys.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys[middle] < value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static int upperBound(double[] keys, double value) {
+        int low = 0, high = keys.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys[middle] <= value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static void set(long[] matches, int[] receiverIndexes, int from, int to) {
+        for (int i = from; i < to; i++) {
+            matches[receiverIndexes[i] >>> 6] |= 1L << receiverIndexes[i];
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compareKeys(Object key1, Object key2) {
+        return ((Comparable<Object>) key1).compareTo(key2);
+    }
+
+    /**
+     * Conjunct comparing an attribute with a constant, already converted to the type they are compared in
+     */
+    private static class Predicate {
+        private final int attributePosition;
+        private final Attribute.Type compareType;
+        private final Compare.Operator operator;
+        private final Object key;
+
+        private Predicate(int attributePosition, Attribute.Type compareType, Compare.Operator operator, Object key) {
+            this.attributePosition = attributePosition;
+            this.compareType = compareType;
+            this.operator = operator;
+            this.key = key;
+        }
+    }
+
+    /**
+     * Predicates of an attribute compared in the same type. The bounds of each range operator are sorted, such
+     * that the matching receivers of a value are a prefix or a suffix of them.
+     */
+    private static class AttributeIndex {
+        private final int attributePosition;
+        private final Attribute.Type compareType;
+        private final Map<Object, int[]> equalities = new HashMap<Object, int[]>();
+        private final Map<Compare.Operator, List<Predicate>> rangePredicates =
+                new HashMap<Compare.Operator, List<Predicate>>();
+        private final Map<Compare.Operator, List<Integer>> rangeReceivers =
+                new HashMap<Compare.Operator, List<Integer>>();
+        private final Compare.Operator[] rangeOperators = {Compare.Operator.GREATER_THAN,
+                Compare.Operator.GREATER_THAN_EQUAL, Compare.Operator.LESS_THAN, Compare.Operator.LESS_THAN_EQUAL};
+        private final long[][] longBounds = new long[4][];
+        private final double[][] doubleBounds = new double[4][];
+        private final int[][] boundReceivers = new int[4][];
+
+        private AttributeIndex(int attributePosition, Attribute.Type compareType) {
+            this.attributePosition = attributePosition;
+            this.compareType = compareType;
+        }
+
+        private void add(Predicate predicate, int receiverIndex) {
+            if (predicate.operator == Compare.Operator.EQUAL) {
+                int[] receiverIndexes = equalities.get(predicate.key);
+                if (receiverIndexes == null) {
+                    receiverIndexes = new int[]{receiverIndex};
+                } else {
+                    receiverIndexes = Arrays.copyOf(receiverIndexes, receiverIndexes.length + 1);
+                    receiverIndexes[receiverIndexes.length - 1] = receiverIndex;
+                }
+                equalities.put(predicate.key, receiverIndexes);
+            } else {
+                List<Predicate> predicates = rangePredicates.get(predicate.operator);
+                if (predicates == null) {
+                    predicates = new ArrayList<Predicate>();
+                    rangePredicates.put(predicate.operator, predicates);
+                    rangeReceivers.put(predicate.operator, new ArrayList<Integer>());
+                }
+                predicates.add(predicate);
+                rangeReceivers.get(predicate.operator).add(receiverIndex);
+            }
+        }
+
+        private void build() {
+            for (int i = 0; i < rangeOperators.length; i++) {
+                final List<Predicate> predicates = rangePredicates.get(rangeOperators[i]);
+                if (predicates == null) {
+                    continue;
+                }
+                List<Integer> receiverIndexes = rangeReceivers.get(rangeOperators[i]);
+                Integer[] order = new Integer[predicates.size()];
+                for (int j = 0; j < order.length; j++) {
+                    order[j] = j;
+                }
+                Arrays.sort(order, new Comparator<Integer>() {
+                    @Override
+                    public int compare(Integer first, Integer second) {
+                        return compareKeys(predicates.get(first).key, predicates.get(second).key);
+                    }
+                });
+                boundReceivers[i] = new int[order.length];
+                if (compareType == Attribute.Type.LONG) {
+                    longBounds[i] = new long[order.length];
+                } else {
+                    doubleBounds[i] = new double[order.length];
+                }
+                for (int j = 0; j < order.length; j++) {
+                    boundReceivers[i][j] = receiverIndexes.get(order[j]);
+                    if (compareType == Attribute.Type.LONG) {
+                        longBounds[i][j] = (Long) predicates.get(order[j]).key;
+                    } else {
+                        doubleBounds[i][j] = ((Number) predicates.get(order[j]).key).doubleValue();
+                    }
+                }
+            }
+        }
+
+        private void match(Object value, long[] matches) {
+            Object key = EventIndex.toKey(value, compareType);
+            if (key == null) {
+                return;
+            }
+            int[] receiverIndexes = equalities.get(key);
+            if (receiverIndexes != null) {
+                set(matches, receiverIndexes, 0, receiverIndexes.length);
+            }
+            if (compareType == Attribute.Type.LONG) {
+                long longValue = (Long) key;
+                //attribute > bound holds for the bounds below the value, attribute < bound for those above it
+                if (longBounds[0] != null) {
+                    set(matches, boundReceivers[0], 0, lowerBound(longBounds[0], longValue));
+                }
+                if (longBounds[1] != null) {
+                    set(matches, boundReceivers[1], 0, upperBound(longBounds[1], longValue));
+                }
+                if (longBounds[2] != null) {
+                    set(matches, boundReceivers[2], upperBound(longBounds[2], longValue), longBounds[2].length);
+                }
+                if (longBounds[3] != null) {
+                    set(matches, boundReceivers[3], lowerBound(longBounds[3], longValue), longBounds[3].length);
+                }
+            } else if (compareType == Attribute.Type.FLOAT || compareType == Attribute.Type.DOUBLE) {
+                double doubleValue = ((Number) key).doubleValue();
+                if (doubleBounds[0] != null) {
+                    set(matches, boundReceivers[0], 0, lowerBound(doubleBounds[0], doubleValue));
+                }
+                if (doubleBounds[1] != null) {
+                    set(matches, boundReceivers[1], 0, upperBound(doubleBounds[1], doubleValue));
+                }
+                if (doubleBounds[2] != null) {
+                    set(matches, boundReceivers[2], upperBound(doubleBounds[2], doubleValue), doubleBounds[2].length);
+                }
+                if (doubleBounds[3] != null) {
+                    set(matches, boundReceivers[3], lowerBound(doubleBounds[3], doubleValue), doubleBounds[3].length);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,356 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.siddhi.core.stream;
+
+import com.lmax.disruptor.AlertException;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.Sequence;
+import com.lmax.disruptor.SequenceBarrier;
+import com.lmax.disruptor.TimeoutException;
+import com.lmax.disruptor.WaitStrategy;
+import org.apache.log4j.Logger;
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.event.EventFactory;
+import org.wso2.siddhi.core.stream.overflow.BlockingOverflowPolicy;
+import org.wso2.siddhi.core.stream.overflow.EventSpiller;
+import org.wso2.siddhi.core.stream.overflow.OverflowPolicy;
+import org.wso2.siddhi.query.api.definition.StreamDefinition;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Single producer ring buffers, one per thread publishing to a StreamJunction, that are merged in to the
+ * ring buffer of the junction by one thread. Publishing threads hence never contend on a shared cursor,
+ * and the junction's ring buffer only has the merging thread as its producer.
+ * <p/>
+ * Lanes are merged fairly, taking one event from each lane having events in turn, or, when timestamp
+ * ordered, taking the event with the lowest timestamp among the heads of the lanes. As each lane is
+ * merged as far as it is published, events of different lanes are ordered only within what has arrived
+ * at the time of merging.
+ * <p/>
+ * A full lane blocks its producer, while the overflow policy of the junction applies when the merged
+ * events are claimed in the junction's ring buffer. When all lanes are empty the merging thread waits on
+ * the wait strategy shared by the lanes, and retires the lanes of terminated threads once they are merged.
+ */
+public class ProducerLanes implements Runnable {
+
+    private static final Logger log = Logger.getLogger(ProducerLanes.class);
+
+    private final StreamDefinition streamDefinition;
+    private final int bufferSize;
+    private final WaitStrategy waitStrategy;
+    private final boolean timestampOrdered;
+    private final ThreadLocal<Lane> threadLane = new ThreadLocal<Lane>() {
+        @Override
+        protected Lane initialValue() {
+            return addLane();
+        }
+    };
+    private volatile Lane[] lanes = new Lane[0];
+    private final LanesCursor cursor = new LanesCursor();
+    private final MergeBarrier barrier = new MergeBarrier();
+    private RingBuffer<Event> ringBuffer;
+    private OverflowPolicy overflowPolicy;
+    private int nextLaneIndex;
+    //accessed only by the merging thread
+    private long merged;
+    private long retired;
+    private volatile boolean running;
+    private CountDownLatch stopped;
+
+    /**
+     * @param streamDefinition definition of the junction's stream
+     * @param bufferSize       ring buffer size of each lane
+     * @param waitStrategy     wait strategy of the lanes
+     * @param timestampOrdered whether to merge the lanes in timestamp order
+     */
+    public ProducerLanes(StreamDefinition streamDefinition, int bufferSize, WaitStrategy waitStrategy,
+                         boolean timestampOrdered) {
+        this.streamDefinition = streamDefinition;
+        this.bufferSize = bufferSize;
+        this.waitStrategy = waitStrategy;
+        this.timestampOrdered = timestampOrdered;
+    }
+
+    /**
+     * @return lane of the calling thread, created on its first call
+     */
+    public Lane getLane() {
+        return threadLane.get();
+    }
+
+    public int getLaneCount() {
+        return lanes.length;
+    }
+
+    private synchronized Lane addLane() {
+        Lane lane = new Lane(RingBuffer.createSingleProducer(new EventFactory(streamDefinition.getAttributeList().size()),
+                bufferSize, waitStrategy), Thread.currentThread());
+        Lane[] newLanes = new Lane[lanes.length + 1];
+        System.arraycopy(lanes, 0, newLanes, 0, lanes.length);
+        newLanes[lanes.length] = lane;
+        lanes = newLanes;
+        return lane;
+    }
+
+    /**
+     * Remove the lanes whose threads have terminated and whose events are all merged. Only called by the
+     * merging thread, which counts the events of the removed lanes as retired to keep its cursor.
+     */
+    private synchronized void retireLanes() {
+        List<Lane> liveLanes = null;
+        for (int i = 0; i < lanes.length; i++) {
+            Lane lane = lanes[i];
+            Thread thread = lane.thread.get();
+            //a terminated thread publishes no more, so its cursor is final once it is seen terminated
+            if ((thread == null || !thread.isAlive()) && lane.next > lane.ringBuffer.getCursor()) {
+                if (liveLanes == null) {
+                    liveLanes = new ArrayList<Lane>(lanes.length);
+                    for (int j = 0; j < i; j++) {
+                        liveLanes.add(lanes[j]);
+                    }
+                }
+                retired += lane.next;
+            } else if (liveLanes != null) {
+                liveLanes.add(lane);
+            }
+        }
+        if (liveLanes != null) {
+            lanes = liveLanes.toArray(new Lane[liveLanes.size()]);
+        }
+    }
+
+    /**
+     * Start merging the lanes in to the given ring buffer
+     *
+     * @param ringBuffer      ring buffer of the junction
+     * @param overflowPolicy  overflow policy of the junction, initialized with the ring buffer
+     * @param executorService executor to run the merging thread
+     */
+    public synchronized void start(RingBuffer<Event> ringBuffer, OverflowPolicy overflowPolicy,
+                                   ExecutorService executorService) {
+        this.ringBuffer = ringBuffer;
+        this.overflowPolicy = overflowPolicy;
+        this.running = true;
+        this.stopped = new CountDownLatch(1);
+        barrier.clearAlert();
+        executorService.execute(this);
+    }
+
+    /**
+     * Stop merging after the events already published to the lanes are merged
+     */
+    public synchronized void stop() {
+        if (stopped == null) {
+            return;
+        }
+        running = false;
+        barrier.alert();
+        try {
+            stopped.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (true) {
+                //read before merging, so that events published before stop() are merged before exiting
+                boolean stopping = !running;
+                int count = merge();
+                if (count > 0) {
+                    merged += count;
+                } else if (stopping) {
+                    break;
+                } else {
+                    retireLanes();
+                    try {
+                        waitStrategy.waitFor(merged, cursor, cursor, barrier);
+                    } catch (AlertException e) {
+                        //stopping, merge what is left
+                    } catch (TimeoutException e) {
+                        //wait again
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.error("Error merging producer lanes of stream " + streamDefinition.getId(), e);
+        } finally {
+            stopped.countDown();
+        }
+    }
+
+    /**
+     * Move the events available in the lanes to the ring buffer, up to the size of the ring buffer
+     *
+     * @return number of events moved
+     */
+    private int merge() {
+        Lane[] lanes = this.lanes;
+        long available = 0;
+        for (Lane lane : lanes) {
+            lane.published = lane.ringBuffer.getCursor();
+            available += lane.published - lane.next + 1;
+        }
+        if (available == 0) {
+            return 0;
+        }
+        int batchSize = (int) Math.min(available, ringBuffer.getBufferSize());
+        long hi = overflowPolicy.claim(batchSize);
+        if (hi < 0) {
+            EventSpiller spiller = overflowPolicy.getSpiller();
+            for (int i = 0; i < batchSize; i++) {
+                Event event = poll(lanes);
+                if (spiller != null) {
+                    spiller.spill(event);
+                }
+            }
+        } else {
+            long lo = hi - (batchSize - 1);
+            try {
+                for (long sequenceNo = lo; sequenceNo <= hi; sequenceNo++) {
+                    ringBuffer.get(sequenceNo).copyFrom(poll(lanes));
+                }
+            } finally {
+                ringBuffer.publish(lo, hi);
+            }
+        }
+        for (Lane lane : lanes) {
+            lane.sequence.set(lane.next - 1);
+        }
+        return batchSize;
+    }
+
+    private Event poll(Lane[] lanes) {
+        if (timestampOrdered) {
+            Lane earliestLane = null;
+            long earliestTimeStamp = Long.MAX_VALUE;
+            for (Lane lane : lanes) {
+                if (lane.next <= lane.published) {
+                    long timeStamp = lane.ringBuffer.get(lane.next).getTimestamp();
+                    if (earliestLane == null || timeStamp < earliestTimeStamp) {
+                        earliestLane = lane;
+                        earliestTimeStamp = timeStamp;
+                    }
+                }
+            }
+            return earliestLane.ringBuffer.get(earliestLane.next++);
+        }
+        while (true) {
+            if (nextLaneIndex >= lanes.length) {
+                nextLaneIndex = 0;
+            }
+            Lane lane = lanes[nextLaneIndex++];
+            if (lane.next <= lane.published) {
+                return lane.ringBuffer.get(lane.next++);
+            }
+        }
+    }
+
+    /**
+     * Single producer ring buffer of a publishing thread
+     */
+    public static class Lane {
+
+        private final RingBuffer<Event> ringBuffer;
+        private final WeakReference<Thread> thread;
+        private final OverflowPolicy overflowPolicy;
+        private final Sequence sequence = new Sequence(-1);
+        //accessed only by the merging thread
+        private long next;
+        private long published;
+
+        private Lane(RingBuffer<Event> ringBuffer, Thread thread) {
+            this.ringBuffer = ringBuffer;
+            this.thread = new WeakReference<Thread>(thread);
+            ringBuffer.addGatingSequences(sequence);
+            overflowPolicy = new BlockingOverflowPolicy();
+            overflowPolicy.init(ringBuffer, null, null);
+        }
+
+        /**
+         * @return policy claiming from the lane, which blocks when the lane is full
+         */
+        public OverflowPolicy getOverflowPolicy() {
+            return overflowPolicy;
+        }
+    }
+
+    /**
+     * Sequence of the last event published to the lanes, counting the events of retired lanes, which the
+     * merging thread waits on through the wait strategy of the lanes.
+     */
+    private class LanesCursor extends Sequence {
+
+        @Override
+        public long get() {
+            long published = retired;
+            for (Lane lane : lanes) {
+                published += lane.ringBuffer.getCursor() + 1;
+            }
+            return published - 1;
+        }
+    }
+
+    /**
+     * Barrier alerting the merging thread waiting for events when the lanes are stopped
+     */
+    private class MergeBarrier implements SequenceBarrier {
+
+        private volatile boolean alerted;
+
+        @Override
+        public long waitFor(long sequence) throws AlertException, InterruptedException, TimeoutException {
+            return waitStrategy.waitFor(sequence, cursor, cursor, this);
+        }
+
+        @Override
+        public long getCursor() {
+            return cursor.get();
+        }
+
+        @Override
+        public boolean isAlerted() {
+            return alerted;
+        }
+
+        @Override
+        public void alert() {
+            alerted = true;
+            waitStrategy.signalAllWhenBlocking();
+        }
+
+        @Override
+        public void clearAlert() {
+            alerted = false;
+        }
+
+        @Override
+        public void checkAlert() throws AlertException {
+            if (alerted) {
+                throw AlertException.INSTANCE;
+            }
+        }
+    }
+}
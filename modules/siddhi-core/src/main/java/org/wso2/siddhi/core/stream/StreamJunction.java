@@ -15,46 +15,88 @@
 package org.wso2.siddhi.core.stream;
 
 import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.EventProcessor;
 import com.lmax.disruptor.RingBuffer;
-import com.lmax.disruptor.SleepingWaitStrategy;
 import com.lmax.disruptor.dsl.Disruptor;
 import com.lmax.disruptor.dsl.ProducerType;
 import org.apache.log4j.Logger;
+import org.wso2.siddhi.core.config.DisruptorConfig;
 import org.wso2.siddhi.core.config.ExecutionPlanContext;
+import org.wso2.siddhi.core.event.ColumnBatch;
 import org.wso2.siddhi.core.event.ComplexEvent;
 import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.event.EventCodec;
 import org.wso2.siddhi.core.event.EventFactory;
 import org.wso2.siddhi.core.stream.input.InputProcessor;
+import org.wso2.siddhi.core.stream.output.StreamCallback;
+import org.wso2.siddhi.core.stream.overflow.EventSpiller;
+import org.wso2.siddhi.core.stream.overflow.InstrumentedOverflowPolicy;
+import org.wso2.siddhi.core.stream.overflow.OverflowPolicy;
+import org.wso2.siddhi.core.exception.ExecutionPlanCreationException;
 import org.wso2.siddhi.core.util.SiddhiConstants;
+import org.wso2.siddhi.core.util.dictionary.StringDictionary;
+import org.wso2.siddhi.core.util.statistics.ConsumerStatistics;
+import org.wso2.siddhi.core.util.statistics.RingBufferStatistics;
+import org.wso2.siddhi.core.util.statistics.StatisticsManager;
 import org.wso2.siddhi.query.api.annotation.Annotation;
+import org.wso2.siddhi.query.api.annotation.Element;
+import org.wso2.siddhi.query.api.definition.Attribute;
 import org.wso2.siddhi.query.api.definition.StreamDefinition;
 import org.wso2.siddhi.query.api.exception.DuplicateAnnotationException;
 import org.wso2.siddhi.query.api.util.AnnotationHelper;
 
 import java.lang.reflect.Constructor;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 
 public class StreamJunction {
 
     private static final Logger log = Logger.getLogger(StreamJunction.class);
+    private static final int DECODE_CHUNK_SIZE = 128;
     private List<Receiver> receivers = new CopyOnWriteArrayList<Receiver>();
+    private final Map<StreamCallback, StreamCallbackReceiver> callbackReceivers =
+            new IdentityHashMap<StreamCallback, StreamCallbackReceiver>();
     private List<Publisher> publishers = new CopyOnWriteArrayList<Publisher>();
     private ExecutorService executorService;
     private final ExecutionPlanContext executionPlanContext;
     private final StreamDefinition streamDefinition;
-    private final int bufferSize;
+    private final DisruptorConfig disruptorConfig;
     private Boolean parallel = null;
     private Disruptor<Event> disruptor;
     private RingBuffer<Event> ringBuffer;
+    private OverflowPolicy overflowPolicy;
+    private ProducerLanes producerLanes;
+    private RingBufferStatistics statistics;    //null when statistics are not enabled
+    private int shardAttributeIndex = -1;
+    private List<List<Receiver>> shardReceivers;
+    private final EventCodec eventCodec;
+    private int[] dictionaryAttributeIndexes;   //null when no attribute is dictionary encoded
+    private StringDictionary[] dictionaries;
+    private volatile PredicateIndex predicateIndex;   //null when too few receivers filter on indexable predicates
+    //events to decode ByteBuffers in to, reused by each thread publishing to the junction when it is not parallel
+    private final ThreadLocal<Event[]> decodedEvents = new ThreadLocal<Event[]>() {
+        @Override
+        protected Event[] initialValue() {
+            Event[] events = new Event[DECODE_CHUNK_SIZE];
+            for (int i = 0; i < events.length; i++) {
+                events[i] = new Event(eventCodec.getAttributeCount());
+            }
+            return events;
+        }
+    };
 
     public StreamJunction(StreamDefinition streamDefinition, ExecutorService executorService, int defaultBufferSize,
                           ExecutionPlanContext executionPlanContext) {
         this.streamDefinition = streamDefinition;
-        this.bufferSize = defaultBufferSize;
         this.executorService = executorService;
         this.executionPlanContext = executionPlanContext;
+        this.eventCodec = new EventCodec(streamDefinition);
 
         try {
             Annotation annotation = AnnotationHelper.getAnnotation(SiddhiConstants.ANNOTATION_PARALLEL,
@@ -62,6 +104,19 @@ public class StreamJunction {
             if (annotation != null) {
                 parallel = true;
             }
+            disruptorConfig = DisruptorConfig.parse(streamDefinition.getAnnotations(), defaultBufferSize);
+            if (disruptorConfig.getShardBy() != null) {
+                shardAttributeIndex = streamDefinition.getAttributePosition(disruptorConfig.getShardBy());
+                shardReceivers = new ArrayList<List<Receiver>>(disruptorConfig.getWorkers());
+                for (int i = 0; i < disruptorConfig.getWorkers(); i++) {
+                    shardReceivers.add(new CopyOnWriteArrayList<Receiver>());
+                }
+            }
+            annotation = AnnotationHelper.getAnnotation(SiddhiConstants.ANNOTATION_DICTIONARY,
+                    streamDefinition.getAnnotations());
+            if (annotation != null) {
+                initDictionaries(annotation);
+            }
 
         } catch (DuplicateAnnotationException e) {
             throw new DuplicateAnnotationException(e.getMessage() + " for the same Stream " +
@@ -70,23 +125,125 @@ public class StreamJunction {
 
     }
 
+    /**
+     * Parse @dictionary('attribute1', 'attribute2, attribute3'), naming the STRING attributes to be
+     * dictionary encoded
+     */
+    private void initDictionaries(Annotation annotation) {
+        List<Integer> attributeIndexes = new ArrayList<Integer>();
+        for (Element element : annotation.getElements()) {
+            for (String attributeName : element.getValue().split(",")) {
+                attributeName = attributeName.trim();
+                int index = streamDefinition.getAttributePosition(attributeName);
+                if (streamDefinition.getAttributeList().get(index).getType() != Attribute.Type.STRING) {
+                    throw new ExecutionPlanCreationException("Attribute '" + attributeName + "' of @" +
+                            SiddhiConstants.ANNOTATION_DICTIONARY + " is not a STRING attribute of stream " +
+                            streamDefinition.getId());
+                }
+                if (!attributeIndexes.contains(index)) {
+                    attributeIndexes.add(index);
+                }
+            }
+        }
+        dictionaryAttributeIndexes = new int[attributeIndexes.size()];
+        dictionaries = new StringDictionary[attributeIndexes.size()];
+        for (int i = 0; i < dictionaryAttributeIndexes.length; i++) {
+            dictionaryAttributeIndexes[i] = attributeIndexes.get(i);
+            dictionaries[i] = executionPlanContext.addStringDictionary(streamDefinition.getId(),
+                    streamDefinition.getAttributeList().get(dictionaryAttributeIndexes[i]).getName());
+        }
+    }
+
+    /**
+     * Replace the values of the dictionary encoded attributes by their canonical instances, only to be called
+     * on data owned by the junction, as the data published to the junction must not be modified
+     */
+    private void intern(Object[] data) {
+        for (int i = 0; i < dictionaryAttributeIndexes.length; i++) {
+            int index = dictionaryAttributeIndexes[i];
+            data[index] = dictionaries[i].intern((String) data[index]);
+        }
+    }
+
+    /**
+     * @return copy of the event having the canonical instances of the dictionary encoded values
+     */
+    private Event internedCopy(Event event) {
+        Event copy = new Event(event.getData().length).copyFrom(event);
+        intern(copy.getData());
+        return copy;
+    }
+
+    /**
+     * @return batch referring to the columns of the given batch, but to copies of its dictionary encoded
+     * columns having the canonical instances of their values
+     */
+    private ColumnBatch internedCopy(ColumnBatch columnBatch) {
+        ColumnBatch copy = new ColumnBatch(columnBatch);
+        for (int i = 0; i < dictionaryAttributeIndexes.length; i++) {
+            String[] column = columnBatch.getStringColumn(dictionaryAttributeIndexes[i]);
+            String[] internedColumn = new String[column.length];
+            for (int row = 0, size = columnBatch.size(); row < size; row++) {
+                internedColumn[row] = dictionaries[i].intern(column[row]);
+            }
+            copy.setColumn(dictionaryAttributeIndexes[i], internedColumn);
+        }
+        return copy;
+    }
+
     public void sendEvent(ComplexEvent complexEvent) {
 
-        ComplexEvent complexEventList = complexEvent;
         if (disruptor != null) {
-
+            OverflowPolicy policy = publishingPolicy();
+            RingBuffer<Event> ring = policy.getRingBuffer();
+            ComplexEvent complexEventList = complexEvent;
+            int ringSize = ring.getBufferSize();
             while (complexEventList != null) {
-                long sequenceNo = ringBuffer.next();
+                int batchSize = 0;
+                for (ComplexEvent event = complexEventList; event != null && batchSize < ringSize;
+                     event = event.getNext()) {
+                    batchSize++;
+                }
+                long hi = policy.claim(batchSize);
+                if (hi < 0) {
+                    EventSpiller spiller = policy.getSpiller();
+                    for (int i = 0; i < batchSize; i++) {
+                        if (spiller != null) {
+                            spiller.spill(new Event(streamDefinition.getAttributeList().size())
+                                    .copyFrom(complexEventList));
+                        }
+                        complexEventList = complexEventList.getNext();
+                    }
+                    continue;
+                }
+                long lo = hi - (batchSize - 1);
                 try {
-                    Event existingEvent = ringBuffer.get(sequenceNo);
-                    existingEvent.copyFrom(complexEventList);
+                    for (long sequenceNo = lo; sequenceNo <= hi; sequenceNo++) {
+                        Event existingEvent = ring.get(sequenceNo);
+                        existingEvent.copyFrom(complexEventList);
+                        if (dictionaries != null) {
+                            intern(existingEvent.getData());
+                        }
+                        complexEventList = complexEventList.getNext();
+                    }
                 } finally {
-                    ringBuffer.publish(sequenceNo);
+                    ring.publish(lo, hi);
                 }
-                complexEventList = complexEventList.getNext();
             }
 
         } else {
+            if (dictionaries != null) {
+                //chains are only published by the queries inserting in to the stream, which own their events
+                for (ComplexEvent event = complexEvent; event != null; event = event.getNext()) {
+                    if (event.getOutputData() != null) {
+                        intern(event.getOutputData());
+                    }
+                }
+            }
+            if (predicateIndex != null) {
+                predicateIndex.send(complexEvent);
+                return;
+            }
             for (Receiver receiver : receivers) {
                 receiver.receive(complexEvent);
             }
@@ -99,14 +256,33 @@ public class StreamJunction {
             log.trace(event + " event is received by streamJunction " + this);
         }
         if (disruptor != null) {
-            long sequenceNo = ringBuffer.next();
+            OverflowPolicy policy = publishingPolicy();
+            RingBuffer<Event> ring = policy.getRingBuffer();
+            long sequenceNo = policy.claim(1);
+            if (sequenceNo < 0) {
+                EventSpiller spiller = policy.getSpiller();
+                if (spiller != null) {
+                    spiller.spill(event);
+                }
+                return;
+            }
             try {
-                Event existingEvent = ringBuffer.get(sequenceNo);
+                Event existingEvent = ring.get(sequenceNo);
                 existingEvent.copyFrom(event);
+                if (dictionaries != null) {
+                    intern(existingEvent.getData());
+                }
             } finally {
-                ringBuffer.publish(sequenceNo);
+                ring.publish(sequenceNo);
             }
         } else {
+            if (dictionaries != null) {
+                event = internedCopy(event);
+            }
+            if (predicateIndex != null) {
+                predicateIndex.send(event);
+                return;
+            }
             for (Receiver receiver : receivers) {
                 receiver.receive(event);
             }
@@ -119,16 +295,58 @@ public class StreamJunction {
             log.trace("event is received by streamJunction " + this);
         }
         if (disruptor != null) {
-            for (Event event : events) {   //todo optimize for arrays
-                long sequenceNo = ringBuffer.next();
+            OverflowPolicy policy = publishingPolicy();
+            RingBuffer<Event> ring = policy.getRingBuffer();
+            int ringSize = ring.getBufferSize();
+            for (int offset = 0; offset < events.length; offset += ringSize) {
+                int batchSize = Math.min(events.length - offset, ringSize);
+                long hi = policy.claim(batchSize);
+                if (hi < 0) {
+                    EventSpiller spiller = policy.getSpiller();
+                    if (spiller != null) {
+                        for (int i = offset; i < offset + batchSize; i++) {
+                            spiller.spill(events[i]);
+                        }
+                    }
+                    continue;
+                }
+                long lo = hi - (batchSize - 1);
                 try {
-                    Event existingEvent = ringBuffer.get(sequenceNo);
-                    existingEvent.copyFrom(event);
+                    for (long sequenceNo = lo; sequenceNo <= hi; sequenceNo++) {
+                        Event existingEvent = ring.get(sequenceNo);
+                        existingEvent.copyFrom(events[offset + (int) (sequenceNo - lo)]);
+                        if (dictionaries != null) {
+                            intern(existingEvent.getData());
+                        }
+                    }
                 } finally {
-                    ringBuffer.publish(sequenceNo);
+                    ring.publish(lo, hi);
                 }
             }
         } else {
+            if (dictionaries != null) {
+                Event[] internedEvents = new Event[events.length];
+                for (int i = 0; i < events.length; i++) {
+                    internedEvents[i] = internedCopy(events[i]);
+                }
+                if (predicateIndex != null) {
+                    predicateIndex.send(internedEvents);
+                    return;
+                }
+                //the interned copies are not reused, hence stream callbacks can keep them without copying again
+                for (Receiver receiver : receivers) {
+                    if (receiver instanceof StreamCallbackReceiver) {
+                        ((StreamCallbackReceiver) receiver).receiveOwned(internedEvents);
+                    } else {
+                        receiver.receive(internedEvents);
+                    }
+                }
+                return;
+            }
+            if (predicateIndex != null) {
+                predicateIndex.send(events);
+                return;
+            }
             for (Receiver receiver : receivers) {
                 receiver.receive(events);
             }
@@ -137,27 +355,173 @@ public class StreamJunction {
 
     private void sendData(long timeStamp, Object[] data) {
         if (disruptor != null) {
-            long sequenceNo = ringBuffer.next();
+            OverflowPolicy policy = publishingPolicy();
+            RingBuffer<Event> ring = policy.getRingBuffer();
+            long sequenceNo = policy.claim(1);
+            if (sequenceNo < 0) {
+                EventSpiller spiller = policy.getSpiller();
+                if (spiller != null) {
+                    spiller.spill(new Event(timeStamp, data));
+                }
+                return;
+            }
             try {
-                Event existingEvent = ringBuffer.get(sequenceNo);
+                Event existingEvent = ring.get(sequenceNo);
                 existingEvent.setTimestamp(timeStamp);
                 existingEvent.setIsExpired(false);
                 System.arraycopy(data, 0, existingEvent.getData(), 0, data.length);
+                if (dictionaries != null) {
+                    intern(existingEvent.getData());
+                }
             } finally {
-                ringBuffer.publish(sequenceNo);
+                ring.publish(sequenceNo);
             }
         } else {
+            if (dictionaries != null) {
+                data = data.clone();
+                intern(data);
+            }
+            if (predicateIndex != null) {
+                predicateIndex.send(timeStamp, data);
+                return;
+            }
             for (Receiver receiver : receivers) {
                 receiver.receive(timeStamp, data);
             }
         }
     }
 
+    /**
+     * @throws IllegalArgumentException if the timestamps or a column hold fewer values than the batch size
+     */
+    private void sendColumns(long[] timeStamps, ColumnBatch columnBatch) {
+        columnBatch.validate(timeStamps);
+        if (disruptor != null) {
+            OverflowPolicy policy = publishingPolicy();
+            RingBuffer<Event> ring = policy.getRingBuffer();
+            int ringSize = ring.getBufferSize();
+            int size = columnBatch.size();
+            for (int offset = 0; offset < size; offset += ringSize) {
+                int batchSize = Math.min(size - offset, ringSize);
+                long hi = policy.claim(batchSize);
+                if (hi < 0) {
+                    EventSpiller spiller = policy.getSpiller();
+                    if (spiller != null) {
+                        for (int row = offset; row < offset + batchSize; row++) {
+                            Event event = new Event(timeStamps[row], new Object[columnBatch.getColumnCount()]);
+                            columnBatch.copyRow(row, event.getData());
+                            spiller.spill(event);
+                        }
+                    }
+                    continue;
+                }
+                long lo = hi - (batchSize - 1);
+                try {
+                    for (long sequenceNo = lo; sequenceNo <= hi; sequenceNo++) {
+                        int row = offset + (int) (sequenceNo - lo);
+                        Event existingEvent = ring.get(sequenceNo);
+                        existingEvent.setTimestamp(timeStamps[row]);
+                        existingEvent.setIsExpired(false);
+                        columnBatch.copyRow(row, existingEvent.getData());
+                        if (dictionaries != null) {
+                            intern(existingEvent.getData());
+                        }
+                    }
+                } finally {
+                    ring.publish(lo, hi);
+                }
+            }
+        } else {
+            if (dictionaries != null) {
+                columnBatch = internedCopy(columnBatch);
+            }
+            for (Receiver receiver : receivers) {
+                receiver.receive(timeStamps, columnBatch);
+            }
+        }
+    }
+
+    /**
+     * Decode the events in to the slots of the ring buffer, or in to reusable events of the publishing thread
+     * when the events are processed on it. The buffer is checked to hold complete events before any of them is
+     * published, so that a truncated buffer is rejected as a whole.
+     *
+     * @throws IllegalArgumentException if the last event in the buffer is truncated
+     */
+    private void sendBytes(ByteBuffer buffer) {
+        int count = eventCodec.countEvents(buffer);
+        if (disruptor != null) {
+            OverflowPolicy policy = publishingPolicy();
+            RingBuffer<Event> ring = policy.getRingBuffer();
+            int ringSize = ring.getBufferSize();
+            for (int offset = 0; offset < count; offset += ringSize) {
+                int batchSize = Math.min(count - offset, ringSize);
+                long hi = policy.claim(batchSize);
+                if (hi < 0) {
+                    EventSpiller spiller = policy.getSpiller();
+                    for (int i = 0; i < batchSize; i++) {
+                        if (spiller != null) {
+                            Event event = eventCodec.decode(buffer, new Event(eventCodec.getAttributeCount()));
+                            if (dictionaries != null) {
+                                intern(event.getData());
+                            }
+                            spiller.spill(event);
+                        } else {
+                            buffer.position(buffer.position() + eventCodec.encodedLength(buffer));
+                        }
+                    }
+                    continue;
+                }
+                long lo = hi - (batchSize - 1);
+                try {
+                    for (long sequenceNo = lo; sequenceNo <= hi; sequenceNo++) {
+                        Event event = eventCodec.decode(buffer, ring.get(sequenceNo));
+                        if (dictionaries != null) {
+                            intern(event.getData());
+                        }
+                    }
+                } finally {
+                    ring.publish(lo, hi);
+                }
+            }
+        } else {
+            Event[] events = decodedEvents.get();
+            for (int offset = 0; offset < count; offset += events.length) {
+                int chunkSize = Math.min(count - offset, events.length);
+                for (int i = 0; i < chunkSize; i++) {
+                    eventCodec.decode(buffer, events[i]);
+                    if (dictionaries != null) {
+                        intern(events[i].getData());
+                    }
+                }
+                PredicateIndex index = predicateIndex;
+                if (chunkSize == 1) {
+                    if (index != null) {
+                        index.send(events[0]);
+                    } else {
+                        for (Receiver receiver : receivers) {
+                            receiver.receive(events[0]);
+                        }
+                    }
+                    continue;
+                }
+                Event[] chunk = chunkSize == events.length ? events : Arrays.copyOf(events, chunkSize);
+                if (index != null) {
+                    index.send(chunk);
+                } else {
+                    for (Receiver receiver : receivers) {
+                        receiver.receive(chunk);
+                    }
+                }
+            }
+        }
+    }
+
     /**
      * create and start disruptor based on annotations given in the streamDefinition
      */
     public synchronized void startProcessing() {
-        if (!receivers.isEmpty()) {
+        if (!receivers.isEmpty() || isSharded()) {
 
             if (parallel == null) {
                 parallel = executionPlanContext.isParallel();
@@ -165,37 +529,96 @@ public class StreamJunction {
             if (parallel) {
                 for (Constructor constructor : Disruptor.class.getConstructors()) {
                     if (constructor.getParameterTypes().length == 5) {      //if new disruptor classes available
-                        ProducerType producerType = ProducerType.SINGLE;
-
-                        if (publishers.size() > 1) {
+                        ProducerType producerType = disruptorConfig.getProducerType();
+                        if (SiddhiConstants.OVERFLOW_SPILL.equals(disruptorConfig.getOverflow())) {
+                            //the drainer of spilled events publishes alongside the publishers or the lane merger
                             producerType = ProducerType.MULTI;
+                        } else if (disruptorConfig.isProducerLanes()) {
+                            //only the lane merger publishes
+                            producerType = ProducerType.SINGLE;
+                        } else if (producerType == null) {
+                            producerType = ProducerType.SINGLE;
+                            if (publishers.size() > 1) {
+                                producerType = ProducerType.MULTI;
+                            }
                         }
 
                         disruptor = new Disruptor<Event>(new EventFactory(streamDefinition.getAttributeList().size()),
-                                bufferSize, executorService, producerType, new SleepingWaitStrategy());
+                                disruptorConfig.getBufferSize(), executorService, producerType,
+                                disruptorConfig.constructWaitStrategy());
                         break;
                     }
                 }
                 if (disruptor == null) {
                     disruptor = new Disruptor<Event>(new EventFactory(streamDefinition.getAttributeList().size()),
-                            bufferSize, executorService);
+                            disruptorConfig.getBufferSize(), executorService);
+                }
+                overflowPolicy = disruptorConfig.constructOverflowPolicy();
+                StatisticsManager statisticsManager = executionPlanContext.getStatisticsManager();
+                if (statisticsManager != null) {
+                    statistics = statisticsManager.createRingBufferStatistics("junction:" + streamDefinition.getId());
+                    overflowPolicy = new InstrumentedOverflowPolicy(overflowPolicy, statistics);
                 }
                 for (Receiver receiver : receivers) {
-                    disruptor.handleEventsWith(new StreamHandler(receiver));
+                    if (!isShardReceiver(receiver)) {
+                        handleEventsWith(new StreamHandler(receiver));
+                    }
+                }
+                if (isSharded()) {
+                    for (int i = 0; i < shardReceivers.size(); i++) {
+                        if (!shardReceivers.get(i).isEmpty()) {
+                            handleEventsWith(new ShardHandler(i, shardReceivers.get(i)));
+                        }
+                    }
                 }
 
                 ringBuffer = disruptor.start();
+                overflowPolicy.init(ringBuffer, streamDefinition, executorService);
+                if (disruptorConfig.isProducerLanes()) {
+                    ProducerLanes lanes = new ProducerLanes(streamDefinition, disruptorConfig.getBufferSize(),
+                            disruptorConfig.constructWaitStrategy(),
+                            SiddhiConstants.ORDERING_TIMESTAMP.equals(disruptorConfig.getOrdering()));
+                    lanes.start(ringBuffer, overflowPolicy, executorService);
+                    producerLanes = lanes;
+                }
 
             }
         }
     }
 
+    /**
+     * Consume the ring buffer with the given handler, run by the processor of the overflow policy if it has one
+     */
+    private void handleEventsWith(EventHandler<Event> eventHandler) {
+        EventProcessor eventProcessor = overflowPolicy.createEventProcessor(disruptor.getRingBuffer(), eventHandler);
+        if (eventProcessor != null) {
+            disruptor.handleEventsWith(eventProcessor);
+        } else {
+            disruptor.handleEventsWith(eventHandler);
+        }
+    }
+
     public synchronized void stopProcessing() {
         if (disruptor != null) {
+            if (producerLanes != null) {
+                producerLanes.stop();
+            }
+            overflowPolicy.stop();
             disruptor.shutdown();
         }
     }
 
+    /**
+     * @return policy claiming slots for the calling thread, which is of its own lane when producer lanes are used
+     */
+    private OverflowPolicy publishingPolicy() {
+        ProducerLanes lanes = producerLanes;
+        if (lanes != null) {
+            return lanes.getLane().getOverflowPolicy();
+        }
+        return overflowPolicy;
+    }
+
     public synchronized Publisher constructPublisher() {
         Publisher publisher = new Publisher();
         publisher.setStreamJunction(this);
@@ -204,10 +627,85 @@ public class StreamJunction {
     }
 
     public synchronized void subscribe(Receiver receiver) {
+        receiver = toJunctionReceiver(receiver);
         //to have reverse order at the sequence/pattern processors
         if (!receivers.contains(receiver)) {
             receivers.add(0, receiver);
+            buildPredicateIndex();
+        }
+    }
+
+    /**
+     * Index the filters of the receivers, such that the events are only sent to the receivers whose filters can
+     * match them. Sharded junctions are not indexed as their shards need all events.
+     */
+    private void buildPredicateIndex() {
+        PredicateIndex index = null;
+        if (!isSharded()) {
+            index = new PredicateIndex(streamDefinition, receivers);
+            if (!index.isEffective()) {
+                index = null;
+            }
+        }
+        predicateIndex = index;
+    }
+
+    public PredicateIndex getPredicateIndex() {
+        return predicateIndex;
+    }
+
+    /**
+     * Subscribe the shards of a receiver when the junction is sharded, receiver at index i gets the events
+     * whose shard key hashes to worker i. The first receiver also gets all events when the junction
+     * is not running in parallel.
+     *
+     * @param receivers one receiver per worker, each having a receiver chain of its own
+     */
+    public synchronized void subscribeShards(List<? extends Receiver> receivers) {
+        if (!isSharded()) {
+            throw new IllegalStateException("Stream " + streamDefinition.getId() + " is not sharded");
         }
+        if (receivers.size() != shardReceivers.size()) {
+            throw new IllegalArgumentException("Stream " + streamDefinition.getId() + " has " +
+                    shardReceivers.size() + " workers, but " + receivers.size() + " shards are given");
+        }
+        subscribe(receivers.get(0));
+        for (int i = 0; i < receivers.size(); i++) {
+            shardReceivers.get(i).add(toJunctionReceiver(receivers.get(i)));
+        }
+    }
+
+    /**
+     * @return receiver to be subscribed in place of the given receiver, stream callbacks are subscribed through
+     * a receiver copying the events handed to them as arrays, as the events can be reused once sent. The same
+     * receiver is returned for a callback every time, so that subscribing it again is detected.
+     */
+    private Receiver toJunctionReceiver(Receiver receiver) {
+        if (receiver instanceof StreamCallback) {
+            StreamCallbackReceiver callbackReceiver = callbackReceivers.get(receiver);
+            if (callbackReceiver == null) {
+                callbackReceiver = new StreamCallbackReceiver((StreamCallback) receiver);
+                callbackReceivers.put((StreamCallback) receiver, callbackReceiver);
+            }
+            return callbackReceiver;
+        }
+        return receiver;
+    }
+
+    public boolean isSharded() {
+        return shardReceivers != null;
+    }
+
+    /**
+     * @return whether the events are handed over to the receivers through the ring buffer, rather than being
+     * processed on the publishing threads
+     */
+    public boolean isAsync() {
+        return ringBuffer != null;
+    }
+
+    private boolean isShardReceiver(Receiver receiver) {
+        return isSharded() && shardReceivers.get(0).contains(receiver);
     }
 
     public String getStreamId() {
@@ -218,6 +716,48 @@ public class StreamJunction {
         return streamDefinition;
     }
 
+    /**
+     * @return codec of the binary format of the stream's events
+     */
+    public EventCodec getEventCodec() {
+        return eventCodec;
+    }
+
+    public DisruptorConfig getDisruptorConfig() {
+        return disruptorConfig;
+    }
+
+    /**
+     * @return ring buffer size of the junction, the configured size is returned if the junction has not started yet
+     */
+    public int getBufferSize() {
+        if (ringBuffer != null) {
+            return ringBuffer.getBufferSize();
+        }
+        return disruptorConfig.getBufferSize();
+    }
+
+    /**
+     * @return overflow policy of the ring buffer, null if the junction is not parallel or has not started yet
+     */
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * @return statistics of the ring buffer, null if statistics are not enabled or the junction is not parallel
+     */
+    public RingBufferStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * @return producer lanes of the junction, null if lanes are not used or the junction has not started yet
+     */
+    public ProducerLanes getProducerLanes() {
+        return producerLanes;
+    }
+
     public interface Receiver {
 
         public String getStreamId();
@@ -231,22 +771,139 @@ public class StreamJunction {
         public void receive(long timeStamp, Object[] data);
 
         public void receive(Event[] events);
+
+        public void receive(long[] timeStamps, ColumnBatch columnBatch);
+    }
+
+    /**
+     * Hands a stream callback copies of the event arrays it receives, as {@link StreamCallback#receive(Event[])}
+     * is implemented by the user, who may keep the events beyond the call
+     */
+    private static class StreamCallbackReceiver implements Receiver {
+
+        private final StreamCallback streamCallback;
+
+        private StreamCallbackReceiver(StreamCallback streamCallback) {
+            this.streamCallback = streamCallback;
+        }
+
+        @Override
+        public String getStreamId() {
+            return streamCallback.getStreamId();
+        }
+
+        @Override
+        public void receive(ComplexEvent complexEvent) {
+            streamCallback.receive(complexEvent);
+        }
+
+        @Override
+        public void receive(Event event) {
+            streamCallback.receive(event);
+        }
+
+        @Override
+        public void receive(Event event, boolean endOfBatch) {
+            streamCallback.receive(event, endOfBatch);
+        }
+
+        @Override
+        public void receive(long timeStamp, Object[] data) {
+            streamCallback.receive(timeStamp, data);
+        }
+
+        @Override
+        public void receive(Event[] events) {
+            streamCallback.receiveCopies(events);
+        }
+
+        @Override
+        public void receive(long[] timeStamps, ColumnBatch columnBatch) {
+            streamCallback.receive(timeStamps, columnBatch);
+        }
+
+        private void receiveOwned(Event[] events) {
+            streamCallback.receiveOwned(events);
+        }
+
+        @Override
+        public String toString() {
+            return streamCallback.toString();
+        }
     }
 
     public class StreamHandler implements EventHandler<Event> {
 
         private Receiver receiver;
+        private ConsumerStatistics consumerStatistics;
 
         public StreamHandler(Receiver receiver) {
             this.receiver = receiver;
+            if (statistics != null) {
+                consumerStatistics = statistics.addConsumer(receiver.getClass().getSimpleName());
+            }
         }
 
         public void onEvent(Event event, long sequence, boolean endOfBatch) {
+            if (consumerStatistics != null) {
+                consumerStatistics.consumed(sequence, endOfBatch);
+            }
             receiver.receive(event, endOfBatch);
         }
 
     }
 
+    /**
+     * Delivers the events of a shard to the receivers of a worker. The last event of the shard is
+     * held back until the next one is found, so that the receivers get the end of each batch.
+     */
+    public class ShardHandler implements EventHandler<Event> {
+
+        private final int shardIndex;
+        private final int workers;
+        private final List<Receiver> receivers;
+        private Event pendingEvent;
+        private ConsumerStatistics consumerStatistics;
+
+        public ShardHandler(int shardIndex, List<Receiver> receivers) {
+            this.shardIndex = shardIndex;
+            this.receivers = receivers;
+            this.workers = shardReceivers.size();
+            if (statistics != null) {
+                consumerStatistics = statistics.addConsumer("shard" + shardIndex);
+            }
+        }
+
+        public void onEvent(Event event, long sequence, boolean endOfBatch) {
+            if (consumerStatistics != null) {
+                consumerStatistics.consumed(sequence, endOfBatch);
+            }
+            if (shardOf(event) == shardIndex) {
+                if (pendingEvent != null) {
+                    deliver(pendingEvent, false);
+                }
+                pendingEvent = event;
+            }
+            if (endOfBatch && pendingEvent != null) {
+                deliver(pendingEvent, true);
+                pendingEvent = null;
+            }
+        }
+
+        private int shardOf(Event event) {
+            Object key = event.getData()[shardAttributeIndex];
+            int hash = key == null ? 0 : key.hashCode();
+            hash ^= (hash >>> 16);
+            return (hash & Integer.MAX_VALUE) % workers;
+        }
+
+        private void deliver(Event event, boolean endOfBatch) {
+            for (Receiver receiver : receivers) {
+                receiver.receive(event, endOfBatch);
+            }
+        }
+    }
+
     public class Publisher implements InputProcessor {
 
         private StreamJunction streamJunction;
@@ -274,6 +931,16 @@ public class StreamJunction {
             streamJunction.sendData(timeStamp, data);
         }
 
+        @Override
+        public void send(long[] timeStamps, ColumnBatch columnBatch, int streamIndex) {
+            streamJunction.sendColumns(timeStamps, columnBatch);
+        }
+
+        @Override
+        public void send(ByteBuffer buffer, int streamIndex) {
+            streamJunction.sendBytes(buffer);
+        }
+
         public String getStreamId() {
             return streamJunction.getStreamId();
         }
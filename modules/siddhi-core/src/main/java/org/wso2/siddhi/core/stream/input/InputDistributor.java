@@ -14,8 +14,10 @@
  */
 package org.wso2.siddhi.core.stream.input;
 
+import org.wso2.siddhi.core.event.ColumnBatch;
 import org.wso2.siddhi.core.event.Event;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -41,6 +43,16 @@ public class InputDistributor implements InputProcessor {
         inputProcessors.get(streamIndex).send(timeStamp, data, streamIndex);
     }
 
+    @Override
+    public void send(long[] timeStamps, ColumnBatch columnBatch, int streamIndex) {
+        inputProcessors.get(streamIndex).send(timeStamps, columnBatch, streamIndex);
+    }
+
+    @Override
+    public void send(ByteBuffer buffer, int streamIndex) {
+        inputProcessors.get(streamIndex).send(buffer, streamIndex);
+    }
+
     public void addInputProcessor(InputProcessor inputProcessor) {
         inputProcessors.add(inputProcessor);
 
@@ -15,7 +15,11 @@
 package org.wso2.siddhi.core.stream.input;
 
 import org.apache.log4j.Logger;
+import org.wso2.siddhi.core.event.ColumnBatch;
 import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.stream.input.recorder.EventRecorder;
+
+import java.nio.ByteBuffer;
 
 public class InputHandler {
 
@@ -25,6 +29,7 @@ public class InputHandler {
     protected int streamIndex;
     protected InputProcessor inputProcessor;
     protected InputProcessor pausedInputPublisher;
+    protected volatile EventRecorder eventRecorder;
 
     public InputHandler(String streamId, int streamIndex, InputProcessor inputProcessor) {
         this.streamId = streamId;
@@ -37,30 +42,95 @@ public class InputHandler {
         return streamId;
     }
 
+    /**
+     * Record all events subsequently sent through this handler
+     *
+     * @param eventRecorder recorder of the stream, or null to stop recording
+     */
+    public void setEventRecorder(EventRecorder eventRecorder) {
+        this.eventRecorder = eventRecorder;
+    }
+
+    public EventRecorder getEventRecorder() {
+        return eventRecorder;
+    }
+
     public void send(Object[] data) throws InterruptedException {
         if (inputProcessor != null) {
-            inputProcessor.send(System.currentTimeMillis(), data, streamIndex);
+            long timeStamp = System.currentTimeMillis();
+            EventRecorder recorder = eventRecorder;
+            if (recorder != null) {
+                recorder.record(timeStamp, data);
+            }
+            inputProcessor.send(timeStamp, data, streamIndex);
         }
     }
 
     public void send(long timeStamp, Object[] data) throws InterruptedException {
         if (inputProcessor != null) {
+            EventRecorder recorder = eventRecorder;
+            if (recorder != null) {
+                recorder.record(timeStamp, data);
+            }
             inputProcessor.send(timeStamp, data, streamIndex);
         }
     }
 
     public void send(Event event) throws InterruptedException {
         if (inputProcessor != null) {
+            EventRecorder recorder = eventRecorder;
+            if (recorder != null) {
+                recorder.record(event);
+            }
             inputProcessor.send(event, streamIndex);
         }
     }
 
     public void send(Event[] events) throws InterruptedException {
         if (inputProcessor != null) {
+            EventRecorder recorder = eventRecorder;
+            if (recorder != null) {
+                recorder.record(events);
+            }
             inputProcessor.send(events, streamIndex);
         }
     }
 
+    /**
+     * Send a column oriented batch of events, where row i of the batch is timestamped with timeStamps[i]
+     *
+     * @param timeStamps  timestamps of the events
+     * @param columnBatch data of the events, which should not be modified after sending
+     * @throws InterruptedException
+     * @throws IllegalArgumentException if the timestamps or a column hold fewer values than the batch size
+     */
+    public void send(long[] timeStamps, ColumnBatch columnBatch) throws InterruptedException {
+        columnBatch.validate(timeStamps);
+        if (inputProcessor != null && columnBatch.size() > 0) {
+            EventRecorder recorder = eventRecorder;
+            if (recorder != null) {
+                recorder.record(timeStamps, columnBatch);
+            }
+            inputProcessor.send(timeStamps, columnBatch, streamIndex);
+        }
+    }
+
+    /**
+     * Send events encoded with the EventCodec of the stream, all remaining bytes of the buffer are consumed
+     *
+     * @param buffer buffer holding one or more encoded events
+     * @throws InterruptedException
+     */
+    public void send(ByteBuffer buffer) throws InterruptedException {
+        if (inputProcessor != null && buffer.hasRemaining()) {
+            EventRecorder recorder = eventRecorder;
+            if (recorder != null) {
+                recorder.record(buffer);
+            }
+            inputProcessor.send(buffer, streamIndex);
+        }
+    }
+
     void disconnect() {
         this.inputProcessor = null;
     }
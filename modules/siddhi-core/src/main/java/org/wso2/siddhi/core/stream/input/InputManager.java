@@ -33,6 +33,7 @@ public class InputManager {
     private InputDistributor inputDistributor;
     private SingleStreamEntryValve singleStreamEntryValve;
     private SingleThreadEntryValve singleThreadEntryValve;
+    private PlaybackEntryValve playbackEntryValve;
 
     public InputManager(ExecutionPlanContext executionPlanContext,
                         ConcurrentMap<String, AbstractDefinition> streamDefinitionMap,
@@ -46,6 +47,10 @@ public class InputManager {
             inputDistributor = new InputDistributor();
             singleThreadEntryValve = new SingleThreadEntryValve(executionPlanContext, inputDistributor);
             singleStreamEntryValve = new SingleStreamEntryValve(executionPlanContext, singleThreadEntryValve);
+        } else if (executionPlanContext.isPlayback() && !executionPlanContext.isParallel()) {
+            inputDistributor = new InputDistributor();
+            playbackEntryValve = new PlaybackEntryValve(executionPlanContext, inputDistributor);
+            singleThreadEntryValve = new SingleThreadEntryValve(executionPlanContext, playbackEntryValve);
         }
 
     }
@@ -80,12 +85,23 @@ public class InputManager {
 
         InputHandler inputHandler = null;
         if (singleStreamEntryValve != null) {
-            inputHandler = new InputHandler(streamId, inputHandlerMap.size(), singleStreamEntryValve);
+            int streamIndex = inputHandlerMap.size();
+            inputHandler = new InputHandler(streamId, streamIndex, singleStreamEntryValve);
             StreamJunction streamJunction = streamJunctionMap.get(streamId);
             if (streamJunction == null) {
                 throw new DefinitionNotExistException("Stream with stream ID " + streamId + " has not been defined");
             }
+            singleStreamEntryValve.addStream(streamIndex, streamJunction.getStreamDefinition());
             inputDistributor.addInputProcessor(streamJunctionMap.get(streamId).constructPublisher());
+        } else if (playbackEntryValve != null) {
+            int streamIndex = inputHandlerMap.size();
+            inputHandler = new InputHandler(streamId, streamIndex, singleThreadEntryValve);
+            StreamJunction streamJunction = streamJunctionMap.get(streamId);
+            if (streamJunction == null) {
+                throw new DefinitionNotExistException("Stream with stream ID " + streamId + " has not been defined");
+            }
+            playbackEntryValve.addStream(streamIndex, streamJunction.getStreamDefinition());
+            inputDistributor.addInputProcessor(streamJunction.constructPublisher());
         } else {
             //todo handle
         }
@@ -15,8 +15,11 @@
 
 package org.wso2.siddhi.core.stream.input;
 
+import org.wso2.siddhi.core.event.ColumnBatch;
 import org.wso2.siddhi.core.event.Event;
 
+import java.nio.ByteBuffer;
+
 public interface InputProcessor {
 
     public void send(Event event, int streamIndex);
@@ -25,5 +28,13 @@ public interface InputProcessor {
 
     public void send(long timeStamp, Object[] data, int streamIndex);
 
+    public void send(long[] timeStamps, ColumnBatch columnBatch, int streamIndex);
+
+    /**
+     * Send the events encoded in the remaining bytes of the buffer in the EventCodec format of the stream,
+     * the buffer position is moved to its limit
+     */
+    public void send(ByteBuffer buffer, int streamIndex);
+
 }
 
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.siddhi.core.stream.input;
+
+import org.wso2.siddhi.core.config.ExecutionPlanContext;
+import org.wso2.siddhi.core.event.ColumnBatch;
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.event.EventCodec;
+import org.wso2.siddhi.core.util.timestamp.EventTimestampGenerator;
+import org.wso2.siddhi.core.util.timestamp.TimestampGenerator;
+import org.wso2.siddhi.query.api.definition.AbstractDefinition;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Entry valve of execution plans running in playback mode. Events are passed on one at a time after
+ * advancing the EventTimestampGenerator of the plan to their timestamp, hence processing sees the
+ * time at which each event occurred. Expected to be called from within a SingleThreadEntryValve.
+ */
+public class PlaybackEntryValve implements InputProcessor {
+
+    private final EventTimestampGenerator timestampGenerator;
+    private final InputProcessor inputProcessor;
+    private volatile EventCodec[] eventCodecs = new EventCodec[0];
+    private Event event;
+
+    public PlaybackEntryValve(ExecutionPlanContext executionPlanContext, InputProcessor inputProcessor) {
+        TimestampGenerator timestampGenerator = executionPlanContext.getTimestampGenerator();
+        if (!(timestampGenerator instanceof EventTimestampGenerator)) {
+            timestampGenerator = new EventTimestampGenerator();
+            executionPlanContext.setTimestampGenerator(timestampGenerator);
+        }
+        this.timestampGenerator = (EventTimestampGenerator) timestampGenerator;
+        this.inputProcessor = inputProcessor;
+    }
+
+    /**
+     * Register a stream, such that its encoded events can be decoded
+     *
+     * @param streamIndex index the stream is sent with
+     * @param definition  definition of the stream
+     */
+    public synchronized void addStream(int streamIndex, AbstractDefinition definition) {
+        EventCodec[] codecs = eventCodecs;
+        if (streamIndex >= codecs.length) {
+            EventCodec[] newCodecs = new EventCodec[streamIndex + 1];
+            System.arraycopy(codecs, 0, newCodecs, 0, codecs.length);
+            codecs = newCodecs;
+        }
+        codecs[streamIndex] = new EventCodec(definition);
+        eventCodecs = codecs;
+    }
+
+    @Override
+    public void send(Event event, int streamIndex) {
+        timestampGenerator.setCurrentTime(event.getTimestamp());
+        inputProcessor.send(event, streamIndex);
+    }
+
+    @Override
+    public void send(Event[] events, int streamIndex) {
+        for (Event event : events) {
+            timestampGenerator.setCurrentTime(event.getTimestamp());
+            inputProcessor.send(event, streamIndex);
+        }
+    }
+
+    @Override
+    public void send(long timeStamp, Object[] data, int streamIndex) {
+        timestampGenerator.setCurrentTime(timeStamp);
+        inputProcessor.send(timeStamp, data, streamIndex);
+    }
+
+    @Override
+    public void send(long[] timeStamps, ColumnBatch columnBatch, int streamIndex) {
+        for (int i = 0, size = columnBatch.size(); i < size; i++) {
+            Object[] data = new Object[columnBatch.getColumnCount()];
+            columnBatch.copyRow(i, data);
+            timestampGenerator.setCurrentTime(timeStamps[i]);
+            inputProcessor.send(timeStamps[i], data, streamIndex);
+        }
+    }
+
+    @Override
+    public void send(ByteBuffer buffer, int streamIndex) {
+        EventCodec eventCodec = eventCodecs[streamIndex];
+        if (event == null || event.getData().length < eventCodec.getAttributeCount()) {
+            event = new Event(eventCodec.getAttributeCount());
+        }
+        while (buffer.hasRemaining()) {
+            eventCodec.decode(buffer, event);
+            timestampGenerator.setCurrentTime(event.getTimestamp());
+            inputProcessor.send(event, streamIndex);
+        }
+    }
+}
@@ -21,28 +21,42 @@ import com.lmax.disruptor.SleepingWaitStrategy;
 import com.lmax.disruptor.dsl.Disruptor;
 import com.lmax.disruptor.dsl.ProducerType;
 import org.wso2.siddhi.core.config.ExecutionPlanContext;
+import org.wso2.siddhi.core.event.ColumnBatch;
 import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.event.EventCodec;
 import org.wso2.siddhi.core.exception.ExecutionPlanRuntimeException;
+import org.wso2.siddhi.core.util.statistics.ConsumerStatistics;
+import org.wso2.siddhi.core.util.statistics.RingBufferStatistics;
+import org.wso2.siddhi.core.util.statistics.StatisticsManager;
+
+import org.wso2.siddhi.query.api.definition.AbstractDefinition;
 
 import java.lang.reflect.Constructor;
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.ByteBuffer;
 
 /**
  * Created on 11/28/14.
+ * <p/>
+ * Events are copied in to preallocated slots of the ring buffer, hence the events received
+ * by the next InputProcessor are only valid until its send() returns.
  */
 public class SingleStreamEntryValve implements InputProcessor {
 
+    private static final int MAX_CHUNK_SIZE = 128;
     private Disruptor<IndexedEventFactory.IndexedEvent> singleEntryDisruptor;
-    private RingBuffer<IndexedEventFactory.IndexedEvent> ringBuffer;
+    private volatile RingBuffer<IndexedEventFactory.IndexedEvent> ringBuffer;
     private ExecutionPlanContext executionPlanContext;
     private InputProcessor inputProcessor;
+    private volatile int[] streamDataSizes = new int[0];
+    private volatile EventCodec[] eventCodecs = new EventCodec[0];
+    private SingleEntryValveHandler singleEntryValveHandler;
+    private RingBufferStatistics statistics;    //null when statistics are not enabled
 
 
     public SingleStreamEntryValve(ExecutionPlanContext executionPlanContext, InputProcessor inputProcessor) {
         this.executionPlanContext = executionPlanContext;
         this.inputProcessor = inputProcessor;
-        SingleEntryValveHandler singleEntryValveHandler = new SingleEntryValveHandler();
+        singleEntryValveHandler = new SingleEntryValveHandler();
         for (Constructor constructor : Disruptor.class.getConstructors()) {
             if (constructor.getParameterTypes().length == 5) {      //if new disruptor classes available
                 singleEntryDisruptor = new Disruptor<IndexedEventFactory.IndexedEvent>(new IndexedEventFactory(),
@@ -61,38 +75,166 @@ public class SingleStreamEntryValve implements InputProcessor {
         singleEntryDisruptor.handleEventsWith(singleEntryValveHandler);
     }
 
+    /**
+     * Register a stream sending events through the valve, so that ring buffer slots can hold its events
+     *
+     * @param streamIndex index of the stream used when sending events
+     * @param definition  definition of the stream
+     */
+    public synchronized void addStream(int streamIndex, AbstractDefinition definition) {
+        int[] sizes = streamDataSizes;
+        EventCodec[] codecs = eventCodecs;
+        if (streamIndex >= sizes.length) {
+            int[] newSizes = new int[streamIndex + 1];
+            System.arraycopy(sizes, 0, newSizes, 0, sizes.length);
+            sizes = newSizes;
+            EventCodec[] newCodecs = new EventCodec[streamIndex + 1];
+            System.arraycopy(codecs, 0, newCodecs, 0, codecs.length);
+            codecs = newCodecs;
+        }
+        sizes[streamIndex] = definition.getAttributeList().size();
+        codecs[streamIndex] = new EventCodec(definition);
+        eventCodecs = codecs;
+        streamDataSizes = sizes;
+    }
+
     @Override
     public void send(Event event, int streamIndex) {
+        RingBuffer<IndexedEventFactory.IndexedEvent> ringBuffer = startedRingBuffer();
+        long sequenceNo = claim(ringBuffer, 1);
         try {
-            long sequenceNo = ringBuffer.next();
+            IndexedEventFactory.IndexedEvent existingEvent = ringBuffer.get(sequenceNo);
+            existingEvent.setStreamIndex(streamIndex);
+            existingEvent.setColumnBatch(null, null);
+            existingEvent.borrowEvent(streamIndex, streamDataSizes).copyFrom(event);
+        } finally {
+            ringBuffer.publish(sequenceNo);
+        }
+    }
+
+    @Override
+    public void send(Event[] events, int streamIndex) {
+        RingBuffer<IndexedEventFactory.IndexedEvent> ringBuffer = startedRingBuffer();
+        int ringSize = ringBuffer.getBufferSize();
+        int[] dataSizes = streamDataSizes;
+        for (int offset = 0; offset < events.length; offset += ringSize) {
+            int batchSize = Math.min(events.length - offset, ringSize);
+            long hi = claim(ringBuffer, batchSize);
+            long lo = hi - (batchSize - 1);
             try {
-                IndexedEventFactory.IndexedEvent existingEvent = ringBuffer.get(sequenceNo);
-                existingEvent.setEvent(event);
-                existingEvent.setStreamIndex(streamIndex);
+                for (long sequenceNo = lo; sequenceNo <= hi; sequenceNo++) {
+                    IndexedEventFactory.IndexedEvent existingEvent = ringBuffer.get(sequenceNo);
+                    existingEvent.setStreamIndex(streamIndex);
+                    existingEvent.setColumnBatch(null, null);
+                    existingEvent.borrowEvent(streamIndex, dataSizes).copyFrom(events[offset + (int) (sequenceNo - lo)]);
+                }
             } finally {
-                ringBuffer.publish(sequenceNo);    //Todo fix this for array of events
+                ringBuffer.publish(lo, hi);
             }
-        } catch (NullPointerException e) {
-            throw new ExecutionPlanRuntimeException("Execution Plan:" + executionPlanContext.getName() + " not " +
-                    "initialised yet! Run executionPlanRuntime.start();", e);
         }
+    }
 
+    /**
+     * Copy the data in to the preallocated slot of the stream. The data is checked before the slot is claimed, as
+     * a claimed slot has to be published.
+     *
+     * @throws IllegalArgumentException if the data does not hold a value for each attribute of the stream
+     */
+    @Override
+    public void send(long timeStamp, Object[] data, int streamIndex) {
+        RingBuffer<IndexedEventFactory.IndexedEvent> ringBuffer = startedRingBuffer();
+        int[] dataSizes = streamDataSizes;
+        if (streamIndex < dataSizes.length && data.length != dataSizes[streamIndex]) {
+            throw new IllegalArgumentException("Event of " + data.length + " attributes is sent to a stream of " +
+                    dataSizes[streamIndex] + " attributes");
+        }
+        long sequenceNo = claim(ringBuffer, 1);
+        try {
+            IndexedEventFactory.IndexedEvent existingEvent = ringBuffer.get(sequenceNo);
+            existingEvent.setStreamIndex(streamIndex);
+            existingEvent.setColumnBatch(null, null);
+            Event event = existingEvent.borrowEvent(streamIndex, dataSizes);
+            event.setTimestamp(timeStamp);
+            event.setIsExpired(false);
+            System.arraycopy(data, 0, event.getData(), 0, data.length);
+        } finally {
+            ringBuffer.publish(sequenceNo);
+        }
     }
 
     @Override
-    public void send(Event[] events, int streamIndex) {
-        for (Event event : events) {
-            send(event, streamIndex);
+    public void send(long[] timeStamps, ColumnBatch columnBatch, int streamIndex) {
+        RingBuffer<IndexedEventFactory.IndexedEvent> ringBuffer = startedRingBuffer();
+        long sequenceNo = claim(ringBuffer, 1);
+        try {
+            IndexedEventFactory.IndexedEvent existingEvent = ringBuffer.get(sequenceNo);
+            existingEvent.setColumnBatch(timeStamps, columnBatch);
+            existingEvent.setStreamIndex(streamIndex);
+        } finally {
+            ringBuffer.publish(sequenceNo);
         }
     }
 
+    /**
+     * Decode the events directly in to the preallocated slots of the ring buffer. The buffer is checked to hold
+     * complete events before any slot is claimed, so that a truncated buffer is rejected as a whole.
+     *
+     * @throws IllegalArgumentException if the last event in the buffer is truncated
+     */
     @Override
-    public void send(long timeStamp, Object[] data, int streamIndex) {
-        send(new Event(timeStamp, data), streamIndex);
+    public void send(ByteBuffer buffer, int streamIndex) {
+        RingBuffer<IndexedEventFactory.IndexedEvent> ringBuffer = startedRingBuffer();
+        int[] dataSizes = streamDataSizes;
+        EventCodec eventCodec = eventCodecs[streamIndex];
+        int count = eventCodec.countEvents(buffer);
+        int ringSize = ringBuffer.getBufferSize();
+        for (int offset = 0; offset < count; offset += ringSize) {
+            int batchSize = Math.min(count - offset, ringSize);
+            long hi = claim(ringBuffer, batchSize);
+            long lo = hi - (batchSize - 1);
+            try {
+                for (long sequenceNo = lo; sequenceNo <= hi; sequenceNo++) {
+                    IndexedEventFactory.IndexedEvent existingEvent = ringBuffer.get(sequenceNo);
+                    existingEvent.setStreamIndex(streamIndex);
+                    existingEvent.setColumnBatch(null, null);
+                    eventCodec.decode(buffer, existingEvent.borrowEvent(streamIndex, dataSizes));
+                }
+            } finally {
+                ringBuffer.publish(lo, hi);
+            }
+        }
     }
 
     public synchronized void startProcessing() {
+        StatisticsManager statisticsManager = executionPlanContext.getStatisticsManager();
+        if (statisticsManager != null) {
+            RingBufferStatistics ringBufferStatistics = statisticsManager.createRingBufferStatistics("entryValve");
+            singleEntryValveHandler.consumerStatistics = ringBufferStatistics.addConsumer("entryValve");
+            statistics = ringBufferStatistics;
+        }
         ringBuffer = singleEntryDisruptor.start();
+        if (statistics != null) {
+            statistics.setRingBuffer(ringBuffer);
+        }
+    }
+
+    private RingBuffer<IndexedEventFactory.IndexedEvent> startedRingBuffer() {
+        RingBuffer<IndexedEventFactory.IndexedEvent> ringBuffer = this.ringBuffer;
+        if (ringBuffer == null) {
+            throw new ExecutionPlanRuntimeException("Execution Plan:" + executionPlanContext.getName() + " not " +
+                    "initialised yet! Run executionPlanRuntime.start();");
+        }
+        return ringBuffer;
+    }
+
+    private long claim(RingBuffer<IndexedEventFactory.IndexedEvent> ringBuffer, int batchSize) {
+        if (statistics == null) {
+            return ringBuffer.next(batchSize);
+        }
+        long startTime = System.nanoTime();
+        long sequenceNo = ringBuffer.next(batchSize);
+        statistics.claimed(startTime, batchSize);
+        return sequenceNo;
     }
 
     public synchronized void stopProcessing() {
@@ -101,8 +243,11 @@ public class SingleStreamEntryValve implements InputProcessor {
 
     public class SingleEntryValveHandler implements EventHandler<IndexedEventFactory.IndexedEvent> {
 
-        private List<Event> eventBuffer = new ArrayList<Event>();
+        private final Event[] eventBuffer = new Event[MAX_CHUNK_SIZE];
+        private final Event[][] chunks = new Event[MAX_CHUNK_SIZE + 1][];    //reusable arrays, indexed by length
+        private int bufferSize = 0;
         private int currentIndex = -1;
+        private ConsumerStatistics consumerStatistics;
 
         /**
          * Called when a publisher has published an event to the {@link com.lmax.disruptor.RingBuffer}
@@ -114,12 +259,24 @@ public class SingleStreamEntryValve implements InputProcessor {
          */
         @Override
         public void onEvent(IndexedEventFactory.IndexedEvent indexedEvent, long sequence, boolean endOfBatch) throws Exception {
+            if (consumerStatistics != null) {
+                consumerStatistics.consumed(sequence, endOfBatch);
+            }
             int streamIndex = indexedEvent.getStreamIndex();
-            if (currentIndex != streamIndex) {
+            if (indexedEvent.getColumnBatch() != null) {
                 sendEvents();
-                currentIndex = streamIndex;
+                currentIndex = -1;
+                inputProcessor.send(indexedEvent.getTimeStamps(), indexedEvent.getColumnBatch(), streamIndex);
+            } else {
+                if (currentIndex != streamIndex) {
+                    sendEvents();
+                    currentIndex = streamIndex;
+                }
+                eventBuffer[bufferSize++] = indexedEvent.getEvent();
+                if (bufferSize == MAX_CHUNK_SIZE) {
+                    sendEvents();
+                }
             }
-            eventBuffer.add(indexedEvent.getEvent());
 
             if (endOfBatch) {
                 sendEvents();
@@ -128,19 +285,25 @@ public class SingleStreamEntryValve implements InputProcessor {
         }
 
         private void sendEvents() {
-            int size = eventBuffer.size();
+            int size = bufferSize;
             switch (size) {
                 case 0: {
                     return;
                 }
                 case 1: {
-                    inputProcessor.send(eventBuffer.get(0), currentIndex);
-                    eventBuffer.clear();
+                    bufferSize = 0;
+                    inputProcessor.send(eventBuffer[0], currentIndex);
                     return;
                 }
                 default: {
-                    inputProcessor.send(eventBuffer.toArray(new Event[size]), currentIndex);
-                    eventBuffer.clear();
+                    bufferSize = 0;
+                    Event[] chunk = chunks[size];
+                    if (chunk == null) {
+                        chunk = new Event[size];
+                        chunks[size] = chunk;
+                    }
+                    System.arraycopy(eventBuffer, 0, chunk, 0, size);
+                    inputProcessor.send(chunk, currentIndex);
                 }
             }
         }
@@ -157,14 +320,53 @@ public class SingleStreamEntryValve implements InputProcessor {
         public class IndexedEvent {
 
             private int streamIndex;
-            private Event event;
+            private Event[] events = new Event[0];      //preallocated event of each stream, indexed by stream index
+            private long[] timeStamps;
+            private ColumnBatch columnBatch;
 
+            /**
+             * @return event of the current stream index, populated by the publisher
+             */
             public Event getEvent() {
+                return events[streamIndex];
+            }
+
+            /**
+             * Get the event of the slot for the given stream, allocating it on first use
+             *
+             * @param streamIndex index of the stream
+             * @param dataSizes   number of attributes of each stream, indexed by stream index
+             * @return event to be populated
+             */
+            public Event borrowEvent(int streamIndex, int[] dataSizes) {
+                if (streamIndex >= events.length) {
+                    if (streamIndex >= dataSizes.length) {
+                        throw new IllegalStateException("Stream index " + streamIndex + " has not been added to " +
+                                "the entry valve");
+                    }
+                    Event[] newEvents = new Event[dataSizes.length > streamIndex ? dataSizes.length : streamIndex + 1];
+                    System.arraycopy(events, 0, newEvents, 0, events.length);
+                    events = newEvents;
+                }
+                Event event = events[streamIndex];
+                if (event == null) {
+                    event = new Event(dataSizes[streamIndex]);
+                    events[streamIndex] = event;
+                }
                 return event;
             }
 
-            public void setEvent(Event event) {
-                this.event = event;
+            public long[] getTimeStamps() {
+                return timeStamps;
+            }
+
+            public ColumnBatch getColumnBatch() {
+                return columnBatch;
+            }
+
+            public void setColumnBatch(long[] timeStamps, ColumnBatch columnBatch) {
+                this.timeStamps = timeStamps;
+                this.columnBatch = columnBatch;
             }
 
             public int getStreamIndex() {
@@ -179,7 +381,7 @@ public class SingleStreamEntryValve implements InputProcessor {
             public String toString() {
                 return "IndexedEvent{" +
                         "streamIndex=" + streamIndex +
-                        ", event=" + event +
+                        ", event=" + (columnBatch == null && streamIndex < events.length ? events[streamIndex] : null) +
                         '}';
             }
         }
@@ -16,8 +16,10 @@
 package org.wso2.siddhi.core.stream.input;
 
 import org.wso2.siddhi.core.config.ExecutionPlanContext;
+import org.wso2.siddhi.core.event.ColumnBatch;
 import org.wso2.siddhi.core.event.Event;
 
+import java.nio.ByteBuffer;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -67,4 +69,24 @@ public class SingleThreadEntryValve implements InputProcessor {
             lock.unlock();
         }
     }
+
+    @Override
+    public void send(long[] timeStamps, ColumnBatch columnBatch, int streamIndex) {
+        lock.lock();
+        try {
+            inputProcessor.send(timeStamps, columnBatch, streamIndex);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void send(ByteBuffer buffer, int streamIndex) {
+        lock.lock();
+        try {
+            inputProcessor.send(buffer, streamIndex);
+        } finally {
+            lock.unlock();
+        }
+    }
 }
@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.siddhi.core.stream.input.recorder;
+
+import org.wso2.siddhi.core.event.ColumnBatch;
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.event.EventCodec;
+import org.wso2.siddhi.core.exception.ExecutionPlanRuntimeException;
+import org.wso2.siddhi.query.api.definition.AbstractDefinition;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Append only log of the events sent to a stream, written to memory mapped segment files named
+ * &lt;path&gt;-000000.log, &lt;path&gt;-000001.log, ... Each segment is laid out as
+ * <pre>
+ * magic (int) | version (int) | data length (long) | events encoded with the EventCodec of the stream
+ * </pre>
+ * where the data length is updated after each append, hence a segment is readable up to the last
+ * recorded event even when the recorder is not closed. Recording to an existing log continues with a
+ * new segment after its last one.
+ * <p/>
+ * Set on an InputHandler via setEventRecorder() to record the events sent through it, and read back by
+ * the EventReplayer.
+ */
+public class EventRecorder {
+
+    public static final int MAGIC = 0x5344454C;
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 16;
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+    private static final int DATA_LENGTH_POSITION = 8;
+
+    private final String path;
+    private final EventCodec eventCodec;
+    private final int segmentSize;
+    private final Object[] data;
+    private final byte[][] objects;         //serialized OBJECT values of the event being recorded
+    private int segmentIndex;
+    private MappedByteBuffer segment;
+
+    public EventRecorder(String path, AbstractDefinition definition) throws IOException {
+        this(path, definition, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * @param path        path prefix of the segment files
+     * @param definition  definition of the recorded stream
+     * @param segmentSize size of a segment file in bytes, which bounds the size of a recorded event
+     * @throws IOException if the first segment cannot be created
+     */
+    public EventRecorder(String path, AbstractDefinition definition, int segmentSize) throws IOException {
+        if (segmentSize <= HEADER_SIZE) {
+            throw new IllegalArgumentException("Segment size should be larger than " + HEADER_SIZE +
+                    ", but found " + segmentSize);
+        }
+        this.path = path;
+        this.eventCodec = new EventCodec(definition);
+        this.segmentSize = segmentSize;
+        this.data = new Object[eventCodec.getAttributeCount()];
+        this.objects = new byte[eventCodec.getAttributeCount()][];
+        File parent = new File(path).getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Cannot create directory " + parent.getAbsolutePath());
+        }
+        while (segmentFile(path, segmentIndex).exists()) {
+            segmentIndex++;
+        }
+        openSegment();
+    }
+
+    static File segmentFile(String path, int segmentIndex) {
+        return new File(String.format("%s-%06d.log", path, segmentIndex));
+    }
+
+    public synchronized void record(long timeStamp, Object[] data) {
+        int length = eventCodec.encodedSize(data, objects);
+        ensureCapacity(length);
+        eventCodec.encode(timeStamp, false, data, objects, segment);
+        commit();
+    }
+
+    public synchronized void record(Event event) {
+        int length = eventCodec.encodedSize(event.getData(), objects);
+        ensureCapacity(length);
+        eventCodec.encode(event.getTimestamp(), event.isExpired(), event.getData(), objects, segment);
+        commit();
+    }
+
+    public synchronized void record(Event[] events) {
+        for (Event event : events) {
+            int length = eventCodec.encodedSize(event.getData(), objects);
+            ensureCapacity(length);
+            eventCodec.encode(event.getTimestamp(), event.isExpired(), event.getData(), objects, segment);
+        }
+        commit();
+    }
+
+    public synchronized void record(long[] timeStamps, ColumnBatch columnBatch) {
+        for (int i = 0, size = columnBatch.size(); i < size; i++) {
+            columnBatch.copyRow(i, data);
+            int length = eventCodec.encodedSize(data, objects);
+            ensureCapacity(length);
+            eventCodec.encode(timeStamps[i], false, data, objects, segment);
+        }
+        commit();
+    }
+
+    /**
+     * Record the encoded events remaining in the buffer, without changing its position. Events are
+     * copied as they are, unless the byte order of the buffer differs from the big endian order of the log.
+     *
+     * @param buffer buffer holding events encoded with the EventCodec of the stream
+     * @throws IllegalArgumentException if the last event in the buffer is truncated, nothing is recorded then
+     */
+    public synchronized void record(ByteBuffer buffer) {
+        ByteBuffer events = buffer.duplicate();
+        events.order(buffer.order());
+        eventCodec.countEvents(events);
+        if (buffer.order() != ByteOrder.BIG_ENDIAN) {
+            while (events.hasRemaining()) {
+                long timeStamp = eventCodec.decode(events, data);
+                int length = eventCodec.encodedSize(data, objects);
+                ensureCapacity(length);
+                eventCodec.encode(timeStamp, false, data, objects, segment);
+            }
+            commit();
+            return;
+        }
+        while (events.hasRemaining()) {
+            int start = events.position();
+            int end = start;
+            int length = eventCodec.encodedLength(events);
+            ensureCapacity(length);
+            // copy as many whole events as fit in the current segment at once
+            do {
+                end += length;
+                events.position(end);
+            } while (events.hasRemaining() &&
+                    (length = eventCodec.encodedLength(events)) <= segment.remaining() - (end - start));
+            ByteBuffer run = buffer.duplicate();
+            run.limit(end);
+            run.position(start);
+            segment.put(run);
+        }
+        commit();
+    }
+
+    /**
+     * Flush the recorded events to disk and release the current segment, further events are not accepted
+     */
+    public synchronized void close() {
+        if (segment != null) {
+            segment.force();
+            segment = null;
+        }
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    private void ensureCapacity(int length) {
+        if (segment == null) {
+            throw new ExecutionPlanRuntimeException("Event recorder of " + path + " is closed");
+        }
+        if (length > segmentSize - HEADER_SIZE) {
+            throw new ExecutionPlanRuntimeException("Event of " + length + " bytes cannot be recorded in segments of "
+                    + segmentSize + " bytes at " + path);
+        }
+        if (segment.remaining() < length) {
+            commit();
+            segment.force();
+            segmentIndex++;
+            try {
+                openSegment();
+            } catch (IOException e) {
+                segment = null;
+                throw new ExecutionPlanRuntimeException("Cannot create segment " + segmentIndex + " of " + path, e);
+            }
+        }
+    }
+
+    private void commit() {
+        segment.putLong(DATA_LENGTH_POSITION, segment.position() - HEADER_SIZE);
+    }
+
+    private void openSegment() throws IOException {
+        RandomAccessFile file = new RandomAccessFile(segmentFile(path, segmentIndex), "rw");
+        try {
+            segment = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        } finally {
+            file.close();
+        }
+        segment.putInt(MAGIC);
+        segment.putInt(VERSION);
+        segment.putLong(0);
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.siddhi.core.stream.input.recorder;
+
+import org.wso2.siddhi.core.event.EventCodec;
+import org.wso2.siddhi.core.stream.input.InputHandler;
+import org.wso2.siddhi.query.api.definition.AbstractDefinition;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays an event log written by the EventRecorder in to an InputHandler. Segments are memory mapped
+ * read only and their encoded events are handed to InputHandler.send(ByteBuffer) as they are, hence
+ * events are decoded only once, directly in to the entry valve of the stream.
+ * <p/>
+ * Events are replayed either at full speed or at the pace they were recorded. When the execution plan
+ * is annotated with @Playback its time follows the replayed timestamps, hence time based processing
+ * produces the same results at both speeds.
+ */
+public class EventReplayer {
+
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+
+    private final String path;
+    private final EventCodec eventCodec;
+    private final int batchSize;
+
+    public EventReplayer(String path, AbstractDefinition definition) {
+        this(path, definition, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param path       path prefix of the event log segments
+     * @param definition definition of the recorded stream
+     * @param batchSize  maximum number of events handed to the input handler at once
+     */
+    public EventReplayer(String path, AbstractDefinition definition, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size of the event replayer should be positive, but found " +
+                    batchSize);
+        }
+        this.path = path;
+        this.eventCodec = new EventCodec(definition);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Replay all recorded events at full speed
+     *
+     * @param inputHandler input handler of the stream
+     * @throws IOException          if a segment cannot be read
+     * @throws InterruptedException
+     */
+    public void replay(InputHandler inputHandler) throws IOException, InterruptedException {
+        replay(inputHandler, false);
+    }
+
+    /**
+     * @param inputHandler input handler of the stream
+     * @param recordedPace whether to preserve the time gaps between the recorded timestamps
+     * @throws IOException          if a segment cannot be read
+     * @throws InterruptedException if interrupted while waiting for the next event
+     */
+    public void replay(InputHandler inputHandler, boolean recordedPace) throws IOException, InterruptedException {
+        long startTime = System.nanoTime();
+        long firstTimeStamp = -1;
+        for (int segmentIndex = 0; EventRecorder.segmentFile(path, segmentIndex).exists(); segmentIndex++) {
+            ByteBuffer events = mapSegment(segmentIndex);
+            if (!recordedPace) {
+                while (events.hasRemaining()) {
+                    int start = events.position();
+                    int count = 0;
+                    do {
+                        events.position(events.position() + eventCodec.encodedLength(events));
+                    } while (++count < batchSize && events.hasRemaining());
+                    send(inputHandler, events, start);
+                }
+                continue;
+            }
+            while (events.hasRemaining()) {
+                int start = events.position();
+                long timeStamp = events.getLong(start);
+                if (firstTimeStamp == -1) {
+                    firstTimeStamp = timeStamp;
+                }
+                awaitNanos(startTime + (timeStamp - firstTimeStamp) * 1000000);
+                // send the events which are already due along with this one
+                int count = 0;
+                do {
+                    events.position(events.position() + eventCodec.encodedLength(events));
+                } while (++count < batchSize && events.hasRemaining() &&
+                        (events.getLong(events.position()) - firstTimeStamp) * 1000000 <=
+                                System.nanoTime() - startTime);
+                send(inputHandler, events, start);
+            }
+        }
+    }
+
+    /**
+     * Send the events from start up to the current position of the segment
+     */
+    private static void send(InputHandler inputHandler, ByteBuffer events, int start) throws InterruptedException {
+        ByteBuffer slice = events.duplicate();
+        slice.limit(events.position());
+        slice.position(start);
+        inputHandler.send(slice);
+    }
+
+    private ByteBuffer mapSegment(int segmentIndex) throws IOException {
+        File segmentFile = EventRecorder.segmentFile(path, segmentIndex);
+        RandomAccessFile file = new RandomAccessFile(segmentFile, "r");
+        try {
+            FileChannel channel = file.getChannel();
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, EventRecorder.HEADER_SIZE);
+            if (header.getInt() != EventRecorder.MAGIC) {
+                throw new IOException(segmentFile.getAbsolutePath() + " is not an event log segment");
+            }
+            int version = header.getInt();
+            if (version != EventRecorder.VERSION) {
+                throw new IOException("Unsupported version " + version + " of event log segment " +
+                        segmentFile.getAbsolutePath());
+            }
+            long dataLength = header.getLong();
+            return channel.map(FileChannel.MapMode.READ_ONLY, EventRecorder.HEADER_SIZE, dataLength);
+        } finally {
+            file.close();
+        }
+    }
+
+    private static void awaitNanos(long deadline) throws InterruptedException {
+        long delay = deadline - System.nanoTime();
+        while (delay > 0) {
+            LockSupport.parkNanos(delay);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            delay = deadline - System.nanoTime();
+        }
+    }
+}
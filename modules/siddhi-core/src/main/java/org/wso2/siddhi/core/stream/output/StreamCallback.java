@@ -17,14 +17,18 @@ package org.wso2.siddhi.core.stream.output;
 import com.lmax.disruptor.EventFactory;
 import com.lmax.disruptor.EventHandler;
 import com.lmax.disruptor.RingBuffer;
-import com.lmax.disruptor.SleepingWaitStrategy;
 import com.lmax.disruptor.dsl.Disruptor;
 import com.lmax.disruptor.dsl.ProducerType;
 import org.apache.log4j.Logger;
+import org.wso2.siddhi.core.config.DisruptorConfig;
 import org.wso2.siddhi.core.config.ExecutionPlanContext;
+import org.wso2.siddhi.core.event.ColumnBatch;
 import org.wso2.siddhi.core.event.ComplexEvent;
 import org.wso2.siddhi.core.event.Event;
 import org.wso2.siddhi.core.stream.StreamJunction;
+import org.wso2.siddhi.core.util.statistics.ConsumerStatistics;
+import org.wso2.siddhi.core.util.statistics.RingBufferStatistics;
+import org.wso2.siddhi.core.util.statistics.StatisticsManager;
 import org.wso2.siddhi.query.api.definition.AbstractDefinition;
 
 import java.lang.reflect.Constructor;
@@ -41,6 +45,7 @@ public abstract class StreamCallback implements StreamJunction.Receiver {
     private List<Event> eventBuffer = new ArrayList<Event>();
     private ExecutionPlanContext executionPlanContext;
     private AsyncEventHandler asyncEventHandler;
+    private RingBufferStatistics statistics;    //null when statistics are not enabled
 
     private Disruptor<EventHolder> disruptor;
     private RingBuffer<EventHolder> ringBuffer;
@@ -80,16 +85,19 @@ public abstract class StreamCallback implements StreamJunction.Receiver {
 
     @Override
     public void receive(Event event) {
+        //event can be reused by the publisher once this returns
+        Event[] events = new Event[]{new Event(event.getData().length).copyFrom(event)};
         if (disruptor == null) {
-            receiveSync(new Event[]{event});
+            receiveSync(events);
         } else {
-            receiveAsync(new Event[]{event});
+            receiveAsync(events);
         }
     }
 
     @Override
     public void receive(Event event, boolean endOfBatch) {
-        eventBuffer.add(event);
+        //event is a ring buffer slot, which is reused once the batch is consumed
+        eventBuffer.add(new Event(event.getData().length).copyFrom(event));
         if (endOfBatch) {
             receiveSync(eventBuffer.toArray(new Event[eventBuffer.size()]));
             eventBuffer.clear();
@@ -104,6 +112,49 @@ public abstract class StreamCallback implements StreamJunction.Receiver {
         }
     }
 
+    @Override
+    public void receive(long[] timeStamps, ColumnBatch columnBatch) {
+        Event[] events = new Event[columnBatch.size()];
+        for (int row = 0; row < events.length; row++) {
+            events[row] = new Event(columnBatch.getColumnCount());
+            events[row].setTimestamp(timeStamps[row]);
+            columnBatch.copyRow(row, events[row].getData());
+        }
+        if (disruptor == null) {
+            receiveSync(events);
+        } else {
+            receiveAsync(events);
+        }
+    }
+
+    /**
+     * Receive events the publisher can reuse once this returns, such as the preallocated slots of the entry valve,
+     * handing copies of them to {@link #receive(Event[])} as the callback may keep the events it receives
+     *
+     * @param events events to be copied
+     */
+    public void receiveCopies(Event[] events) {
+        Event[] copies = new Event[events.length];
+        for (int i = 0; i < events.length; i++) {
+            copies[i] = new Event(events[i].getData().length).copyFrom(events[i]);
+        }
+        receiveOwned(copies);
+    }
+
+    /**
+     * Receive events the publisher does not reuse, such as the interned copies made by the stream junction,
+     * handing them to {@link #receive(Event[])} without copying
+     *
+     * @param events events to be handed over
+     */
+    public void receiveOwned(Event[] events) {
+        if (disruptor == null) {
+            receiveSync(events);
+        } else {
+            receiveAsync(events);
+        }
+    }
+
     public void receiveSync(Event[] events) {
         try {
             receive(events);
@@ -115,7 +166,7 @@ public abstract class StreamCallback implements StreamJunction.Receiver {
     public abstract void receive(Event[] events);
 
     private void receiveAsync(Event[] events) {
-        long sequenceNo = ringBuffer.next();
+        long sequenceNo = claim(1);
         try {
             EventHolder eventHolder = ringBuffer.get(sequenceNo);
             eventHolder.events = events;
@@ -127,6 +178,12 @@ public abstract class StreamCallback implements StreamJunction.Receiver {
     public synchronized void startProcessing() {
         Boolean asyncEnabled = null;
         if (asyncEnabled != null && asyncEnabled || asyncEnabled == null) {
+            DisruptorConfig disruptorConfig = DisruptorConfig.parse(streamDefinition.getAnnotations(),
+                    executionPlanContext.getSiddhiContext().getEventBufferSize());
+            ProducerType producerType = disruptorConfig.getProducerType();
+            if (producerType == null) {
+                producerType = ProducerType.SINGLE;
+            }
             for (Constructor constructor : Disruptor.class.getConstructors()) {
                 if (constructor.getParameterTypes().length == 5) {      //if new disruptor classes available
                     disruptor = new Disruptor<EventHolder>(new EventFactory<EventHolder>() {
@@ -135,8 +192,8 @@ public abstract class StreamCallback implements StreamJunction.Receiver {
                             return new EventHolder();
                         }
                     },
-                            executionPlanContext.getSiddhiContext().getEventBufferSize(),
-                            executionPlanContext.getExecutorService(), ProducerType.SINGLE, new SleepingWaitStrategy());
+                            disruptorConfig.getBufferSize(), executionPlanContext.getExecutorService(),
+                            producerType, disruptorConfig.constructWaitStrategy());
                     break;
                 }
             }
@@ -147,15 +204,32 @@ public abstract class StreamCallback implements StreamJunction.Receiver {
                         return new EventHolder();
                     }
                 },
-                        executionPlanContext.getSiddhiContext().getEventBufferSize(),
-                        executionPlanContext.getExecutorService());
+                        disruptorConfig.getBufferSize(), executionPlanContext.getExecutorService());
             }
             asyncEventHandler = new AsyncEventHandler(this);
+            StatisticsManager statisticsManager = executionPlanContext.getStatisticsManager();
+            if (statisticsManager != null) {
+                statistics = statisticsManager.createRingBufferStatistics("streamCallback:" + streamId);
+                asyncEventHandler.consumerStatistics = statistics.addConsumer(getClass().getName());
+            }
             disruptor.handleEventsWith(asyncEventHandler);
             ringBuffer = disruptor.start();
+            if (statistics != null) {
+                statistics.setRingBuffer(ringBuffer);
+            }
         }
     }
 
+    private long claim(int batchSize) {
+        if (statistics == null) {
+            return ringBuffer.next(batchSize);
+        }
+        long startTime = System.nanoTime();
+        long sequenceNo = ringBuffer.next(batchSize);
+        statistics.claimed(startTime, batchSize);
+        return sequenceNo;
+    }
+
     public synchronized void stopProcessing() {
         if (disruptor != null) {
             asyncEventHandler.streamCallback = null;
@@ -166,6 +240,7 @@ public abstract class StreamCallback implements StreamJunction.Receiver {
     public class AsyncEventHandler implements EventHandler<EventHolder> {
 
         private StreamCallback streamCallback;
+        private ConsumerStatistics consumerStatistics;
 
         public AsyncEventHandler(StreamCallback streamCallback) {
             this.streamCallback = streamCallback;
@@ -181,6 +256,9 @@ public abstract class StreamCallback implements StreamJunction.Receiver {
          */
         @Override
         public void onEvent(EventHolder eventHolder, long sequence, boolean endOfBatch) throws Exception {
+            if (consumerStatistics != null) {
+                consumerStatistics.consumed(sequence, endOfBatch);
+            }
             if (streamCallback != null) {
                 streamCallback.receive(eventHolder.events);
             }
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package org.wso2.siddhi.core.stream.overflow;
+
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.event.EventCodec;
+import org.wso2.siddhi.query.api.definition.AbstractDefinition;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * FIFO queue of events backed by a local file. Each event is written as an int length followed by
+ * its EventCodec encoding, and the file is truncated whenever the queue becomes empty.
+ */
+public class DiskEventQueue {
+
+    private final EventCodec eventCodec;
+    private final File file;
+    private final byte[][] objects;         //serialized OBJECT values of the event being added
+    private ByteBuffer frame = ByteBuffer.allocate(256);
+    private DataOutputStream out;
+    private DataInputStream in;
+    private boolean flushed = true;
+    private long size;
+
+    public DiskEventQueue(File directory, String prefix, AbstractDefinition definition) throws IOException {
+        eventCodec = new EventCodec(definition);
+        objects = new byte[eventCodec.getAttributeCount()][];
+        if (directory != null && !directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Cannot create directory " + directory.getAbsolutePath());
+        }
+        file = File.createTempFile(prefix, ".queue", directory);
+        file.deleteOnExit();
+        openStreams();
+    }
+
+    public synchronized void add(Event event) throws IOException {
+        int length = eventCodec.encodedSize(event.getData(), objects);
+        ensureCapacity(length);
+        eventCodec.encode(event.getTimestamp(), event.isExpired(), event.getData(), objects, frame);
+        out.writeInt(length);
+        out.write(frame.array(), 0, length);
+        flushed = false;
+        size++;
+    }
+
+    /**
+     * Remove the head of the queue
+     *
+     * @param event event to be populated with the head of the queue
+     * @return false if the queue is empty
+     * @throws IOException if the file cannot be read
+     */
+    public synchronized boolean poll(Event event) throws IOException {
+        if (size == 0) {
+            return false;
+        }
+        if (!flushed) {
+            out.flush();
+            flushed = true;
+        }
+        int length = in.readInt();
+        ensureCapacity(length);
+        in.readFully(frame.array(), 0, length);
+        frame.limit(length);
+        eventCodec.decode(frame, event);
+        size--;
+        if (size == 0) {
+            closeStreams();
+            openStreams();
+        }
+        return true;
+    }
+
+    private void ensureCapacity(int length) {
+        if (frame.capacity() < length) {
+            frame = ByteBuffer.allocate(Math.max(length, frame.capacity() * 2));
+        }
+        frame.clear();
+    }
+
+    public synchronized long size() {
+        return size;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Discard the queued events, keeping the file for further use
+     *
+     * @throws IOException if the file cannot be reopened
+     */
+    public synchronized void clear() throws IOException {
+        closeStreams();
+        openStreams();
+        size = 0;
+    }
+
+    /**
+     * Discard the queued events and delete the file
+     */
+    public synchronized void close() {
+        try {
+            closeStreams();
+        } catch (IOException ignored) {
+            //file is deleted anyway
+        }
+        size = 0;
+        file.delete();
+    }
+
+    private void openStreams() throws IOException {
+        out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        flushed = true;
+    }
+
+    private void closeStreams() throws IOException {
+        try {
+            out.close();
+        } finally {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.siddhi.core.stream.overflow;
+
+import com.lmax.disruptor.AlertException;
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.EventProcessor;
+import com.lmax.disruptor.InsufficientCapacityException;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.Sequence;
+import com.lmax.disruptor.SequenceBarrier;
+import org.apache.log4j.Logger;
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.query.api.definition.StreamDefinition;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Makes room for the events being published by dropping the oldest events not yet consumed.
+ * <p/>
+ * The ring buffer is gated by a drop cursor instead of the consumers. A publisher finding the ring
+ * buffer full moves the drop cursor past the sequences it needs and claims them right away, hence
+ * publishers never wait for the consumers, even when one is stuck. The consumers copy each event out
+ * of the ring buffer before delivering it, so that they do not hold any slot while their receivers
+ * process the events, and skip the sequences behind the drop cursor. A copy is checked against the
+ * drop cursor once taken, as the slot may have been claimed again while it was being copied.
+ */
+public class DropOldestOverflowPolicy extends OverflowPolicy {
+
+    private static final Logger log = Logger.getLogger(DropOldestOverflowPolicy.class);
+
+    private final Sequence dropCursor = new Sequence(-1);
+    private final List<DroppingEventProcessor> eventProcessors = new CopyOnWriteArrayList<DroppingEventProcessor>();
+    private final Sequence gatingSequence = new Sequence() {
+        @Override
+        public long get() {
+            long minimum = Long.MAX_VALUE;
+            for (DroppingEventProcessor eventProcessor : eventProcessors) {
+                minimum = Math.min(minimum, eventProcessor.getSequence().get());
+            }
+            return Math.max(minimum, dropCursor.get());
+        }
+    };
+
+    @Override
+    public EventProcessor createEventProcessor(RingBuffer<Event> ringBuffer, EventHandler<Event> eventHandler) {
+        DroppingEventProcessor eventProcessor = new DroppingEventProcessor(ringBuffer, eventHandler);
+        eventProcessors.add(eventProcessor);
+        return eventProcessor;
+    }
+
+    @Override
+    public void init(RingBuffer<Event> ringBuffer, StreamDefinition streamDefinition,
+                     ExecutorService executorService) {
+        super.init(ringBuffer, streamDefinition, executorService);
+        ringBuffer.addGatingSequences(gatingSequence);
+        for (DroppingEventProcessor eventProcessor : eventProcessors) {
+            ringBuffer.removeGatingSequence(eventProcessor.getSequence());
+        }
+    }
+
+    @Override
+    public long claim(int batchSize) {
+        while (true) {
+            try {
+                return ringBuffer.tryNext(batchSize);
+            } catch (InsufficientCapacityException e) {
+                drop(ringBuffer.getCursor() + batchSize - ringBuffer.getBufferSize());
+            }
+        }
+    }
+
+    /**
+     * Move the drop cursor up to the given sequence, unless another publisher has already moved it further
+     */
+    private void drop(long upTo) {
+        long current = dropCursor.get();
+        while (upTo > current && !dropCursor.compareAndSet(current, upTo)) {
+            current = dropCursor.get();
+        }
+    }
+
+    /**
+     * @return number of events skipped by the consumer that skipped the most, events delivered to a
+     * consumer before being dropped are not counted
+     */
+    @Override
+    public long getDroppedCount() {
+        long droppedCount = 0;
+        for (DroppingEventProcessor eventProcessor : eventProcessors) {
+            droppedCount = Math.max(droppedCount, eventProcessor.skippedCount);
+        }
+        return droppedCount;
+    }
+
+    /**
+     * Consumer of the ring buffer delivering copies of the events not dropped to its handler, the last
+     * copy delivered in each run is marked as the end of a batch
+     */
+    private final class DroppingEventProcessor implements EventProcessor {
+
+        private final RingBuffer<Event> ringBuffer;
+        private final SequenceBarrier sequenceBarrier;
+        private final EventHandler<Event> eventHandler;
+        private final Sequence sequence = new Sequence(-1);
+        private final AtomicBoolean running = new AtomicBoolean(false);
+        private final Event[] copies;
+        private final int mask;
+        private volatile long copiedSequence = -1;
+        private volatile long skippedCount = 0;
+
+        private DroppingEventProcessor(RingBuffer<Event> ringBuffer, EventHandler<Event> eventHandler) {
+            this.ringBuffer = ringBuffer;
+            this.sequenceBarrier = ringBuffer.newBarrier();
+            this.eventHandler = eventHandler;
+            this.copies = new Event[ringBuffer.getBufferSize()];
+            this.mask = copies.length - 1;
+        }
+
+        @Override
+        public Sequence getSequence() {
+            return sequence;
+        }
+
+        @Override
+        public void halt() {
+            running.set(false);
+            sequenceBarrier.alert();
+        }
+
+        public boolean isRunning() {
+            return running.get();
+        }
+
+        @Override
+        public void run() {
+            if (!running.compareAndSet(false, true)) {
+                throw new IllegalStateException("Thread is already running");
+            }
+            sequenceBarrier.clearAlert();
+            long nextSequence = sequence.get() + 1;
+            try {
+                while (true) {
+                    try {
+                        nextSequence = skipDropped(nextSequence);
+                        long availableSequence = sequenceBarrier.waitFor(nextSequence);
+                        long lastSequence = nextSequence - 1;
+                        while (lastSequence < availableSequence && copy(lastSequence + 1)) {
+                            lastSequence++;
+                        }
+                        if (lastSequence >= nextSequence) {
+                            //the slots are released before the copies are delivered
+                            sequence.set(lastSequence);
+                            for (long i = nextSequence; i <= lastSequence; i++) {
+                                eventHandler.onEvent(copies[(int) i & mask], i, i == lastSequence);
+                            }
+                            nextSequence = lastSequence + 1;
+                        }
+                    } catch (AlertException e) {
+                        if (!running.get()) {
+                            break;
+                        }
+                    } catch (Exception e) {
+                        if (e instanceof InterruptedException) {
+                            Thread.currentThread().interrupt();
+                            break;
+                        }
+                        log.error("Error while delivering the events of " + streamDefinition.getId(), e);
+                        nextSequence = sequence.get() + 1;
+                    }
+                }
+            } finally {
+                running.set(false);
+            }
+        }
+
+        /**
+         * @return the sequence to be consumed next, which is past the drop cursor
+         */
+        private long skipDropped(long nextSequence) {
+            long dropped = dropCursor.get();
+            if (nextSequence <= dropped) {
+                skippedCount += dropped + 1 - nextSequence;
+                sequence.set(dropped);
+                return dropped + 1;
+            }
+            return nextSequence;
+        }
+
+        /**
+         * @return whether the copy taken of the event is valid, which is not if it was dropped
+         */
+        private boolean copy(long eventSequence) {
+            Event event = ringBuffer.get(eventSequence);
+            Event copy = copies[(int) eventSequence & mask];
+            if (copy == null) {
+                copy = new Event(event.getData().length);
+                copies[(int) eventSequence & mask] = copy;
+            }
+            copy.copyFrom(event);
+            //the volatile write keeps the reads of the copy ahead of the read of the drop cursor
+            copiedSequence = eventSequence;
+            return eventSequence > dropCursor.get();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.stream.overflow;
+
+import org.wso2.siddhi.core.event.Event;
+
+/**
+ * Keeps the events an OverflowPolicy could not claim slots for, to be published later
+ */
+public interface EventSpiller {
+
+    /**
+     * @param event event to be kept, it is not referred after the call returns
+     */
+    void spill(Event event);
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.siddhi.core.stream.overflow;
+
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.EventProcessor;
+import com.lmax.disruptor.RingBuffer;
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.util.statistics.RingBufferStatistics;
+import org.wso2.siddhi.query.api.definition.StreamDefinition;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Wraps the overflow policy of a junction having statistics enabled, recording the time publishers
+ * wait for each claim and the number of events claimed
+ */
+public class InstrumentedOverflowPolicy extends OverflowPolicy {
+
+    private final OverflowPolicy overflowPolicy;
+    private final RingBufferStatistics statistics;
+
+    public InstrumentedOverflowPolicy(OverflowPolicy overflowPolicy, RingBufferStatistics statistics) {
+        this.overflowPolicy = overflowPolicy;
+        this.statistics = statistics;
+        statistics.setOverflowPolicy(overflowPolicy);
+    }
+
+    @Override
+    public void init(RingBuffer<Event> ringBuffer, StreamDefinition streamDefinition,
+                     ExecutorService executorService) {
+        super.init(ringBuffer, streamDefinition, executorService);
+        overflowPolicy.init(ringBuffer, streamDefinition, executorService);
+        statistics.setRingBuffer(ringBuffer);
+    }
+
+    @Override
+    public long claim(int batchSize) {
+        long startTime = System.nanoTime();
+        long sequence = overflowPolicy.claim(batchSize);
+        if (sequence >= 0) {
+            statistics.claimed(startTime, batchSize);
+        }
+        return sequence;
+    }
+
+    @Override
+    public EventSpiller getSpiller() {
+        return overflowPolicy.getSpiller();
+    }
+
+    @Override
+    public EventProcessor createEventProcessor(RingBuffer<Event> ringBuffer, EventHandler<Event> eventHandler) {
+        return overflowPolicy.createEventProcessor(ringBuffer, eventHandler);
+    }
+
+    @Override
+    public void stop() {
+        overflowPolicy.stop();
+    }
+
+    @Override
+    public long getDroppedCount() {
+        return overflowPolicy.getDroppedCount();
+    }
+
+    @Override
+    public long getSpilledCount() {
+        return overflowPolicy.getSpilledCount();
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+}
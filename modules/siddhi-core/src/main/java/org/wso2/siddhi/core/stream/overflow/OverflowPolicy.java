@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package org.wso2.siddhi.core.stream.overflow;
+
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.EventProcessor;
+import com.lmax.disruptor.RingBuffer;
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.query.api.definition.StreamDefinition;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides what a StreamJunction does when its ring buffer does not have room for the events
+ * being published, and counts the events it drops or spills in doing so
+ */
+public abstract class OverflowPolicy {
+
+    protected RingBuffer<Event> ringBuffer;
+    protected StreamDefinition streamDefinition;
+    protected ExecutorService executorService;
+    protected final AtomicLong droppedCount = new AtomicLong();
+    protected final AtomicLong spilledCount = new AtomicLong();
+
+    public void init(RingBuffer<Event> ringBuffer, StreamDefinition streamDefinition,
+                     ExecutorService executorService) {
+        this.ringBuffer = ringBuffer;
+        this.streamDefinition = streamDefinition;
+        this.executorService = executorService;
+    }
+
+    /**
+     * @return ring buffer the policy claims slots of
+     */
+    public RingBuffer<Event> getRingBuffer() {
+        return ringBuffer;
+    }
+
+    /**
+     * Claim consecutive slots of the ring buffer
+     *
+     * @param batchSize number of slots needed, not larger than the ring buffer size
+     * @return highest claimed sequence, or -1 if the events should not be published to the ring buffer
+     */
+    public abstract long claim(int batchSize);
+
+    /**
+     * @return spiller to be passed the events that could not be claimed, or null if such events are dropped
+     */
+    public EventSpiller getSpiller() {
+        return null;
+    }
+
+    /**
+     * Called for each consumer before the ring buffer is started
+     *
+     * @param ringBuffer   ring buffer of the junction
+     * @param eventHandler handler of the consumer
+     * @return processor running the handler, or null to run it with a BatchEventProcessor
+     */
+    public EventProcessor createEventProcessor(RingBuffer<Event> ringBuffer, EventHandler<Event> eventHandler) {
+        return null;
+    }
+
+    public void stop() {
+        //nothing to release by default
+    }
+
+    /**
+     * @return number of events dropped
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * @return number of events written to the spill queue
+     */
+    public long getSpilledCount() {
+        return spilledCount.get();
+    }
+}
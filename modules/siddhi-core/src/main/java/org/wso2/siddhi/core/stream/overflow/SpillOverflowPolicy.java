@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package org.wso2.siddhi.core.stream.overflow;
+
+import com.lmax.disruptor.InsufficientCapacityException;
+import com.lmax.disruptor.RingBuffer;
+import org.apache.log4j.Logger;
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.exception.ExecutionPlanRuntimeException;
+import org.wso2.siddhi.query.api.definition.StreamDefinition;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Writes the events that do not fit in the ring buffer to a DiskEventQueue, and republishes them
+ * from a separate thread as the consumers catch up. While the queue is not empty newly published
+ * events are also queued, so that events of a publisher reach the consumers in order.
+ */
+public class SpillOverflowPolicy extends OverflowPolicy implements EventSpiller {
+
+    private static final Logger log = Logger.getLogger(SpillOverflowPolicy.class);
+    private final File directory;
+    private final Object lock = new Object();
+    private DiskEventQueue queue;
+    private volatile boolean spilling = false;
+    private boolean draining = false;
+    private volatile boolean stopped = false;
+
+    /**
+     * @param directory directory of the queue file, system temp directory is used when null
+     */
+    public SpillOverflowPolicy(File directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public void init(RingBuffer<Event> ringBuffer, StreamDefinition streamDefinition,
+                     ExecutorService executorService) {
+        super.init(ringBuffer, streamDefinition, executorService);
+        try {
+            queue = new DiskEventQueue(directory, "siddhi-" + streamDefinition.getId() + "-", streamDefinition);
+        } catch (IOException e) {
+            throw new ExecutionPlanRuntimeException("Cannot create overflow queue for stream " +
+                    streamDefinition.getId() + " at " + directory, e);
+        }
+    }
+
+    @Override
+    public long claim(int batchSize) {
+        if (!spilling) {
+            try {
+                return ringBuffer.tryNext(batchSize);
+            } catch (InsufficientCapacityException e) {
+                //events are spilled
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public EventSpiller getSpiller() {
+        return this;
+    }
+
+    @Override
+    public void spill(Event event) {
+        synchronized (lock) {
+            if (stopped) {
+                droppedCount.incrementAndGet();
+                return;
+            }
+            try {
+                queue.add(event);
+            } catch (IOException e) {
+                log.error("Dropping event " + event + " of stream " + streamDefinition.getId() +
+                        ", as it cannot be written to the overflow queue " + queue.getFile(), e);
+                droppedCount.incrementAndGet();
+                return;
+            }
+            spilledCount.incrementAndGet();
+            spilling = true;
+            if (!draining) {
+                draining = true;
+                executorService.execute(new Drainer());
+            }
+        }
+    }
+
+    @Override
+    public void stop() {
+        synchronized (lock) {
+            stopped = true;
+            if (queue != null) {
+                droppedCount.addAndGet(queue.size());
+                queue.close();
+            }
+        }
+    }
+
+    /**
+     * @return number of events waiting in the spill queue
+     */
+    public long getQueueSize() {
+        synchronized (lock) {
+            return queue == null ? 0 : queue.size();
+        }
+    }
+
+    private class Drainer implements Runnable {
+
+        private final Event event = new Event(streamDefinition.getAttributeList().size());
+
+        @Override
+        public void run() {
+            while (true) {
+                synchronized (lock) {
+                    boolean polled = false;
+                    if (!stopped) {
+                        try {
+                            polled = queue.poll(event);
+                        } catch (IOException e) {
+                            log.error("Dropping " + queue.size() + " events of stream " +
+                                    streamDefinition.getId() + ", as the overflow queue " + queue.getFile() +
+                                    " cannot be read", e);
+                            droppedCount.addAndGet(queue.size());
+                            try {
+                                queue.clear();
+                            } catch (IOException e1) {
+                                log.error("Cannot reset the overflow queue " + queue.getFile(), e1);
+                            }
+                        }
+                    }
+                    if (!polled) {
+                        spilling = false;
+                        draining = false;
+                        return;
+                    }
+                }
+                long sequenceNo = ringBuffer.next();
+                try {
+                    ringBuffer.get(sequenceNo).copyFrom(event);
+                } finally {
+                    ringBuffer.publish(sequenceNo);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package org.wso2.siddhi.core.stream.overflow;
+
+import com.lmax.disruptor.InsufficientCapacityException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Blocks the publisher for at most the given timeout, and drops the events being published if
+ * the ring buffer is still full by then
+ */
+public class TimeoutOverflowPolicy extends OverflowPolicy {
+
+    private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private final long timeoutNanos;
+
+    /**
+     * @param timeout maximum time to wait for free slots, in milliseconds
+     */
+    public TimeoutOverflowPolicy(long timeout) {
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeout);
+    }
+
+    @Override
+    public long claim(int batchSize) {
+        long deadline = 0;
+        while (true) {
+            try {
+                return ringBuffer.tryNext(batchSize);
+            } catch (InsufficientCapacityException e) {
+                long now = System.nanoTime();
+                if (deadline == 0) {
+                    deadline = now + timeoutNanos;
+                } else if (now - deadline >= 0) {
+                    droppedCount.addAndGet(batchSize);
+                    return -1;
+                }
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+        }
+    }
+}
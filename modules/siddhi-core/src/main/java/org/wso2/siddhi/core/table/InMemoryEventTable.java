@@ -24,16 +24,22 @@ import org.wso2.siddhi.core.event.stream.StreamEvent;
 import org.wso2.siddhi.core.event.stream.StreamEventCloner;
 import org.wso2.siddhi.core.event.stream.StreamEventPool;
 import org.wso2.siddhi.core.executor.VariableExpressionExecutor;
+import org.wso2.siddhi.core.util.finder.EventIndex;
+import org.wso2.siddhi.core.util.finder.EventIndexSet;
 import org.wso2.siddhi.core.util.finder.Finder;
+import org.wso2.siddhi.core.util.finder.IndexedFinder;
 import org.wso2.siddhi.core.util.parser.SimpleFinderParser;
 import org.wso2.siddhi.query.api.definition.Attribute;
 import org.wso2.siddhi.query.api.definition.TableDefinition;
 import org.wso2.siddhi.query.api.expression.Expression;
 
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Created on 1/18/15.
@@ -45,6 +51,7 @@ public class InMemoryEventTable implements EventTable {
     private final LinkedList<StreamEvent> list = new LinkedList<StreamEvent>();
     private final StreamEventCloner streamEventCloner;
     private final StreamEventPool streamEventPool;
+    private final EventIndexSet eventIndexSet = new EventIndexSet();
 
 
     public InMemoryEventTable(TableDefinition tableDefinition, ExecutionPlanContext executionPlanContext) {
@@ -69,11 +76,34 @@ public class InMemoryEventTable implements EventTable {
         addingEventChunk.reset();
         while (addingEventChunk.hasNext()) {
             StreamEvent streamEvent = addingEventChunk.next();
-            list.add(streamEventCloner.copyStreamEvent(streamEvent));
+            StreamEvent addedEvent = streamEventCloner.copyStreamEvent(streamEvent);
+            list.add(addedEvent);
+            eventIndexSet.add(addedEvent);
         }
     }
 
     public synchronized void delete(ComplexEventChunk<StreamEvent> deletingEventChunk, Finder finder) {
+        EventIndex eventIndex = eventIndexSet.getIndex(finder);
+        if (eventIndex != null) {
+            //events are removed from the list in one pass, after looking up all the deleted events in the index
+            Set<StreamEvent> deletedEvents = Collections.newSetFromMap(new IdentityHashMap<StreamEvent, Boolean>());
+            deletingEventChunk.reset();
+            while (deletingEventChunk.hasNext()) {
+                for (StreamEvent streamEvent : eventIndex.findEvents(deletingEventChunk.next(), (IndexedFinder) finder)) {
+                    eventIndexSet.remove(streamEvent);
+                    deletedEvents.add(streamEvent);
+                }
+            }
+            if (!deletedEvents.isEmpty()) {
+                Iterator<StreamEvent> iterator = list.iterator();
+                while (iterator.hasNext()) {
+                    if (deletedEvents.contains(iterator.next())) {
+                        iterator.remove();
+                    }
+                }
+            }
+            return;
+        }
 
         deletingEventChunk.reset();
         while (deletingEventChunk.hasNext()) {
@@ -84,6 +114,7 @@ public class InMemoryEventTable implements EventTable {
                 StreamEvent streamEvent = iterator.next();
                 if (finder.execute(streamEvent)) {
                     iterator.remove();
+                    eventIndexSet.remove(streamEvent);
                 }
             }
             finder.setMatchingEvent(null);
@@ -93,18 +124,22 @@ public class InMemoryEventTable implements EventTable {
     }
 
     public synchronized void update(ComplexEventChunk<StreamEvent> updatingEventChunk, Finder finder, int[] mappingPosition) {
-
+        EventIndex eventIndex = eventIndexSet.getIndex(finder);
         updatingEventChunk.reset();
         while (updatingEventChunk.hasNext()) {
             StreamEvent matchStreamEvent = updatingEventChunk.next();
+            if (eventIndex != null) {
+                for (StreamEvent streamEvent : eventIndex.findEvents(matchStreamEvent, (IndexedFinder) finder)) {
+                    update(streamEvent, matchStreamEvent, mappingPosition);
+                }
+                continue;
+            }
             finder.setMatchingEvent(matchStreamEvent);
             Iterator<StreamEvent> iterator = list.iterator();
             while (iterator.hasNext()) {
                 StreamEvent streamEvent = iterator.next();
                 if (finder.execute(streamEvent)) {
-                    for (int i = 0, size = mappingPosition.length; i < size; i++) {
-                        streamEvent.setOutputData(matchStreamEvent.getOutputData()[i], mappingPosition[i]);
-                    }
+                    update(streamEvent, matchStreamEvent, mappingPosition);
                 }
             }
             finder.setMatchingEvent(null);
@@ -112,8 +147,20 @@ public class InMemoryEventTable implements EventTable {
 
     }
 
+    private void update(StreamEvent streamEvent, StreamEvent matchStreamEvent, int[] mappingPosition) {
+        eventIndexSet.remove(streamEvent);
+        for (int i = 0, size = mappingPosition.length; i < size; i++) {
+            streamEvent.setOutputData(matchStreamEvent.getOutputData()[i], mappingPosition[i]);
+        }
+        eventIndexSet.add(streamEvent);
+    }
+
 
     public synchronized boolean contains(ComplexEvent matchingEvent, Finder finder) {
+        EventIndex eventIndex = eventIndexSet.getIndex(finder);
+        if (eventIndex != null) {
+            return eventIndex.contains(matchingEvent, (IndexedFinder) finder);
+        }
         finder.setMatchingEvent(matchingEvent);
         for (StreamEvent streamEvent : list) {
             if (finder.execute(streamEvent)) {
@@ -124,7 +171,11 @@ public class InMemoryEventTable implements EventTable {
         return false;
     }
 
-    public synchronized StreamEvent find(ComplexEvent matchingEvent, Finder finder) {    //todo optimize
+    public synchronized StreamEvent find(ComplexEvent matchingEvent, Finder finder) {
+        EventIndex eventIndex = eventIndexSet.getIndex(finder);
+        if (eventIndex != null) {
+            return eventIndex.find(matchingEvent, (IndexedFinder) finder, streamEventCloner);
+        }
         finder.setMatchingEvent(matchingEvent);
         ComplexEventChunk<StreamEvent> returnEventChunk = new ComplexEventChunk<StreamEvent>();
         for (StreamEvent streamEvent : list) {
@@ -136,8 +187,8 @@ public class InMemoryEventTable implements EventTable {
         return returnEventChunk.getFirst();
     }
 
-    public Finder constructFinder(Expression expression, MetaComplexEvent metaComplexEvent, ExecutionPlanContext executionPlanContext, List<VariableExpressionExecutor> variableExpressionExecutors, Map<String, EventTable> eventTableMap, int matchingStreamIndex) {
-        return SimpleFinderParser.parse(expression, metaComplexEvent, executionPlanContext, variableExpressionExecutors, eventTableMap, matchingStreamIndex, tableDefinition);
+    public synchronized Finder constructFinder(Expression expression, MetaComplexEvent metaComplexEvent, ExecutionPlanContext executionPlanContext, List<VariableExpressionExecutor> variableExpressionExecutors, Map<String, EventTable> eventTableMap, int matchingStreamIndex) {
+        return eventIndexSet.register(SimpleFinderParser.parse(expression, metaComplexEvent, executionPlanContext, variableExpressionExecutors, eventTableMap, matchingStreamIndex, tableDefinition), list);
 
     }
 
@@ -27,17 +27,54 @@ public final class SiddhiConstants {
     public static final int STREAM_ATTRIBUTE_INDEX = 3;
 
     public static final String ANNOTATION_ELEMENT_CALLBACK_ASYNC = "callback.async";
+    public static final String ANNOTATION_ELEMENT_WAIT_STRATEGY = "wait";
+    public static final String ANNOTATION_ELEMENT_BUFFER_SIZE = "buffer";
+    public static final String ANNOTATION_ELEMENT_PRODUCER_TYPE = "producer";
+    public static final String ANNOTATION_ELEMENT_OVERFLOW = "overflow";
+    public static final String ANNOTATION_ELEMENT_OVERFLOW_TIMEOUT = "overflow.timeout";
+    public static final String ANNOTATION_ELEMENT_OVERFLOW_DIR = "overflow.dir";
+    public static final String ANNOTATION_ELEMENT_SHARD_BY = "shardBy";
+    public static final String ANNOTATION_ELEMENT_WORKERS = "workers";
+    public static final String ANNOTATION_ELEMENT_ORDERING = "ordering";
+    public static final String ANNOTATION_ELEMENT_JMX = "jmx";
+    public static final String ANNOTATION_ELEMENT_INTERVAL = "interval";
+    public static final String ANNOTATION_ELEMENT_LAYOUT = "layout";
+    public static final String ANNOTATION_ELEMENT_COMPILE = "compile";
+    public static final String ANNOTATION_ELEMENT_SHARE_WINDOW = "share.window";
 
     public static final String ANNOTATION_NAME = "Name";
     public static final String ANNOTATION_PLAYBACK = "Playback";
     public static final String ANNOTATION_ENFORCE_ORDER = "EnforceOrder";
     public static final String ANNOTATION_PARALLEL = "parallel";
+    public static final String ANNOTATION_STATISTICS = "Statistics";
+    public static final String ANNOTATION_DICTIONARY = "dictionary";
 
     //    public static final String ANNOTATION_CONFIG = "config";
 //    public static final String ANNOTATION_INFO = "info";
 //    public static final String ASYNC = "async";
     public static final String TRUE = "true";
 
+    public static final String WAIT_STRATEGY_SLEEPING = "sleeping";
+    public static final String WAIT_STRATEGY_YIELDING = "yielding";
+    public static final String WAIT_STRATEGY_BUSY_SPIN = "busyspin";
+    public static final String WAIT_STRATEGY_BLOCKING = "blocking";
+
+    public static final String PRODUCER_TYPE_SINGLE = "single";
+    public static final String PRODUCER_TYPE_MULTI = "multi";
+    public static final String PRODUCER_TYPE_LANES = "lanes";
+
+    public static final String ORDERING_FAIR = "fair";
+    public static final String ORDERING_TIMESTAMP = "timestamp";
+
+    public static final String LAYOUT_PRIMITIVE = "primitive";
+
+    public static final String OVERFLOW_BLOCK = "block";
+    public static final String OVERFLOW_BLOCK_TIMEOUT = "block.timeout";
+    public static final String OVERFLOW_DROP_NEWEST = "drop.newest";
+    public static final String OVERFLOW_DROP_OLDEST = "drop.oldest";
+    public static final String OVERFLOW_SPILL = "spill";
+    public static final long DEFAULT_OVERFLOW_TIMEOUT = 100;
+
 
     public static final int DEFAULT_EVENT_BUFFER_SIZE = 1024;
 
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.util.aggregation;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Aggregate of the values of a sliding window, for any associative combine function, including the ones
+ * which cannot be inverted on removal such as max, min or concatenation.
+ * <p/>
+ * Values are kept on two stacks. New values are pushed on the back stack, which keeps the aggregate of all
+ * its values. Values leave from the front stack, where each entry keeps the aggregate of itself and all the
+ * newer values of the front stack; when it runs empty the back stack is flipped on to it. When values leave
+ * the window in arrival order add, remove and get call combine amortized O(1) times. Removing any other
+ * value is supported as well, at the cost of rebuilding the stacks.
+ *
+ * @param <T> type of the values and of their aggregate
+ */
+public abstract class SlidingAggregate<T> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<T> frontValues = new ArrayList<T>();
+    private final List<T> frontAggregates = new ArrayList<T>();
+    private final List<T> backValues = new ArrayList<T>();
+    private T backAggregate;
+
+    /**
+     * Combines two aggregates, where the values of older arrived before all the values of newer.
+     * Combining has to be associative, but need not be commutative.
+     *
+     * @param older aggregate of the older values
+     * @param newer aggregate of the newer values
+     * @return aggregate of both
+     */
+    protected abstract T combine(T older, T newer);
+
+    public void add(T value) {
+        backAggregate = backValues.isEmpty() ? value : combine(backAggregate, value);
+        backValues.add(value);
+    }
+
+    /**
+     * @param value value leaving the window, nothing is removed when the window does not hold an equal value
+     */
+    public void remove(T value) {
+        if (frontValues.isEmpty()) {
+            flip();
+        }
+        int top = frontValues.size() - 1;
+        if (top < 0) {
+            return;
+        }
+        if (isSame(frontValues.get(top), value)) {
+            frontValues.remove(top);
+            frontAggregates.remove(top);
+            return;
+        }
+        List<T> values = new ArrayList<T>(size());
+        for (int i = top; i >= 0; i--) {
+            values.add(frontValues.get(i));
+        }
+        values.addAll(backValues);
+        for (int i = 0; i < values.size(); i++) {
+            if (isSame(values.get(i), value)) {
+                values.remove(i);
+                clear();
+                for (T current : values) {
+                    add(current);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return aggregate of the values in the window, null when the window is empty
+     */
+    public T get() {
+        if (frontValues.isEmpty()) {
+            return backValues.isEmpty() ? null : backAggregate;
+        }
+        T frontAggregate = frontAggregates.get(frontAggregates.size() - 1);
+        return backValues.isEmpty() ? frontAggregate : combine(frontAggregate, backAggregate);
+    }
+
+    public boolean isEmpty() {
+        return frontValues.isEmpty() && backValues.isEmpty();
+    }
+
+    public int size() {
+        return frontValues.size() + backValues.size();
+    }
+
+    public void clear() {
+        frontValues.clear();
+        frontAggregates.clear();
+        backValues.clear();
+        backAggregate = null;
+    }
+
+    protected boolean isSame(T value, T otherValue) {
+        return value == null ? otherValue == null : value.equals(otherValue);
+    }
+
+    private void flip() {
+        for (int i = backValues.size() - 1; i >= 0; i--) {
+            T value = backValues.get(i);
+            frontAggregates.add(frontValues.isEmpty() ? value : combine(value, frontAggregates.get(frontAggregates.size() - 1)));
+            frontValues.add(value);
+        }
+        backValues.clear();
+        backAggregate = null;
+    }
+}
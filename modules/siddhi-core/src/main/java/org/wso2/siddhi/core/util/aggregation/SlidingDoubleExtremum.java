@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.util.aggregation;
+
+import java.io.Serializable;
+
+/**
+ * Sliding window of double values, tracking the max or the min of the values currently in the window.
+ * <p/>
+ * Values are kept in arrival order in a ring buffer, next to a monotonic deque holding the sequence numbers of
+ * the values which can still become the extreme. When values leave the window in arrival order, as they do for
+ * length and time windows, add, remove and get are amortized O(1) and do not allocate. Removing any other value
+ * is supported as well, at the cost of rebuilding the deque.
+ */
+public class SlidingDoubleExtremum implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final boolean max;
+    private double[] values = new double[INITIAL_CAPACITY];
+    private long[] extremes = new long[INITIAL_CAPACITY];
+    private int mask = INITIAL_CAPACITY - 1;
+    private long first = 0;                 //sequence number of the oldest value
+    private int size = 0;
+    private int extremesHead = 0;
+    private int extremesSize = 0;
+
+    /**
+     * @param max whether the max of the window is tracked, else the min
+     */
+    public SlidingDoubleExtremum(boolean max) {
+        this.max = max;
+    }
+
+    public void add(double value) {
+        if (size == values.length) {
+            grow();
+        }
+        long sequence = first + size;
+        values[(int) (sequence & mask)] = value;
+        size++;
+        while (extremesSize > 0 && !exceeds(values[(int) (extremes[(extremesHead + extremesSize - 1) & mask] & mask)], value)) {
+            extremesSize--;
+        }
+        extremes[(extremesHead + extremesSize) & mask] = sequence;
+        extremesSize++;
+    }
+
+    /**
+     * @param value value leaving the window, nothing is removed when the window does not hold the value
+     */
+    public void remove(double value) {
+        if (size == 0) {
+            return;
+        }
+        if (isSame(values[(int) (first & mask)], value)) {
+            if (extremes[extremesHead] == first) {
+                extremesHead = (extremesHead + 1) & mask;
+                extremesSize--;
+            }
+            first++;
+            size--;
+            return;
+        }
+        double[] remaining = new double[size - 1];
+        int count = 0;
+        boolean found = false;
+        for (int i = 0; i < size; i++) {
+            double current = values[(int) ((first + i) & mask)];
+            if (!found && isSame(current, value)) {
+                found = true;
+            } else if (count < remaining.length) {
+                remaining[count++] = current;
+            }
+        }
+        if (found) {
+            clear();
+            for (double current : remaining) {
+                add(current);
+            }
+        }
+    }
+
+    /**
+     * @return the extreme of the values in the window, only valid when the window is not empty
+     */
+    public double get() {
+        return values[(int) (extremes[extremesHead] & mask)];
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        first = 0;
+        size = 0;
+        extremesHead = 0;
+        extremesSize = 0;
+    }
+
+    private boolean exceeds(double extreme, double value) {
+        return max ? extreme > value : extreme < value;
+    }
+
+    private static boolean isSame(double value, double otherValue) {
+        return value == otherValue || (value != value && otherValue != otherValue);
+    }
+
+    private void grow() {
+        int capacity = values.length << 1;
+        double[] newValues = new double[capacity];
+        long[] newExtremes = new long[capacity];
+        int newMask = capacity - 1;
+        for (int i = 0; i < size; i++) {
+            long sequence = first + i;
+            newValues[(int) (sequence & newMask)] = values[(int) (sequence & mask)];
+        }
+        for (int i = 0; i < extremesSize; i++) {
+            newExtremes[i] = extremes[(extremesHead + i) & mask];
+        }
+        values = newValues;
+        extremes = newExtremes;
+        mask = newMask;
+        extremesHead = 0;
+    }
+}
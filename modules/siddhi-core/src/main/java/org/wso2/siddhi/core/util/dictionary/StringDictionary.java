@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.util.dictionary;
+
+import org.wso2.siddhi.core.util.snapshot.Snapshotable;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dictionary of the values of a low cardinality STRING attribute, mapping each distinct value to a dense
+ * int code and to a single canonical String instance.
+ * <p/>
+ * Values are interned to their canonical instance when entering the stream, on the copies of the published
+ * events the junction hands to its receivers, such that events repeating a value share the same instance,
+ * and equality checks on them succeed on the reference comparison. Group by keys are built from the codes
+ * of the values instead of their characters.
+ * <p/>
+ * Codes are assigned in the order values are first seen and are never reused, hence the dictionary grows
+ * with the number of distinct values and should only be used on attributes with a bounded set of values.
+ * The dictionary is a Snapshotable, such that codes held in persisted state stay valid on restore.
+ * <p/>
+ * Group by and frequent window state keyed by codes is not compatible with state persisted before the
+ * attribute was dictionary encoded, which is keyed by the String of the values. Such state restores without
+ * errors, but its groups are not matched by the events arriving after the restore.
+ */
+public class StringDictionary implements Snapshotable {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final String elementId;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+    private volatile String[] values = new String[INITIAL_CAPACITY];
+    private int size = 0;                                   //guarded by this
+
+    public StringDictionary(String elementId) {
+        this.elementId = elementId;
+    }
+
+    /**
+     * @param value value of the attribute, may be null
+     * @return the canonical instance equal to the value, which is added to the dictionary when not present
+     */
+    public String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        Entry entry = entries.get(value);
+        if (entry == null) {
+            entry = add(value);
+        }
+        return entry.value;
+    }
+
+    /**
+     * @param value value of the attribute, not null
+     * @return code of the value, which is added to the dictionary when not present
+     */
+    public int encode(String value) {
+        Entry entry = entries.get(value);
+        if (entry == null) {
+            entry = add(value);
+        }
+        return entry.code;
+    }
+
+    /**
+     * @param code code returned by encode()
+     * @return canonical instance of the value of the code
+     */
+    public String decode(int code) {
+        String[] values = this.values;
+        if (code < 0 || code >= values.length || values[code] == null) {
+            throw new IllegalArgumentException("Code " + code + " is not defined in dictionary " + elementId);
+        }
+        return values[code];
+    }
+
+    /**
+     * @return number of distinct values in the dictionary
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    private synchronized Entry add(String value) {
+        Entry entry = entries.get(value);
+        if (entry == null) {
+            //copy such that the dictionary does not retain a larger char array the value may be backed by
+            entry = new Entry(new String(value), size);
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size << 1);
+            }
+            values[size++] = entry.value;
+            entries.put(entry.value, entry);
+        }
+        return entry;
+    }
+
+    @Override
+    public synchronized Object[] currentState() {
+        return new Object[]{Arrays.copyOf(values, size)};
+    }
+
+    @Override
+    public synchronized void restoreState(Object[] state) {
+        if (state == null) {
+            //snapshot persisted before the attribute was dictionary encoded
+            return;
+        }
+        String[] restoredValues = (String[]) state[0];
+        entries.clear();
+        values = new String[Math.max(INITIAL_CAPACITY, restoredValues.length)];
+        size = 0;
+        for (String value : restoredValues) {
+            Entry entry = new Entry(value, size);
+            values[size++] = value;
+            entries.put(value, entry);
+        }
+    }
+
+    @Override
+    public String getElementId() {
+        return elementId;
+    }
+
+    private static class Entry {
+        private final String value;
+        private final int code;
+
+        private Entry(String value, int code) {
+            this.value = value;
+            this.code = code;
+        }
+    }
+}
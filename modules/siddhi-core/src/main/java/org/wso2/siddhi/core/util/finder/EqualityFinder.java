@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.siddhi.core.util.finder;
+
+import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.query.api.definition.Attribute;
+
+import java.util.Arrays;
+
+/**
+ * Finder whose condition has equality conjuncts between attributes of the candidate events and values of the
+ * matching event, looked up in a {@link HashEventIndex}.
+ */
+public class EqualityFinder extends IndexedFinder {
+    private final ExpressionExecutor[] matchingExecutors;
+
+    /**
+     * @param matchingExecutors executors of the values the attributes are compared with
+     */
+    public EqualityFinder(ExpressionExecutor expressionExecutor, int candidateEventPosition, int matchingEventPosition,
+                          int size, int[][] candidatePositions, Attribute.Type[] keyTypes,
+                          ExpressionExecutor[] matchingExecutors) {
+        super(expressionExecutor, candidateEventPosition, matchingEventPosition, size, candidatePositions, keyTypes);
+        this.matchingExecutors = matchingExecutors;
+    }
+
+    @Override
+    public EventIndex createIndex() {
+        return new HashEventIndex(candidatePositions, keyTypes);
+    }
+
+    /**
+     * @return the key of the candidate events which can match the matching event, or null when none can
+     */
+    public Object getMatchingKey() {
+        if (matchingExecutors.length == 1) {
+            return EventIndex.toKey(executeOnMatchingEvent(matchingExecutors[0]), keyTypes[0]);
+        }
+        Object[] keys = new Object[matchingExecutors.length];
+        for (int i = 0; i < matchingExecutors.length; i++) {
+            keys[i] = EventIndex.toKey(executeOnMatchingEvent(matchingExecutors[i]), keyTypes[i]);
+            if (keys[i] == null) {
+                return null;
+            }
+        }
+        return Arrays.asList(keys);
+    }
+
+    @Override
+    public Finder cloneFinder() {
+        return new EqualityFinder(expressionExecutor, candidateEventPosition, matchingEventPosition, size,
+                candidatePositions, keyTypes, matchingExecutors);
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.siddhi.core.util.finder;
+
+import org.wso2.siddhi.core.event.ComplexEvent;
+import org.wso2.siddhi.core.event.ComplexEventChunk;
+import org.wso2.siddhi.core.event.stream.StreamEvent;
+import org.wso2.siddhi.core.event.stream.StreamEventCloner;
+import org.wso2.siddhi.query.api.definition.Attribute;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Index over the events held by a window or a table, giving the events which can satisfy the condition of an
+ * {@link IndexedFinder} for a matching event, such that only those are checked against the whole condition.
+ */
+public abstract class EventIndex {
+
+    public abstract void add(StreamEvent streamEvent);
+
+    public abstract void remove(StreamEvent streamEvent);
+
+    public abstract void clear();
+
+    /**
+     * @param finder the finder whose matching event is set
+     * @return the events which can match the matching event of the finder, or null
+     */
+    protected abstract List<StreamEvent> getCandidates(IndexedFinder finder);
+
+    /**
+     * Find the events of the index matching the given event
+     *
+     * @return the copies of the matched events, chained
+     */
+    public StreamEvent find(ComplexEvent matchingEvent, IndexedFinder finder, StreamEventCloner streamEventCloner) {
+        finder.setMatchingEvent(matchingEvent);
+        ComplexEventChunk<StreamEvent> returnEventChunk = new ComplexEventChunk<StreamEvent>();
+        List<StreamEvent> candidates = getCandidates(finder);
+        if (candidates != null) {
+            for (StreamEvent streamEvent : candidates) {
+                if (finder.execute(streamEvent)) {
+                    returnEventChunk.add(streamEventCloner.copyStreamEvent(streamEvent));
+                }
+            }
+        }
+        finder.setMatchingEvent(null);
+        return returnEventChunk.getFirst();
+    }
+
+    /**
+     * Find the events of the index matching the given event, to be removed or updated by the caller
+     *
+     * @return the matched events themselves, in a list the index does not refer
+     */
+    public List<StreamEvent> findEvents(ComplexEvent matchingEvent, IndexedFinder finder) {
+        finder.setMatchingEvent(matchingEvent);
+        List<StreamEvent> matchedEvents = new ArrayList<StreamEvent>();
+        List<StreamEvent> candidates = getCandidates(finder);
+        if (candidates != null) {
+            for (StreamEvent streamEvent : candidates) {
+                if (finder.execute(streamEvent)) {
+                    matchedEvents.add(streamEvent);
+                }
+            }
+        }
+        finder.setMatchingEvent(null);
+        return matchedEvents;
+    }
+
+    public boolean contains(ComplexEvent matchingEvent, IndexedFinder finder) {
+        finder.setMatchingEvent(matchingEvent);
+        boolean found = false;
+        List<StreamEvent> candidates = getCandidates(finder);
+        if (candidates != null) {
+            for (StreamEvent streamEvent : candidates) {
+                if (finder.execute(streamEvent)) {
+                    found = true;
+                    break;
+                }
+            }
+        }
+        finder.setMatchingEvent(null);
+        return found;
+    }
+
+    /**
+     * Convert a value to the type it is compared in, such that values compared equal have equal keys. Signed
+     * zeros are merged as they are equal when compared, and NaN and null are converted to null as they equal no
+     * value.
+     */
+    public static Object toKey(Object value, Attribute.Type compareType) {
+        if (value == null) {
+            return null;
+        }
+        switch (compareType) {
+            case LONG:
+                return ((Number) value).longValue();
+            case FLOAT: {
+                float floatValue = ((Number) value).floatValue();
+                return Float.isNaN(floatValue) ? null : floatValue + 0f;
+            }
+            case DOUBLE: {
+                double doubleValue = ((Number) value).doubleValue();
+                return Double.isNaN(doubleValue) ? null : doubleValue + 0d;
+            }
+            default:
+                return value;
+        }
+    }
+
+    /**
+     * Remove the given event from the list, comparing by identity as events holding equal data are equal
+     */
+    protected static void removeEvent(List<StreamEvent> events, StreamEvent streamEvent) {
+        //windows mostly expire their oldest events, which are at the head of the list
+        for (int i = 0, size = events.size(); i < size; i++) {
+            if (events.get(i) == streamEvent) {
+                events.remove(i);
+                break;
+            }
+        }
+    }
+}
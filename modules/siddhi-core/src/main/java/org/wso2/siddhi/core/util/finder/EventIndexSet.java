@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.siddhi.core.util.finder;
+
+import org.wso2.siddhi.core.event.ComplexEventChunk;
+import org.wso2.siddhi.core.event.stream.StreamEvent;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * The {@link EventIndex}es of a window or a table, one for each {@link IndexedFinder} constructed by it. The window
+ * adds and removes its events to the set as they arrive and expire.
+ */
+public class EventIndexSet {
+    private final Map<int[][], EventIndex> indexMap = new IdentityHashMap<int[][], EventIndex>();
+    private EventIndex[] indexes = new EventIndex[0];
+
+    /**
+     * Create the index looked up by the finder, if it is an {@link IndexedFinder}
+     *
+     * @return the finder
+     */
+    public Finder register(Finder finder) {
+        return register(finder, null);
+    }
+
+    /**
+     * Create the index looked up by the finder, if it is an {@link IndexedFinder}, adding the given events
+     * already held to it
+     *
+     * @return the finder
+     */
+    public Finder register(Finder finder, Iterable<StreamEvent> events) {
+        if (finder instanceof IndexedFinder && !indexMap.containsKey(((IndexedFinder) finder).getCandidatePositions())) {
+            EventIndex eventIndex = ((IndexedFinder) finder).createIndex();
+            if (events != null) {
+                for (StreamEvent streamEvent : events) {
+                    eventIndex.add(streamEvent);
+                }
+            }
+            indexMap.put(((IndexedFinder) finder).getCandidatePositions(), eventIndex);
+            indexes = indexMap.values().toArray(new EventIndex[indexMap.size()]);
+        }
+        return finder;
+    }
+
+    /**
+     * @return the index to look up for the finder, or null when the events are to be scanned
+     */
+    public EventIndex getIndex(Finder finder) {
+        if (indexes.length == 0 || !(finder instanceof IndexedFinder)) {
+            return null;
+        }
+        return indexMap.get(((IndexedFinder) finder).getCandidatePositions());
+    }
+
+    public void add(StreamEvent streamEvent) {
+        for (EventIndex index : indexes) {
+            index.add(streamEvent);
+        }
+    }
+
+    public void remove(StreamEvent streamEvent) {
+        for (EventIndex index : indexes) {
+            index.remove(streamEvent);
+        }
+    }
+
+    public void clear() {
+        for (EventIndex index : indexes) {
+            index.clear();
+        }
+    }
+
+    /**
+     * Rebuild the indexes from the events of the chunk, used when the window state is restored
+     */
+    public void rebuild(ComplexEventChunk<StreamEvent> eventChunk) {
+        clear();
+        if (indexes.length != 0) {
+            eventChunk.reset();
+            while (eventChunk.hasNext()) {
+                add(eventChunk.next());
+            }
+            eventChunk.reset();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.siddhi.core.util.finder;
+
+import org.wso2.siddhi.core.event.stream.StreamEvent;
+import org.wso2.siddhi.query.api.definition.Attribute;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hash index keyed by the attributes an {@link EqualityFinder} compares for equality. Events having the same key
+ * are kept in the order they are added to the index.
+ */
+public class HashEventIndex extends EventIndex {
+    private final int[][] attributePositions;
+    private final Attribute.Type[] keyTypes;
+    private final Map<Object, List<StreamEvent>> buckets = new HashMap<Object, List<StreamEvent>>();
+
+    public HashEventIndex(int[][] attributePositions, Attribute.Type[] keyTypes) {
+        this.attributePositions = attributePositions;
+        this.keyTypes = keyTypes;
+    }
+
+    @Override
+    public void add(StreamEvent streamEvent) {
+        Object key = getKey(streamEvent);
+        if (key == null) {
+            return;
+        }
+        List<StreamEvent> bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = new ArrayList<StreamEvent>(2);
+            buckets.put(key, bucket);
+        }
+        bucket.add(streamEvent);
+    }
+
+    @Override
+    public void remove(StreamEvent streamEvent) {
+        Object key = getKey(streamEvent);
+        if (key == null) {
+            return;
+        }
+        List<StreamEvent> bucket = buckets.get(key);
+        if (bucket == null) {
+            return;
+        }
+        removeEvent(bucket, streamEvent);
+        if (bucket.isEmpty()) {
+            buckets.remove(key);
+        }
+    }
+
+    @Override
+    public void clear() {
+        buckets.clear();
+    }
+
+    /**
+     * @return the events having the given key, or null
+     */
+    public List<StreamEvent> get(Object key) {
+        return key == null ? null : buckets.get(key);
+    }
+
+    @Override
+    protected List<StreamEvent> getCandidates(IndexedFinder finder) {
+        return get(((EqualityFinder) finder).getMatchingKey());
+    }
+
+    public Object getKey(StreamEvent streamEvent) {
+        if (attributePositions.length == 1) {
+            return toKey(streamEvent.getAttribute(attributePositions[0]), keyTypes[0]);
+        }
+        Object[] keys = new Object[attributePositions.length];
+        for (int i = 0; i < attributePositions.length; i++) {
+            keys[i] = toKey(streamEvent.getAttribute(attributePositions[i]), keyTypes[i]);
+            if (keys[i] == null) {
+                return null;
+            }
+        }
+        return Arrays.asList(keys);
+    }
+}
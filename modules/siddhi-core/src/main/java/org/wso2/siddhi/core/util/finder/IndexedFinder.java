@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.siddhi.core.util.finder;
+
+import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.query.api.definition.Attribute;
+
+/**
+ * Finder whose condition has conjuncts comparing attributes of the candidate events with values of the matching
+ * event, such that the candidates can be looked up in an {@link EventIndex} on those attributes before checking the
+ * whole condition.
+ */
+public abstract class IndexedFinder extends SimpleFinder {
+    protected final int[][] candidatePositions;
+    protected final Attribute.Type[] keyTypes;
+
+    /**
+     * @param candidatePositions positions of the compared attributes of the candidate events
+     * @param keyTypes           types the attributes are compared in
+     */
+    protected IndexedFinder(ExpressionExecutor expressionExecutor, int candidateEventPosition,
+                            int matchingEventPosition, int size, int[][] candidatePositions,
+                            Attribute.Type[] keyTypes) {
+        super(expressionExecutor, candidateEventPosition, matchingEventPosition, size);
+        this.candidatePositions = candidatePositions;
+        this.keyTypes = keyTypes;
+    }
+
+    /**
+     * @return the positions of the compared attributes, shared by the clones of the finder. The positions are
+     * resolved after the finder is constructed, hence the index of a finder is identified by this array.
+     */
+    public int[][] getCandidatePositions() {
+        return candidatePositions;
+    }
+
+    /**
+     * @return a new empty index the finder can look up
+     */
+    public abstract EventIndex createIndex();
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.siddhi.core.util.finder;
+
+import org.wso2.siddhi.core.event.stream.StreamEvent;
+import org.wso2.siddhi.query.api.definition.Attribute;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Sorted index on the attribute a {@link RangeFinder} bounds, such that the candidates of a matching event are the
+ * events in the range of its bounds. Events having the same value are kept in the order they are added.
+ */
+public class RangeEventIndex extends EventIndex {
+    private final int[] attributePosition;
+    private final Attribute.Type keyType;
+    private final TreeMap<Object, List<StreamEvent>> buckets = new TreeMap<Object, List<StreamEvent>>();
+
+    public RangeEventIndex(int[] attributePosition, Attribute.Type keyType) {
+        this.attributePosition = attributePosition;
+        this.keyType = keyType;
+    }
+
+    @Override
+    public void add(StreamEvent streamEvent) {
+        Object key = toKey(streamEvent.getAttribute(attributePosition), keyType);
+        if (key == null) {
+            return;
+        }
+        List<StreamEvent> bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = new ArrayList<StreamEvent>(2);
+            buckets.put(key, bucket);
+        }
+        bucket.add(streamEvent);
+    }
+
+    @Override
+    public void remove(StreamEvent streamEvent) {
+        Object key = toKey(streamEvent.getAttribute(attributePosition), keyType);
+        if (key == null) {
+            return;
+        }
+        List<StreamEvent> bucket = buckets.get(key);
+        if (bucket == null) {
+            return;
+        }
+        removeEvent(bucket, streamEvent);
+        if (bucket.isEmpty()) {
+            buckets.remove(key);
+        }
+    }
+
+    @Override
+    public void clear() {
+        buckets.clear();
+    }
+
+    @Override
+    protected List<StreamEvent> getCandidates(IndexedFinder finder) {
+        RangeFinder rangeFinder = (RangeFinder) finder;
+        if (!rangeFinder.computeBounds()) {
+            return null;
+        }
+        NavigableMap<Object, List<StreamEvent>> range = buckets;
+        if (rangeFinder.getLowerBound() != null && rangeFinder.getUpperBound() != null) {
+            range = buckets.subMap(rangeFinder.getLowerBound(), rangeFinder.isLowerBoundInclusive(),
+                    rangeFinder.getUpperBound(), rangeFinder.isUpperBoundInclusive());
+        } else if (rangeFinder.getLowerBound() != null) {
+            range = buckets.tailMap(rangeFinder.getLowerBound(), rangeFinder.isLowerBoundInclusive());
+        } else if (rangeFinder.getUpperBound() != null) {
+            range = buckets.headMap(rangeFinder.getUpperBound(), rangeFinder.isUpperBoundInclusive());
+        }
+        List<StreamEvent> candidates = new ArrayList<StreamEvent>();
+        for (List<StreamEvent> bucket : range.values()) {
+            candidates.addAll(bucket);
+        }
+        return candidates;
+    }
+}
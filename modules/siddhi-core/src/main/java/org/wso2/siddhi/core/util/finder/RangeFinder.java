@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.siddhi.core.util.finder;
+
+import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.query.api.definition.Attribute;
+
+/**
+ * Finder whose condition has conjuncts bounding an attribute of the candidate events by values of the matching
+ * event, looked up in a {@link RangeEventIndex}.
+ */
+public class RangeFinder extends IndexedFinder {
+    private final ExpressionExecutor[] lowerBoundExecutors;
+    private final boolean[] lowerBoundsInclusive;
+    private final ExpressionExecutor[] upperBoundExecutors;
+    private final boolean[] upperBoundsInclusive;
+    private Object lowerBound;
+    private boolean lowerBoundInclusive;
+    private Object upperBound;
+    private boolean upperBoundInclusive;
+
+    /**
+     * @param candidatePosition    position of the bounded attribute of the candidate events
+     * @param keyType              type the attribute is compared in
+     * @param lowerBoundExecutors  executors of the values the attribute is to be greater than
+     * @param lowerBoundsInclusive whether the attribute can also equal the corresponding lower bound
+     * @param upperBoundExecutors  executors of the values the attribute is to be less than
+     * @param upperBoundsInclusive whether the attribute can also equal the corresponding upper bound
+     */
+    public RangeFinder(ExpressionExecutor expressionExecutor, int candidateEventPosition, int matchingEventPosition,
+                       int size, int[] candidatePosition, Attribute.Type keyType,
+                       ExpressionExecutor[] lowerBoundExecutors, boolean[] lowerBoundsInclusive,
+                       ExpressionExecutor[] upperBoundExecutors, boolean[] upperBoundsInclusive) {
+        this(expressionExecutor, candidateEventPosition, matchingEventPosition, size, new int[][]{candidatePosition},
+                new Attribute.Type[]{keyType}, lowerBoundExecutors, lowerBoundsInclusive, upperBoundExecutors,
+                upperBoundsInclusive);
+    }
+
+    private RangeFinder(ExpressionExecutor expressionExecutor, int candidateEventPosition, int matchingEventPosition,
+                        int size, int[][] candidatePositions, Attribute.Type[] keyTypes,
+                        ExpressionExecutor[] lowerBoundExecutors, boolean[] lowerBoundsInclusive,
+                        ExpressionExecutor[] upperBoundExecutors, boolean[] upperBoundsInclusive) {
+        super(expressionExecutor, candidateEventPosition, matchingEventPosition, size, candidatePositions, keyTypes);
+        this.lowerBoundExecutors = lowerBoundExecutors;
+        this.lowerBoundsInclusive = lowerBoundsInclusive;
+        this.upperBoundExecutors = upperBoundExecutors;
+        this.upperBoundsInclusive = upperBoundsInclusive;
+    }
+
+    @Override
+    public EventIndex createIndex() {
+        return new RangeEventIndex(candidatePositions[0], keyTypes[0]);
+    }
+
+    /**
+     * Compute the tightest bounds of the attribute for the matching event, to be read through the getters
+     *
+     * @return false when no candidate can match, as a bound is null or NaN
+     */
+    public boolean computeBounds() {
+        lowerBound = null;
+        lowerBoundInclusive = true;
+        for (int i = 0; i < lowerBoundExecutors.length; i++) {
+            Object bound = EventIndex.toKey(executeOnMatchingEvent(lowerBoundExecutors[i]), keyTypes[0]);
+            if (bound == null) {
+                return false;
+            }
+            int comparison = lowerBound == null ? 1 : compare(bound, lowerBound);
+            if (comparison > 0) {
+                lowerBound = bound;
+                lowerBoundInclusive = lowerBoundsInclusive[i];
+            } else if (comparison == 0) {
+                lowerBoundInclusive &= lowerBoundsInclusive[i];
+            }
+        }
+        upperBound = null;
+        upperBoundInclusive = true;
+        for (int i = 0; i < upperBoundExecutors.length; i++) {
+            Object bound = EventIndex.toKey(executeOnMatchingEvent(upperBoundExecutors[i]), keyTypes[0]);
+            if (bound == null) {
+                return false;
+            }
+            int comparison = upperBound == null ? -1 : compare(bound, upperBound);
+            if (comparison < 0) {
+                upperBound = bound;
+                upperBoundInclusive = upperBoundsInclusive[i];
+            } else if (comparison == 0) {
+                upperBoundInclusive &= upperBoundsInclusive[i];
+            }
+        }
+        if (lowerBound != null && upperBound != null) {
+            int comparison = compare(lowerBound, upperBound);
+            return comparison < 0 || (comparison == 0 && lowerBoundInclusive && upperBoundInclusive);
+        }
+        return true;
+    }
+
+    /**
+     * @return the lower bound computed by {@link #computeBounds()}, or null when the attribute has none
+     */
+    public Object getLowerBound() {
+        return lowerBound;
+    }
+
+    public boolean isLowerBoundInclusive() {
+        return lowerBoundInclusive;
+    }
+
+    /**
+     * @return the upper bound computed by {@link #computeBounds()}, or null when the attribute has none
+     */
+    public Object getUpperBound() {
+        return upperBound;
+    }
+
+    public boolean isUpperBoundInclusive() {
+        return upperBoundInclusive;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compare(Object key1, Object key2) {
+        return ((Comparable<Object>) key1).compareTo(key2);
+    }
+
+    @Override
+    public Finder cloneFinder() {
+        return new RangeFinder(expressionExecutor, candidateEventPosition, matchingEventPosition, size,
+                candidatePositions, keyTypes, lowerBoundExecutors, lowerBoundsInclusive, upperBoundExecutors,
+                upperBoundsInclusive);
+    }
+}
@@ -29,10 +29,10 @@ import static org.wso2.siddhi.core.util.SiddhiConstants.*;
  */
 public class SimpleFinder implements Finder {
     private FinderStateEvent event;
-    private ExpressionExecutor expressionExecutor;
-    private int candidateEventPosition;
-    private int matchingEventPosition;
-    private int size;
+    protected ExpressionExecutor expressionExecutor;
+    protected int candidateEventPosition;
+    protected int matchingEventPosition;
+    protected int size;
 
     public SimpleFinder(ExpressionExecutor expressionExecutor, int candidateEventPosition, int matchingEventPosition, int size) {
         this.size = size;
@@ -62,6 +62,13 @@ public class SimpleFinder implements Finder {
         return new SimpleFinder(expressionExecutor, candidateEventPosition, matchingEventPosition, size);
     }
 
+    /**
+     * Execute an expression on the event set by {@link #setMatchingEvent(ComplexEvent)}
+     */
+    protected Object executeOnMatchingEvent(ExpressionExecutor executor) {
+        return executor.execute(event);
+    }
+
     private class FinderStateEvent extends StateEvent {
         private StateEvent matchingStateEvent;
 
@@ -24,6 +24,8 @@ import org.wso2.siddhi.core.util.ElementIdGenerator;
 import org.wso2.siddhi.core.util.SiddhiConstants;
 import org.wso2.siddhi.core.util.persistence.PersistenceService;
 import org.wso2.siddhi.core.util.snapshot.SnapshotService;
+import org.wso2.siddhi.core.util.statistics.StatisticsManager;
+import org.wso2.siddhi.core.util.timestamp.EventTimestampGenerator;
 import org.wso2.siddhi.core.util.timestamp.SystemCurrentTimeMillisTimestampGenerator;
 import org.wso2.siddhi.query.api.ExecutionPlan;
 import org.wso2.siddhi.query.api.annotation.Annotation;
@@ -88,6 +90,31 @@ public class ExecutionPlanParser {
                 executionPlanContext.setParallel(true);
             }
 
+            annotation = AnnotationHelper.getAnnotation(SiddhiConstants.ANNOTATION_STATISTICS,
+                    executionPlan.getAnnotations());
+            if (annotation != null) {
+                element = AnnotationHelper.getAnnotationElement(SiddhiConstants.ANNOTATION_STATISTICS,
+                        SiddhiConstants.ANNOTATION_ELEMENT_JMX, executionPlan.getAnnotations());
+                boolean jmxEnabled = element != null && SiddhiConstants.TRUE.equalsIgnoreCase(element.getValue().trim());
+                long interval = StatisticsManager.DEFAULT_INTERVAL;
+                element = AnnotationHelper.getAnnotationElement(SiddhiConstants.ANNOTATION_STATISTICS,
+                        SiddhiConstants.ANNOTATION_ELEMENT_INTERVAL, executionPlan.getAnnotations());
+                if (element != null) {
+                    try {
+                        interval = Long.parseLong(element.getValue().trim());
+                    } catch (NumberFormatException e) {
+                        throw new ExecutionPlanCreationException("Interval of @" + SiddhiConstants.ANNOTATION_STATISTICS +
+                                " should be in milliseconds, but found '" + element.getValue() + "'", e);
+                    }
+                    if (interval <= 0) {
+                        throw new ExecutionPlanCreationException("Interval of @" + SiddhiConstants.ANNOTATION_STATISTICS +
+                                " should be positive, but found " + interval);
+                    }
+                }
+                executionPlanContext.setStatisticsManager(new StatisticsManager(executionPlanContext.getName(),
+                        jmxEnabled, interval));
+            }
+
             if (!executionPlanContext.isPlayback() && !executionPlanContext.isEnforceOrder() && !executionPlanContext.isParallel()) {
                 executionPlanContext.setSharedLock(new ReentrantLock());
             }
@@ -97,7 +124,11 @@ public class ExecutionPlanParser {
                     new LinkedBlockingDeque<Runnable>()));
 
             executionPlanContext.setScheduledExecutorService(Executors.newScheduledThreadPool(5));
-            executionPlanContext.setTimestampGenerator(new SystemCurrentTimeMillisTimestampGenerator());
+            if (executionPlanContext.isPlayback()) {
+                executionPlanContext.setTimestampGenerator(new EventTimestampGenerator());
+            } else {
+                executionPlanContext.setTimestampGenerator(new SystemCurrentTimeMillisTimestampGenerator());
+            }
             executionPlanContext.setSnapshotService(new SnapshotService(executionPlanContext));
             executionPlanContext.setPersistenceService(new PersistenceService(executionPlanContext));
             executionPlanContext.setElementIdGenerator(new ElementIdGenerator(executionPlanContext.getName()));
@@ -24,6 +24,7 @@ import org.wso2.siddhi.core.executor.ConstantExpressionExecutor;
 import org.wso2.siddhi.core.executor.ExpressionExecutor;
 import org.wso2.siddhi.core.executor.VariableExpressionExecutor;
 import org.wso2.siddhi.core.executor.condition.*;
+import org.wso2.siddhi.core.executor.condition.compare.CompareConditionExpressionExecutor;
 import org.wso2.siddhi.core.executor.condition.compare.contains.ContainsCompareConditionExpressionExecutor;
 import org.wso2.siddhi.core.executor.condition.compare.equal.*;
 import org.wso2.siddhi.core.executor.condition.compare.greater_than.*;
@@ -33,6 +34,7 @@ import org.wso2.siddhi.core.executor.condition.compare.less_than_equal.*;
 import org.wso2.siddhi.core.executor.condition.compare.not_equal.*;
 import org.wso2.siddhi.core.executor.function.FunctionExecutor;
 import org.wso2.siddhi.core.executor.function.ScriptFunctionExecutor;
+import org.wso2.siddhi.core.executor.math.MathExpressionExecutor;
 import org.wso2.siddhi.core.executor.math.Subtract.SubtractExpressionExecutorDouble;
 import org.wso2.siddhi.core.executor.math.Subtract.SubtractExpressionExecutorFloat;
 import org.wso2.siddhi.core.executor.math.Subtract.SubtractExpressionExecutorInt;
@@ -56,6 +58,7 @@ import org.wso2.siddhi.core.executor.math.multiply.MultiplyExpressionExecutorLon
 import org.wso2.siddhi.core.extension.holder.FunctionExecutorExtensionHolder;
 import org.wso2.siddhi.core.extension.holder.AttributeAggregatorExtensionHolder;
 import org.wso2.siddhi.core.util.finder.Finder;
+import org.wso2.siddhi.core.util.parser.helper.CommonSubexpressionHelper;
 import org.wso2.siddhi.core.query.selector.attribute.aggergator.AttributeAggregator;
 import org.wso2.siddhi.core.query.selector.attribute.processor.executor.AbstractAggregationAttributeExecutor;
 import org.wso2.siddhi.core.query.selector.attribute.processor.executor.AggregationAttributeExecutor;
@@ -84,6 +87,8 @@ import static org.wso2.siddhi.core.util.SiddhiConstants.*;
  */
 public class ExpressionParser {
 
+    private static final Object NOT_CONSTANT = new Object();
+
     /**
      * Parse the given expression and create the appropriate Executor by recursively traversing the expression
      *
@@ -98,46 +103,86 @@ public class ExpressionParser {
     public static ExpressionExecutor parseExpression(Expression expression, MetaComplexEvent metaEvent, int currentState,
                                                      Map<String, EventTable> eventTableMap, List<VariableExpressionExecutor> executorList,
                                                      ExecutionPlanContext executionPlanContext, boolean groupBy, int defaultStreamEventIndex) {
+        return parseExpression(expression, metaEvent, currentState, eventTableMap, executorList, executionPlanContext,
+                groupBy, defaultStreamEventIndex, null);
+    }
+
+    /**
+     * Parse the given expression sharing the executors of the common subexpressions of the stage it belongs to, and
+     * folding its constant subexpressions
+     *
+     * @param expression              Expression to be parsed
+     * @param metaEvent
+     * @param currentState
+     * @param eventTableMap
+     * @param executorList            List to hold VariableExpressionExecutors to update after query parsing
+     * @param executionPlanContext
+     * @param defaultStreamEventIndex
+     * @param helper                  CommonSubexpressionHelper of the stage, or null when not sharing executors
+     * @return executor of the expression
+     */
+    public static ExpressionExecutor parseExpression(Expression expression, MetaComplexEvent metaEvent, int currentState,
+                                                     Map<String, EventTable> eventTableMap, List<VariableExpressionExecutor> executorList,
+                                                     ExecutionPlanContext executionPlanContext, boolean groupBy, int defaultStreamEventIndex,
+                                                     CommonSubexpressionHelper helper) {
+        if (helper != null) {
+            ExpressionExecutor sharedExecutor = helper.getSharedExecutor(expression);
+            if (sharedExecutor != null) {
+                return sharedExecutor;
+            }
+        }
+        ExpressionExecutor expressionExecutor = foldConstants(parseExpressionTree(expression, metaEvent, currentState,
+                eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex, helper));
+        if (helper != null) {
+            expressionExecutor = helper.share(expression, expressionExecutor);
+        }
+        return expressionExecutor;
+    }
+
+    private static ExpressionExecutor parseExpressionTree(Expression expression, MetaComplexEvent metaEvent, int currentState,
+                                                          Map<String, EventTable> eventTableMap, List<VariableExpressionExecutor> executorList,
+                                                          ExecutionPlanContext executionPlanContext, boolean groupBy, int defaultStreamEventIndex,
+                                                          CommonSubexpressionHelper helper) {
         if (expression instanceof And) {
             return new AndConditionExpressionExecutor(
                     parseExpression(((And) expression).getLeftExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext,
-                            groupBy, defaultStreamEventIndex),
-                    parseExpression(((And) expression).getRightExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex));
+                            groupBy, defaultStreamEventIndex, helper),
+                    parseExpression(((And) expression).getRightExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex, helper));
         } else if (expression instanceof Or) {
             return new OrConditionExpressionExecutor(
-                    parseExpression(((Or) expression).getLeftExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex),
-                    parseExpression(((Or) expression).getRightExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex));
+                    parseExpression(((Or) expression).getLeftExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex, helper),
+                    parseExpression(((Or) expression).getRightExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex, helper));
         } else if (expression instanceof Not) {
-            return new NotConditionExpressionExecutor(parseExpression(((Not) expression).getExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex));
+            return new NotConditionExpressionExecutor(parseExpression(((Not) expression).getExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex, helper));
         } else if (expression instanceof Compare) {
             if (((Compare) expression).getOperator() == Compare.Operator.EQUAL) {
                 return parseEqualCompare(
-                        parseExpression(((Compare) expression).getLeftExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex),
-                        parseExpression(((Compare) expression).getRightExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex));
+                        parseExpression(((Compare) expression).getLeftExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex, helper),
+                        parseExpression(((Compare) expression).getRightExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex, helper));
             } else if (((Compare) expression).getOperator() == Compare.Operator.NOT_EQUAL) {
                 return parseNotEqualCompare(
-                        parseExpression(((Compare) expression).getLeftExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex),
-                        parseExpression(((Compare) expression).getRightExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex));
+                        parseExpression(((Compare) expression).getLeftExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex, helper),
+                        parseExpression(((Compare) expression).getRightExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex, helper));
             } else if (((Compare) expression).getOperator() == Compare.Operator.GREATER_THAN) {
                 return parseGreaterThanCompare(
-                        parseExpression(((Compare) expression).getLeftExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex),
-                        parseExpression(((Compare) expression).getRightExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex));
+                        parseExpression(((Compare) expression).getLeftExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex, helper),
+                        parseExpression(((Compare) expression).getRightExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex, helper));
             } else if (((Compare) expression).getOperator() == Compare.Operator.GREATER_THAN_EQUAL) {
                 return parseGreaterThanEqualCompare(
-                        parseExpression(((Compare) expression).getLeftExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex),
-                        parseExpression(((Compare) expression).getRightExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex));
+                        parseExpression(((Compare) expression).getLeftExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex, helper),
+                        parseExpression(((Compare) expression).getRightExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex, helper));
             } else if (((Compare) expression).getOperator() == Compare.Operator.LESS_THAN) {
                 return parseLessThanCompare(
-                        parseExpression(((Compare) expression).getLeftExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex),
-                        parseExpression(((Compare) expression).getRightExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex));
+                        parseExpression(((Compare) expression).getLeftExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex, helper),
+                        parseExpression(((Compare) expression).getRightExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex, helper));
             } else if (((Compare) expression).getOperator() == Compare.Operator.LESS_THAN_EQUAL) {
                 return parseLessThanEqualCompare(
-                        parseExpression(((Compare) expression).getLeftExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex),
-                        parseExpression(((Compare) expression).getRightExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex));
+                        parseExpression(((Compare) expression).getLeftExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex, helper),
+                        parseExpression(((Compare) expression).getRightExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex, helper));
             } else if (((Compare) expression).getOperator() == Compare.Operator.CONTAINS) {
                 return parseContainsCompare(
-                        parseExpression(((Compare) expression).getLeftExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex),
-                        parseExpression(((Compare) expression).getRightExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex));
+                        parseExpression(((Compare) expression).getLeftExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex, helper),
+                        parseExpression(((Compare) expression).getRightExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex, helper));
             }
 
         } else if (expression instanceof Constant) {
@@ -159,8 +204,8 @@ public class ExpressionParser {
             return parseVariable((Variable) expression, metaEvent, currentState, executorList, defaultStreamEventIndex);
 
         } else if (expression instanceof Multiply) {
-            ExpressionExecutor left = parseExpression(((Multiply) expression).getLeftValue(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex);
-            ExpressionExecutor right = parseExpression(((Multiply) expression).getRightValue(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex);
+            ExpressionExecutor left = parseExpression(((Multiply) expression).getLeftValue(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex, helper);
+            ExpressionExecutor right = parseExpression(((Multiply) expression).getRightValue(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex, helper);
             Attribute.Type type = parseArithmeticOperationResultType(left, right);
             switch (type) {
                 case INT:
@@ -174,8 +219,8 @@ public class ExpressionParser {
                 default: //Will not happen. Handled in parseArithmeticOperationResultType()
             }
         } else if (expression instanceof Add) {
-            ExpressionExecutor left = parseExpression(((Add) expression).getLeftValue(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex);
-            ExpressionExecutor right = parseExpression(((Add) expression).getRightValue(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex);
+            ExpressionExecutor left = parseExpression(((Add) expression).getLeftValue(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex, helper);
+            ExpressionExecutor right = parseExpression(((Add) expression).getRightValue(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex, helper);
             Attribute.Type type = parseArithmeticOperationResultType(left, right);
             switch (type) {
                 case INT:
@@ -189,8 +234,8 @@ public class ExpressionParser {
                 default: //Will not happen. Handled in parseArithmeticOperationResultType()
             }
         } else if (expression instanceof Subtract) {
-            ExpressionExecutor left = parseExpression(((Subtract) expression).getLeftValue(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex);
-            ExpressionExecutor right = parseExpression(((Subtract) expression).getRightValue(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex);
+            ExpressionExecutor left = parseExpression(((Subtract) expression).getLeftValue(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex, helper);
+            ExpressionExecutor right = parseExpression(((Subtract) expression).getRightValue(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex, helper);
             Attribute.Type type = parseArithmeticOperationResultType(left, right);
             switch (type) {
                 case INT:
@@ -204,8 +249,8 @@ public class ExpressionParser {
                 default: //Will not happen. Handled in parseArithmeticOperationResultType()
             }
         } else if (expression instanceof Mod) {
-            ExpressionExecutor left = parseExpression(((Mod) expression).getLeftValue(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex);
-            ExpressionExecutor right = parseExpression(((Mod) expression).getRightValue(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex);
+            ExpressionExecutor left = parseExpression(((Mod) expression).getLeftValue(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex, helper);
+            ExpressionExecutor right = parseExpression(((Mod) expression).getRightValue(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex, helper);
             Attribute.Type type = parseArithmeticOperationResultType(left, right);
             switch (type) {
                 case INT:
@@ -219,8 +264,8 @@ public class ExpressionParser {
                 default: //Will not happen. Handled in parseArithmeticOperationResultType()
             }
         } else if (expression instanceof Divide) {
-            ExpressionExecutor left = parseExpression(((Divide) expression).getLeftValue(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex);
-            ExpressionExecutor right = parseExpression(((Divide) expression).getRightValue(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex);
+            ExpressionExecutor left = parseExpression(((Divide) expression).getLeftValue(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex, helper);
+            ExpressionExecutor right = parseExpression(((Divide) expression).getRightValue(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex, helper);
             Attribute.Type type = parseArithmeticOperationResultType(left, right);
             switch (type) {
                 case INT:
@@ -251,7 +296,7 @@ public class ExpressionParser {
                 Expression[] innerExpressions = ((AttributeFunctionExtension) expression).getParameters();
                 ExpressionExecutor[] innerExpressionExecutors = new ExpressionExecutor[innerExpressions.length];
                 for (int i = 0, innerExpressionsLength = innerExpressions.length; i < innerExpressionsLength; i++) {
-                    innerExpressionExecutors[i] = parseExpression(innerExpressions[i], metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex);
+                    innerExpressionExecutors[i] = parseExpression(innerExpressions[i], metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex, helper);
                 }
                 expressionExecutor.initExecutor(innerExpressionExecutors, executionPlanContext);
                 return expressionExecutor;
@@ -260,7 +305,7 @@ public class ExpressionParser {
                 Expression[] innerExpressions = ((AttributeFunctionExtension) expression).getParameters();
                 ExpressionExecutor[] innerExpressionExecutors = new ExpressionExecutor[innerExpressions.length];
                 for (int i = 0, innerExpressionsLength = innerExpressions.length; i < innerExpressionsLength; i++) {
-                    innerExpressionExecutors[i] = parseExpression(innerExpressions[i], metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex);
+                    innerExpressionExecutors[i] = parseExpression(innerExpressions[i], metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex, helper);
                 }
                 attributeAggregator.initAggregator(innerExpressionExecutors, executionPlanContext);
                 AbstractAggregationAttributeExecutor aggregationAttributeProcessor;
@@ -298,7 +343,7 @@ public class ExpressionParser {
                 Expression[] innerExpressions = ((AttributeFunction) expression).getParameters();
                 ExpressionExecutor[] innerExpressionExecutors = new ExpressionExecutor[innerExpressions.length];
                 for (int i = 0, innerExpressionsLength = innerExpressions.length; i < innerExpressionsLength; i++) {
-                    innerExpressionExecutors[i] = parseExpression(innerExpressions[i], metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex);
+                    innerExpressionExecutors[i] = parseExpression(innerExpressions[i], metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex, helper);
                 }
                 ((AttributeAggregator) executor).initAggregator(innerExpressionExecutors, executionPlanContext);
                 AbstractAggregationAttributeExecutor aggregationAttributeProcessor;
@@ -313,7 +358,7 @@ public class ExpressionParser {
                 Expression[] innerExpressions = ((AttributeFunction) expression).getParameters();
                 ExpressionExecutor[] innerExpressionExecutors = new ExpressionExecutor[innerExpressions.length];
                 for (int i = 0, innerExpressionsLength = innerExpressions.length; i < innerExpressionsLength; i++) {
-                    innerExpressionExecutors[i] = parseExpression(innerExpressions[i], metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex);
+                    innerExpressionExecutors[i] = parseExpression(innerExpressions[i], metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex, helper);
                 }
                 functionExecutor.initExecutor(innerExpressionExecutors, executionPlanContext);
                 return functionExecutor;
@@ -336,6 +381,104 @@ public class ExpressionParser {
 
     }
 
+    /**
+     * Replace the constant subexpressions of a parsed executor with constants. Condition executors are kept such that
+     * callers expecting a ConditionExpressionExecutor get one, they are folded in to the executors using them.
+     *
+     * @param expressionExecutor executor with its sub executors already folded
+     * @return folded executor
+     */
+    private static ExpressionExecutor foldConstants(ExpressionExecutor expressionExecutor) {
+        if (expressionExecutor instanceof AndConditionExpressionExecutor) {
+            AndConditionExpressionExecutor andExecutor = (AndConditionExpressionExecutor) expressionExecutor;
+            if (Boolean.TRUE.equals(constantValue(andExecutor.getLeftConditionExecutor())) &&
+                    andExecutor.getRightConditionExecutor() instanceof ConditionExpressionExecutor) {
+                return andExecutor.getRightConditionExecutor();
+            } else if (Boolean.TRUE.equals(constantValue(andExecutor.getRightConditionExecutor())) &&
+                    andExecutor.getLeftConditionExecutor() instanceof ConditionExpressionExecutor) {
+                return andExecutor.getLeftConditionExecutor();
+            }
+        } else if (expressionExecutor instanceof OrConditionExpressionExecutor) {
+            OrConditionExpressionExecutor orExecutor = (OrConditionExpressionExecutor) expressionExecutor;
+            if (Boolean.FALSE.equals(constantValue(orExecutor.getLeftConditionExecutor())) &&
+                    orExecutor.getRightConditionExecutor() instanceof ConditionExpressionExecutor) {
+                return orExecutor.getRightConditionExecutor();
+            } else if (Boolean.FALSE.equals(constantValue(orExecutor.getRightConditionExecutor())) &&
+                    orExecutor.getLeftConditionExecutor() instanceof ConditionExpressionExecutor) {
+                return orExecutor.getLeftConditionExecutor();
+            }
+        } else if (expressionExecutor instanceof MathExpressionExecutor) {
+            Object value = constantValue(expressionExecutor);
+            if (value != NOT_CONSTANT) {
+                return new ConstantExpressionExecutor(value, expressionExecutor.getReturnType());
+            }
+        }
+        return expressionExecutor;
+    }
+
+    /**
+     * Evaluate an executor of constants
+     *
+     * @param expressionExecutor executor to be evaluated
+     * @return value of the executor, or NOT_CONSTANT when it depends on the event, or it can not be evaluated in to
+     * a value of its return type
+     */
+    private static Object constantValue(ExpressionExecutor expressionExecutor) {
+        if (expressionExecutor instanceof ConstantExpressionExecutor) {
+            return ((ConstantExpressionExecutor) expressionExecutor).getValue();
+        }
+        boolean constant;
+        if (expressionExecutor instanceof MathExpressionExecutor) {
+            constant = constantValue(((MathExpressionExecutor) expressionExecutor).getLeftExpressionExecutor()) != NOT_CONSTANT &&
+                    constantValue(((MathExpressionExecutor) expressionExecutor).getRightExpressionExecutor()) != NOT_CONSTANT;
+        } else if (expressionExecutor instanceof CompareConditionExpressionExecutor) {
+            constant = constantValue(((CompareConditionExpressionExecutor) expressionExecutor).getLeftExpressionExecutor()) != NOT_CONSTANT &&
+                    constantValue(((CompareConditionExpressionExecutor) expressionExecutor).getRightExpressionExecutor()) != NOT_CONSTANT;
+        } else if (expressionExecutor instanceof NotConditionExpressionExecutor) {
+            constant = constantValue(((NotConditionExpressionExecutor) expressionExecutor).getConditionExecutor()) != NOT_CONSTANT;
+        } else if (expressionExecutor instanceof AndConditionExpressionExecutor) {
+            Object left = constantValue(((AndConditionExpressionExecutor) expressionExecutor).getLeftConditionExecutor());
+            constant = Boolean.FALSE.equals(left) || left != NOT_CONSTANT &&
+                    constantValue(((AndConditionExpressionExecutor) expressionExecutor).getRightConditionExecutor()) != NOT_CONSTANT;
+        } else if (expressionExecutor instanceof OrConditionExpressionExecutor) {
+            Object left = constantValue(((OrConditionExpressionExecutor) expressionExecutor).getLeftConditionExecutor());
+            constant = Boolean.TRUE.equals(left) || left != NOT_CONSTANT &&
+                    constantValue(((OrConditionExpressionExecutor) expressionExecutor).getRightConditionExecutor()) != NOT_CONSTANT;
+        } else {
+            return NOT_CONSTANT;
+        }
+        if (!constant) {
+            return NOT_CONSTANT;
+        }
+        Object value;
+        try {
+            value = expressionExecutor.execute(null);
+        } catch (RuntimeException e) {
+            //e.g. integer division by zero, to be raised at runtime as before
+            return NOT_CONSTANT;
+        }
+        return isOfType(value, expressionExecutor.getReturnType()) ? value : NOT_CONSTANT;
+    }
+
+    private static boolean isOfType(Object value, Attribute.Type type) {
+        switch (type) {
+            case INT:
+                return value instanceof Integer;
+            case LONG:
+                return value instanceof Long;
+            case FLOAT:
+                return value instanceof Float;
+            case DOUBLE:
+                return value instanceof Double;
+            case BOOL:
+                return value instanceof Boolean;
+            case STRING:
+                return value instanceof String;
+            default:
+                return false;
+        }
+    }
+
     /**
      * Create greater than Compare Condition Expression Executor which evaluates whether value of leftExpressionExecutor
      * is greater than value of rightExpressionExecutor.
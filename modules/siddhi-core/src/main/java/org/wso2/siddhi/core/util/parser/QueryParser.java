@@ -25,6 +25,7 @@ import org.wso2.siddhi.core.query.output.rateLimit.OutputRateLimiter;
 import org.wso2.siddhi.core.query.output.rateLimit.snapshot.WrappedSnapshotOutputRateLimiter;
 import org.wso2.siddhi.core.query.selector.QuerySelector;
 import org.wso2.siddhi.core.table.EventTable;
+import org.wso2.siddhi.core.util.SiddhiConstants;
 import org.wso2.siddhi.core.util.parser.helper.QueryParserHelper;
 import org.wso2.siddhi.query.api.annotation.Element;
 import org.wso2.siddhi.query.api.definition.AbstractDefinition;
@@ -85,8 +86,22 @@ public class QueryParser {
                     streamRuntime.getMetaComplexEvent().getOutputStreamDefinition(), eventTableMap, executionPlanContext);
 
             QueryParserHelper.reduceMetaComplexEvent(streamRuntime.getMetaComplexEvent());
+            Element layoutElement = AnnotationHelper.getAnnotationElement("info", SiddhiConstants.ANNOTATION_ELEMENT_LAYOUT,
+                    query.getAnnotations());
+            if (layoutElement != null) {
+                if (!SiddhiConstants.LAYOUT_PRIMITIVE.equalsIgnoreCase(layoutElement.getValue())) {
+                    throw new ExecutionPlanCreationException("Unknown event layout " + layoutElement.getValue() +
+                            ", only " + SiddhiConstants.LAYOUT_PRIMITIVE + " is supported");
+                }
+                QueryParserHelper.setPrimitiveLayout(streamRuntime.getMetaComplexEvent());
+            }
             QueryParserHelper.updateVariablePosition(streamRuntime.getMetaComplexEvent(), executors);
             QueryParserHelper.initStreamRuntime(streamRuntime, streamRuntime.getMetaComplexEvent());
+            Element compileElement = AnnotationHelper.getAnnotationElement("info",
+                    SiddhiConstants.ANNOTATION_ELEMENT_COMPILE, query.getAnnotations());
+            if (compileElement != null && Boolean.parseBoolean(compileElement.getValue())) {
+                QueryParserHelper.compileExecutors(streamRuntime, selector);
+            }
 
             selector.setEventPopulator(StateEventPopulatorFactory.constructEventPopulator(streamRuntime.getMetaComplexEvent()));
 
@@ -27,6 +27,7 @@ import org.wso2.siddhi.core.query.selector.QuerySelector;
 import org.wso2.siddhi.core.query.selector.attribute.processor.AttributeProcessor;
 import org.wso2.siddhi.core.table.EventTable;
 import org.wso2.siddhi.core.util.SiddhiConstants;
+import org.wso2.siddhi.core.util.parser.helper.CommonSubexpressionHelper;
 import org.wso2.siddhi.query.api.definition.AbstractDefinition;
 import org.wso2.siddhi.query.api.definition.Attribute;
 import org.wso2.siddhi.query.api.definition.StreamDefinition;
@@ -67,7 +68,11 @@ public class SelectorParser {
 
         id = outputStream.getId();
         QuerySelector querySelector = new QuerySelector(id, selector, currentOn, expiredOn, executionPlanContext);
-        querySelector.setAttributeProcessorList(getAttributeProcessors(selector, id, executionPlanContext, metaComplexEvent, null, variableExpressionExecutors));
+        CommonSubexpressionHelper commonSubexpressionHelper = new CommonSubexpressionHelper(getSelectedExpressions(selector));
+        querySelector.setAttributeProcessorList(getAttributeProcessors(selector, id, executionPlanContext, metaComplexEvent, null, variableExpressionExecutors, commonSubexpressionHelper));
+        if (commonSubexpressionHelper.isSharing()) {
+            querySelector.setSharedExpressionScope(commonSubexpressionHelper.getScope());
+        }
 
         ConditionExpressionExecutor havingCondition = generateHavingExecutor(selector.getHavingExpression(),
                 metaComplexEvent, executionPlanContext, eventTableMap, variableExpressionExecutors);
@@ -88,12 +93,15 @@ public class SelectorParser {
      * @param executionPlanContext
      * @param metaComplexEvent
      * @param eventTableMap
-     *@param variableExpressionExecutors  @return
+     * @param variableExpressionExecutors
+     * @param commonSubexpressionHelper   helper sharing the common subexpressions of the selection list
+     * @return
      */
     private static List<AttributeProcessor> getAttributeProcessors(Selector selector, String id,
                                                                    ExecutionPlanContext executionPlanContext,
                                                                    MetaComplexEvent metaComplexEvent,
-                                                                   Map<String, EventTable> eventTableMap, List<VariableExpressionExecutor> variableExpressionExecutors) {
+                                                                   Map<String, EventTable> eventTableMap, List<VariableExpressionExecutor> variableExpressionExecutors,
+                                                                   CommonSubexpressionHelper commonSubexpressionHelper) {
 
         List<AttributeProcessor> attributeProcessorList = new ArrayList<AttributeProcessor>();
         StreamDefinition outputDefinition = StreamDefinition.id(id);
@@ -131,7 +139,7 @@ public class SelectorParser {
 
             ExpressionExecutor expressionExecutor = ExpressionParser.parseExpression(outputAttribute.getExpression(),
                     metaComplexEvent, SiddhiConstants.UNKNOWN_STATE, eventTableMap, variableExpressionExecutors, executionPlanContext,
-                    !(selector.getGroupByList().isEmpty()), 0);
+                    !(selector.getGroupByList().isEmpty()), 0, commonSubexpressionHelper);
             if (expressionExecutor instanceof VariableExpressionExecutor) {   //for variables we will directly put value at conversion stage
                 VariableExpressionExecutor executor = ((VariableExpressionExecutor) expressionExecutor);
                 if (metaComplexEvent instanceof MetaStateEvent) {
@@ -158,6 +166,14 @@ public class SelectorParser {
         return attributeProcessorList;
     }
 
+    private static List<Expression> getSelectedExpressions(Selector selector) {
+        List<Expression> expressions = new ArrayList<Expression>();
+        for (OutputAttribute outputAttribute : selector.getSelectionList()) {
+            expressions.add(outputAttribute.getExpression());
+        }
+        return expressions;
+    }
+
     private static ConditionExpressionExecutor generateHavingExecutor(Expression expression,
                                                                       MetaComplexEvent metaComplexEvent,
                                                                       ExecutionPlanContext executionPlanContext,
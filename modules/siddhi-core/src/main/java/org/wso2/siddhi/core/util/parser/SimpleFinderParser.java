@@ -18,18 +18,34 @@ import org.wso2.siddhi.core.config.ExecutionPlanContext;
 import org.wso2.siddhi.core.event.MetaComplexEvent;
 import org.wso2.siddhi.core.event.state.MetaStateEvent;
 import org.wso2.siddhi.core.event.stream.MetaStreamEvent;
+import org.wso2.siddhi.core.executor.ConstantExpressionExecutor;
 import org.wso2.siddhi.core.executor.ExpressionExecutor;
 import org.wso2.siddhi.core.executor.VariableExpressionExecutor;
+import org.wso2.siddhi.core.executor.compiler.CompiledConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.AndConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.compare.CompareConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.compare.equal.EqualCompareConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.compare.greater_than.GreaterThanCompareConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.compare.greater_than_equal.GreaterThanEqualCompareConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.compare.less_than.LessThanCompareConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.compare.less_than_equal.LessThanEqualCompareConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.math.MathExpressionExecutor;
+import org.wso2.siddhi.core.util.finder.EqualityFinder;
 import org.wso2.siddhi.core.util.finder.Finder;
+import org.wso2.siddhi.core.util.finder.RangeFinder;
 import org.wso2.siddhi.core.util.finder.SimpleFinder;
 import org.wso2.siddhi.core.table.EventTable;
 import org.wso2.siddhi.query.api.definition.AbstractDefinition;
 import org.wso2.siddhi.query.api.definition.Attribute;
 import org.wso2.siddhi.query.api.expression.Expression;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
+import static org.wso2.siddhi.core.util.SiddhiConstants.STREAM_EVENT_CHAIN_INDEX;
+import static org.wso2.siddhi.core.util.SiddhiConstants.STREAM_EVENT_INDEX;
+
 /**
  * Created on 1/19/15.
  */
@@ -83,6 +99,168 @@ public class SimpleFinderParser {
 
         ExpressionExecutor expressionExecutor = ExpressionParser.parseExpression(expression,
                 metaStateEvent, matchingStreamIndex, eventTableMap, variableExpressionExecutors, executionPlanContext, false, 0);
-        return new SimpleFinder(expressionExecutor, candidateEventPosition, matchingStreamIndex, size);
+
+        List<CompareConditionExpressionExecutor> compareExecutors = new ArrayList<CompareConditionExpressionExecutor>();
+        collectCompareConjuncts(expressionExecutor, compareExecutors);
+        Finder finder = parseEqualityFinder(expressionExecutor, compareExecutors, candidateEventPosition, matchingStreamIndex, size);
+        if (finder == null) {
+            finder = parseRangeFinder(expressionExecutor, compareExecutors, candidateEventPosition, matchingStreamIndex, size);
+        }
+        if (finder == null) {
+            finder = new SimpleFinder(expressionExecutor, candidateEventPosition, matchingStreamIndex, size);
+        }
+        return finder;
+    }
+
+    /**
+     * @return a finder looking up the equality conjuncts between candidate attributes and matching values, or null
+     */
+    private static Finder parseEqualityFinder(ExpressionExecutor expressionExecutor, List<CompareConditionExpressionExecutor> compareExecutors,
+                                              int candidateEventPosition, int matchingStreamIndex, int size) {
+        List<int[]> candidatePositions = new ArrayList<int[]>();
+        List<Attribute.Type> keyTypes = new ArrayList<Attribute.Type>();
+        List<ExpressionExecutor> matchingExecutors = new ArrayList<ExpressionExecutor>();
+        for (CompareConditionExpressionExecutor compareExecutor : compareExecutors) {
+            if (!(compareExecutor instanceof EqualCompareConditionExpressionExecutor)) {
+                continue;
+            }
+            ExpressionExecutor candidateExecutor = compareExecutor.getLeftExpressionExecutor();
+            ExpressionExecutor matchingExecutor = compareExecutor.getRightExpressionExecutor();
+            if (!isCandidateAttribute(candidateExecutor, candidateEventPosition)) {
+                candidateExecutor = compareExecutor.getRightExpressionExecutor();
+                matchingExecutor = compareExecutor.getLeftExpressionExecutor();
+            }
+            if (!isCandidateAttribute(candidateExecutor, candidateEventPosition) ||
+                    !isMatchingValue(matchingExecutor, candidateEventPosition)) {
+                continue;
+            }
+            Attribute.Type keyType = compareExecutor.getCompareType();
+            if (keyType == null) {
+                if (candidateExecutor.getReturnType() != Attribute.Type.STRING ||
+                        matchingExecutor.getReturnType() != Attribute.Type.STRING) {
+                    continue;
+                }
+                keyType = Attribute.Type.STRING;
+            }
+            candidatePositions.add(((VariableExpressionExecutor) candidateExecutor).getPosition());
+            keyTypes.add(keyType);
+            matchingExecutors.add(matchingExecutor);
+        }
+        if (candidatePositions.isEmpty()) {
+            return null;
+        }
+        return new EqualityFinder(expressionExecutor, candidateEventPosition, matchingStreamIndex, size,
+                candidatePositions.toArray(new int[candidatePositions.size()][]),
+                keyTypes.toArray(new Attribute.Type[keyTypes.size()]),
+                matchingExecutors.toArray(new ExpressionExecutor[matchingExecutors.size()]));
+    }
+
+    /**
+     * @return a finder looking up the <, <=, > and >= conjuncts bounding the first bounded candidate attribute by
+     * matching values, or null
+     */
+    private static Finder parseRangeFinder(ExpressionExecutor expressionExecutor, List<CompareConditionExpressionExecutor> compareExecutors,
+                                           int candidateEventPosition, int matchingStreamIndex, int size) {
+        VariableExpressionExecutor boundedExecutor = null;
+        Attribute.Type keyType = null;
+        List<ExpressionExecutor> lowerBoundExecutors = new ArrayList<ExpressionExecutor>();
+        List<Boolean> lowerBoundsInclusive = new ArrayList<Boolean>();
+        List<ExpressionExecutor> upperBoundExecutors = new ArrayList<ExpressionExecutor>();
+        List<Boolean> upperBoundsInclusive = new ArrayList<Boolean>();
+        for (CompareConditionExpressionExecutor compareExecutor : compareExecutors) {
+            boolean lower;
+            boolean inclusive;
+            if (compareExecutor instanceof GreaterThanCompareConditionExpressionExecutor) {
+                lower = true;
+                inclusive = false;
+            } else if (compareExecutor instanceof GreaterThanEqualCompareConditionExpressionExecutor) {
+                lower = true;
+                inclusive = true;
+            } else if (compareExecutor instanceof LessThanCompareConditionExpressionExecutor) {
+                lower = false;
+                inclusive = false;
+            } else if (compareExecutor instanceof LessThanEqualCompareConditionExpressionExecutor) {
+                lower = false;
+                inclusive = true;
+            } else {
+                continue;
+            }
+            ExpressionExecutor candidateExecutor = compareExecutor.getLeftExpressionExecutor();
+            ExpressionExecutor matchingExecutor = compareExecutor.getRightExpressionExecutor();
+            if (!isCandidateAttribute(candidateExecutor, candidateEventPosition)) {
+                //value op attribute bounds the attribute from the other side
+                candidateExecutor = compareExecutor.getRightExpressionExecutor();
+                matchingExecutor = compareExecutor.getLeftExpressionExecutor();
+                lower = !lower;
+            }
+            Attribute.Type compareType = compareExecutor.getCompareType();
+            if (!isCandidateAttribute(candidateExecutor, candidateEventPosition) ||
+                    !isMatchingValue(matchingExecutor, candidateEventPosition) ||
+                    compareType == null || compareType == Attribute.Type.BOOL) {
+                continue;
+            }
+            if (boundedExecutor == null) {
+                boundedExecutor = (VariableExpressionExecutor) candidateExecutor;
+                keyType = compareType;
+            } else if (!boundedExecutor.getAttribute().equals(((VariableExpressionExecutor) candidateExecutor).getAttribute()) ||
+                    keyType != compareType) {
+                continue;
+            }
+            if (lower) {
+                lowerBoundExecutors.add(matchingExecutor);
+                lowerBoundsInclusive.add(inclusive);
+            } else {
+                upperBoundExecutors.add(matchingExecutor);
+                upperBoundsInclusive.add(inclusive);
+            }
+        }
+        if (boundedExecutor == null) {
+            return null;
+        }
+        return new RangeFinder(expressionExecutor, candidateEventPosition, matchingStreamIndex, size,
+                boundedExecutor.getPosition(), keyType,
+                lowerBoundExecutors.toArray(new ExpressionExecutor[lowerBoundExecutors.size()]), toArray(lowerBoundsInclusive),
+                upperBoundExecutors.toArray(new ExpressionExecutor[upperBoundExecutors.size()]), toArray(upperBoundsInclusive));
+    }
+
+    private static boolean[] toArray(List<Boolean> list) {
+        boolean[] array = new boolean[list.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = list.get(i);
+        }
+        return array;
+    }
+
+    private static void collectCompareConjuncts(ExpressionExecutor executor,
+                                                List<CompareConditionExpressionExecutor> compareExecutors) {
+        if (executor instanceof CompiledConditionExpressionExecutor) {
+            collectCompareConjuncts(((CompiledConditionExpressionExecutor) executor).getSource(), compareExecutors);
+        } else if (executor instanceof AndConditionExpressionExecutor) {
+            collectCompareConjuncts(((AndConditionExpressionExecutor) executor).getLeftConditionExecutor(), compareExecutors);
+            collectCompareConjuncts(((AndConditionExpressionExecutor) executor).getRightConditionExecutor(), compareExecutors);
+        } else if (executor instanceof CompareConditionExpressionExecutor) {
+            compareExecutors.add((CompareConditionExpressionExecutor) executor);
+        }
+    }
+
+    private static boolean isCandidateAttribute(ExpressionExecutor executor, int candidateEventPosition) {
+        return executor instanceof VariableExpressionExecutor &&
+                ((VariableExpressionExecutor) executor).getPosition()[STREAM_EVENT_CHAIN_INDEX] == candidateEventPosition &&
+                ((VariableExpressionExecutor) executor).getPosition()[STREAM_EVENT_INDEX] == 0;
+    }
+
+    /**
+     * @return whether the executor gives a value independent of the candidate event
+     */
+    private static boolean isMatchingValue(ExpressionExecutor executor, int candidateEventPosition) {
+        if (executor instanceof ConstantExpressionExecutor) {
+            return true;
+        } else if (executor instanceof VariableExpressionExecutor) {
+            return ((VariableExpressionExecutor) executor).getPosition()[STREAM_EVENT_CHAIN_INDEX] != candidateEventPosition;
+        } else if (executor instanceof MathExpressionExecutor) {
+            return isMatchingValue(((MathExpressionExecutor) executor).getLeftExpressionExecutor(), candidateEventPosition) &&
+                    isMatchingValue(((MathExpressionExecutor) executor).getRightExpressionExecutor(), candidateEventPosition);
+        }
+        return false;
     }
 }
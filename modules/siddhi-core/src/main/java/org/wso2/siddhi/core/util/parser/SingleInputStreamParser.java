@@ -37,6 +37,7 @@ import org.wso2.siddhi.core.table.EventTable;
 import org.wso2.siddhi.core.util.Scheduler;
 import org.wso2.siddhi.core.util.SiddhiClassLoader;
 import org.wso2.siddhi.core.util.SiddhiConstants;
+import org.wso2.siddhi.core.util.parser.helper.CommonSubexpressionHelper;
 import org.wso2.siddhi.query.api.definition.AbstractDefinition;
 import org.wso2.siddhi.query.api.execution.query.input.handler.Filter;
 import org.wso2.siddhi.query.api.execution.query.input.handler.StreamFunction;
@@ -46,6 +47,7 @@ import org.wso2.siddhi.query.api.execution.query.input.stream.SingleInputStream;
 import org.wso2.siddhi.query.api.expression.Expression;
 import org.wso2.siddhi.query.api.extension.Extension;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -122,12 +124,20 @@ public class SingleInputStreamParser {
         } else {
             metaStreamEvent = (MetaStreamEvent) metaEvent;
         }
+        CommonSubexpressionHelper commonSubexpressionHelper = null;
+        if (streamHandler instanceof Filter) {
+            commonSubexpressionHelper = new CommonSubexpressionHelper(Arrays.asList(parameters));
+        }
         for (int i = 0, parametersLength = parameters.length; i < parametersLength; i++) {
             attributeExpressionExecutors[i] = ExpressionParser.parseExpression(parameters[i], metaEvent, stateIndex, eventTableMap, variableExpressionExecutors,
-                    executionPlanContext, false, SiddhiConstants.LAST);
+                    executionPlanContext, false, SiddhiConstants.LAST, commonSubexpressionHelper);
         }
         if (streamHandler instanceof Filter) {
-            return new FilterProcessor(attributeExpressionExecutors[0]);
+            FilterProcessor filterProcessor = new FilterProcessor(attributeExpressionExecutors[0]);
+            if (commonSubexpressionHelper.isSharing()) {
+                filterProcessor.setSharedExpressionScope(commonSubexpressionHelper.getScope());
+            }
+            return filterProcessor;
 
         } else if (streamHandler instanceof Window) {
             WindowProcessor windowProcessor;
@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.util.parser.helper;
+
+import org.wso2.siddhi.core.executor.ConstantExpressionExecutor;
+import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.core.executor.SharedExpressionExecutor;
+import org.wso2.siddhi.core.executor.VariableExpressionExecutor;
+import org.wso2.siddhi.query.api.expression.Expression;
+import org.wso2.siddhi.query.api.expression.Variable;
+import org.wso2.siddhi.query.api.expression.condition.And;
+import org.wso2.siddhi.query.api.expression.condition.Compare;
+import org.wso2.siddhi.query.api.expression.condition.Not;
+import org.wso2.siddhi.query.api.expression.condition.Or;
+import org.wso2.siddhi.query.api.expression.constant.Constant;
+import org.wso2.siddhi.query.api.expression.function.AttributeFunction;
+import org.wso2.siddhi.query.api.expression.function.AttributeFunctionExtension;
+import org.wso2.siddhi.query.api.expression.math.Add;
+import org.wso2.siddhi.query.api.expression.math.Divide;
+import org.wso2.siddhi.query.api.expression.math.Mod;
+import org.wso2.siddhi.query.api.expression.math.Multiply;
+import org.wso2.siddhi.query.api.expression.math.Subtract;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Helper for the ExpressionParser to find the subexpressions occurring more than once within the expressions of a
+ * processing stage, and to share one {@link SharedExpressionExecutor} among their occurrences.
+ * <p/>
+ * Only subexpressions built of variables, constants, math, compare and logical operations are shared, as functions
+ * and aggregations may keep state or return different results for the same event. Occurrences are matched on a
+ * canonical form, where the operands of commutative operations are ordered and greater than compares are written
+ * as less than compares, such that a + b matches b + a and a > b matches b < a.
+ */
+public class CommonSubexpressionHelper {
+
+    private final Map<Expression, Integer> occurrences = new HashMap<Expression, Integer>();
+    private final Map<Expression, SharedExpressionExecutor> sharedExecutors =
+            new HashMap<Expression, SharedExpressionExecutor>();
+    private final SharedExpressionExecutor.Scope scope = new SharedExpressionExecutor.Scope();
+
+    /**
+     * @param expressions expressions of the processing stage
+     */
+    public CommonSubexpressionHelper(List<Expression> expressions) {
+        for (Expression expression : expressions) {
+            countOccurrences(expression);
+        }
+    }
+
+    /**
+     * @return scope the processing stage should invalidate before processing each event chunk
+     */
+    public SharedExpressionExecutor.Scope getScope() {
+        return scope;
+    }
+
+    /**
+     * @return whether any subexpression of the stage is shared
+     */
+    public boolean isSharing() {
+        return !sharedExecutors.isEmpty();
+    }
+
+    /**
+     * @param expression expression to be parsed
+     * @return shared executor already parsed for an occurrence of the expression, or null
+     */
+    public ExpressionExecutor getSharedExecutor(Expression expression) {
+        if (!isShareable(expression)) {
+            return null;
+        }
+        return sharedExecutors.get(canonicalize(expression));
+    }
+
+    /**
+     * @param expression         parsed expression
+     * @param expressionExecutor executor parsed for the expression
+     * @return executor to be used for the expression, shared when the expression occurs more than once
+     */
+    public ExpressionExecutor share(Expression expression, ExpressionExecutor expressionExecutor) {
+        if (!isShareable(expression) || expressionExecutor instanceof ConstantExpressionExecutor ||
+                expressionExecutor instanceof VariableExpressionExecutor) {
+            return expressionExecutor;
+        }
+        Expression canonicalExpression = canonicalize(expression);
+        Integer count = occurrences.get(canonicalExpression);
+        if (count == null || count < 2) {
+            return expressionExecutor;
+        }
+        SharedExpressionExecutor sharedExecutor = new SharedExpressionExecutor(expressionExecutor, scope);
+        sharedExecutors.put(canonicalExpression, sharedExecutor);
+        return sharedExecutor;
+    }
+
+    private void countOccurrences(Expression expression) {
+        if (isShareable(expression)) {
+            Expression canonicalExpression = canonicalize(expression);
+            Integer count = occurrences.get(canonicalExpression);
+            occurrences.put(canonicalExpression, count == null ? 1 : count + 1);
+            if (count != null) {
+                //the subexpressions of a repeated occurrence are parsed only once
+                return;
+            }
+        }
+        if (expression instanceof And) {
+            countOccurrences(((And) expression).getLeftExpression());
+            countOccurrences(((And) expression).getRightExpression());
+        } else if (expression instanceof Or) {
+            countOccurrences(((Or) expression).getLeftExpression());
+            countOccurrences(((Or) expression).getRightExpression());
+        } else if (expression instanceof Not) {
+            countOccurrences(((Not) expression).getExpression());
+        } else if (expression instanceof Compare) {
+            countOccurrences(((Compare) expression).getLeftExpression());
+            countOccurrences(((Compare) expression).getRightExpression());
+        } else if (expression instanceof Add) {
+            countOccurrences(((Add) expression).getLeftValue());
+            countOccurrences(((Add) expression).getRightValue());
+        } else if (expression instanceof Subtract) {
+            countOccurrences(((Subtract) expression).getLeftValue());
+            countOccurrences(((Subtract) expression).getRightValue());
+        } else if (expression instanceof Multiply) {
+            countOccurrences(((Multiply) expression).getLeftValue());
+            countOccurrences(((Multiply) expression).getRightValue());
+        } else if (expression instanceof Divide) {
+            countOccurrences(((Divide) expression).getLeftValue());
+            countOccurrences(((Divide) expression).getRightValue());
+        } else if (expression instanceof Mod) {
+            countOccurrences(((Mod) expression).getLeftValue());
+            countOccurrences(((Mod) expression).getRightValue());
+        } else if (expression instanceof AttributeFunctionExtension) {
+            for (Expression parameter : ((AttributeFunctionExtension) expression).getParameters()) {
+                countOccurrences(parameter);
+            }
+        } else if (expression instanceof AttributeFunction) {
+            for (Expression parameter : ((AttributeFunction) expression).getParameters()) {
+                countOccurrences(parameter);
+            }
+        }
+    }
+
+    /**
+     * @return whether the expression is an operation on variables and constants only
+     */
+    private static boolean isShareable(Expression expression) {
+        return !(expression instanceof Variable || expression instanceof Constant) && isPure(expression);
+    }
+
+    /**
+     * @return whether the expression is built of variables, constants, math, compare and logical operations only,
+     * such that its value depends on nothing but the event it is evaluated on
+     */
+    public static boolean isPure(Expression expression) {
+        if (expression instanceof Variable || expression instanceof Constant) {
+            return true;
+        } else if (expression instanceof And) {
+            return isPure(((And) expression).getLeftExpression()) && isPure(((And) expression).getRightExpression());
+        } else if (expression instanceof Or) {
+            return isPure(((Or) expression).getLeftExpression()) && isPure(((Or) expression).getRightExpression());
+        } else if (expression instanceof Not) {
+            return isPure(((Not) expression).getExpression());
+        } else if (expression instanceof Compare) {
+            Compare compare = (Compare) expression;
+            return compare.getOperator() != Compare.Operator.INSTANCE_OF && isPure(compare.getLeftExpression()) &&
+                    isPure(compare.getRightExpression());
+        } else if (expression instanceof Add) {
+            return isPure(((Add) expression).getLeftValue()) && isPure(((Add) expression).getRightValue());
+        } else if (expression instanceof Subtract) {
+            return isPure(((Subtract) expression).getLeftValue()) && isPure(((Subtract) expression).getRightValue());
+        } else if (expression instanceof Multiply) {
+            return isPure(((Multiply) expression).getLeftValue()) && isPure(((Multiply) expression).getRightValue());
+        } else if (expression instanceof Divide) {
+            return isPure(((Divide) expression).getLeftValue()) && isPure(((Divide) expression).getRightValue());
+        } else if (expression instanceof Mod) {
+            return isPure(((Mod) expression).getLeftValue()) && isPure(((Mod) expression).getRightValue());
+        }
+        return false;
+    }
+
+    /**
+     * @return canonical form of a pure expression
+     */
+    private static Expression canonicalize(Expression expression) {
+        if (expression instanceof And) {
+            Expression left = canonicalize(((And) expression).getLeftExpression());
+            Expression right = canonicalize(((And) expression).getRightExpression());
+            return isOrdered(left, right) ? Expression.and(left, right) : Expression.and(right, left);
+        } else if (expression instanceof Or) {
+            Expression left = canonicalize(((Or) expression).getLeftExpression());
+            Expression right = canonicalize(((Or) expression).getRightExpression());
+            return isOrdered(left, right) ? Expression.or(left, right) : Expression.or(right, left);
+        } else if (expression instanceof Not) {
+            return Expression.not(canonicalize(((Not) expression).getExpression()));
+        } else if (expression instanceof Compare) {
+            Expression left = canonicalize(((Compare) expression).getLeftExpression());
+            Expression right = canonicalize(((Compare) expression).getRightExpression());
+            switch (((Compare) expression).getOperator()) {
+                case EQUAL:
+                case NOT_EQUAL:
+                    if (!isOrdered(left, right)) {
+                        return Expression.compare(right, ((Compare) expression).getOperator(), left);
+                    }
+                    return Expression.compare(left, ((Compare) expression).getOperator(), right);
+                case GREATER_THAN:
+                    return Expression.compare(right, Compare.Operator.LESS_THAN, left);
+                case GREATER_THAN_EQUAL:
+                    return Expression.compare(right, Compare.Operator.LESS_THAN_EQUAL, left);
+                default:
+                    return Expression.compare(left, ((Compare) expression).getOperator(), right);
+            }
+        } else if (expression instanceof Add) {
+            Expression left = canonicalize(((Add) expression).getLeftValue());
+            Expression right = canonicalize(((Add) expression).getRightValue());
+            return isOrdered(left, right) ? Expression.add(left, right) : Expression.add(right, left);
+        } else if (expression instanceof Multiply) {
+            Expression left = canonicalize(((Multiply) expression).getLeftValue());
+            Expression right = canonicalize(((Multiply) expression).getRightValue());
+            return isOrdered(left, right) ? Expression.multiply(left, right) : Expression.multiply(right, left);
+        } else if (expression instanceof Subtract) {
+            return Expression.subtract(canonicalize(((Subtract) expression).getLeftValue()),
+                    canonicalize(((Subtract) expression).getRightValue()));
+        } else if (expression instanceof Divide) {
+            return Expression.divide(canonicalize(((Divide) expression).getLeftValue()),
+                    canonicalize(((Divide) expression).getRightValue()));
+        } else if (expression instanceof Mod) {
+            return Expression.mod(canonicalize(((Mod) expression).getLeftValue()),
+                    canonicalize(((Mod) expression).getRightValue()));
+        }
+        return expression;
+    }
+
+    private static boolean isOrdered(Expression left, Expression right) {
+        return left.toString().compareTo(right.toString()) <= 0;
+    }
+}
@@ -24,6 +24,7 @@ import org.wso2.siddhi.core.event.stream.MetaStreamEvent;
 import org.wso2.siddhi.core.event.stream.StreamEventCloner;
 import org.wso2.siddhi.core.event.stream.StreamEventPool;
 import org.wso2.siddhi.core.executor.VariableExpressionExecutor;
+import org.wso2.siddhi.core.executor.compiler.ExpressionCompiler;
 import org.wso2.siddhi.core.query.input.ProcessStreamReceiver;
 import org.wso2.siddhi.core.query.input.stream.StreamRuntime;
 import org.wso2.siddhi.core.query.input.stream.join.JoinProcessor;
@@ -31,7 +32,10 @@ import org.wso2.siddhi.core.query.input.stream.single.SingleStreamRuntime;
 import org.wso2.siddhi.core.query.input.stream.state.StreamPreStateProcessor;
 import org.wso2.siddhi.core.query.processor.Processor;
 import org.wso2.siddhi.core.query.processor.SchedulingProcessor;
+import org.wso2.siddhi.core.query.processor.filter.FilterProcessor;
 import org.wso2.siddhi.core.query.processor.stream.StreamProcessor;
+import org.wso2.siddhi.core.query.selector.QuerySelector;
+import org.wso2.siddhi.core.query.selector.attribute.processor.AttributeProcessor;
 import org.wso2.siddhi.query.api.definition.Attribute;
 
 import java.util.List;
@@ -59,6 +63,46 @@ public class QueryParserHelper {
         }
     }
 
+    /**
+     * Mark the MetaStreamEvents of the query to hold their events in the primitive layout
+     *
+     * @param metaComplexEvent MetaStreamEvent or MetaStateEvent of the query
+     */
+    public static void setPrimitiveLayout(MetaComplexEvent metaComplexEvent) {
+        if (metaComplexEvent instanceof MetaStateEvent) {
+            for (MetaStreamEvent metaStreamEvent : ((MetaStateEvent) metaComplexEvent).getMetaStreamEvents()) {
+                metaStreamEvent.setPrimitiveLayout(true);
+            }
+        } else {
+            ((MetaStreamEvent) metaComplexEvent).setPrimitiveLayout(true);
+        }
+    }
+
+    /**
+     * Replace the filter conditions and the selected expressions of a single stream query with compiled
+     * executors. Must be called once the positions of the variables are updated.
+     *
+     * @param runtime  StreamRuntime of the query
+     * @param selector QuerySelector of the query
+     */
+    public static void compileExecutors(StreamRuntime runtime, QuerySelector selector) {
+        if (!(runtime instanceof SingleStreamRuntime)) {
+            return;
+        }
+        Processor processor = ((SingleStreamRuntime) runtime).getProcessorChain();
+        while (processor != null) {
+            if (processor instanceof FilterProcessor) {
+                FilterProcessor filterProcessor = (FilterProcessor) processor;
+                filterProcessor.setConditionExecutor(ExpressionCompiler.compile(filterProcessor.getConditionExecutor()));
+            }
+            processor = processor.getNextProcessor();
+        }
+        for (AttributeProcessor attributeProcessor : selector.getAttributeProcessorList()) {
+            attributeProcessor.setExpressionExecutor(ExpressionCompiler.compile(
+                    attributeProcessor.getExpressionExecutor()));
+        }
+    }
+
     /**
      * Helper method to clean/refactor MetaStreamEvent
      *
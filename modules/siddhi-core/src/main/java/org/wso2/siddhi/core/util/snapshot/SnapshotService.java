@@ -36,6 +36,10 @@ public class SnapshotService {
         snapshotableList.add(snapshotable);
     }
 
+    public void removeSnapshotable(Snapshotable snapshotable) {
+        snapshotableList.remove(snapshotable);
+    }
+
     public byte[] snapshot() {
         HashMap<String, Object[]> snapshots = new HashMap<String, Object[]>(snapshotableList.size());
 
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.siddhi.core.util.statistics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Progress of a consumer of a ring buffer, updated only by the consumer's thread. Batch sizes are
+ * counted in power of 2 buckets, where bucket i holds the batches of size 2^(i-1) to 2^i - 1.
+ */
+public class ConsumerStatistics {
+
+    public static final int BUCKETS = 32;
+
+    private final String name;
+    private final AtomicLong lastSequence = new AtomicLong(-1);
+    private final AtomicLongArray batchSizeHistogram = new AtomicLongArray(BUCKETS);
+    private int batchSize;
+
+    public ConsumerStatistics(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Called by the consumer for each event it has processed
+     *
+     * @param sequence   sequence of the event
+     * @param endOfBatch whether the event is the last of the available batch
+     */
+    public void consumed(long sequence, boolean endOfBatch) {
+        batchSize++;
+        if (endOfBatch) {
+            lastSequence.lazySet(sequence);
+            int bucket = 32 - Integer.numberOfLeadingZeros(batchSize);
+            batchSizeHistogram.lazySet(bucket, batchSizeHistogram.get(bucket) + 1);
+            batchSize = 0;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return sequence of the last batch completed by the consumer
+     */
+    public long getLastSequence() {
+        return lastSequence.get();
+    }
+
+    public long[] getBatchSizeHistogram() {
+        long[] histogram = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            histogram[i] = batchSizeHistogram.get(i);
+        }
+        return histogram;
+    }
+}
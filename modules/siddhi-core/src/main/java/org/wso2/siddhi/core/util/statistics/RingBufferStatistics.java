@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.siddhi.core.util.statistics;
+
+import com.lmax.disruptor.RingBuffer;
+import org.wso2.siddhi.core.stream.overflow.OverflowPolicy;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statistics of a ring buffer and its consumers. Publishers report the time they waited to claim slots
+ * via claimed(), and consumers report their progress via the ConsumerStatistics they add. Components only
+ * create statistics when statistics are enabled for the execution plan, hence nothing is recorded otherwise.
+ */
+public class RingBufferStatistics implements RingBufferStatisticsMBean {
+
+    private final String name;
+    private volatile RingBuffer<?> ringBuffer;
+    private volatile OverflowPolicy overflowPolicy;
+    private final List<ConsumerStatistics> consumers = new CopyOnWriteArrayList<ConsumerStatistics>();
+    private final AtomicLong publishedCount = new AtomicLong();
+    private final AtomicLong claimCount = new AtomicLong();
+    private final AtomicLong publishWaitNanos = new AtomicLong();
+    private final AtomicLong maxPublishWaitNanos = new AtomicLong();
+    private long lastRateTime = System.nanoTime();
+    private long lastRateCount;
+    private volatile double publishRate;
+
+    public RingBufferStatistics(String name) {
+        this.name = name;
+    }
+
+    public void setRingBuffer(RingBuffer<?> ringBuffer) {
+        this.ringBuffer = ringBuffer;
+    }
+
+    public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    public ConsumerStatistics addConsumer(String consumerName) {
+        ConsumerStatistics consumerStatistics = new ConsumerStatistics(consumerName);
+        consumers.add(consumerStatistics);
+        return consumerStatistics;
+    }
+
+    public List<ConsumerStatistics> getConsumers() {
+        return consumers;
+    }
+
+    /**
+     * Called by a publisher after claiming slots
+     *
+     * @param claimStartTime System.nanoTime() before the claim
+     * @param batchSize      number of slots claimed
+     */
+    public void claimed(long claimStartTime, int batchSize) {
+        long waitNanos = System.nanoTime() - claimStartTime;
+        publishedCount.addAndGet(batchSize);
+        claimCount.incrementAndGet();
+        publishWaitNanos.addAndGet(waitNanos);
+        long max = maxPublishWaitNanos.get();
+        while (waitNanos > max && !maxPublishWaitNanos.compareAndSet(max, waitNanos)) {
+            max = maxPublishWaitNanos.get();
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public int getBufferSize() {
+        RingBuffer<?> ringBuffer = this.ringBuffer;
+        return ringBuffer == null ? 0 : ringBuffer.getBufferSize();
+    }
+
+    @Override
+    public long getRemainingCapacity() {
+        RingBuffer<?> ringBuffer = this.ringBuffer;
+        return ringBuffer == null ? 0 : ringBuffer.remainingCapacity();
+    }
+
+    @Override
+    public long getPublishedCount() {
+        return publishedCount.get();
+    }
+
+    /**
+     * @return events published per second between the last two samples, or from creation to the first sample
+     */
+    @Override
+    public double getPublishRate() {
+        return publishRate;
+    }
+
+    /**
+     * Compute the rates since the previous sample, called by the StatisticsManager every interval
+     */
+    public synchronized void sample() {
+        long now = System.nanoTime();
+        long count = publishedCount.get();
+        if (now != lastRateTime) {
+            publishRate = (count - lastRateCount) * 1e9 / (now - lastRateTime);
+        }
+        lastRateTime = now;
+        lastRateCount = count;
+    }
+
+    @Override
+    public long getAveragePublishWaitNanos() {
+        long claims = claimCount.get();
+        return claims == 0 ? 0 : publishWaitNanos.get() / claims;
+    }
+
+    @Override
+    public long getMaxPublishWaitNanos() {
+        return maxPublishWaitNanos.get();
+    }
+
+    /**
+     * @return number of published events the slowest consumer has not yet completed
+     */
+    @Override
+    public long getConsumerLag() {
+        RingBuffer<?> ringBuffer = this.ringBuffer;
+        if (ringBuffer == null) {
+            return 0;
+        }
+        long cursor = ringBuffer.getCursor();
+        long lag = 0;
+        for (ConsumerStatistics consumer : consumers) {
+            lag = Math.max(lag, cursor - consumer.getLastSequence());
+        }
+        return lag;
+    }
+
+    /**
+     * @return batch sizes seen by all consumers, see ConsumerStatistics for the buckets
+     */
+    @Override
+    public long[] getBatchSizeHistogram() {
+        long[] histogram = new long[ConsumerStatistics.BUCKETS];
+        for (ConsumerStatistics consumer : consumers) {
+            long[] consumerHistogram = consumer.getBatchSizeHistogram();
+            for (int i = 0; i < histogram.length; i++) {
+                histogram[i] += consumerHistogram[i];
+            }
+        }
+        return histogram;
+    }
+
+    @Override
+    public long getDroppedCount() {
+        OverflowPolicy overflowPolicy = this.overflowPolicy;
+        return overflowPolicy == null ? 0 : overflowPolicy.getDroppedCount();
+    }
+
+    @Override
+    public long getSpilledCount() {
+        OverflowPolicy overflowPolicy = this.overflowPolicy;
+        return overflowPolicy == null ? 0 : overflowPolicy.getSpilledCount();
+    }
+
+    @Override
+    public String toString() {
+        return "RingBufferStatistics{" +
+                "name='" + name + '\'' +
+                ", bufferSize=" + getBufferSize() +
+                ", remainingCapacity=" + getRemainingCapacity() +
+                ", publishedCount=" + getPublishedCount() +
+                ", averagePublishWaitNanos=" + getAveragePublishWaitNanos() +
+                ", consumerLag=" + getConsumerLag() +
+                ", droppedCount=" + getDroppedCount() +
+                ", spilledCount=" + getSpilledCount() +
+                '}';
+    }
+}
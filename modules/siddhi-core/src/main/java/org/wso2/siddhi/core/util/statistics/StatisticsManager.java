@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.siddhi.core.util.statistics;
+
+import org.apache.log4j.Logger;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the ring buffer statistics of an execution plan, set on the ExecutionPlanContext only when the
+ * plan is annotated with @Statistics. With @Statistics(jmx='true') each statistics is also registered as
+ * an MBean named org.wso2.siddhi:type=RingBuffer,executionPlan=&lt;plan&gt;,name=&lt;ring buffer&gt;
+ * <p/>
+ * Rates are sampled every @Statistics(interval='&lt;milliseconds&gt;'), one second by default, once the plan
+ * is started, such that reading them does not change what other readers see.
+ */
+public class StatisticsManager {
+
+    public static final long DEFAULT_INTERVAL = 1000;
+    private static final Logger log = Logger.getLogger(StatisticsManager.class);
+    private final String executionPlanName;
+    private final boolean jmxEnabled;
+    private final ConcurrentMap<String, RingBufferStatistics> ringBufferStatisticsMap =
+            new ConcurrentHashMap<String, RingBufferStatistics>();
+    private final ConcurrentMap<String, ObjectName> objectNameMap = new ConcurrentHashMap<String, ObjectName>();
+    private final long interval;
+    private ScheduledFuture<?> samplingFuture;
+
+    public StatisticsManager(String executionPlanName, boolean jmxEnabled) {
+        this(executionPlanName, jmxEnabled, DEFAULT_INTERVAL);
+    }
+
+    /**
+     * @param executionPlanName name of the execution plan
+     * @param jmxEnabled        whether the statistics are registered as MBeans
+     * @param interval          milliseconds between samples of the rates
+     */
+    public StatisticsManager(String executionPlanName, boolean jmxEnabled, long interval) {
+        this.executionPlanName = executionPlanName;
+        this.jmxEnabled = jmxEnabled;
+        this.interval = interval;
+    }
+
+    /**
+     * Start sampling the rates of the statistics every interval
+     *
+     * @param scheduledExecutorService executor running the samples
+     */
+    public synchronized void start(ScheduledExecutorService scheduledExecutorService) {
+        if (samplingFuture != null) {
+            return;
+        }
+        samplingFuture = scheduledExecutorService.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                sample();
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Sample the rates of all statistics, closing their current measurement windows
+     */
+    public void sample() {
+        for (RingBufferStatistics ringBufferStatistics : ringBufferStatisticsMap.values()) {
+            ringBufferStatistics.sample();
+        }
+    }
+
+    /**
+     * Create the statistics of a ring buffer, replacing the statistics of an earlier ring buffer of the same name
+     *
+     * @param name name of the ring buffer, e.g. junction:StockStream
+     * @return RingBufferStatistics
+     */
+    public RingBufferStatistics createRingBufferStatistics(String name) {
+        RingBufferStatistics ringBufferStatistics = new RingBufferStatistics(name);
+        ringBufferStatisticsMap.put(name, ringBufferStatistics);
+        if (jmxEnabled) {
+            unregister(name);
+            try {
+                ObjectName objectName = new ObjectName("org.wso2.siddhi:type=RingBuffer,executionPlan=" +
+                        ObjectName.quote(executionPlanName) + ",name=" + ObjectName.quote(name));
+                ManagementFactory.getPlatformMBeanServer().registerMBean(ringBufferStatistics, objectName);
+                objectNameMap.put(name, objectName);
+            } catch (Exception e) {
+                log.error("Cannot register statistics of " + name + " of execution plan " + executionPlanName +
+                        " with JMX", e);
+            }
+        }
+        return ringBufferStatistics;
+    }
+
+    /**
+     * @return statistics of the ring buffers by their names
+     */
+    public Map<String, RingBufferStatistics> getRingBufferStatistics() {
+        return Collections.unmodifiableMap(ringBufferStatisticsMap);
+    }
+
+    public boolean isJmxEnabled() {
+        return jmxEnabled;
+    }
+
+    /**
+     * Stop sampling and unregister all MBeans of the execution plan
+     */
+    public void stop() {
+        synchronized (this) {
+            if (samplingFuture != null) {
+                samplingFuture.cancel(false);
+                samplingFuture = null;
+            }
+        }
+        for (String name : objectNameMap.keySet()) {
+            unregister(name);
+        }
+    }
+
+    private void unregister(String name) {
+        ObjectName objectName = objectNameMap.remove(name);
+        if (objectName != null) {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            try {
+                if (mBeanServer.isRegistered(objectName)) {
+                    mBeanServer.unregisterMBean(objectName);
+                }
+            } catch (Exception e) {
+                log.error("Cannot unregister statistics of " + name + " of execution plan " + executionPlanName, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.siddhi.core.util.timestamp;
+
+/**
+ * Timestamp generator of execution plans running in playback mode, where time is driven by the
+ * timestamps of the arriving events instead of the system clock. Until the first event arrives the
+ * time is the system time at which the generator was created.
+ */
+public class EventTimestampGenerator implements TimestampGenerator {
+
+    private volatile long currentTime;
+    private volatile boolean eventArrived = false;
+
+    public EventTimestampGenerator() {
+        this(System.currentTimeMillis());
+    }
+
+    /**
+     * @param startTime time to report until the first event arrives
+     */
+    public EventTimestampGenerator(long startTime) {
+        this.currentTime = startTime;
+    }
+
+    public long currentTime() {
+        return currentTime;
+    }
+
+    /**
+     * Advance the time to the given event timestamp, time never moves backwards once the first event
+     * has arrived, while the first event sets the time even when it is earlier than the start time
+     *
+     * @param timeStamp timestamp of the arrived event
+     */
+    public void setCurrentTime(long timeStamp) {
+        if (!eventArrived || timeStamp > currentTime) {
+            currentTime = timeStamp;
+            eventArrived = true;
+        }
+    }
+}
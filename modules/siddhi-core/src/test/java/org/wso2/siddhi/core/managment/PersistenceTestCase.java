@@ -422,5 +422,78 @@ public class PersistenceTestCase {
 
     }
 
+    @Test
+    public void persistenceTest6() throws InterruptedException {
+        log.info("persistence test 6 - group by restart with dictionary encoding added");
+
+        PersistenceStore persistenceStore = new InMemoryPersistenceStore();
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        siddhiManager.setPersistenceStore(persistenceStore);
+
+        String query = "" +
+                "@info(name = 'query1')" +
+                "from StockStream#window.length(10) " +
+                "select symbol, sum(volume) as totalVol " +
+                "group by symbol " +
+                "insert into OutStream ";
+        String executionPlan = "" +
+                "@plan:name('Test') " +
+                "" +
+                "define stream StockStream ( symbol string, price float, volume int );" +
+                "" +
+                query;
+        String dictionaryExecutionPlan = "" +
+                "@plan:name('Test') " +
+                "" +
+                "@dictionary('symbol') " +
+                "define stream StockStream ( symbol string, price float, volume int );" +
+                "" +
+                query;
+
+        QueryCallback queryCallback = new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                eventArrived = true;
+                for (Event inEvent : inEvents) {
+                    count++;
+                    lastValue = (Long) inEvent.getData(1);
+                }
+            }
+        };
 
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(executionPlan);
+        executionPlanRuntime.addCallback("query1", queryCallback);
+
+        InputHandler inputHandler = executionPlanRuntime.getInputHandler("StockStream");
+        executionPlanRuntime.start();
+
+        inputHandler.send(new Object[]{"IBM", 75.6f, 100});
+        inputHandler.send(new Object[]{"WSO2", 75.6f, 100});
+
+        //persisting
+        Thread.sleep(500);
+        executionPlanRuntime.persist();
+
+        //restarting execution plan with the group by attribute dictionary encoded
+        executionPlanRuntime.shutdown();
+        executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(dictionaryExecutionPlan);
+        executionPlanRuntime.addCallback("query1", queryCallback);
+        inputHandler = executionPlanRuntime.getInputHandler("StockStream");
+        executionPlanRuntime.start();
+
+        //loading, the snapshot has no state of the dictionary
+        executionPlanRuntime.restoreLastRevision();
+
+        inputHandler.send(new Object[]{"IBM", 75.6f, 100});
+
+        //shutdown execution plan
+        Thread.sleep(500);
+        executionPlanRuntime.shutdown();
+
+        Assert.assertEquals(3, count);
+        Assert.assertEquals(true, eventArrived);
+
+    }
 }
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.query;
+
+import org.apache.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.siddhi.core.ExecutionPlanRuntime;
+import org.wso2.siddhi.core.SiddhiManager;
+import org.wso2.siddhi.core.event.ColumnBatch;
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.event.stream.MetaStreamEvent;
+import org.wso2.siddhi.core.event.stream.PrimitiveStreamEvent;
+import org.wso2.siddhi.core.event.stream.StreamEvent;
+import org.wso2.siddhi.core.event.stream.StreamEventCloner;
+import org.wso2.siddhi.core.event.stream.StreamEventPool;
+import org.wso2.siddhi.core.event.stream.converter.StreamEventConverter;
+import org.wso2.siddhi.core.event.stream.converter.StreamEventConverterFactory;
+import org.wso2.siddhi.core.executor.VariableExpressionExecutor;
+import org.wso2.siddhi.core.query.output.callback.QueryCallback;
+import org.wso2.siddhi.core.stream.input.InputHandler;
+import org.wso2.siddhi.core.util.SiddhiConstants;
+import org.wso2.siddhi.query.api.definition.Attribute;
+import org.wso2.siddhi.query.api.definition.StreamDefinition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class PrimitiveLayoutTestCase {
+    static final Logger log = Logger.getLogger(PrimitiveLayoutTestCase.class);
+
+    private static List<String> runQuery(String info) throws InterruptedException {
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String executionPlan = "" +
+                "define stream cseEventStream (symbol string, price float, volume long, active bool);" +
+                "" +
+                "@info(" + info + ") " +
+                "from cseEventStream[active and volume > 10]#window.length(3) " +
+                "select symbol, price * 2 as doublePrice, sum(volume) as totalVolume, max(price) as maxPrice " +
+                "insert all events into outputStream ;";
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(executionPlan);
+
+        final List<String> output = new ArrayList<String>();
+        executionPlanRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                if (inEvents != null) {
+                    for (Event event : inEvents) {
+                        output.add("in" + Arrays.toString(event.getData()));
+                    }
+                }
+                if (removeEvents != null) {
+                    for (Event event : removeEvents) {
+                        output.add("removed" + Arrays.toString(event.getData()));
+                    }
+                }
+            }
+        });
+
+        InputHandler inputHandler = executionPlanRuntime.getInputHandler("cseEventStream");
+        executionPlanRuntime.start();
+        String[] symbols = {"IBM", "WSO2", "ORCL"};
+        for (int i = 0; i < 30; i++) {
+            inputHandler.send(new Object[]{symbols[i % 3], 10f + (i * 7) % 13, (long) i, i % 4 != 0});
+        }
+        Thread.sleep(100);
+        executionPlanRuntime.shutdown();
+        return output;
+    }
+
+    @Test
+    public void primitiveLayoutTest1() throws InterruptedException {
+        log.info("primitive layout test1 - window query gives the same output on both layouts");
+
+        List<String> output = runQuery("name = 'query1'");
+        List<String> primitiveOutput = runQuery("name = 'query1', layout = 'primitive'");
+        Assert.assertFalse(output.isEmpty());
+        Assert.assertEquals(output, primitiveOutput);
+    }
+
+    @Test
+    public void testPrimitiveStreamEvent() {
+        Attribute symbol = new Attribute("symbol", Attribute.Type.STRING);
+        Attribute price = new Attribute("price", Attribute.Type.FLOAT);
+        Attribute volume = new Attribute("volume", Attribute.Type.LONG);
+        Attribute active = new Attribute("active", Attribute.Type.BOOL);
+
+        MetaStreamEvent metaStreamEvent = new MetaStreamEvent();
+        metaStreamEvent.addData(volume);
+        metaStreamEvent.addData(active);
+        metaStreamEvent.initializeAfterWindowData();
+        metaStreamEvent.addData(price);
+        metaStreamEvent.addOutputData(symbol);
+        metaStreamEvent.setPrimitiveLayout(true);
+
+        StreamDefinition streamDefinition = StreamDefinition.id("cseEventStream").attribute("symbol", Attribute.Type.STRING).
+                attribute("price", Attribute.Type.FLOAT).attribute("volume", Attribute.Type.LONG).attribute("active", Attribute.Type.BOOL);
+        metaStreamEvent.addInputDefinition(streamDefinition);
+        StreamEventConverter converter = StreamEventConverterFactory.constructEventConverter(metaStreamEvent);
+        StreamEventPool eventPool = new StreamEventPool(metaStreamEvent, 5);
+
+        StreamEvent borrowedEvent = eventPool.borrowEvent();
+        Assert.assertTrue(borrowedEvent instanceof PrimitiveStreamEvent);
+        converter.convertEvent(new Event(100, new Object[]{"WSO2", 55.5f, 200L, true}), borrowedEvent);
+
+        Assert.assertArrayEquals(new Object[]{200L, true}, borrowedEvent.getBeforeWindowData());
+        Assert.assertArrayEquals(new Object[]{55.5f}, borrowedEvent.getOnAfterWindowData());
+        Assert.assertEquals("WSO2", borrowedEvent.getOutputData()[0]);
+
+        int[] volumePosition = new int[]{0, 0, SiddhiConstants.BEFORE_WINDOW_DATA_INDEX, 0};
+        int[] activePosition = new int[]{0, 0, SiddhiConstants.BEFORE_WINDOW_DATA_INDEX, 1};
+        int[] pricePosition = new int[]{0, 0, SiddhiConstants.ON_AFTER_WINDOW_DATA_INDEX, 0};
+        Assert.assertEquals(200L, borrowedEvent.getAttribute(volumePosition));
+        Assert.assertEquals(200L, borrowedEvent.getLongAttribute(volumePosition));
+        Assert.assertTrue(borrowedEvent.getBoolAttribute(activePosition));
+        Assert.assertEquals(55.5, borrowedEvent.getDoubleAttribute(pricePosition), 0);
+
+        VariableExpressionExecutor volumeExecutor = new VariableExpressionExecutor(volume, 0, 0);
+        volumeExecutor.setPosition(volumePosition);
+        Assert.assertEquals(200L, volumeExecutor.executeLong(borrowedEvent));
+        Assert.assertEquals(200L, volumeExecutor.execute(borrowedEvent));
+
+        StreamEventCloner cloner = new StreamEventCloner(metaStreamEvent, eventPool);
+        StreamEvent clonedEvent = cloner.copyStreamEvent(borrowedEvent);
+        Assert.assertEquals(borrowedEvent, clonedEvent);
+        Assert.assertEquals(borrowedEvent.hashCode(), clonedEvent.hashCode());
+
+        clonedEvent.setBeforeWindowData(null, 0);
+        Assert.assertNull(clonedEvent.getAttribute(volumePosition));
+        Assert.assertEquals(0L, clonedEvent.getLongAttribute(volumePosition));
+        Assert.assertEquals(200L, borrowedEvent.getAttribute(volumePosition));
+
+        ColumnBatch columnBatch = new ColumnBatch(streamDefinition, 1);
+        columnBatch.getStringColumn(0)[0] = "IBM";
+        columnBatch.getFloatColumn(1)[0] = 75.25f;
+        columnBatch.getLongColumn(2)[0] = 300L;
+        columnBatch.getBoolColumn(3)[0] = false;
+        columnBatch.setSize(1);
+        converter.convertColumns(200, columnBatch, 0, clonedEvent);
+        Assert.assertArrayEquals(new Object[]{300L, false}, clonedEvent.getBeforeWindowData());
+        Assert.assertArrayEquals(new Object[]{75.25f}, clonedEvent.getOnAfterWindowData());
+        Assert.assertEquals("IBM", clonedEvent.getOutputData()[0]);
+        Assert.assertEquals(200, clonedEvent.getTimestamp());
+    }
+
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.query;
+
+import junit.framework.Assert;
+import org.apache.log4j.Logger;
+import org.junit.Test;
+import org.wso2.siddhi.core.ExecutionPlanRuntime;
+import org.wso2.siddhi.core.SiddhiManager;
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.query.output.callback.QueryCallback;
+import org.wso2.siddhi.core.stream.input.InputHandler;
+import org.wso2.siddhi.query.api.ExecutionPlan;
+import org.wso2.siddhi.query.api.annotation.Annotation;
+import org.wso2.siddhi.query.api.definition.Attribute;
+import org.wso2.siddhi.query.api.definition.StreamDefinition;
+import org.wso2.siddhi.query.api.execution.query.Query;
+import org.wso2.siddhi.query.api.execution.query.input.stream.InputStream;
+import org.wso2.siddhi.query.api.execution.query.selection.Selector;
+import org.wso2.siddhi.query.api.expression.Expression;
+import org.wso2.siddhi.query.api.expression.condition.Compare;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+public class ShardedQueryTestCase {
+    static final Logger log = Logger.getLogger(ShardedQueryTestCase.class);
+
+    private static ExecutionPlanRuntime createExecutionPlanRuntime(Query query) {
+        StreamDefinition cseEventStream = StreamDefinition.id("cseEventStream").attribute("symbol", Attribute.Type.STRING).
+                attribute("price", Attribute.Type.INT).
+                annotation(Annotation.annotation("parallel").element("shardBy", "symbol").element("workers", "4"));
+        ExecutionPlan executionPlan = new ExecutionPlan("ep1");
+        executionPlan.defineStream(cseEventStream);
+        executionPlan.addQuery(query);
+        return new SiddhiManager().createExecutionPlanRuntime(executionPlan);
+    }
+
+    @Test
+    public void shardedQueryTest1() throws InterruptedException {
+        log.info("Sharded query test1 - window query on sharded stream is not sharded");
+
+        Query query = new Query();
+        query.from(InputStream.stream("cseEventStream").window("length", Expression.value(10)));
+        query.annotation(Annotation.annotation("info").element("name", "query1"));
+        query.select(Selector.selector().select("total", Expression.function("sum", Expression.variable("price"))));
+        query.insertInto("OutputStream");
+
+        ExecutionPlanRuntime executionPlanRuntime = createExecutionPlanRuntime(query);
+        final List<Long> totals = new ArrayList<Long>();
+        executionPlanRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                if (inEvents != null) {
+                    for (Event event : inEvents) {
+                        totals.add((Long) event.getData()[0]);
+                    }
+                }
+            }
+        });
+
+        InputHandler inputHandler = executionPlanRuntime.getInputHandler("cseEventStream");
+        executionPlanRuntime.start();
+        String[] symbols = {"IBM", "WSO2", "ORCL", "MSFT", "GOOG", "AAPL", "FB", "TWTR"};
+        for (int i = 0; i < 40; i++) {
+            inputHandler.send(new Object[]{symbols[i % symbols.length], i});
+        }
+        Thread.sleep(200);
+        executionPlanRuntime.shutdown();
+
+        Assert.assertEquals(40, totals.size());
+        long expected = 0;
+        for (int i = 30; i < 40; i++) {
+            expected += i;
+        }
+        Assert.assertEquals(Long.valueOf(expected), totals.get(39));
+    }
+
+    @Test
+    public void shardedQueryTest2() throws InterruptedException {
+        log.info("Sharded query test2 - filter query sharded across workers");
+
+        Query query = new Query();
+        query.from(InputStream.stream("cseEventStream").
+                filter(Expression.compare(Expression.variable("price"), Compare.Operator.GREATER_THAN_EQUAL, Expression.value(100))));
+        query.annotation(Annotation.annotation("info").element("name", "query1"));
+        query.select(Selector.selector().
+                select("symbol", Expression.variable("symbol")).
+                select("price", Expression.variable("price")));
+        query.insertInto("OutputStream");
+
+        ExecutionPlanRuntime executionPlanRuntime = createExecutionPlanRuntime(query);
+        final List<Integer> prices = new ArrayList<Integer>();
+        executionPlanRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                if (inEvents != null) {
+                    for (Event event : inEvents) {
+                        prices.add((Integer) event.getData()[1]);
+                    }
+                }
+            }
+        });
+
+        InputHandler inputHandler = executionPlanRuntime.getInputHandler("cseEventStream");
+        executionPlanRuntime.start();
+        String[] symbols = {"IBM", "WSO2", "ORCL", "MSFT", "GOOG", "AAPL", "FB", "TWTR"};
+        for (int i = 0; i < 400; i++) {
+            inputHandler.send(new Object[]{symbols[i % symbols.length], i});
+        }
+        Thread.sleep(200);
+        executionPlanRuntime.shutdown();
+
+        Assert.assertEquals(300, prices.size());
+    }
+
+    @Test
+    public void shardedQueryTest3() throws InterruptedException {
+        log.info("Sharded query test3 - sharded query inserting in to a windowed stream that is not parallel");
+
+        Query query1 = new Query();
+        query1.from(InputStream.stream("cseEventStream").
+                filter(Expression.compare(Expression.variable("price"), Compare.Operator.GREATER_THAN_EQUAL, Expression.value(0))));
+        query1.annotation(Annotation.annotation("info").element("name", "query1"));
+        query1.select(Selector.selector().
+                select("symbol", Expression.variable("symbol")).
+                select("price", Expression.variable("price")));
+        query1.insertInto("OutputStream");
+
+        Query query2 = new Query();
+        query2.from(InputStream.stream("OutputStream").window("length", Expression.value(1000)));
+        query2.annotation(Annotation.annotation("info").element("name", "query2"));
+        query2.select(Selector.selector().select("total", Expression.function("sum", Expression.variable("price"))));
+        query2.insertInto("TotalStream");
+
+        StreamDefinition cseEventStream = StreamDefinition.id("cseEventStream").attribute("symbol", Attribute.Type.STRING).
+                attribute("price", Attribute.Type.INT).
+                annotation(Annotation.annotation("parallel").element("shardBy", "symbol").element("workers", "4"));
+        ExecutionPlan executionPlan = new ExecutionPlan("ep1");
+        executionPlan.defineStream(cseEventStream);
+        executionPlan.addQuery(query1);
+        executionPlan.addQuery(query2);
+        ExecutionPlanRuntime executionPlanRuntime = new SiddhiManager().createExecutionPlanRuntime(executionPlan);
+        Assert.assertEquals(3, executionPlanRuntime.getQueryShardMap().get("query1").size());
+
+        final List<Long> totals = new ArrayList<Long>();
+        executionPlanRuntime.addCallback("query2", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                if (inEvents != null) {
+                    synchronized (totals) {
+                        for (Event event : inEvents) {
+                            totals.add((Long) event.getData()[0]);
+                        }
+                    }
+                }
+            }
+        });
+
+        InputHandler inputHandler = executionPlanRuntime.getInputHandler("cseEventStream");
+        executionPlanRuntime.start();
+        String[] symbols = {"IBM", "WSO2", "ORCL", "MSFT", "GOOG", "AAPL", "FB", "TWTR"};
+        long expected = 0;
+        for (int i = 1; i <= 400; i++) {
+            inputHandler.send(new Object[]{symbols[i % symbols.length], i});
+            expected += i;
+        }
+        Thread.sleep(500);
+        executionPlanRuntime.shutdown();
+
+        //the window is driven by one shard at a time, so each event raises the running total once
+        synchronized (totals) {
+            Assert.assertEquals(400, totals.size());
+            Assert.assertEquals(400, new HashSet<Long>(totals).size());
+            Assert.assertEquals(Long.valueOf(expected), Collections.max(totals));
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.query.filter;
+
+import org.apache.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.siddhi.core.ExecutionPlanRuntime;
+import org.wso2.siddhi.core.SiddhiManager;
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.event.stream.StreamEvent;
+import org.wso2.siddhi.core.executor.ConstantExpressionExecutor;
+import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.core.executor.VariableExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.AdaptiveOperandOrder;
+import org.wso2.siddhi.core.executor.condition.AndConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.OrConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.compare.equal.EqualCompareConditionExpressionExecutorLongLong;
+import org.wso2.siddhi.core.executor.condition.compare.greater_than.GreaterThanCompareConditionExpressionExecutorFloatFloat;
+import org.wso2.siddhi.core.executor.condition.compare.greater_than.GreaterThanCompareConditionExpressionExecutorLongLong;
+import org.wso2.siddhi.core.executor.math.add.AddExpressionExecutorFloat;
+import org.wso2.siddhi.core.executor.math.mod.ModExpressionExecutorLong;
+import org.wso2.siddhi.core.query.output.callback.QueryCallback;
+import org.wso2.siddhi.core.stream.input.InputHandler;
+import org.wso2.siddhi.core.util.SiddhiConstants;
+import org.wso2.siddhi.query.api.definition.Attribute;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class AdaptiveFilterTestCase {
+    static final Logger log = Logger.getLogger(AdaptiveFilterTestCase.class);
+
+    @Test
+    public void adaptiveFilterTest1() throws InterruptedException {
+        log.info("adaptive filter test1 - output of a filter is kept while its operands are reordered");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String executionPlan = "" +
+                "define stream cseEventStream (symbol string, price float, volume long);" +
+                "" +
+                "@info(name = 'query1') " +
+                "from cseEventStream[(price + price + price + price + price + price + price + price > -1 " +
+                "and volume > 85) or (volume % 3 == 0 and symbol == 'IBM' and price > 1000)] " +
+                "select symbol, volume " +
+                "insert into outputStream ;";
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(executionPlan);
+
+        final List<Long> volumes = new ArrayList<Long>();
+        executionPlanRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                for (Event event : inEvents) {
+                    volumes.add((Long) event.getData()[1]);
+                }
+            }
+        });
+
+        InputHandler inputHandler = executionPlanRuntime.getInputHandler("cseEventStream");
+        executionPlanRuntime.start();
+        List<Long> expected = new ArrayList<Long>();
+        String[] symbols = {"IBM", "WSO2"};
+        for (int i = 0; i < 20000; i++) {
+            long volume = i % 90;
+            float price = i % 7 == 0 ? -1.5f : 1.5f;
+            String symbol = symbols[i % 2];
+            inputHandler.send(new Object[]{symbol, price, volume});
+            if ((price * 8 > -1 && volume > 85) || (volume % 3 == 0 && symbol.equals("IBM") && price > 1000)) {
+                expected.add(volume);
+            }
+        }
+        Thread.sleep(100);
+        executionPlanRuntime.shutdown();
+
+        Assert.assertFalse(expected.isEmpty());
+        Assert.assertEquals(expected, volumes);
+    }
+
+    @Test
+    public void testAdaptiveOperandOrder() {
+        VariableExpressionExecutor priceExecutor = new VariableExpressionExecutor(new Attribute("price", Attribute.Type.FLOAT), 0, 0);
+        priceExecutor.setPosition(new int[]{0, SiddhiConstants.UNKNOWN_STATE, SiddhiConstants.OUTPUT_DATA_INDEX, 0});
+        VariableExpressionExecutor volumeExecutor = new VariableExpressionExecutor(new Attribute("volume", Attribute.Type.LONG), 0, 0);
+        volumeExecutor.setPosition(new int[]{0, SiddhiConstants.UNKNOWN_STATE, SiddhiConstants.OUTPUT_DATA_INDEX, 1});
+
+        // ((((price + price) + price) ...) > -1) and volume > 100, where the costly left operand is always true
+        ExpressionExecutor sumExecutor = priceExecutor;
+        for (int i = 0; i < 40; i++) {
+            sumExecutor = new AddExpressionExecutorFloat(sumExecutor, priceExecutor);
+        }
+        AndConditionExpressionExecutor andExecutor = new AndConditionExpressionExecutor(
+                new GreaterThanCompareConditionExpressionExecutorFloatFloat(sumExecutor, new ConstantExpressionExecutor(-1f, Attribute.Type.FLOAT)),
+                new GreaterThanCompareConditionExpressionExecutorLongLong(volumeExecutor, new ConstantExpressionExecutor(100L, Attribute.Type.LONG)));
+        // volume % 3 == 0 or ..., never reordered as the integer modulo may fail
+        OrConditionExpressionExecutor orExecutor = new OrConditionExpressionExecutor(
+                new EqualCompareConditionExpressionExecutorLongLong(
+                        new ModExpressionExecutorLong(volumeExecutor, new ConstantExpressionExecutor(3L, Attribute.Type.LONG)),
+                        new ConstantExpressionExecutor(0L, Attribute.Type.LONG)),
+                andExecutor);
+        Assert.assertFalse(andExecutor.isReordered());
+
+        StreamEvent event = new StreamEvent(0, 0, 2);
+        for (int i = 0; i < 100000; i++) {
+            long volume = i % 90;
+            event.setOutputData(new Object[]{1.5f, volume});
+            Assert.assertFalse(andExecutor.executeBool(event));
+            Assert.assertEquals(volume % 3 == 0, orExecutor.executeBool(event));
+        }
+        Assert.assertTrue(andExecutor.isReordered());
+        Assert.assertFalse(orExecutor.isReordered());
+        Assert.assertFalse(AdaptiveOperandOrder.isReorderable(orExecutor));
+        Assert.assertTrue(AdaptiveOperandOrder.isReorderable(andExecutor));
+
+        event.setOutputData(new Object[]{1.5f, 150L});
+        Assert.assertTrue(andExecutor.executeBool(event));
+        event.setOutputData(new Object[]{-1.5f, 150L});
+        Assert.assertFalse(andExecutor.executeBool(event));
+        Assert.assertFalse(((AndConditionExpressionExecutor) andExecutor.cloneExecutor("key")).isReordered());
+    }
+}
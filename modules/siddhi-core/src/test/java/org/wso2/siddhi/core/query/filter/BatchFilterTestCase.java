@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.query.filter;
+
+import org.apache.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.siddhi.core.ExecutionPlanRuntime;
+import org.wso2.siddhi.core.SiddhiManager;
+import org.wso2.siddhi.core.event.ArrayEventChunk;
+import org.wso2.siddhi.core.event.ComplexEvent;
+import org.wso2.siddhi.core.event.ComplexEventChunk;
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.event.stream.StreamEvent;
+import org.wso2.siddhi.core.executor.ConstantExpressionExecutor;
+import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.core.executor.VariableExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.AndConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.NotConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.OrConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.compare.equal.EqualCompareConditionExpressionExecutorLongFloat;
+import org.wso2.siddhi.core.executor.condition.compare.greater_than.GreaterThanCompareConditionExpressionExecutorFloatDouble;
+import org.wso2.siddhi.core.executor.math.divide.DivideExpressionExecutorDouble;
+import org.wso2.siddhi.core.executor.math.multiply.MultiplyExpressionExecutorFloat;
+import org.wso2.siddhi.core.query.output.callback.QueryCallback;
+import org.wso2.siddhi.core.query.processor.Processor;
+import org.wso2.siddhi.core.query.processor.filter.FilterProcessor;
+import org.wso2.siddhi.core.stream.input.InputHandler;
+import org.wso2.siddhi.core.util.SiddhiConstants;
+import org.wso2.siddhi.query.api.definition.Attribute;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class BatchFilterTestCase {
+    static final Logger log = Logger.getLogger(BatchFilterTestCase.class);
+
+    @Test
+    public void batchFilterTest1() throws InterruptedException {
+        log.info("batch filter test1 - event arrays filtered a column at a time");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String executionPlan = "" +
+                "define stream cseEventStream (price float, volume long, quantity int, active bool);" +
+                "" +
+                "@info(name = 'query1') " +
+                "from cseEventStream[(price * quantity > volume / 2 and not(volume == price)) or active] " +
+                "select price, volume, quantity, active " +
+                "insert into outputStream ;";
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(executionPlan);
+
+        final List<String> output = new ArrayList<String>();
+        executionPlanRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                for (Event event : inEvents) {
+                    output.add(Arrays.toString(event.getData()));
+                }
+            }
+        });
+
+        InputHandler inputHandler = executionPlanRuntime.getInputHandler("cseEventStream");
+        executionPlanRuntime.start();
+        List<String> expected = new ArrayList<String>();
+        Random random = new Random(7);
+        for (int round = 0; round < 20; round++) {
+            Event[] events = new Event[random.nextInt(100) + 1];
+            for (int i = 0; i < events.length; i++) {
+                Float price = random.nextInt(5) == 0 ? null : random.nextInt(20) - 5f;
+                Long volume = random.nextInt(5) == 0 ? null : (long) random.nextInt(100);
+                int quantity = random.nextInt(10);
+                boolean active = random.nextInt(4) == 0;
+                Object[] data = new Object[]{price, volume, quantity, active};
+                events[i] = new Event(System.currentTimeMillis(), data);
+                boolean compared = price != null && volume != null &&
+                        price * quantity > volume / 2 && !(volume == (double) price);
+                if (compared || active) {
+                    expected.add(Arrays.toString(data));
+                }
+            }
+            inputHandler.send(events);
+        }
+        Thread.sleep(100);
+        executionPlanRuntime.shutdown();
+
+        Assert.assertFalse(expected.isEmpty());
+        Assert.assertEquals(expected, output);
+    }
+
+    @Test
+    public void testBatchFilter() {
+        VariableExpressionExecutor priceExecutor = new VariableExpressionExecutor(new Attribute("price", Attribute.Type.FLOAT), 0, 0);
+        priceExecutor.setPosition(new int[]{0, SiddhiConstants.UNKNOWN_STATE, SiddhiConstants.OUTPUT_DATA_INDEX, 0});
+        VariableExpressionExecutor volumeExecutor = new VariableExpressionExecutor(new Attribute("volume", Attribute.Type.LONG), 0, 0);
+        volumeExecutor.setPosition(new int[]{0, SiddhiConstants.UNKNOWN_STATE, SiddhiConstants.OUTPUT_DATA_INDEX, 1});
+        VariableExpressionExecutor quantityExecutor = new VariableExpressionExecutor(new Attribute("quantity", Attribute.Type.INT), 0, 0);
+        quantityExecutor.setPosition(new int[]{0, SiddhiConstants.UNKNOWN_STATE, SiddhiConstants.OUTPUT_DATA_INDEX, 2});
+        VariableExpressionExecutor activeExecutor = new VariableExpressionExecutor(new Attribute("active", Attribute.Type.BOOL), 0, 0);
+        activeExecutor.setPosition(new int[]{0, SiddhiConstants.UNKNOWN_STATE, SiddhiConstants.OUTPUT_DATA_INDEX, 3});
+
+        // (price * quantity > volume / 2 and not(volume == price)) or active
+        ExpressionExecutor conditionExecutor = new OrConditionExpressionExecutor(
+                new AndConditionExpressionExecutor(
+                        new GreaterThanCompareConditionExpressionExecutorFloatDouble(
+                                new MultiplyExpressionExecutorFloat(priceExecutor, quantityExecutor),
+                                new DivideExpressionExecutorDouble(volumeExecutor, new ConstantExpressionExecutor(2, Attribute.Type.INT))),
+                        new NotConditionExpressionExecutor(new EqualCompareConditionExpressionExecutorLongFloat(volumeExecutor, priceExecutor))),
+                activeExecutor);
+
+        //the filters are reused over batches of varying sizes, as are their scratch arrays
+        final List<StreamEvent> batchResult = new ArrayList<StreamEvent>();
+        final List<StreamEvent> eventResult = new ArrayList<StreamEvent>();
+        FilterProcessor batchFilter = new FilterProcessor(conditionExecutor);
+        batchFilter.setNextProcessor(new CollectingProcessor(batchResult));
+        FilterProcessor eventFilter = new FilterProcessor(conditionExecutor);
+        eventFilter.setNextProcessor(new CollectingProcessor(eventResult));
+        Random random = new Random(11);
+        for (int round = 0; round < 20; round++) {
+            batchResult.clear();
+            eventResult.clear();
+            ArrayEventChunk<StreamEvent> arrayChunk = new ArrayEventChunk<StreamEvent>();
+            ComplexEventChunk<StreamEvent> linkedChunk = new ComplexEventChunk<StreamEvent>();
+            int size = random.nextInt(100);
+            for (int i = 0; i < size; i++) {
+                Object[] data = new Object[]{random.nextInt(5) == 0 ? null : random.nextInt(20) - 5f,
+                        random.nextInt(5) == 0 ? null : (long) random.nextInt(100), random.nextInt(10), random.nextInt(4) == 0};
+                StreamEvent arrayEvent = new StreamEvent(0, 0, 4);
+                arrayEvent.setOutputData(data);
+                arrayChunk.add(arrayEvent);
+                StreamEvent linkedEvent = new StreamEvent(0, 0, 4);
+                linkedEvent.setOutputData(data.clone());
+                linkedChunk.add(linkedEvent);
+            }
+            batchFilter.process(arrayChunk);
+            eventFilter.process(linkedChunk);
+
+            Assert.assertEquals(eventResult.size(), batchResult.size());
+            for (int i = 0; i < eventResult.size(); i++) {
+                Assert.assertArrayEquals(eventResult.get(i).getOutputData(), batchResult.get(i).getOutputData());
+            }
+            Assert.assertEquals(batchResult.size(), arrayChunk.size());
+        }
+    }
+
+    private static class CollectingProcessor implements Processor {
+        private final List<StreamEvent> events;
+
+        private CollectingProcessor(List<StreamEvent> events) {
+            this.events = events;
+        }
+
+        @Override
+        public void process(ComplexEventChunk complexEventChunk) {
+            for (ComplexEvent event = complexEventChunk.getFirst(); event != null; event = event.getNext()) {
+                events.add((StreamEvent) event);
+            }
+        }
+
+        @Override
+        public Processor getNextProcessor() {
+            return null;
+        }
+
+        @Override
+        public void setNextProcessor(Processor processor) {
+        }
+
+        @Override
+        public void setToLast(Processor processor) {
+        }
+
+        @Override
+        public Processor cloneProcessor(String key) {
+            return this;
+        }
+    }
+}
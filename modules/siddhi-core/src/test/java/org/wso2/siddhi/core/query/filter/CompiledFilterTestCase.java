@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.query.filter;
+
+import org.apache.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.siddhi.core.ExecutionPlanRuntime;
+import org.wso2.siddhi.core.SiddhiManager;
+import org.wso2.siddhi.core.config.ExecutionPlanContext;
+import org.wso2.siddhi.core.config.SiddhiContext;
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.event.stream.StreamEvent;
+import org.wso2.siddhi.core.executor.ConstantExpressionExecutor;
+import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.core.executor.VariableExpressionExecutor;
+import org.wso2.siddhi.core.executor.compiler.CompiledConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.compiler.CompiledExpressionExecutor;
+import org.wso2.siddhi.core.executor.compiler.ExpressionCompiler;
+import org.wso2.siddhi.core.executor.condition.AndConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.NotConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.OrConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.compare.equal.EqualCompareConditionExpressionExecutorLongFloat;
+import org.wso2.siddhi.core.executor.condition.compare.equal.EqualCompareConditionExpressionExecutorStringString;
+import org.wso2.siddhi.core.executor.condition.compare.greater_than.GreaterThanCompareConditionExpressionExecutorDoubleLong;
+import org.wso2.siddhi.core.executor.math.Subtract.SubtractExpressionExecutorFloat;
+import org.wso2.siddhi.core.executor.math.add.AddExpressionExecutorLong;
+import org.wso2.siddhi.core.executor.math.mod.ModExpressionExecutorLong;
+import org.wso2.siddhi.core.executor.math.multiply.MultiplyExpressionExecutorDouble;
+import org.wso2.siddhi.core.query.QueryRuntime;
+import org.wso2.siddhi.core.query.input.stream.single.SingleStreamRuntime;
+import org.wso2.siddhi.core.query.output.callback.QueryCallback;
+import org.wso2.siddhi.core.query.processor.Processor;
+import org.wso2.siddhi.core.query.processor.filter.FilterProcessor;
+import org.wso2.siddhi.core.stream.input.InputHandler;
+import org.wso2.siddhi.core.table.EventTable;
+import org.wso2.siddhi.core.util.SiddhiConstants;
+import org.wso2.siddhi.core.util.parser.QueryParser;
+import org.wso2.siddhi.query.api.annotation.Annotation;
+import org.wso2.siddhi.query.api.definition.AbstractDefinition;
+import org.wso2.siddhi.query.api.definition.Attribute;
+import org.wso2.siddhi.query.api.definition.StreamDefinition;
+import org.wso2.siddhi.query.api.execution.query.Query;
+import org.wso2.siddhi.query.api.execution.query.input.stream.InputStream;
+import org.wso2.siddhi.query.api.execution.query.selection.Selector;
+import org.wso2.siddhi.query.api.expression.Expression;
+import org.wso2.siddhi.query.api.expression.condition.Compare;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class CompiledFilterTestCase {
+    static final Logger log = Logger.getLogger(CompiledFilterTestCase.class);
+
+    private static List<String> runQuery(String info) throws InterruptedException {
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String executionPlan = "" +
+                "define stream cseEventStream (symbol string, price float, volume long, active bool);" +
+                "" +
+                "@info(" + info + ") " +
+                "from cseEventStream[(price * 2.0 > volume + 5 and not(volume == price)) or (active and symbol == 'IBM')] " +
+                "select symbol, volume % 7 - price as score " +
+                "insert into outputStream ;";
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(executionPlan);
+
+        final List<String> output = new ArrayList<String>();
+        executionPlanRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                for (Event event : inEvents) {
+                    output.add(Arrays.toString(event.getData()));
+                }
+            }
+        });
+
+        InputHandler inputHandler = executionPlanRuntime.getInputHandler("cseEventStream");
+        executionPlanRuntime.start();
+        String[] symbols = {"WSO2", "IBM"};
+        for (int i = 0; i < 100; i++) {
+            Float price = i % 10 == 9 ? null : (i * 13) % 40 - 4f;
+            inputHandler.send(new Object[]{symbols[i % 2], price, (long) ((i * 7) % 30), i % 3 == 0});
+        }
+        Thread.sleep(100);
+        executionPlanRuntime.shutdown();
+        return output;
+    }
+
+    @Test
+    public void compiledFilterTest1() throws InterruptedException {
+        log.info("compiled filter test1 - filter and projection give the same output when compiled");
+
+        List<String> output = runQuery("name = 'query1'");
+        List<String> compiledOutput = runQuery("name = 'query1', compile = 'true'");
+        Assert.assertFalse(output.isEmpty());
+        Assert.assertTrue(output.size() < 100);
+        Assert.assertEquals(output, compiledOutput);
+    }
+
+    @Test
+    public void compiledFilterTest2() {
+        log.info("compiled filter test2 - condition of the filter is compiled");
+
+        StreamDefinition streamDefinition = StreamDefinition.id("cseEventStream").attribute("symbol", Attribute.Type.STRING).attribute("price", Attribute.Type.FLOAT).attribute("volume", Attribute.Type.INT);
+        StreamDefinition outStreamDefinition = StreamDefinition.id("outputStream").attribute("symbol", Attribute.Type.STRING).attribute("price", Attribute.Type.FLOAT);
+        Query query = new Query();
+        query.annotation(Annotation.annotation("info").element("name", "query1").element(SiddhiConstants.ANNOTATION_ELEMENT_COMPILE, "true"));
+        query.from(InputStream.stream("cseEventStream").filter(Expression.compare(Expression.variable("volume"), Compare.Operator.NOT_EQUAL, Expression.value(50))));
+        query.select(Selector.selector().select("symbol", Expression.variable("symbol")).select("price", Expression.variable("price")));
+        query.insertInto("outputStream");
+        Map<String, AbstractDefinition> tableDefinitionMap = new HashMap<String, AbstractDefinition>();
+        Map<String, EventTable> eventTableMap = new HashMap<String, EventTable>();
+        Map<String, AbstractDefinition> streamDefinitionMap = new HashMap<String, AbstractDefinition>();
+        streamDefinitionMap.put("cseEventStream", streamDefinition);
+        streamDefinitionMap.put("outputStream", outStreamDefinition);
+        ExecutionPlanContext context = new ExecutionPlanContext();
+        context.setSiddhiContext(new SiddhiContext());
+        QueryRuntime runtime = QueryParser.parse(query, context, streamDefinitionMap, tableDefinitionMap, eventTableMap);
+        Processor processor = ((SingleStreamRuntime) runtime.getStreamRuntime()).getProcessorChain();
+        Assert.assertTrue(processor instanceof FilterProcessor);
+        Assert.assertTrue(((FilterProcessor) processor).getConditionExecutor() instanceof CompiledConditionExpressionExecutor);
+    }
+
+    @Test
+    public void testCompiledExpressionExecutors() {
+        VariableExpressionExecutor priceExecutor = new VariableExpressionExecutor(new Attribute("price", Attribute.Type.FLOAT), 0, 0);
+        priceExecutor.setPosition(new int[]{0, SiddhiConstants.UNKNOWN_STATE, SiddhiConstants.OUTPUT_DATA_INDEX, 1});
+        VariableExpressionExecutor volumeExecutor = new VariableExpressionExecutor(new Attribute("volume", Attribute.Type.LONG), 0, 0);
+        volumeExecutor.setPosition(new int[]{0, SiddhiConstants.UNKNOWN_STATE, SiddhiConstants.OUTPUT_DATA_INDEX, 2});
+        VariableExpressionExecutor activeExecutor = new VariableExpressionExecutor(new Attribute("active", Attribute.Type.BOOL), 0, 0);
+        activeExecutor.setPosition(new int[]{0, SiddhiConstants.UNKNOWN_STATE, SiddhiConstants.OUTPUT_DATA_INDEX, 3});
+        VariableExpressionExecutor symbolExecutor = new VariableExpressionExecutor(new Attribute("symbol", Attribute.Type.STRING), 0, 0);
+        symbolExecutor.setPosition(new int[]{0, SiddhiConstants.UNKNOWN_STATE, SiddhiConstants.OUTPUT_DATA_INDEX, 0});
+
+        // (price * 2.0 > volume + 5 and not(volume == price)) or (active and symbol == 'IBM')
+        ExpressionExecutor conditionExecutor = new OrConditionExpressionExecutor(
+                new AndConditionExpressionExecutor(
+                        new GreaterThanCompareConditionExpressionExecutorDoubleLong(
+                                new MultiplyExpressionExecutorDouble(priceExecutor, new ConstantExpressionExecutor(2.0, Attribute.Type.DOUBLE)),
+                                new AddExpressionExecutorLong(volumeExecutor, new ConstantExpressionExecutor(5L, Attribute.Type.LONG))),
+                        new NotConditionExpressionExecutor(new EqualCompareConditionExpressionExecutorLongFloat(volumeExecutor, priceExecutor))),
+                new AndConditionExpressionExecutor(activeExecutor,
+                        new EqualCompareConditionExpressionExecutorStringString(symbolExecutor, new ConstantExpressionExecutor("IBM", Attribute.Type.STRING))));
+        // volume % 7 - price
+        ExpressionExecutor mathExecutor = new SubtractExpressionExecutorFloat(
+                new ModExpressionExecutorLong(volumeExecutor, new ConstantExpressionExecutor(7L, Attribute.Type.LONG)), priceExecutor);
+
+        ExpressionExecutor compiledConditionExecutor = ExpressionCompiler.compile(conditionExecutor);
+        ExpressionExecutor compiledMathExecutor = ExpressionCompiler.compile(mathExecutor);
+        Assert.assertTrue(compiledConditionExecutor instanceof CompiledConditionExpressionExecutor);
+        Assert.assertTrue(compiledMathExecutor instanceof CompiledExpressionExecutor);
+        Assert.assertEquals(Attribute.Type.FLOAT, compiledMathExecutor.getReturnType());
+        Assert.assertSame(volumeExecutor, ExpressionCompiler.compile(volumeExecutor));
+
+        String[] symbols = {"WSO2", "IBM"};
+        float[] prices = {0f, 3.5f, 10f, 12.25f, -4f, Float.NaN};
+        long[] volumes = {0L, 5L, 10L, 15L, 20L, -3L};
+        int trueCount = 0;
+        for (String symbol : symbols) {
+            for (float price : prices) {
+                for (long volume : volumes) {
+                    for (boolean active : new boolean[]{true, false}) {
+                        StreamEvent event = new StreamEvent(0, 0, 4);
+                        event.setOutputData(new Object[]{symbol, price, volume, active});
+                        Boolean expected = (Boolean) conditionExecutor.execute(event);
+                        Assert.assertEquals(expected, compiledConditionExecutor.execute(event));
+                        Assert.assertEquals(mathExecutor.execute(event), compiledMathExecutor.execute(event));
+                        if (expected) {
+                            trueCount++;
+                        }
+                    }
+                }
+            }
+        }
+        Assert.assertTrue(trueCount > 0);
+
+        StreamEvent nullEvent = new StreamEvent(0, 0, 4);
+        nullEvent.setOutputData(new Object[]{"IBM", null, 10L, true});
+        Assert.assertTrue((Boolean) compiledConditionExecutor.execute(nullEvent));
+        Assert.assertNull(compiledMathExecutor.execute(nullEvent));
+        nullEvent.setOutputData(new Object[]{"WSO2", null, 10L, true});
+        Assert.assertFalse((Boolean) compiledConditionExecutor.execute(nullEvent));
+
+        ExpressionExecutor clonedExecutor = compiledConditionExecutor.cloneExecutor("key");
+        Assert.assertTrue(clonedExecutor instanceof CompiledConditionExpressionExecutor);
+        Assert.assertSame(compiledConditionExecutor.getClass(), clonedExecutor.getClass());
+        StreamEvent event = new StreamEvent(0, 0, 4);
+        event.setOutputData(new Object[]{"WSO2", 12.25f, 15L, false});
+        Assert.assertTrue((Boolean) clonedExecutor.execute(event));
+    }
+}
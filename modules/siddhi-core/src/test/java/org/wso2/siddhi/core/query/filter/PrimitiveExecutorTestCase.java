@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.query.filter;
+
+import org.apache.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.siddhi.core.event.stream.StreamEvent;
+import org.wso2.siddhi.core.executor.ConstantExpressionExecutor;
+import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.core.executor.VariableExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.AndConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.ConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.NotConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.OrConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.compare.equal.EqualCompareConditionExpressionExecutorLongFloat;
+import org.wso2.siddhi.core.executor.condition.compare.greater_than.GreaterThanCompareConditionExpressionExecutorIntLong;
+import org.wso2.siddhi.core.executor.math.MathExpressionExecutor;
+import org.wso2.siddhi.core.executor.math.add.AddExpressionExecutorFloat;
+import org.wso2.siddhi.core.executor.math.mod.ModExpressionExecutorLong;
+import org.wso2.siddhi.core.executor.math.multiply.MultiplyExpressionExecutorFloat;
+import org.wso2.siddhi.core.query.processor.filter.FilterProcessor;
+import org.wso2.siddhi.core.util.SiddhiConstants;
+import org.wso2.siddhi.query.api.definition.Attribute;
+
+public class PrimitiveExecutorTestCase {
+    static final Logger log = Logger.getLogger(PrimitiveExecutorTestCase.class);
+
+    @Test
+    public void primitiveExecutorTest1() {
+        log.info("primitive executor test1 - typed evaluation gives the same results as execute()");
+
+        VariableExpressionExecutor priceExecutor = new VariableExpressionExecutor(new Attribute("price", Attribute.Type.FLOAT), 0, 0);
+        priceExecutor.setPosition(new int[]{0, SiddhiConstants.UNKNOWN_STATE, SiddhiConstants.OUTPUT_DATA_INDEX, 0});
+        VariableExpressionExecutor volumeExecutor = new VariableExpressionExecutor(new Attribute("volume", Attribute.Type.LONG), 0, 0);
+        volumeExecutor.setPosition(new int[]{0, SiddhiConstants.UNKNOWN_STATE, SiddhiConstants.OUTPUT_DATA_INDEX, 1});
+        VariableExpressionExecutor quantityExecutor = new VariableExpressionExecutor(new Attribute("quantity", Attribute.Type.INT), 0, 0);
+        quantityExecutor.setPosition(new int[]{0, SiddhiConstants.UNKNOWN_STATE, SiddhiConstants.OUTPUT_DATA_INDEX, 2});
+        VariableExpressionExecutor activeExecutor = new VariableExpressionExecutor(new Attribute("active", Attribute.Type.BOOL), 0, 0);
+        activeExecutor.setPosition(new int[]{0, SiddhiConstants.UNKNOWN_STATE, SiddhiConstants.OUTPUT_DATA_INDEX, 3});
+
+        // price * quantity + volume % 7
+        MathExpressionExecutor mathExecutor = new AddExpressionExecutorFloat(
+                new MultiplyExpressionExecutorFloat(priceExecutor, quantityExecutor),
+                new ModExpressionExecutorLong(volumeExecutor, new ConstantExpressionExecutor(7L, Attribute.Type.LONG)));
+        // (quantity > volume and not(volume == price)) or active
+        ConditionExpressionExecutor conditionExecutor = new OrConditionExpressionExecutor(
+                new AndConditionExpressionExecutor(
+                        new GreaterThanCompareConditionExpressionExecutorIntLong(quantityExecutor, volumeExecutor),
+                        new NotConditionExpressionExecutor(new EqualCompareConditionExpressionExecutorLongFloat(volumeExecutor, priceExecutor))),
+                activeExecutor);
+        Assert.assertTrue(mathExecutor.isPrimitive());
+        Assert.assertTrue(conditionExecutor.isPrimitive());
+
+        float[] prices = {0f, 3.5f, 10f, -4f, Float.NaN};
+        long[] volumes = {0L, 5L, 10L, -3L, 16777217L};
+        int[] quantities = {0, 5, 11, -2};
+        for (float price : prices) {
+            for (long volume : volumes) {
+                for (int quantity : quantities) {
+                    for (boolean active : new boolean[]{true, false}) {
+                        StreamEvent event = new StreamEvent(0, 0, 4);
+                        event.setOutputData(new Object[]{price, volume, quantity, active});
+                        Number value = (Number) mathExecutor.execute(event);
+                        Assert.assertFalse(mathExecutor.isNull(event));
+                        Assert.assertEquals(value.floatValue(), mathExecutor.executeFloat(event), 0f);
+                        Assert.assertEquals(value.doubleValue(), mathExecutor.executeDouble(event), 0d);
+                        Assert.assertEquals(value.longValue(), mathExecutor.executeLong(event));
+                        Assert.assertEquals(value.intValue(), mathExecutor.executeInt(event));
+                        boolean expected = (quantity > volume && !((double) volume == (double) price)) || active;
+                        Assert.assertEquals(expected, conditionExecutor.executeBool(event));
+                        Assert.assertEquals(expected, conditionExecutor.execute(event));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void primitiveExecutorTest2() {
+        log.info("primitive executor test2 - null operands and cloned filter conditions");
+
+        VariableExpressionExecutor priceExecutor = new VariableExpressionExecutor(new Attribute("price", Attribute.Type.FLOAT), 0, 0);
+        priceExecutor.setPosition(new int[]{0, SiddhiConstants.UNKNOWN_STATE, SiddhiConstants.OUTPUT_DATA_INDEX, 0});
+        VariableExpressionExecutor volumeExecutor = new VariableExpressionExecutor(new Attribute("volume", Attribute.Type.LONG), 0, 0);
+        volumeExecutor.setPosition(new int[]{0, SiddhiConstants.UNKNOWN_STATE, SiddhiConstants.OUTPUT_DATA_INDEX, 1});
+        VariableExpressionExecutor quantityExecutor = new VariableExpressionExecutor(new Attribute("quantity", Attribute.Type.INT), 0, 0);
+        quantityExecutor.setPosition(new int[]{0, SiddhiConstants.UNKNOWN_STATE, SiddhiConstants.OUTPUT_DATA_INDEX, 2});
+        VariableExpressionExecutor activeExecutor = new VariableExpressionExecutor(new Attribute("active", Attribute.Type.BOOL), 0, 0);
+        activeExecutor.setPosition(new int[]{0, SiddhiConstants.UNKNOWN_STATE, SiddhiConstants.OUTPUT_DATA_INDEX, 3});
+
+        MathExpressionExecutor mathExecutor = new MultiplyExpressionExecutorFloat(priceExecutor, quantityExecutor);
+        ConditionExpressionExecutor conditionExecutor = new OrConditionExpressionExecutor(
+                new AndConditionExpressionExecutor(
+                        new GreaterThanCompareConditionExpressionExecutorIntLong(quantityExecutor, volumeExecutor),
+                        new NotConditionExpressionExecutor(new EqualCompareConditionExpressionExecutorLongFloat(volumeExecutor, priceExecutor))),
+                activeExecutor);
+
+        StreamEvent nullEvent = new StreamEvent(0, 0, 4);
+        nullEvent.setOutputData(new Object[]{null, 10L, 20, false});
+        Assert.assertTrue(mathExecutor.isNull(nullEvent));
+        //a compare with a null operand is false, as when evaluated with boxing
+        Assert.assertTrue(conditionExecutor.executeBool(nullEvent));
+        nullEvent.setOutputData(new Object[]{2.5f, null, 20, false});
+        Assert.assertFalse(conditionExecutor.executeBool(nullEvent));
+
+        FilterProcessor filterProcessor = new FilterProcessor(conditionExecutor);
+        ExpressionExecutor clonedExecutor = filterProcessor.cloneProcessor("key").getConditionExecutor();
+        Assert.assertTrue(((ConditionExpressionExecutor) clonedExecutor).isPrimitive());
+        StreamEvent event = new StreamEvent(0, 0, 4);
+        event.setOutputData(new Object[]{2.5f, 10L, 20, false});
+        Assert.assertTrue(((ConditionExpressionExecutor) clonedExecutor).executeBool(event));
+    }
+}
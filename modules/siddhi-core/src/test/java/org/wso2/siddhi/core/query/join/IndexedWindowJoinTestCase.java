@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.query.join;
+
+import org.apache.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.siddhi.core.ExecutionPlanRuntime;
+import org.wso2.siddhi.core.SiddhiManager;
+import org.wso2.siddhi.core.config.ExecutionPlanContext;
+import org.wso2.siddhi.core.config.SiddhiContext;
+import org.wso2.siddhi.core.event.ComplexEvent;
+import org.wso2.siddhi.core.event.ComplexEventChunk;
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.event.state.MetaStateEvent;
+import org.wso2.siddhi.core.event.stream.MetaStreamEvent;
+import org.wso2.siddhi.core.event.stream.StreamEvent;
+import org.wso2.siddhi.core.event.stream.StreamEventCloner;
+import org.wso2.siddhi.core.event.stream.StreamEventPool;
+import org.wso2.siddhi.core.executor.ConstantExpressionExecutor;
+import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.core.executor.VariableExpressionExecutor;
+import org.wso2.siddhi.core.query.output.callback.QueryCallback;
+import org.wso2.siddhi.core.query.processor.Processor;
+import org.wso2.siddhi.core.query.processor.window.LengthWindowProcessor;
+import org.wso2.siddhi.core.stream.input.InputHandler;
+import org.wso2.siddhi.core.util.ElementIdGenerator;
+import org.wso2.siddhi.core.util.finder.Finder;
+import org.wso2.siddhi.core.util.finder.IndexedFinder;
+import org.wso2.siddhi.core.util.parser.helper.QueryParserHelper;
+import org.wso2.siddhi.core.util.snapshot.SnapshotService;
+import org.wso2.siddhi.query.api.definition.Attribute;
+import org.wso2.siddhi.query.api.definition.StreamDefinition;
+import org.wso2.siddhi.query.api.expression.Expression;
+import org.wso2.siddhi.query.api.expression.condition.Compare;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class IndexedWindowJoinTestCase {
+    static final Logger log = Logger.getLogger(IndexedWindowJoinTestCase.class);
+
+    private static List<String> runJoin(String condition) throws InterruptedException {
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "define stream cseEventStream (symbol string, price int); " +
+                "define stream orderStream (company string, volume long); ";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from cseEventStream#window.length(1) join orderStream#window.length(20) " +
+                "on " + condition + " " +
+                "select cseEventStream.symbol as symbol, cseEventStream.price, orderStream.volume " +
+                "insert into outputStream ;";
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(streams + query);
+
+        final List<String> output = new ArrayList<String>();
+        executionPlanRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                if (inEvents != null) {
+                    for (Event event : inEvents) {
+                        output.add(Arrays.toString(event.getData()));
+                    }
+                }
+            }
+        });
+
+        InputHandler cseEventStreamHandler = executionPlanRuntime.getInputHandler("cseEventStream");
+        InputHandler orderStreamHandler = executionPlanRuntime.getInputHandler("orderStream");
+        executionPlanRuntime.start();
+        String[] symbols = new String[]{"IBM", "WSO2", "ORCL", "MSFT"};
+        Random random = new Random(5);
+        for (int i = 0; i < 200; i++) {
+            orderStreamHandler.send(new Object[]{symbols[random.nextInt(symbols.length)], (long) random.nextInt(100)});
+            cseEventStreamHandler.send(new Object[]{symbols[random.nextInt(symbols.length)], random.nextInt(100)});
+        }
+        Thread.sleep(100);
+        executionPlanRuntime.shutdown();
+        Collections.sort(output);
+        return output;
+    }
+
+    @Test
+    public void indexedWindowJoinTest1() throws InterruptedException {
+        log.info("indexed window join test1 - join on an equality gives the same output when the window is indexed");
+
+        // the negated inequality is not indexed, hence the window is scanned
+        List<String> scannedOutput = runJoin("not(cseEventStream.symbol != orderStream.company) " +
+                "and orderStream.volume > cseEventStream.price");
+        List<String> indexedOutput = runJoin("cseEventStream.symbol == orderStream.company " +
+                "and orderStream.volume > cseEventStream.price");
+        Assert.assertFalse(indexedOutput.isEmpty());
+        Assert.assertEquals(scannedOutput, indexedOutput);
+    }
+
+    @Test
+    public void testIndexedWindowFinder() {
+        StreamDefinition streamA = StreamDefinition.id("a").attribute("symbol", Attribute.Type.STRING).attribute("price", Attribute.Type.INT);
+        StreamDefinition streamB = StreamDefinition.id("b").attribute("symbol", Attribute.Type.STRING).attribute("volume", Attribute.Type.LONG);
+        ExecutionPlanContext context = new ExecutionPlanContext();
+        context.setSiddhiContext(new SiddhiContext());
+        context.setSnapshotService(new SnapshotService(context));
+        context.setElementIdGenerator(new ElementIdGenerator("plan"));
+
+        MetaStreamEvent metaStreamEventA = new MetaStreamEvent();
+        metaStreamEventA.addInputDefinition(streamA);
+        MetaStreamEvent metaStreamEventB = new MetaStreamEvent();
+        metaStreamEventB.addInputDefinition(streamB);
+        MetaStateEvent metaStateEvent = new MetaStateEvent(2);
+        metaStateEvent.addEvent(metaStreamEventA);
+        metaStateEvent.addEvent(metaStreamEventB);
+
+        LengthWindowProcessor windowProcessor = new LengthWindowProcessor();
+        windowProcessor.initProcessor(streamB, new ExpressionExecutor[]{new ConstantExpressionExecutor(20, Attribute.Type.INT)}, context);
+        List<VariableExpressionExecutor> executors = new ArrayList<VariableExpressionExecutor>();
+        // a.symbol == b.symbol and b.volume > a.price
+        Finder finder = windowProcessor.constructFinder(Expression.and(
+                Expression.compare(Expression.variable("symbol").ofStream("a"), Compare.Operator.EQUAL, Expression.variable("symbol").ofStream("b")),
+                Expression.compare(Expression.variable("volume").ofStream("b"), Compare.Operator.GREATER_THAN, Expression.variable("price").ofStream("a"))),
+                metaStateEvent, context, executors, null, 0);
+        Assert.assertTrue(finder instanceof IndexedFinder);
+        QueryParserHelper.updateVariablePosition(metaStateEvent, executors);
+
+        StreamEventPool poolA = new StreamEventPool(metaStreamEventA, 5);
+        StreamEventPool poolB = new StreamEventPool(metaStreamEventB, 5);
+        windowProcessor.setStreamEventCloner(new StreamEventCloner(metaStreamEventB, poolB));
+        windowProcessor.setNextProcessor(new CollectingProcessor(new ArrayList<StreamEvent>()));
+        int symbolB = metaStreamEventB.getBeforeWindowData().indexOf(new Attribute("symbol", Attribute.Type.STRING));
+        int volumeB = metaStreamEventB.getBeforeWindowData().indexOf(new Attribute("volume", Attribute.Type.LONG));
+        int symbolA = metaStreamEventA.getBeforeWindowData().indexOf(new Attribute("symbol", Attribute.Type.STRING));
+        int priceA = metaStreamEventA.getBeforeWindowData().indexOf(new Attribute("price", Attribute.Type.INT));
+
+        String[] symbols = new String[]{"IBM", "WSO2", "ORCL", null};
+        List<Object[]> window = new ArrayList<Object[]>();
+        Random random = new Random(5);
+        for (int i = 0; i < 200; i++) {
+            Object[] dataB = new Object[]{symbols[random.nextInt(symbols.length)], (long) random.nextInt(100)};
+            StreamEvent eventB = poolB.borrowEvent();
+            eventB.setBeforeWindowData(dataB[0], symbolB);
+            eventB.setBeforeWindowData(dataB[1], volumeB);
+            ComplexEventChunk<StreamEvent> eventChunk = new ComplexEventChunk<StreamEvent>();
+            eventChunk.add(eventB);
+            windowProcessor.process(eventChunk);
+            window.add(dataB);
+            if (window.size() > 20) {
+                window.remove(0);
+            }
+
+            StreamEvent eventA = poolA.borrowEvent();
+            String symbol = symbols[random.nextInt(symbols.length)];
+            int price = random.nextInt(100);
+            eventA.setBeforeWindowData(symbol, symbolA);
+            eventA.setBeforeWindowData(price, priceA);
+            List<Object> expected = new ArrayList<Object>();
+            for (Object[] data : window) {
+                if (symbol != null && symbol.equals(data[0]) && (Long) data[1] > price) {
+                    expected.add(data[1]);
+                }
+            }
+            List<Object> found = new ArrayList<Object>();
+            for (StreamEvent foundEvent = windowProcessor.find(eventA, finder); foundEvent != null; foundEvent = foundEvent.getNext()) {
+                found.add(foundEvent.getBeforeWindowData()[volumeB]);
+            }
+            Assert.assertEquals(expected, found);
+        }
+
+        Object[] state = windowProcessor.currentState();
+        windowProcessor.restoreState(state);
+        StreamEvent eventA = poolA.borrowEvent();
+        eventA.setBeforeWindowData(window.get(0)[0] == null ? "IBM" : window.get(0)[0], symbolA);
+        eventA.setBeforeWindowData(-1, priceA);
+        int count = 0;
+        for (StreamEvent foundEvent = windowProcessor.find(eventA, finder); foundEvent != null; foundEvent = foundEvent.getNext()) {
+            count++;
+        }
+        int expectedCount = 0;
+        for (Object[] data : window) {
+            if (data[0] != null && data[0].equals(eventA.getBeforeWindowData()[symbolA])) {
+                expectedCount++;
+            }
+        }
+        Assert.assertEquals(expectedCount, count);
+    }
+
+    private static class CollectingProcessor implements Processor {
+        private final List<StreamEvent> events;
+
+        private CollectingProcessor(List<StreamEvent> events) {
+            this.events = events;
+        }
+
+        @Override
+        public void process(ComplexEventChunk complexEventChunk) {
+            for (ComplexEvent event = complexEventChunk.getFirst(); event != null; event = event.getNext()) {
+                events.add((StreamEvent) event);
+            }
+        }
+
+        @Override
+        public Processor getNextProcessor() {
+            return null;
+        }
+
+        @Override
+        public void setNextProcessor(Processor processor) {
+        }
+
+        @Override
+        public void setToLast(Processor processor) {
+        }
+
+        @Override
+        public Processor cloneProcessor(String key) {
+            return this;
+        }
+    }
+}
@@ -21,6 +21,12 @@ import org.junit.Test;
 import org.wso2.siddhi.core.ExecutionPlanRuntime;
 import org.wso2.siddhi.core.SiddhiManager;
 import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.partition.PartitionRuntime;
+import org.wso2.siddhi.core.query.input.stream.join.JoinProcessor;
+import org.wso2.siddhi.core.query.input.stream.join.JoinStreamRuntime;
+import org.wso2.siddhi.core.query.input.stream.single.SingleStreamRuntime;
+import org.wso2.siddhi.core.query.processor.Processor;
+import org.wso2.siddhi.core.query.processor.window.IndexedFindableProcessor;
 import org.wso2.siddhi.core.stream.input.InputHandler;
 import org.wso2.siddhi.core.stream.output.StreamCallback;
 import org.wso2.siddhi.core.util.EventPrinter;
@@ -451,4 +457,75 @@ public class JoinPartitionTestCase {
         executionPlanRuntime.shutdown();
 
     }
+
+    @Test
+    public void testJoinPartition5() throws InterruptedException {
+        log.info("Join partition test5 - windows cloned for a partition key are looked up through their indexes");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String executionPlan = "define stream cseEventStream (symbol string, user string,volume int);  define stream twitterStream (user string, tweet string, company string);"
+                + "partition with (user of cseEventStream, user of twitterStream) begin @info(name = 'query1') " +
+                "from cseEventStream#window.length(10) join twitterStream#window.length(10) " +
+                "on cseEventStream.symbol== twitterStream.company " +
+                "select cseEventStream.symbol as symbol, twitterStream.tweet, cseEventStream.volume " +
+                "insert into outputStream ;" + "" +
+                "end ";
+
+
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(executionPlan);
+
+        executionPlanRuntime.addCallback("outputStream", new StreamCallback() {
+            @Override
+            public void receive(Event[] events) {
+                EventPrinter.print(events);
+                for (Event event : events) {
+                    if (event.isExpired()) {
+                        removeEventCount++;
+                    } else {
+                        inEventCount++;
+                    }
+                    eventArrived = true;
+                }
+            }
+        });
+
+        InputHandler cseEventStreamHandler = executionPlanRuntime.getInputHandler("cseEventStream");
+        InputHandler twitterStreamHandler = executionPlanRuntime.getInputHandler("twitterStream");
+        executionPlanRuntime.start();
+        cseEventStreamHandler.send(new Object[]{"WSO2", "User1", 100});
+        cseEventStreamHandler.send(new Object[]{"IBM", "User1", 200});
+        twitterStreamHandler.send(new Object[]{"User1", "Hello World", "WSO2"});
+        twitterStreamHandler.send(new Object[]{"User1", "Hellno World", "WSO2"});
+        cseEventStreamHandler.send(new Object[]{"WSO2", "User2", 300});
+        twitterStreamHandler.send(new Object[]{"User2", "Hello World", "IBM"});
+
+        Thread.sleep(100);
+        Assert.assertEquals(2, inEventCount);
+        Assert.assertEquals(0, removeEventCount);
+
+        PartitionRuntime partitionRuntime = executionPlanRuntime.getPartitionMap().values().iterator().next();
+        JoinStreamRuntime joinStreamRuntime = (JoinStreamRuntime) partitionRuntime.getPartitionInstanceRuntime("User1")
+                .getQueryRuntimeList().get(0).getStreamRuntime();
+        for (SingleStreamRuntime singleStreamRuntime : joinStreamRuntime.getSingleStreamRuntimes()) {
+            Processor processor = singleStreamRuntime.getProcessorChain();
+            while (!(processor instanceof JoinProcessor)) {
+                processor = processor.getNextProcessor();
+            }
+            JoinProcessor joinProcessor = (JoinProcessor) processor;
+            Assert.assertNotNull(joinProcessor.getFinder());
+            // the finder of a side looks up the window of the other side
+            SingleStreamRuntime otherStreamRuntime = joinStreamRuntime.getSingleStreamRuntimes().get(
+                    singleStreamRuntime == joinStreamRuntime.getSingleStreamRuntimes().get(0) ? 1 : 0);
+            Processor otherProcessor = otherStreamRuntime.getProcessorChain();
+            while (!(otherProcessor instanceof JoinProcessor)) {
+                otherProcessor = otherProcessor.getNextProcessor();
+            }
+            IndexedFindableProcessor windowProcessor = (IndexedFindableProcessor) otherProcessor.getNextProcessor();
+            Assert.assertNotNull(windowProcessor.getEventIndexSet().getIndex(joinProcessor.getFinder()));
+        }
+        executionPlanRuntime.shutdown();
+
+    }
+
 }
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.query.selector;
+
+import org.apache.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.siddhi.core.ExecutionPlanRuntime;
+import org.wso2.siddhi.core.SiddhiManager;
+import org.wso2.siddhi.core.config.ExecutionPlanContext;
+import org.wso2.siddhi.core.config.SiddhiContext;
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.event.stream.MetaStreamEvent;
+import org.wso2.siddhi.core.event.stream.StreamEvent;
+import org.wso2.siddhi.core.executor.ConstantExpressionExecutor;
+import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.core.executor.SharedExpressionExecutor;
+import org.wso2.siddhi.core.executor.VariableExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.compare.CompareConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.compare.greater_than.GreaterThanCompareConditionExpressionExecutorFloatDouble;
+import org.wso2.siddhi.core.query.output.callback.QueryCallback;
+import org.wso2.siddhi.core.stream.input.InputHandler;
+import org.wso2.siddhi.core.util.SiddhiConstants;
+import org.wso2.siddhi.core.util.parser.ExpressionParser;
+import org.wso2.siddhi.core.util.parser.helper.CommonSubexpressionHelper;
+import org.wso2.siddhi.core.util.parser.helper.QueryParserHelper;
+import org.wso2.siddhi.query.api.definition.Attribute;
+import org.wso2.siddhi.query.api.definition.StreamDefinition;
+import org.wso2.siddhi.query.api.expression.Expression;
+import org.wso2.siddhi.query.api.expression.condition.Compare;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class CommonSubexpressionTestCase {
+    static final Logger log = Logger.getLogger(CommonSubexpressionTestCase.class);
+
+    @Test
+    public void commonSubexpressionTest1() throws InterruptedException {
+        log.info("common subexpression test1 - subexpression shared within the selection of a query");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String executionPlan = "" +
+                "define stream cseEventStream (symbol string, price float, volume int);" +
+                "" +
+                "@info(name = 'query1') " +
+                "from cseEventStream[price * volume > 100 * 1.5] " +
+                "select symbol, price * volume as total, volume * price + 10 as adjustedTotal " +
+                "having total > 1000 " +
+                "insert into outputStream ;";
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(executionPlan);
+
+        final List<String> output = new ArrayList<String>();
+        executionPlanRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                for (Event event : inEvents) {
+                    output.add(Arrays.toString(event.getData()));
+                }
+            }
+        });
+
+        InputHandler inputHandler = executionPlanRuntime.getInputHandler("cseEventStream");
+        executionPlanRuntime.start();
+        List<String> expected = new ArrayList<String>();
+        for (int i = 0; i < 50; i++) {
+            float price = i * 2.5f;
+            int volume = 60 - i;
+            inputHandler.send(new Object[]{"IBM", price, volume});
+            if (price * volume > 1000) {
+                expected.add(Arrays.toString(new Object[]{"IBM", price * volume, volume * price + 10}));
+            }
+        }
+        //the same event data sent again, as pooled events are reused with new data
+        inputHandler.send(new Event[]{new Event(System.currentTimeMillis(), new Object[]{"WSO2", 50f, 30}),
+                new Event(System.currentTimeMillis(), new Object[]{"WSO2", 10f, 30}),
+                new Event(System.currentTimeMillis(), new Object[]{"WSO2", 50f, 30})});
+        expected.add(Arrays.toString(new Object[]{"WSO2", 1500f, 1510f}));
+        expected.add(Arrays.toString(new Object[]{"WSO2", 1500f, 1510f}));
+        Thread.sleep(100);
+        executionPlanRuntime.shutdown();
+
+        Assert.assertEquals(expected, output);
+    }
+
+    @Test
+    public void testExpressionOptimization() {
+        StreamDefinition streamDefinition = StreamDefinition.id("cseEventStream").attribute("symbol", Attribute.Type.STRING).attribute("price", Attribute.Type.FLOAT).attribute("volume", Attribute.Type.INT);
+        MetaStreamEvent metaStreamEvent = new MetaStreamEvent();
+        metaStreamEvent.addInputDefinition(streamDefinition);
+        List<VariableExpressionExecutor> executors = new ArrayList<VariableExpressionExecutor>();
+        ExecutionPlanContext context = new ExecutionPlanContext();
+        context.setSiddhiContext(new SiddhiContext());
+
+        ExpressionExecutor foldedExecutor = ExpressionParser.parseExpression(Expression.and(Expression.value(true),
+                        Expression.compare(Expression.variable("price"), Compare.Operator.GREATER_THAN,
+                                Expression.multiply(Expression.value(100), Expression.value(1.5)))),
+                metaStreamEvent, SiddhiConstants.UNKNOWN_STATE, null, executors, context, false, 0);
+        Assert.assertTrue(foldedExecutor instanceof GreaterThanCompareConditionExpressionExecutorFloatDouble);
+        ExpressionExecutor constantExecutor = ((CompareConditionExpressionExecutor) foldedExecutor).getRightExpressionExecutor();
+        Assert.assertTrue(constantExecutor instanceof ConstantExpressionExecutor);
+        Assert.assertEquals(150.0, ((ConstantExpressionExecutor) constantExecutor).getValue());
+        ExpressionExecutor modExecutor = ExpressionParser.parseExpression(Expression.mod(Expression.value(1), Expression.value(0)),
+                metaStreamEvent, SiddhiConstants.UNKNOWN_STATE, null, executors, context, false, 0);
+        Assert.assertFalse(modExecutor instanceof ConstantExpressionExecutor);
+
+        Expression selectedExpression = Expression.multiply(Expression.variable("price"), Expression.variable("volume"));
+        Expression conditionExpression = Expression.compare(Expression.value(1000f), Compare.Operator.LESS_THAN,
+                Expression.multiply(Expression.variable("volume"), Expression.variable("price")));
+        CommonSubexpressionHelper helper = new CommonSubexpressionHelper(Arrays.asList(selectedExpression, conditionExpression));
+        ExpressionExecutor selectedExecutor = ExpressionParser.parseExpression(selectedExpression, metaStreamEvent,
+                SiddhiConstants.UNKNOWN_STATE, null, executors, context, false, 0, helper);
+        ExpressionExecutor conditionExecutor = ExpressionParser.parseExpression(conditionExpression, metaStreamEvent,
+                SiddhiConstants.UNKNOWN_STATE, null, executors, context, false, 0, helper);
+        Assert.assertTrue(helper.isSharing());
+        Assert.assertTrue(selectedExecutor instanceof SharedExpressionExecutor);
+        Assert.assertSame(selectedExecutor, ((CompareConditionExpressionExecutor) conditionExecutor).getRightExpressionExecutor());
+
+        metaStreamEvent.initializeAfterWindowData();
+        QueryParserHelper.updateVariablePosition(metaStreamEvent, executors);
+        Object[] data = new Object[metaStreamEvent.getBeforeWindowData().size()];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = "price".equals(metaStreamEvent.getBeforeWindowData().get(i).getName()) ? 12.5f : 100;
+        }
+        StreamEvent event = new StreamEvent(data.length, 0, 0);
+        event.setBeforeWindowData(data);
+        helper.getScope().invalidate();
+        Assert.assertEquals(1250f, selectedExecutor.execute(event));
+        Assert.assertTrue((Boolean) conditionExecutor.execute(event));
+
+        //a pooled event reused with new data is evaluated again once the scope is invalidated
+        for (int i = 0; i < data.length; i++) {
+            data[i] = "price".equals(metaStreamEvent.getBeforeWindowData().get(i).getName()) ? 2.5f : 100;
+        }
+        Assert.assertEquals(1250f, selectedExecutor.execute(event));
+        helper.getScope().invalidate();
+        Assert.assertEquals(250f, selectedExecutor.execute(event));
+        Assert.assertFalse((Boolean) conditionExecutor.execute(event));
+
+        //occurrences cloned within one clone of the stage share one executor, clones of the stage do not
+        SharedExpressionExecutor.Scope clonedScope = helper.getScope().beginClone();
+        ExpressionExecutor clonedExecutor = selectedExecutor.cloneExecutor("key");
+        ExpressionExecutor clonedConditionExecutor = conditionExecutor.cloneExecutor("key");
+        helper.getScope().endClone();
+        Assert.assertNotSame(selectedExecutor, clonedExecutor);
+        Assert.assertSame(clonedExecutor, ((CompareConditionExpressionExecutor) clonedConditionExecutor).getRightExpressionExecutor());
+        helper.getScope().beginClone();
+        Assert.assertNotSame(clonedExecutor, selectedExecutor.cloneExecutor("key"));
+        helper.getScope().endClone();
+        Assert.assertFalse(selectedExecutor.cloneExecutor("key") instanceof SharedExpressionExecutor);
+
+        clonedScope.invalidate();
+        Assert.assertEquals(250f, clonedExecutor.execute(event));
+        Assert.assertFalse((Boolean) clonedConditionExecutor.execute(event));
+    }
+}
@@ -0,0 +1,335 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.query.table;
+
+import org.apache.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.siddhi.core.ExecutionPlanRuntime;
+import org.wso2.siddhi.core.SiddhiManager;
+import org.wso2.siddhi.core.config.ExecutionPlanContext;
+import org.wso2.siddhi.core.config.SiddhiContext;
+import org.wso2.siddhi.core.event.ComplexEvent;
+import org.wso2.siddhi.core.event.ComplexEventChunk;
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.event.state.MetaStateEvent;
+import org.wso2.siddhi.core.event.stream.MetaStreamEvent;
+import org.wso2.siddhi.core.event.stream.StreamEvent;
+import org.wso2.siddhi.core.event.stream.StreamEventCloner;
+import org.wso2.siddhi.core.event.stream.StreamEventPool;
+import org.wso2.siddhi.core.executor.ConstantExpressionExecutor;
+import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.core.executor.VariableExpressionExecutor;
+import org.wso2.siddhi.core.query.output.callback.QueryCallback;
+import org.wso2.siddhi.core.query.processor.Processor;
+import org.wso2.siddhi.core.query.processor.window.LengthWindowProcessor;
+import org.wso2.siddhi.core.stream.input.InputHandler;
+import org.wso2.siddhi.core.table.InMemoryEventTable;
+import org.wso2.siddhi.core.util.ElementIdGenerator;
+import org.wso2.siddhi.core.util.finder.Finder;
+import org.wso2.siddhi.core.util.finder.RangeFinder;
+import org.wso2.siddhi.core.util.parser.helper.QueryParserHelper;
+import org.wso2.siddhi.core.util.snapshot.SnapshotService;
+import org.wso2.siddhi.query.api.definition.Attribute;
+import org.wso2.siddhi.query.api.definition.StreamDefinition;
+import org.wso2.siddhi.query.api.definition.TableDefinition;
+import org.wso2.siddhi.query.api.expression.Expression;
+import org.wso2.siddhi.query.api.expression.condition.Compare;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class IndexedTableTestCase {
+    static final Logger log = Logger.getLogger(IndexedTableTestCase.class);
+
+    @Test
+    public void indexedTableTest1() throws InterruptedException {
+        log.info("indexed table test1 - join on a range of the table attribute");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, volume long); " +
+                "define stream CheckStockStream (symbol string, volume long); " +
+                "define table StockTable (symbol string, price float, volume long); ";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into StockTable ;" +
+                "" +
+                "@info(name = 'query2') " +
+                "from CheckStockStream#window.length(1) join StockTable " +
+                "on StockTable.volume > CheckStockStream.volume - 10 and 50 >= StockTable.volume " +
+                "select CheckStockStream.volume as checkVolume, StockTable.volume as volume " +
+                "insert into OutputStream ;";
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(streams + query);
+
+        final List<Long> volumes = new ArrayList<Long>();
+        executionPlanRuntime.addCallback("query2", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                if (inEvents != null) {
+                    for (Event event : inEvents) {
+                        long checkVolume = (Long) event.getData()[0];
+                        long volume = (Long) event.getData()[1];
+                        Assert.assertTrue(volume > checkVolume - 10 && 50 >= volume);
+                        volumes.add(volume);
+                    }
+                }
+            }
+        });
+
+        InputHandler stockStream = executionPlanRuntime.getInputHandler("StockStream");
+        InputHandler checkStockStream = executionPlanRuntime.getInputHandler("CheckStockStream");
+        executionPlanRuntime.start();
+        List<Long> expected = new ArrayList<Long>();
+        List<Long> table = new ArrayList<Long>();
+        Random random = new Random(9);
+        for (int i = 0; i < 100; i++) {
+            Long volume = random.nextInt(10) == 0 ? null : (long) random.nextInt(100);
+            stockStream.send(new Object[]{"IBM", 75.6f, volume});
+            table.add(volume);
+
+            long checkVolume = random.nextInt(100);
+            checkStockStream.send(new Object[]{"IBM", checkVolume});
+            List<Long> matched = new ArrayList<Long>();
+            for (Long tableVolume : table) {
+                if (tableVolume != null && tableVolume > checkVolume - 10 && 50 >= tableVolume) {
+                    matched.add(tableVolume);
+                }
+            }
+            Collections.sort(matched);
+            expected.addAll(matched);
+        }
+        Thread.sleep(100);
+        executionPlanRuntime.shutdown();
+
+        //matches of each check event are sorted, as the index gives them in the order of volume
+        Assert.assertFalse(expected.isEmpty());
+        Assert.assertEquals(expected, volumes);
+    }
+
+    @Test
+    public void indexedTableTest2() throws InterruptedException {
+        log.info("indexed table test2 - delete and update on an equality of the table attribute");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, volume long); " +
+                "define stream DeleteStockStream (symbol string); " +
+                "define stream UpdateStockStream (symbol string, price float, volume long); " +
+                "define stream CheckStockStream (symbol string); " +
+                "define table StockTable (symbol string, price float, volume long); ";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into StockTable ;" +
+                "" +
+                "@info(name = 'query2') " +
+                "from DeleteStockStream " +
+                "delete StockTable " +
+                "   on StockTable.symbol == DeleteStockStream.symbol ;" +
+                "" +
+                "@info(name = 'query3') " +
+                "from UpdateStockStream " +
+                "update StockTable " +
+                "   on StockTable.symbol == UpdateStockStream.symbol ;" +
+                "" +
+                "@info(name = 'query4') " +
+                "from CheckStockStream#window.length(1) join StockTable " +
+                "on StockTable.symbol == CheckStockStream.symbol " +
+                "select StockTable.symbol as symbol, StockTable.volume as volume " +
+                "insert into OutputStream ;";
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(streams + query);
+
+        final Map<String, List<Long>> volumes = new HashMap<String, List<Long>>();
+        executionPlanRuntime.addCallback("query4", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                if (inEvents != null) {
+                    for (Event event : inEvents) {
+                        String symbol = (String) event.getData()[0];
+                        if (!volumes.containsKey(symbol)) {
+                            volumes.put(symbol, new ArrayList<Long>());
+                        }
+                        volumes.get(symbol).add((Long) event.getData()[1]);
+                    }
+                }
+            }
+        });
+
+        InputHandler stockStream = executionPlanRuntime.getInputHandler("StockStream");
+        InputHandler deleteStockStream = executionPlanRuntime.getInputHandler("DeleteStockStream");
+        InputHandler updateStockStream = executionPlanRuntime.getInputHandler("UpdateStockStream");
+        InputHandler checkStockStream = executionPlanRuntime.getInputHandler("CheckStockStream");
+        executionPlanRuntime.start();
+        String[] symbols = {"IBM", "WSO2", "ORCL"};
+        for (int i = 0; i < 30; i++) {
+            stockStream.send(new Object[]{symbols[i % 3], 75.6f, (long) i});
+        }
+        deleteStockStream.send(new Object[]{"WSO2"});
+        deleteStockStream.send(new Object[]{"MSFT"});
+        updateStockStream.send(new Object[]{"ORCL", 10.6f, 1000L});
+        for (String symbol : symbols) {
+            checkStockStream.send(new Object[]{symbol});
+        }
+        Thread.sleep(100);
+        executionPlanRuntime.shutdown();
+
+        Assert.assertEquals(10, volumes.get("IBM").size());
+        Assert.assertNull(volumes.get("WSO2"));
+        Assert.assertEquals(Collections.nCopies(10, 1000L), volumes.get("ORCL"));
+    }
+
+    @Test
+    public void testRangeFinder() {
+        StreamDefinition streamA = StreamDefinition.id("a").attribute("symbol", Attribute.Type.STRING).attribute("price", Attribute.Type.INT);
+        StreamDefinition streamB = StreamDefinition.id("b").attribute("symbol", Attribute.Type.STRING).attribute("volume", Attribute.Type.LONG);
+        ExecutionPlanContext context = new ExecutionPlanContext();
+        context.setSiddhiContext(new SiddhiContext());
+        context.setSnapshotService(new SnapshotService(context));
+        context.setElementIdGenerator(new ElementIdGenerator("plan"));
+
+        MetaStreamEvent metaStreamEventA = new MetaStreamEvent();
+        metaStreamEventA.addInputDefinition(streamA);
+        MetaStreamEvent metaStreamEventB = new MetaStreamEvent();
+        metaStreamEventB.addInputDefinition(streamB);
+        MetaStateEvent metaStateEvent = new MetaStateEvent(2);
+        metaStateEvent.addEvent(metaStreamEventA);
+        metaStateEvent.addEvent(metaStreamEventB);
+
+        LengthWindowProcessor windowProcessor = new LengthWindowProcessor();
+        windowProcessor.initProcessor(streamB, new ExpressionExecutor[]{new ConstantExpressionExecutor(30, Attribute.Type.INT)}, context);
+        List<VariableExpressionExecutor> executors = new ArrayList<VariableExpressionExecutor>();
+        // b.volume >= a.price and b.volume < a.price + 20
+        Finder windowFinder = windowProcessor.constructFinder(Expression.and(
+                Expression.compare(Expression.variable("volume").ofStream("b"), Compare.Operator.GREATER_THAN_EQUAL, Expression.variable("price").ofStream("a")),
+                Expression.compare(Expression.variable("volume").ofStream("b"), Compare.Operator.LESS_THAN, Expression.add(Expression.variable("price").ofStream("a"), Expression.value(20)))),
+                metaStateEvent, context, executors, null, 0);
+        Assert.assertTrue(windowFinder instanceof RangeFinder);
+        QueryParserHelper.updateVariablePosition(metaStateEvent, executors);
+
+        TableDefinition tableDefinition = TableDefinition.id("t").attribute("symbol", Attribute.Type.STRING).attribute("volume", Attribute.Type.LONG);
+        InMemoryEventTable eventTable = new InMemoryEventTable(tableDefinition, context);
+        MetaStreamEvent metaStreamEventC = new MetaStreamEvent();
+        metaStreamEventC.addInputDefinition(streamA);
+        executors = new ArrayList<VariableExpressionExecutor>();
+        // t.volume > a.price - 10 and 50 >= t.volume
+        Finder tableFinder = eventTable.constructFinder(Expression.and(
+                Expression.compare(Expression.variable("volume").ofStream("t"), Compare.Operator.GREATER_THAN, Expression.subtract(Expression.variable("price").ofStream("a"), Expression.value(10))),
+                Expression.compare(Expression.value(50), Compare.Operator.GREATER_THAN_EQUAL, Expression.variable("volume").ofStream("t"))),
+                metaStreamEventC, context, executors, null, 0);
+        Assert.assertTrue(tableFinder instanceof RangeFinder);
+        QueryParserHelper.updateVariablePosition(metaStreamEventC, executors);
+
+        StreamEventPool poolA = new StreamEventPool(metaStreamEventA, 5);
+        StreamEventPool poolB = new StreamEventPool(metaStreamEventB, 5);
+        StreamEventPool poolC = new StreamEventPool(metaStreamEventC, 5);
+        windowProcessor.setStreamEventCloner(new StreamEventCloner(metaStreamEventB, poolB));
+        windowProcessor.setNextProcessor(new CollectingProcessor(new ArrayList<StreamEvent>()));
+        int volumeB = metaStreamEventB.getBeforeWindowData().indexOf(new Attribute("volume", Attribute.Type.LONG));
+        int priceA = metaStreamEventA.getBeforeWindowData().indexOf(new Attribute("price", Attribute.Type.INT));
+        int priceC = metaStreamEventC.getBeforeWindowData().indexOf(new Attribute("price", Attribute.Type.INT));
+
+        List<Long> window = new ArrayList<Long>();
+        List<Long> table = new ArrayList<Long>();
+        Random random = new Random(9);
+        for (int i = 0; i < 200; i++) {
+            Long volume = random.nextInt(10) == 0 ? null : (long) random.nextInt(100);
+            StreamEvent eventB = poolB.borrowEvent();
+            eventB.setBeforeWindowData(volume, volumeB);
+            ComplexEventChunk<StreamEvent> eventChunk = new ComplexEventChunk<StreamEvent>();
+            eventChunk.add(eventB);
+            windowProcessor.process(eventChunk);
+            window.add(volume);
+            if (window.size() > 30) {
+                window.remove(0);
+            }
+            StreamEvent tableEvent = new StreamEvent(0, 0, 2);
+            tableEvent.setOutputData(new Object[]{"IBM", volume});
+            eventChunk = new ComplexEventChunk<StreamEvent>();
+            eventChunk.add(tableEvent);
+            eventTable.add(eventChunk);
+            table.add(volume);
+
+            int price = random.nextInt(100);
+            StreamEvent eventA = poolA.borrowEvent();
+            eventA.setBeforeWindowData(price, priceA);
+            List<Long> expected = new ArrayList<Long>();
+            for (Long windowVolume : window) {
+                if (windowVolume != null && windowVolume >= price && windowVolume < price + 20) {
+                    expected.add(windowVolume);
+                }
+            }
+            List<Long> found = new ArrayList<Long>();
+            for (StreamEvent foundEvent = windowProcessor.find(eventA, windowFinder); foundEvent != null; foundEvent = foundEvent.getNext()) {
+                found.add((Long) foundEvent.getBeforeWindowData()[volumeB]);
+            }
+            Collections.sort(expected);
+            Assert.assertEquals(expected, found);
+
+            StreamEvent eventC = poolC.borrowEvent();
+            eventC.setBeforeWindowData(price, priceC);
+            int expectedCount = 0;
+            for (Long tableVolume : table) {
+                if (tableVolume != null && tableVolume > price - 10 && 50 >= tableVolume) {
+                    expectedCount++;
+                }
+            }
+            int count = 0;
+            for (StreamEvent foundEvent = eventTable.find(eventC, tableFinder); foundEvent != null; foundEvent = foundEvent.getNext()) {
+                count++;
+            }
+            Assert.assertEquals(expectedCount, count);
+            Assert.assertEquals(expectedCount > 0, eventTable.contains(eventC, tableFinder));
+        }
+    }
+
+    private static class CollectingProcessor implements Processor {
+        private final List<StreamEvent> events;
+
+        private CollectingProcessor(List<StreamEvent> events) {
+            this.events = events;
+        }
+
+        @Override
+        public void process(ComplexEventChunk complexEventChunk) {
+            for (ComplexEvent event = complexEventChunk.getFirst(); event != null; event = event.getNext()) {
+                events.add((StreamEvent) event);
+            }
+        }
+
+        @Override
+        public Processor getNextProcessor() {
+            return null;
+        }
+
+        @Override
+        public void setNextProcessor(Processor processor) {
+        }
+
+        @Override
+        public void setToLast(Processor processor) {
+        }
+
+        @Override
+        public Processor cloneProcessor(String key) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,265 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.query.window;
+
+import junit.framework.Assert;
+import org.apache.log4j.Logger;
+import org.junit.Test;
+import org.wso2.siddhi.core.ExecutionPlanRuntime;
+import org.wso2.siddhi.core.SiddhiManager;
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.query.input.SharedWindowReceiver;
+import org.wso2.siddhi.core.query.output.callback.QueryCallback;
+import org.wso2.siddhi.core.stream.input.InputHandler;
+import org.wso2.siddhi.query.api.ExecutionPlan;
+import org.wso2.siddhi.query.api.annotation.Annotation;
+import org.wso2.siddhi.query.api.definition.Attribute;
+import org.wso2.siddhi.query.api.definition.StreamDefinition;
+import org.wso2.siddhi.query.api.execution.query.Query;
+import org.wso2.siddhi.query.api.execution.query.input.stream.InputStream;
+import org.wso2.siddhi.query.api.execution.query.output.stream.OutputStream;
+import org.wso2.siddhi.query.api.execution.query.selection.Selector;
+import org.wso2.siddhi.query.api.expression.Expression;
+import org.wso2.siddhi.query.api.expression.condition.Compare;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class SharedWindowTestCase {
+    static final Logger log = Logger.getLogger(SharedWindowTestCase.class);
+
+    private static Query[] createQueries() {
+        Query query1 = new Query();
+        query1.from(InputStream.stream("cseEventStream").window("length", Expression.value(3)).
+                filter(Expression.compare(Expression.variable("price"), Compare.Operator.GREATER_THAN, Expression.value(50))));
+        query1.annotation(Annotation.annotation("info").element("name", "query1"));
+        query1.select(Selector.selector().
+                select("symbol", Expression.variable("symbol")).
+                select("price", Expression.variable("price")));
+        query1.insertInto("OutputStream1");
+
+        Query query2 = new Query();
+        query2.from(InputStream.stream("cseEventStream").window("length", Expression.value(3)));
+        query2.annotation(Annotation.annotation("info").element("name", "query2"));
+        query2.select(Selector.selector().
+                select("symbol", Expression.variable("symbol")).
+                select("totalVolume", Expression.function("sum", Expression.variable("volume"))));
+        query2.insertInto("OutputStream2");
+
+        Query query3 = new Query();
+        query3.from(InputStream.stream("cseEventStream").window("length", Expression.value(3)).
+                filter(Expression.compare(Expression.variable("symbol"), Compare.Operator.EQUAL, Expression.value("IBM"))));
+        query3.annotation(Annotation.annotation("info").element("name", "query3"));
+        query3.select(Selector.selector().
+                select("volume", Expression.variable("volume")).
+                select("maxPrice", Expression.function("max", Expression.variable("price"))));
+        query3.insertInto("OutputStream3");
+
+        Query query4 = new Query();
+        query4.from(InputStream.stream("cseEventStream").window("length", Expression.value(2)));
+        query4.annotation(Annotation.annotation("info").element("name", "query4"));
+        query4.select(Selector.selector().
+                select("price", Expression.variable("price")));
+        query4.insertInto("OutputStream4");
+
+        return new Query[]{query1, query2, query3, query4};
+    }
+
+    private static ExecutionPlanRuntime createExecutionPlanRuntime(SiddhiManager siddhiManager, String name, Query... queries) {
+        StreamDefinition cseEventStream = StreamDefinition.id("cseEventStream").attribute("symbol", Attribute.Type.STRING).
+                attribute("price", Attribute.Type.INT).attribute("volume", Attribute.Type.LONG);
+        ExecutionPlan executionPlan = new ExecutionPlan(name);
+        executionPlan.defineStream(cseEventStream);
+        for (Query query : queries) {
+            executionPlan.addQuery(query);
+        }
+        return siddhiManager.createExecutionPlanRuntime(executionPlan);
+    }
+
+    private static void addCallback(ExecutionPlanRuntime executionPlanRuntime, String queryName,
+                                    Map<String, List<String>> output) {
+        final List<String> currentEvents = new ArrayList<String>();
+        final List<String> expiredEvents = new ArrayList<String>();
+        output.put(queryName + "-current", currentEvents);
+        output.put(queryName + "-expired", expiredEvents);
+        executionPlanRuntime.addCallback(queryName, new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                if (inEvents != null) {
+                    for (Event event : inEvents) {
+                        currentEvents.add(Arrays.toString(event.getData()));
+                    }
+                }
+                if (removeEvents != null) {
+                    for (Event event : removeEvents) {
+                        expiredEvents.add(Arrays.toString(event.getData()));
+                    }
+                }
+            }
+        });
+    }
+
+    private static void sendEvents(ExecutionPlanRuntime executionPlanRuntime) throws InterruptedException {
+        InputHandler inputHandler = executionPlanRuntime.getInputHandler("cseEventStream");
+        executionPlanRuntime.start();
+        String[] symbols = {"IBM", "WSO2", "ORACLE"};
+        for (int i = 0; i < 30; i++) {
+            inputHandler.send(new Object[]{symbols[i % 3], (i * 37) % 100, (long) i});
+        }
+        Thread.sleep(100);
+        executionPlanRuntime.shutdown();
+    }
+
+    @Test
+    public void sharedWindowTest1() throws InterruptedException {
+        log.info("Shared window test1");
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        ExecutionPlanRuntime executionPlanRuntime = createExecutionPlanRuntime(siddhiManager, "ep1", createQueries());
+        Map<String, List<String>> sharedOutput = new TreeMap<String, List<String>>();
+        for (String queryName : new String[]{"query1", "query2", "query3", "query4"}) {
+            addCallback(executionPlanRuntime, queryName, sharedOutput);
+        }
+        Map<String, SharedWindowReceiver> sharedWindowMap = executionPlanRuntime.getSharedWindowMap();
+        Assert.assertEquals(2, sharedWindowMap.size());
+        List<Integer> receiverCounts = new ArrayList<Integer>();
+        for (SharedWindowReceiver sharedWindowReceiver : sharedWindowMap.values()) {
+            receiverCounts.add(sharedWindowReceiver.getReceiverCount());
+        }
+        Assert.assertTrue(receiverCounts.contains(3));
+        Assert.assertTrue(receiverCounts.contains(1));
+        sendEvents(executionPlanRuntime);
+
+        // each query on its own, reading through a window of its own
+        Map<String, List<String>> output = new TreeMap<String, List<String>>();
+        Query[] queries = createQueries();
+        for (int i = 0; i < queries.length; i++) {
+            executionPlanRuntime = createExecutionPlanRuntime(siddhiManager, "ep" + (i + 2), queries[i]);
+            addCallback(executionPlanRuntime, "query" + (i + 1), output);
+            sendEvents(executionPlanRuntime);
+        }
+
+        Assert.assertEquals(output, sharedOutput);
+        Assert.assertEquals(30, sharedOutput.get("query2-current").size());
+        Assert.assertFalse(sharedOutput.get("query1-expired").isEmpty());
+        Assert.assertFalse(sharedOutput.get("query3-expired").isEmpty());
+    }
+
+    @Test
+    public void sharedWindowTest2() throws InterruptedException {
+        log.info("Shared window test2");
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        Query query1 = new Query();
+        query1.from(InputStream.stream("cseEventStream").window("time", Expression.Time.milliSec(500)));
+        query1.annotation(Annotation.annotation("info").element("name", "query1"));
+        query1.select(Selector.selector().select("symbol", Expression.variable("symbol")));
+        query1.insertInto("OutputStream1");
+
+        Query query2 = new Query();
+        query2.from(InputStream.stream("cseEventStream").window("time", Expression.Time.milliSec(500)).
+                filter(Expression.compare(Expression.variable("volume"), Compare.Operator.LESS_THAN, Expression.value(3L))));
+        query2.annotation(Annotation.annotation("info").element("name", "query2"));
+        query2.select(Selector.selector().select("volume", Expression.variable("volume")));
+        query2.insertInto("OutputStream2");
+
+        ExecutionPlanRuntime executionPlanRuntime = createExecutionPlanRuntime(siddhiManager, "ep1", query1, query2);
+        Map<String, List<String>> output = new TreeMap<String, List<String>>();
+        addCallback(executionPlanRuntime, "query1", output);
+        addCallback(executionPlanRuntime, "query2", output);
+        Assert.assertEquals(1, executionPlanRuntime.getSharedWindowMap().size());
+        Assert.assertEquals(2, executionPlanRuntime.getSharedWindowMap().values().iterator().next().getReceiverCount());
+
+        InputHandler inputHandler = executionPlanRuntime.getInputHandler("cseEventStream");
+        executionPlanRuntime.start();
+        for (int i = 0; i < 5; i++) {
+            inputHandler.send(new Object[]{"IBM", 10, (long) i});
+        }
+        Thread.sleep(1500);
+        executionPlanRuntime.shutdown();
+
+        Assert.assertEquals(5, output.get("query1-current").size());
+        Assert.assertEquals(5, output.get("query1-expired").size());
+        Assert.assertEquals(Arrays.asList("[0]", "[1]", "[2]"), output.get("query2-current"));
+        Assert.assertEquals(Arrays.asList("[0]", "[1]", "[2]"), output.get("query2-expired"));
+    }
+
+    private static Query[] createTimeWindowQueries(String shareWindow) {
+        Query query1 = new Query();
+        query1.from(InputStream.stream("cseEventStream").window("time", Expression.Time.milliSec(500)));
+        query1.annotation(Annotation.annotation("info").element("name", "query1").
+                element("share.window", shareWindow));
+        query1.select(Selector.selector().
+                select("symbol", Expression.variable("symbol")).
+                select("price", Expression.variable("price")));
+        query1.insertInto("OutputStream1", OutputStream.OutputEventType.ALL_EVENTS);
+
+        Query query2 = new Query();
+        query2.from(InputStream.stream("cseEventStream").window("time", Expression.Time.milliSec(500)).
+                filter(Expression.compare(Expression.variable("price"), Compare.Operator.GREATER_THAN, Expression.value(50))));
+        query2.annotation(Annotation.annotation("info").element("name", "query2").
+                element("share.window", shareWindow));
+        query2.select(Selector.selector().
+                select("volume", Expression.variable("volume")).
+                select("symbol", Expression.variable("symbol")));
+        query2.insertInto("OutputStream2", OutputStream.OutputEventType.ALL_EVENTS);
+
+        return new Query[]{query1, query2};
+    }
+
+    private static Map<String, List<String>> runTimeWindowQueries(ExecutionPlanRuntime executionPlanRuntime)
+            throws InterruptedException {
+        Map<String, List<String>> output = new TreeMap<String, List<String>>();
+        addCallback(executionPlanRuntime, "query1", output);
+        addCallback(executionPlanRuntime, "query2", output);
+        InputHandler inputHandler = executionPlanRuntime.getInputHandler("cseEventStream");
+        executionPlanRuntime.start();
+        for (int i = 0; i < 6; i++) {
+            inputHandler.send(new Object[]{i % 2 == 0 ? "IBM" : "WSO2", i % 2 == 0 ? 10 : 60 + i, (long) i});
+        }
+        Thread.sleep(1500);
+        executionPlanRuntime.shutdown();
+        return output;
+    }
+
+    @Test
+    public void sharedWindowTest3() throws InterruptedException {
+        log.info("Shared window test3 - time window with a filter and select list differing in the second query");
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        ExecutionPlanRuntime executionPlanRuntime = createExecutionPlanRuntime(siddhiManager, "ep1",
+                createTimeWindowQueries("true"));
+        Assert.assertEquals(1, executionPlanRuntime.getSharedWindowMap().size());
+        Assert.assertEquals(2, executionPlanRuntime.getSharedWindowMap().values().iterator().next().getReceiverCount());
+        Map<String, List<String>> sharedOutput = runTimeWindowQueries(executionPlanRuntime);
+
+        List<String> query1Events = Arrays.asList("[IBM, 10]", "[WSO2, 61]", "[IBM, 10]", "[WSO2, 63]", "[IBM, 10]",
+                "[WSO2, 65]");
+        List<String> query2Events = Arrays.asList("[1, WSO2]", "[3, WSO2]", "[5, WSO2]");
+        Assert.assertEquals(query1Events, sharedOutput.get("query1-current"));
+        Assert.assertEquals(query1Events, sharedOutput.get("query1-expired"));
+        Assert.assertEquals(query2Events, sharedOutput.get("query2-current"));
+        Assert.assertEquals(query2Events, sharedOutput.get("query2-expired"));
+
+        // opted out of sharing, each query reads through a window of its own
+        executionPlanRuntime = createExecutionPlanRuntime(siddhiManager, "ep2", createTimeWindowQueries("false"));
+        Assert.assertTrue(executionPlanRuntime.getSharedWindowMap().isEmpty());
+        Assert.assertEquals(runTimeWindowQueries(executionPlanRuntime), sharedOutput);
+    }
+
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.query.window;
+
+import org.apache.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.siddhi.core.ExecutionPlanRuntime;
+import org.wso2.siddhi.core.SiddhiManager;
+import org.wso2.siddhi.core.config.ExecutionPlanContext;
+import org.wso2.siddhi.core.config.SiddhiContext;
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.executor.ConstantExpressionExecutor;
+import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.core.query.output.callback.QueryCallback;
+import org.wso2.siddhi.core.query.selector.attribute.aggergator.MaxAttributeAggregator;
+import org.wso2.siddhi.core.query.selector.attribute.aggergator.MinAttributeAggregator;
+import org.wso2.siddhi.core.stream.input.InputHandler;
+import org.wso2.siddhi.core.util.ElementIdGenerator;
+import org.wso2.siddhi.core.util.aggregation.SlidingAggregate;
+import org.wso2.siddhi.core.util.snapshot.SnapshotService;
+import org.wso2.siddhi.query.api.definition.Attribute;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class SlidingAggregationTestCase {
+    static final Logger log = Logger.getLogger(SlidingAggregationTestCase.class);
+
+    @Test
+    public void slidingAggregationTest1() throws InterruptedException {
+        log.info("sliding aggregation test1 - min and max over a length window");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String executionPlan = "" +
+                "define stream cseEventStream (symbol string, price float, volume long);" +
+                "" +
+                "@info(name = 'query1') " +
+                "from cseEventStream#window.length(5) " +
+                "select max(price) as maxPrice, min(volume) as minVolume " +
+                "insert into outputStream ;";
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(executionPlan);
+
+        final List<Object> maxPrices = new ArrayList<Object>();
+        final List<Object> minVolumes = new ArrayList<Object>();
+        executionPlanRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                for (Event event : inEvents) {
+                    maxPrices.add(event.getData()[0]);
+                    minVolumes.add(event.getData()[1]);
+                }
+            }
+        });
+
+        InputHandler inputHandler = executionPlanRuntime.getInputHandler("cseEventStream");
+        executionPlanRuntime.start();
+        List<Object> expectedMaxPrices = new ArrayList<Object>();
+        List<Object> expectedMinVolumes = new ArrayList<Object>();
+        List<Float> prices = new ArrayList<Float>();
+        List<Long> volumes = new ArrayList<Long>();
+        Random random = new Random(3);
+        for (int i = 0; i < 500; i++) {
+            float price = random.nextInt(20);
+            long volume = random.nextInt(20);
+            inputHandler.send(new Object[]{"IBM", price, volume});
+            prices.add(price);
+            volumes.add(volume);
+            if (prices.size() > 5) {
+                prices.remove(0);
+                volumes.remove(0);
+            }
+            expectedMaxPrices.add(Collections.max(prices));
+            expectedMinVolumes.add(Collections.min(volumes));
+        }
+        Thread.sleep(100);
+        executionPlanRuntime.shutdown();
+
+        Assert.assertEquals(expectedMaxPrices, maxPrices);
+        Assert.assertEquals(expectedMinVolumes, minVolumes);
+    }
+
+    @Test
+    public void testSlidingAggregation() {
+        ExecutionPlanContext context = new ExecutionPlanContext();
+        context.setSiddhiContext(new SiddhiContext());
+        context.setSnapshotService(new SnapshotService(context));
+        context.setElementIdGenerator(new ElementIdGenerator("plan"));
+
+        MaxAttributeAggregator maxAggregator = new MaxAttributeAggregator();
+        maxAggregator.initAggregator(new ExpressionExecutor[]{new ConstantExpressionExecutor(0L, Attribute.Type.LONG)}, context);
+        MinAttributeAggregator minAggregator = new MinAttributeAggregator();
+        minAggregator.initAggregator(new ExpressionExecutor[]{new ConstantExpressionExecutor(0, Attribute.Type.INT)}, context);
+
+        // the value expiring first was dominated by a later value, while an equal value is still in the window
+        maxAggregator.processAdd(5L);
+        maxAggregator.processAdd(7L);
+        maxAggregator.processAdd(5L);
+        Assert.assertEquals(7L, maxAggregator.processRemove(5L));
+        Assert.assertEquals(5L, maxAggregator.processRemove(7L));
+        Assert.assertNull(maxAggregator.processRemove(5L));
+
+        SlidingAggregate<String> concatenation = new SlidingAggregate<String>() {
+            @Override
+            protected String combine(String older, String newer) {
+                return older + newer;
+            }
+        };
+        List<Long> window = new ArrayList<Long>();
+        Random random = new Random(11);
+        for (int i = 0; i < 2000; i++) {
+            long value = random.nextInt(50);
+            window.add(value);
+            Assert.assertEquals(Collections.max(window), maxAggregator.processAdd(value));
+            Assert.assertEquals((int) (long) Collections.min(window), minAggregator.processAdd((int) value));
+            concatenation.add(value + ",");
+            if (window.size() > 20 || (window.size() > 1 && random.nextInt(4) == 0)) {
+                // mostly in arrival order, as length and time windows expire, else as sort windows expire
+                Long expired = random.nextInt(5) == 0 ? window.get(random.nextInt(window.size())) : window.get(0);
+                window.remove(expired);
+                Object max = maxAggregator.processRemove(expired);
+                Object min = minAggregator.processRemove((int) (long) expired);
+                concatenation.remove(expired + ",");
+                Assert.assertEquals(Collections.max(window), max);
+                Assert.assertEquals((int) (long) Collections.min(window), min);
+            }
+            StringBuilder expected = new StringBuilder();
+            for (Long current : window) {
+                expected.append(current).append(",");
+            }
+            Assert.assertEquals(expected.toString(), concatenation.get());
+        }
+        Assert.assertNull(maxAggregator.reset());
+        Assert.assertEquals(3L, maxAggregator.processAdd(3L));
+    }
+}
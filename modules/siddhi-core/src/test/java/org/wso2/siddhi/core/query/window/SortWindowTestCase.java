@@ -31,6 +31,10 @@ import org.wso2.siddhi.core.query.output.callback.QueryCallback;
 import org.wso2.siddhi.core.stream.input.InputHandler;
 import org.wso2.siddhi.core.util.EventPrinter;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 public class SortWindowTestCase {
     private static final Logger log = Logger.getLogger(SortWindowTestCase.class);
     private int inEventCount;
@@ -141,4 +145,58 @@ public class SortWindowTestCase {
         executionPlanRuntime.shutdown();
 
     }
+
+    @Test
+    public void sortWindowTest3() throws InterruptedException {
+        log.info("sortWindow test3");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String cseEventStream = "" +
+                "define stream cseEventStream (symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from cseEventStream#window.sort(3,volume, 'asc') " +
+                "select volume " +
+                "insert into outputStream ;";
+
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(cseEventStream + query);
+
+        final List<Object> removedVolumes = new ArrayList<Object>();
+        executionPlanRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                if (inEvents != null) {
+                    inEventCount = inEventCount + inEvents.length;
+                }
+                if (removeEvents != null) {
+                    removeEventCount = removeEventCount + removeEvents.length;
+                    for (Event event : removeEvents) {
+                        removedVolumes.add(event.getData(0));
+                    }
+                }
+                eventArrived = true;
+            }
+
+        });
+
+
+
+        InputHandler inputHandler = executionPlanRuntime.getInputHandler("cseEventStream");
+        executionPlanRuntime.start();
+        inputHandler.send(new Object[]{"WSO2", 55.6f, 50l});
+        inputHandler.send(new Object[]{"IBM", 75.6f, 10l});
+        inputHandler.send(new Object[]{"WSO2", 57.6f, 40l});
+        inputHandler.send(new Object[]{"WSO2", 55.6f, 30l});
+        inputHandler.send(new Object[]{"WSO2", 57.6f, 20l});
+        inputHandler.send(new Object[]{"IBM", 75.6f, 60l});
+        Thread.sleep(1000);
+        Assert.assertEquals(6, inEventCount);
+        Assert.assertEquals(3, removeEventCount);
+        Assert.assertEquals(Arrays.asList((Object) 50l, 40l, 60l), removedVolumes);
+        Assert.assertTrue(eventArrived);
+        executionPlanRuntime.shutdown();
+
+    }
 }
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.query.window;
+
+import org.apache.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.siddhi.core.ExecutionPlanRuntime;
+import org.wso2.siddhi.core.SiddhiManager;
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.event.stream.StreamEvent;
+import org.wso2.siddhi.core.event.stream.StreamEventPool;
+import org.wso2.siddhi.core.query.output.callback.QueryCallback;
+import org.wso2.siddhi.core.stream.input.InputHandler;
+import org.wso2.siddhi.query.api.ExecutionPlan;
+import org.wso2.siddhi.query.api.annotation.Annotation;
+import org.wso2.siddhi.query.api.definition.Attribute;
+import org.wso2.siddhi.query.api.definition.StreamDefinition;
+import org.wso2.siddhi.query.api.execution.query.Query;
+import org.wso2.siddhi.query.api.execution.query.input.stream.InputStream;
+import org.wso2.siddhi.query.api.execution.query.output.stream.OutputStream;
+import org.wso2.siddhi.query.api.execution.query.selection.Selector;
+import org.wso2.siddhi.query.api.expression.Expression;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class WindowEventPoolTestCase {
+    static final Logger log = Logger.getLogger(WindowEventPoolTestCase.class);
+
+    @Test
+    public void windowEventPoolTest1() throws InterruptedException {
+        log.info("window event pool test1 - events borrowed by the junction worker are expired by the scheduler");
+
+        StreamDefinition cseEventStream = StreamDefinition.id("cseEventStream").attribute("symbol", Attribute.Type.STRING).
+                attribute("price", Attribute.Type.FLOAT).attribute("volume", Attribute.Type.LONG).
+                annotation(Annotation.annotation("parallel"));
+        Query query = new Query();
+        query.from(InputStream.stream("cseEventStream").window("time", Expression.Time.milliSec(100)));
+        query.annotation(Annotation.annotation("info").element("name", "query1"));
+        query.select(Selector.selector().
+                select("symbol", Expression.variable("symbol")).
+                select("volume", Expression.variable("volume")));
+        query.insertInto("OutputStream", OutputStream.OutputEventType.ALL_EVENTS);
+        ExecutionPlan executionPlan = new ExecutionPlan("ep1");
+        executionPlan.defineStream(cseEventStream);
+        executionPlan.addQuery(query);
+        ExecutionPlanRuntime executionPlanRuntime = new SiddhiManager().createExecutionPlanRuntime(executionPlan);
+
+        final AtomicInteger inEventCount = new AtomicInteger();
+        final AtomicInteger removeEventCount = new AtomicInteger();
+        final AtomicInteger volumeSum = new AtomicInteger();
+        executionPlanRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                if (inEvents != null) {
+                    inEventCount.addAndGet(inEvents.length);
+                    for (Event event : inEvents) {
+                        volumeSum.addAndGet(((Long) event.getData()[1]).intValue());
+                    }
+                }
+                if (removeEvents != null) {
+                    removeEventCount.addAndGet(removeEvents.length);
+                    for (Event event : removeEvents) {
+                        volumeSum.addAndGet(-((Long) event.getData()[1]).intValue());
+                    }
+                }
+            }
+        });
+
+        InputHandler inputHandler = executionPlanRuntime.getInputHandler("cseEventStream");
+        executionPlanRuntime.start();
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 200; i++) {
+                inputHandler.send(new Object[]{"IBM", 75.6f, (long) i});
+            }
+            Thread.sleep(150);
+        }
+        Thread.sleep(300);
+        executionPlanRuntime.shutdown();
+
+        Assert.assertEquals(1000, inEventCount.get());
+        Assert.assertEquals(1000, removeEventCount.get());
+        //each expired event carries the data it arrived with, although pooled events are reused
+        Assert.assertEquals(0, volumeSum.get());
+    }
+
+    @Test
+    public void testEventPoolAcrossThreads() throws InterruptedException {
+        final StreamEventPool streamEventPool = new StreamEventPool(0, 0, 1, 8);
+        final LinkedBlockingQueue<StreamEvent> queue = new LinkedBlockingQueue<StreamEvent>();
+        final int eventCount = 10000;
+
+        Thread consumer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    for (int i = 0; i < eventCount; i++) {
+                        streamEventPool.returnEvents(queue.take());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        consumer.start();
+        for (int i = 0; i < eventCount; i++) {
+            StreamEvent streamEvent = streamEventPool.borrowEvent();
+            Assert.assertNull(streamEvent.getNext());
+            queue.put(streamEvent);
+            if (i % 64 == 63) {
+                while (!queue.isEmpty()) {
+                    Thread.yield();
+                }
+            }
+        }
+        consumer.join();
+
+        Assert.assertEquals(eventCount, streamEventPool.getHitCount() + streamEventPool.getMissCount());
+        Assert.assertTrue("events returned on the consumer should be reused", streamEventPool.getHitCount() > 0);
+        Assert.assertTrue(streamEventPool.getCapacity() > 8);
+        Assert.assertTrue(streamEventPool.getCapacity() <= streamEventPool.getMaxSize());
+    }
+
+
+    @Test
+    public void testEventPoolPruning() throws InterruptedException {
+        final StreamEventPool streamEventPool = new StreamEventPool(0, 0, 1, 8);
+        for (int i = 0; i < 20; i++) {
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    StreamEvent streamEvent = streamEventPool.borrowEvent();
+                    streamEventPool.returnEvents(streamEvent);
+                }
+            });
+            thread.start();
+            thread.join();
+        }
+        //the cache of the last thread is only pruned when another thread gets a cache
+        Assert.assertEquals(1, streamEventPool.getCacheCount());
+        streamEventPool.returnEvents(streamEventPool.borrowEvent());
+        Assert.assertEquals(1, streamEventPool.getCacheCount());
+        Assert.assertEquals(21, streamEventPool.getHitCount() + streamEventPool.getMissCount());
+        Assert.assertTrue(streamEventPool.getHitCount() > 0);
+    }
+}
@@ -21,6 +21,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.wso2.siddhi.core.ExecutionPlanRuntime;
 import org.wso2.siddhi.core.SiddhiManager;
+import org.wso2.siddhi.core.event.ColumnBatch;
 import org.wso2.siddhi.core.event.Event;
 import org.wso2.siddhi.core.exception.DefinitionNotExistException;
 import org.wso2.siddhi.core.exception.QueryNotExistException;
@@ -29,6 +30,10 @@ import org.wso2.siddhi.core.stream.input.InputHandler;
 import org.wso2.siddhi.core.stream.output.StreamCallback;
 import org.wso2.siddhi.core.util.EventPrinter;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * Created on 1/24/15.
  */
@@ -151,4 +156,153 @@ public class CallbackTestCase {
 
         executionPlanRuntime.shutdown();
     }
+
+    @Test
+    public void callbackKeepingEventsTest() throws InterruptedException {
+        log.info("callback keeping the events it receives");
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String executionPlan = "" +
+                "@Plan:name('callbackKeepingEventsTest') " +
+                "" +
+                "define stream StockStream (symbol string, price float, volume long);";
+
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(executionPlan);
+
+        final List<Event> keptEvents = new ArrayList<Event>();
+        executionPlanRuntime.addCallback("StockStream", new StreamCallback() {
+
+            @Override
+            public void receive(Event[] events) {
+                keptEvents.addAll(Arrays.asList(events));
+            }
+        });
+
+        InputHandler inputHandler = executionPlanRuntime.getInputHandler("StockStream");
+
+        executionPlanRuntime.start();
+
+        Event[] events = new Event[300];
+        for (int i = 0; i < events.length; i++) {
+            events[i] = new Event(System.currentTimeMillis(), new Object[]{"IBM", 10f, (long) i});
+        }
+        inputHandler.send(events);
+        for (long i = 300; i < 600; i++) {
+            inputHandler.send(new Object[]{"WSO2", 20f, i});
+        }
+        Thread.sleep(100);
+        Assert.assertEquals(600, keptEvents.size());
+        for (int i = 0; i < 600; i++) {
+            Assert.assertEquals((long) i, keptEvents.get(i).getData(2));
+        }
+
+        executionPlanRuntime.shutdown();
+    }
+
+    @Test
+    public void columnBatchTest() throws InterruptedException {
+        log.info("column batch test");
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String executionPlan = "" +
+                "@Plan:name('columnBatchTest') " +
+                "" +
+                "define stream StockStream (symbol string, price float, volume long);" +
+                "" +
+                "@info(name = 'query1') " +
+                "from StockStream[70 > price] " +
+                "select symbol, price, volume " +
+                "insert into outputStream;";
+
+
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(executionPlan);
+
+        executionPlanRuntime.addCallback("outputStream", new StreamCallback() {
+
+            @Override
+            public void receive(Event[] events) {
+                for (Event event : events) {
+                    Assert.assertEquals("WSO2", event.getData(0));
+                    Assert.assertEquals(60.5f, event.getData(1));
+                    Assert.assertEquals(200l, event.getData(2));
+                    count++;
+                }
+                eventArrived = true;
+            }
+        });
+
+
+        InputHandler inputHandler = executionPlanRuntime.getInputHandler("StockStream");
+
+        executionPlanRuntime.start();
+
+        ColumnBatch columnBatch = new ColumnBatch(executionPlanRuntime.getStreamDefinitionMap().get("StockStream"));
+        columnBatch.setColumn(0, new String[]{"IBM", "WSO2", "WSO2"});
+        columnBatch.setColumn(1, new float[]{700f, 60.5f, 60.5f});
+        columnBatch.setColumn(2, new long[]{100l, 200l, 200l});
+        columnBatch.setSize(3);
+        long timeStamp = System.currentTimeMillis();
+        inputHandler.send(new long[]{timeStamp, timeStamp, timeStamp}, columnBatch);
+        Thread.sleep(100);
+        Assert.assertEquals(2, count);
+        Assert.assertTrue(eventArrived);
+
+        executionPlanRuntime.shutdown();
+    }
+
+    @Test
+    public void columnBatchValidationTest() throws InterruptedException {
+        log.info("column batch validation test");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String executionPlan = "" +
+                "define stream StockStream (symbol string, price float, volume long);" +
+                "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "select symbol, price, volume " +
+                "insert into outputStream;";
+
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(executionPlan);
+
+        executionPlanRuntime.addCallback("outputStream", new StreamCallback() {
+
+            @Override
+            public void receive(Event[] events) {
+                count += events.length;
+                eventArrived = true;
+            }
+        });
+
+        InputHandler inputHandler = executionPlanRuntime.getInputHandler("StockStream");
+
+        executionPlanRuntime.start();
+
+        ColumnBatch columnBatch = new ColumnBatch(executionPlanRuntime.getStreamDefinitionMap().get("StockStream"));
+        columnBatch.setColumn(0, new String[]{"IBM", "WSO2", "WSO2"});
+        columnBatch.setColumn(1, new float[]{700f, 60.5f});
+        columnBatch.setColumn(2, new long[]{100l, 200l, 200l});
+        columnBatch.setSize(3);
+        long timeStamp = System.currentTimeMillis();
+        try {
+            inputHandler.send(new long[]{timeStamp, timeStamp, timeStamp}, columnBatch);
+            Assert.fail("a column shorter than the batch is accepted");
+        } catch (IllegalArgumentException e) {
+            log.info(e.getMessage());
+        }
+        columnBatch.setColumn(1, new float[]{700f, 60.5f, 60.5f});
+        try {
+            inputHandler.send(new long[]{timeStamp, timeStamp}, columnBatch);
+            Assert.fail("fewer timestamps than events are accepted");
+        } catch (IllegalArgumentException e) {
+            log.info(e.getMessage());
+        }
+        Thread.sleep(100);
+        Assert.assertEquals(0, count);
+        Assert.assertFalse(eventArrived);
+
+        executionPlanRuntime.shutdown();
+    }
+
 }
\ No newline at end of file
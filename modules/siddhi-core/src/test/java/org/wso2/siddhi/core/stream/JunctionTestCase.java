@@ -14,22 +14,61 @@
  */
 package org.wso2.siddhi.core.stream;
 
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.SleepingWaitStrategy;
+import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.ProducerType;
 import junit.framework.Assert;
 import org.apache.log4j.Logger;
 import org.junit.Before;
 import org.junit.Test;
 import org.wso2.siddhi.core.config.ExecutionPlanContext;
 import org.wso2.siddhi.core.config.SiddhiContext;
+import org.wso2.siddhi.core.event.ComplexEvent;
+import org.wso2.siddhi.core.event.ComplexEventChunk;
 import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.event.EventFactory;
+import org.wso2.siddhi.core.event.stream.MetaStreamEvent;
 import org.wso2.siddhi.core.event.stream.StreamEvent;
 import org.wso2.siddhi.core.event.stream.StreamEventPool;
+import org.wso2.siddhi.core.exception.ExecutionPlanCreationException;
+import org.wso2.siddhi.core.executor.ConstantExpressionExecutor;
+import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.core.executor.VariableExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.AndConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.compare.equal.EqualCompareConditionExpressionExecutorLongInt;
+import org.wso2.siddhi.core.executor.condition.compare.equal.EqualCompareConditionExpressionExecutorStringString;
+import org.wso2.siddhi.core.executor.condition.compare.greater_than.GreaterThanCompareConditionExpressionExecutorIntInt;
+import org.wso2.siddhi.core.executor.condition.compare.greater_than_equal.GreaterThanEqualCompareConditionExpressionExecutorIntInt;
+import org.wso2.siddhi.core.executor.condition.compare.less_than.LessThanCompareConditionExpressionExecutorIntInt;
+import org.wso2.siddhi.core.query.input.ProcessStreamReceiver;
+import org.wso2.siddhi.core.query.processor.Processor;
+import org.wso2.siddhi.core.query.processor.filter.FilterProcessor;
 import org.wso2.siddhi.core.stream.output.StreamCallback;
+import org.wso2.siddhi.core.stream.overflow.BlockingOverflowPolicy;
+import org.wso2.siddhi.core.stream.overflow.DropNewestOverflowPolicy;
+import org.wso2.siddhi.core.stream.overflow.OverflowPolicy;
+import org.wso2.siddhi.core.util.SiddhiConstants;
+import org.wso2.siddhi.core.util.dictionary.StringDictionary;
+import org.wso2.siddhi.core.util.statistics.RingBufferStatistics;
+import org.wso2.siddhi.core.util.statistics.StatisticsManager;
 import org.wso2.siddhi.query.api.annotation.Annotation;
 import org.wso2.siddhi.query.api.definition.Attribute;
 import org.wso2.siddhi.query.api.definition.StreamDefinition;
 
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 public class JunctionTestCase {
     static final Logger log = Logger.getLogger(JunctionTestCase.class);
@@ -577,4 +616,714 @@ public class JunctionTestCase {
         streamJunctionB.stopProcessing();
         streamJunctionC.stopProcessing();
     }
+
+    @Test
+    public void BatchPublishTest() throws InterruptedException {
+        log.info("batch publish larger than the ring buffer");
+
+        StreamDefinition streamA = StreamDefinition.id("streamA").attribute("symbol", Attribute.Type.STRING).attribute("price", Attribute.Type.INT).
+                annotation(Annotation.annotation("parallel"));
+        StreamJunction streamJunctionA = new StreamJunction(streamA, executorService, 16, executionPlanContext);
+        StreamJunction.Publisher streamPublisherA = streamJunctionA.constructPublisher();
+
+        final boolean[] inOrder = {true};
+        StreamCallback streamCallback = new StreamCallback() {
+            @Override
+            public void receive(Event[] streamEvents) {
+                for (Event streamEvent : streamEvents) {
+                    if ((Integer) streamEvent.getData()[1] != count) {
+                        inOrder[0] = false;
+                    }
+                    count++;
+                }
+                eventArrived = true;
+            }
+        };
+
+        streamJunctionA.subscribe(streamCallback);
+        streamJunctionA.startProcessing();
+
+        Event[] events = new Event[100];
+        for (int i = 0; i < events.length; i++) {
+            events[i] = new Event(System.currentTimeMillis(), new Object[]{"IBM", i});
+        }
+        streamPublisherA.send(events, 0);
+
+        StreamEvent firstEvent = null;
+        StreamEvent lastEvent = null;
+        for (int i = 100; i < 140; i++) {
+            StreamEvent streamEvent = new StreamEvent(2, 2, 2);
+            streamEvent.setTimestamp(System.currentTimeMillis());
+            streamEvent.setOutputData(new Object[]{"WSO2", i});
+            if (firstEvent == null) {
+                firstEvent = streamEvent;
+            } else {
+                lastEvent.setNext(streamEvent);
+            }
+            lastEvent = streamEvent;
+        }
+        streamPublisherA.send(firstEvent);
+
+        Thread.sleep(100);
+        Assert.assertTrue(eventArrived);
+        Assert.assertEquals(140, count);
+        Assert.assertTrue(inOrder[0]);
+        streamJunctionA.stopProcessing();
+    }
+
+    @Test
+    public void DisruptorConfigTest() throws InterruptedException {
+        log.info("junction with configured wait strategy, buffer size and producer type");
+
+        StreamDefinition streamA = StreamDefinition.id("streamA").attribute("symbol", Attribute.Type.STRING).attribute("price", Attribute.Type.INT).
+                annotation(Annotation.annotation("parallel").element("wait", "yielding").element("buffer", "64").
+                        element("producer", "single"));
+        StreamJunction streamJunctionA = new StreamJunction(streamA, executorService, 1024, executionPlanContext);
+        StreamJunction.Publisher streamPublisherA = streamJunctionA.constructPublisher();
+
+        Assert.assertEquals(64, streamJunctionA.getBufferSize());
+        Assert.assertEquals("yielding", streamJunctionA.getDisruptorConfig().getWaitStrategy());
+        Assert.assertEquals(ProducerType.SINGLE, streamJunctionA.getDisruptorConfig().getProducerType());
+
+        StreamCallback streamCallback = new StreamCallback() {
+            @Override
+            public void receive(Event[] streamEvents) {
+                count += streamEvents.length;
+                eventArrived = true;
+            }
+        };
+
+        streamJunctionA.subscribe(streamCallback);
+        streamJunctionA.startProcessing();
+        streamPublisherA.send(new Event(System.currentTimeMillis(), new Object[]{"IBM", 12}), 0);
+        streamPublisherA.send(new Event(System.currentTimeMillis(), new Object[]{"WSO2", 112}), 0);
+        Thread.sleep(100);
+        Assert.assertTrue(eventArrived);
+        Assert.assertEquals(2, count);
+        Assert.assertEquals(64, streamJunctionA.getBufferSize());
+        streamJunctionA.stopProcessing();
+    }
+
+    @Test(expected = ExecutionPlanCreationException.class)
+    public void DisruptorConfigInvalidBufferTest() throws InterruptedException {
+        log.info("junction with buffer size that is not a power of 2");
+
+        StreamDefinition streamA = StreamDefinition.id("streamA").attribute("symbol", Attribute.Type.STRING).attribute("price", Attribute.Type.INT).
+                annotation(Annotation.annotation("parallel").element("buffer", "1000"));
+        new StreamJunction(streamA, executorService, 1024, executionPlanContext);
+    }
+
+    @Test
+    public void DropNewestOverflowTest() throws InterruptedException {
+        log.info("junction dropping newest events when the ring buffer is full");
+
+        StreamDefinition streamA = StreamDefinition.id("streamA").attribute("symbol", Attribute.Type.STRING).attribute("price", Attribute.Type.INT).
+                annotation(Annotation.annotation("parallel").element("buffer", "4").element("overflow", "drop.newest"));
+        StreamJunction streamJunctionA = new StreamJunction(streamA, executorService, 1024, executionPlanContext);
+        StreamJunction.Publisher streamPublisherA = streamJunctionA.constructPublisher();
+        Assert.assertEquals("drop.newest", streamJunctionA.getDisruptorConfig().getOverflow());
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        StreamCallback streamCallback = new StreamCallback() {
+            @Override
+            public void receive(Event[] streamEvents) {
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                count += streamEvents.length;
+                eventArrived = true;
+            }
+        };
+
+        streamJunctionA.subscribe(streamCallback);
+        streamJunctionA.startProcessing();
+        Assert.assertTrue(streamJunctionA.getOverflowPolicy() instanceof DropNewestOverflowPolicy);
+        for (int i = 0; i < 20; i++) {
+            streamPublisherA.send(new Event(System.currentTimeMillis(), new Object[]{"IBM", i}), 0);
+        }
+        latch.countDown();
+        Thread.sleep(100);
+        Assert.assertTrue(eventArrived);
+        Assert.assertTrue(streamJunctionA.getOverflowPolicy().getDroppedCount() > 0);
+        Assert.assertEquals(20, count + streamJunctionA.getOverflowPolicy().getDroppedCount());
+        streamJunctionA.stopProcessing();
+    }
+
+    @Test
+    public void DropOldestOverflowTest() throws InterruptedException {
+        log.info("junction dropping oldest events when the ring buffer is full");
+
+        StreamDefinition streamA = StreamDefinition.id("streamA").attribute("symbol", Attribute.Type.STRING).attribute("price", Attribute.Type.INT).
+                annotation(Annotation.annotation("parallel").element("buffer", "4").element("overflow", "drop.oldest"));
+        StreamJunction streamJunctionA = new StreamJunction(streamA, executorService, 1024, executionPlanContext);
+        StreamJunction.Publisher streamPublisherA = streamJunctionA.constructPublisher();
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        final int[] last = {-1};
+        StreamCallback streamCallback = new StreamCallback() {
+            @Override
+            public void receive(Event[] streamEvents) {
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                count += streamEvents.length;
+                last[0] = (Integer) streamEvents[streamEvents.length - 1].getData()[1];
+                eventArrived = true;
+            }
+        };
+
+        streamJunctionA.subscribe(streamCallback);
+        streamJunctionA.startProcessing();
+        executorService.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                latch.countDown();
+            }
+        });
+        for (int i = 0; i < 20; i++) {
+            streamPublisherA.send(new Event(System.currentTimeMillis(), new Object[]{"IBM", i}), 0);
+        }
+        Thread.sleep(100);
+        Assert.assertTrue(eventArrived);
+        Assert.assertEquals(19, last[0]);
+        Assert.assertTrue(streamJunctionA.getOverflowPolicy().getDroppedCount() > 0);
+        Assert.assertEquals(20, count + streamJunctionA.getOverflowPolicy().getDroppedCount());
+        streamJunctionA.stopProcessing();
+    }
+
+    @Test
+    public void DropOldestStuckConsumerTest() throws InterruptedException {
+        log.info("junction dropping oldest events without waiting for a stuck consumer");
+
+        StreamDefinition streamA = StreamDefinition.id("streamA").attribute("symbol", Attribute.Type.STRING).attribute("price", Attribute.Type.INT).
+                annotation(Annotation.annotation("parallel").element("buffer", "4").element("overflow", "drop.oldest"));
+        StreamJunction streamJunctionA = new StreamJunction(streamA, executorService, 1024, executionPlanContext);
+        StreamJunction.Publisher streamPublisherA = streamJunctionA.constructPublisher();
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        StreamCallback streamCallback = new StreamCallback() {
+            @Override
+            public void receive(Event[] streamEvents) {
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                count += streamEvents.length;
+                eventArrived = true;
+            }
+        };
+
+        streamJunctionA.subscribe(streamCallback);
+        streamJunctionA.startProcessing();
+        executorService.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(2000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                latch.countDown();
+            }
+        });
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < 1000; i++) {
+            streamPublisherA.send(new Event(System.currentTimeMillis(), new Object[]{"IBM", i}), 0);
+        }
+        long duration = System.currentTimeMillis() - start;
+        Assert.assertTrue("publishing took " + duration + " ms", duration < 1000);
+        Assert.assertEquals(1, latch.getCount());
+        latch.countDown();
+        Thread.sleep(100);
+        Assert.assertTrue(eventArrived);
+        Assert.assertTrue(streamJunctionA.getOverflowPolicy().getDroppedCount() > 0);
+        Assert.assertEquals(1000, count + streamJunctionA.getOverflowPolicy().getDroppedCount());
+        streamJunctionA.stopProcessing();
+    }
+
+    @Test
+    public void SpillOverflowTest() throws InterruptedException {
+        log.info("junction spilling events to disk when the ring buffer is full");
+
+        StreamDefinition streamA = StreamDefinition.id("streamA").attribute("symbol", Attribute.Type.STRING).attribute("price", Attribute.Type.INT).
+                annotation(Annotation.annotation("parallel").element("buffer", "4").element("overflow", "spill"));
+        StreamJunction streamJunctionA = new StreamJunction(streamA, executorService, 1024, executionPlanContext);
+        StreamJunction.Publisher streamPublisherA = streamJunctionA.constructPublisher();
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        final boolean[] inOrder = {true};
+        StreamCallback streamCallback = new StreamCallback() {
+            @Override
+            public void receive(Event[] streamEvents) {
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                for (Event streamEvent : streamEvents) {
+                    if ((Integer) streamEvent.getData()[1] != count) {
+                        inOrder[0] = false;
+                    }
+                    count++;
+                }
+                eventArrived = true;
+            }
+        };
+
+        streamJunctionA.subscribe(streamCallback);
+        streamJunctionA.startProcessing();
+        for (int i = 0; i < 20; i++) {
+            streamPublisherA.send(new Event(System.currentTimeMillis(), new Object[]{i % 2 == 0 ? "IBM" : null, i}), 0);
+        }
+        latch.countDown();
+        Thread.sleep(200);
+        Assert.assertTrue(eventArrived);
+        Assert.assertEquals(20, count);
+        Assert.assertTrue(inOrder[0]);
+        Assert.assertTrue(streamJunctionA.getOverflowPolicy().getSpilledCount() > 0);
+        Assert.assertEquals(0, streamJunctionA.getOverflowPolicy().getDroppedCount());
+        streamJunctionA.stopProcessing();
+    }
+
+    @Test(expected = ExecutionPlanCreationException.class)
+    public void SpillSingleProducerTest() throws InterruptedException {
+        log.info("junction spilling events with a single producer");
+
+        StreamDefinition streamA = StreamDefinition.id("streamA").attribute("symbol", Attribute.Type.STRING).attribute("price", Attribute.Type.INT).
+                annotation(Annotation.annotation("parallel").element("producer", "single").element("overflow", "spill"));
+        new StreamJunction(streamA, executorService, 1024, executionPlanContext);
+    }
+
+    @Test(expected = ExecutionPlanCreationException.class)
+    public void InvalidOverflowPolicyTest() throws InterruptedException {
+        log.info("junction with unknown overflow policy");
+
+        StreamDefinition streamA = StreamDefinition.id("streamA").attribute("symbol", Attribute.Type.STRING).attribute("price", Attribute.Type.INT).
+                annotation(Annotation.annotation("parallel").element("overflow", "discard"));
+        new StreamJunction(streamA, executorService, 1024, executionPlanContext);
+    }
+
+    @Test
+    public void ShardedJunctionTest() throws InterruptedException {
+        log.info("junction sharding events across workers by key");
+
+        StreamDefinition streamA = StreamDefinition.id("streamA").attribute("symbol", Attribute.Type.STRING).attribute("price", Attribute.Type.INT).
+                annotation(Annotation.annotation("parallel").element("shardBy", "symbol").element("workers", "4"));
+        StreamJunction streamJunctionA = new StreamJunction(streamA, executorService, 1024, executionPlanContext);
+        StreamJunction.Publisher streamPublisherA = streamJunctionA.constructPublisher();
+        Assert.assertTrue(streamJunctionA.isSharded());
+
+        final Map<String, Integer> workerOfKey = new HashMap<String, Integer>();
+        final Map<String, Integer> lastPriceOfKey = new HashMap<String, Integer>();
+        final boolean[] valid = {true};
+        final int[] received = {0};
+        List<StreamCallback> shards = new ArrayList<StreamCallback>();
+        for (int i = 0; i < 4; i++) {
+            final int worker = i;
+            shards.add(new StreamCallback() {
+                @Override
+                public void receive(Event[] streamEvents) {
+                    synchronized (workerOfKey) {
+                        for (Event streamEvent : streamEvents) {
+                            String symbol = (String) streamEvent.getData()[0];
+                            int price = (Integer) streamEvent.getData()[1];
+                            Integer previousWorker = workerOfKey.put(symbol, worker);
+                            Integer previousPrice = lastPriceOfKey.put(symbol, price);
+                            if (previousWorker != null && previousWorker != worker ||
+                                    previousPrice != null && previousPrice >= price) {
+                                valid[0] = false;
+                            }
+                            received[0]++;
+                        }
+                    }
+                }
+            });
+        }
+        streamJunctionA.subscribeShards(shards);
+        streamJunctionA.startProcessing();
+
+        String[] symbols = {"IBM", "WSO2", "ORCL", "MSFT", "GOOG", "AAPL", "FB", "TWTR"};
+        for (int i = 0; i < 800; i++) {
+            streamPublisherA.send(new Event(System.currentTimeMillis(), new Object[]{symbols[i % symbols.length], i}), 0);
+        }
+        Thread.sleep(200);
+        Assert.assertEquals(800, received[0]);
+        Assert.assertTrue(valid[0]);
+        Assert.assertEquals(symbols.length, workerOfKey.size());
+        streamJunctionA.stopProcessing();
+    }
+
+    @Test
+    public void ProducerLanesTest() throws InterruptedException {
+        log.info("junction merging per thread producer lanes");
+
+        StreamDefinition streamA = StreamDefinition.id("streamA").attribute("producer", Attribute.Type.INT).attribute("seq", Attribute.Type.INT).
+                annotation(Annotation.annotation("parallel").element("producer", "lanes").element("buffer", "256"));
+        final StreamJunction streamJunctionA = new StreamJunction(streamA, executorService, 1024, executionPlanContext);
+        final StreamJunction.Publisher streamPublisherA = streamJunctionA.constructPublisher();
+
+        final int[] lastSeq = {-1, -1, -1, -1};
+        final boolean[] ordered = {true};
+        final CountDownLatch received = new CountDownLatch(4000);
+        StreamCallback streamCallback = new StreamCallback() {
+            @Override
+            public void receive(Event[] streamEvents) {
+                for (Event streamEvent : streamEvents) {
+                    int producer = (Integer) streamEvent.getData()[0];
+                    int seq = (Integer) streamEvent.getData()[1];
+                    if (seq != lastSeq[producer] + 1) {
+                        ordered[0] = false;
+                    }
+                    lastSeq[producer] = seq;
+                    received.countDown();
+                }
+            }
+        };
+        streamJunctionA.subscribe(streamCallback);
+        streamJunctionA.startProcessing();
+
+        List<Thread> producers = new ArrayList<Thread>();
+        for (int i = 0; i < 4; i++) {
+            final int producer = i;
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int seq = 0; seq < 1000; seq++) {
+                        streamPublisherA.send(System.currentTimeMillis(), new Object[]{producer, seq}, 0);
+                    }
+                }
+            });
+            producers.add(thread);
+            thread.start();
+        }
+        for (Thread thread : producers) {
+            thread.join();
+        }
+        Assert.assertTrue(received.await(5, TimeUnit.SECONDS));
+        Assert.assertTrue(ordered[0]);
+
+        //lanes of the terminated producers are retired when the merger runs out of events
+        streamPublisherA.send(System.currentTimeMillis(), new Object[]{0, 1000}, 0);
+        for (int i = 0; i < 100 && streamJunctionA.getProducerLanes().getLaneCount() != 1; i++) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(1, streamJunctionA.getProducerLanes().getLaneCount());
+        Assert.assertTrue(ordered[0]);
+        streamJunctionA.stopProcessing();
+    }
+
+    @Test
+    public void TimestampOrderedLanesTest() throws InterruptedException {
+        log.info("producer lanes merged in timestamp order");
+
+        StreamDefinition streamA = StreamDefinition.id("streamA").attribute("seq", Attribute.Type.INT);
+        final List<Long> timeStamps = new ArrayList<Long>();
+        Disruptor<Event> disruptor = new Disruptor<Event>(new EventFactory(1), 64, executorService);
+        disruptor.handleEventsWith(new EventHandler<Event>() {
+            @Override
+            public void onEvent(Event event, long sequence, boolean endOfBatch) {
+                synchronized (timeStamps) {
+                    timeStamps.add(event.getTimestamp());
+                }
+            }
+        });
+        RingBuffer<Event> ringBuffer = disruptor.start();
+        OverflowPolicy overflowPolicy = new BlockingOverflowPolicy();
+        overflowPolicy.init(ringBuffer, streamA, executorService);
+
+        final ProducerLanes producerLanes = new ProducerLanes(streamA, 16, new SleepingWaitStrategy(), true);
+        List<Thread> producers = new ArrayList<Thread>();
+        for (int i = 0; i < 2; i++) {
+            final int producer = i;
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    OverflowPolicy lanePolicy = producerLanes.getLane().getOverflowPolicy();
+                    for (int j = 0; j < 5; j++) {
+                        long sequenceNo = lanePolicy.claim(1);
+                        Event event = lanePolicy.getRingBuffer().get(sequenceNo);
+                        event.setTimestamp(2 * j + producer);
+                        event.getData()[0] = j;
+                        lanePolicy.getRingBuffer().publish(sequenceNo);
+                    }
+                }
+            });
+            producers.add(thread);
+            thread.start();
+        }
+        for (Thread thread : producers) {
+            thread.join();
+        }
+        producerLanes.start(ringBuffer, overflowPolicy, executorService);
+        Thread.sleep(200);
+        producerLanes.stop();
+        disruptor.shutdown();
+
+        Assert.assertEquals(10, timeStamps.size());
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(i, (long) timeStamps.get(i));
+        }
+    }
+
+    @Test
+    public void JunctionStatisticsTest() throws Exception {
+        log.info("junction ring buffer statistics");
+
+        executionPlanContext.setStatisticsManager(new StatisticsManager("JunctionStatisticsTest", true));
+        StreamDefinition streamA = StreamDefinition.id("streamA").attribute("symbol", Attribute.Type.STRING).attribute("price", Attribute.Type.INT).
+                annotation(Annotation.annotation("parallel").element("buffer", "256"));
+        StreamJunction streamJunctionA = new StreamJunction(streamA, executorService, 1024, executionPlanContext);
+        StreamJunction.Publisher streamPublisherA = streamJunctionA.constructPublisher();
+        streamJunctionA.subscribe(new StreamCallback() {
+            @Override
+            public void receive(Event[] streamEvents) {
+                count += streamEvents.length;
+            }
+        });
+        streamJunctionA.startProcessing();
+
+        for (int i = 0; i < 100; i++) {
+            streamPublisherA.send(System.currentTimeMillis(), new Object[]{"IBM", i}, 0);
+        }
+        Thread.sleep(200);
+
+        RingBufferStatistics statistics = executionPlanContext.getStatisticsManager().getRingBufferStatistics()
+                .get("junction:streamA");
+        Assert.assertSame(statistics, streamJunctionA.getStatistics());
+        Assert.assertEquals(100, count);
+        Assert.assertEquals(100, statistics.getPublishedCount());
+        Assert.assertEquals(256, statistics.getBufferSize());
+        Assert.assertEquals(256, statistics.getRemainingCapacity());
+        Assert.assertEquals(0, statistics.getConsumerLag());
+        Assert.assertEquals(0.0, statistics.getPublishRate(), 0.0);
+        executionPlanContext.getStatisticsManager().sample();
+        double publishRate = statistics.getPublishRate();
+        Assert.assertTrue(publishRate > 0);
+        Assert.assertEquals(publishRate, statistics.getPublishRate(), 0.0);
+        long batches = 0;
+        long events = 0;
+        long[] histogram = statistics.getBatchSizeHistogram();
+        for (int i = 1; i < histogram.length; i++) {
+            batches += histogram[i];
+            events += histogram[i] * (1L << (i - 1));
+        }
+        Assert.assertTrue(batches > 0 && events <= 100);
+
+        ObjectName objectName = new ObjectName("org.wso2.siddhi:type=RingBuffer,executionPlan=" +
+                ObjectName.quote("JunctionStatisticsTest") + ",name=" + ObjectName.quote("junction:streamA"));
+        Assert.assertEquals(100L, ManagementFactory.getPlatformMBeanServer().getAttribute(objectName, "PublishedCount"));
+        streamJunctionA.stopProcessing();
+        executionPlanContext.getStatisticsManager().stop();
+        Assert.assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(objectName));
+    }
+
+    @Test
+    public void JunctionDictionaryTest() throws InterruptedException {
+        log.info("junction dictionary encoding");
+
+        StreamDefinition streamA = StreamDefinition.id("streamA").attribute("symbol", Attribute.Type.STRING)
+                .attribute("tenant", Attribute.Type.STRING).attribute("price", Attribute.Type.INT)
+                .annotation(Annotation.annotation("dictionary").element("symbol"));
+        StreamJunction streamJunctionA = new StreamJunction(streamA, executorService, 1024, executionPlanContext);
+        StreamJunction.Publisher streamPublisherA = streamJunctionA.constructPublisher();
+        final List<Event> events = new ArrayList<Event>();
+        streamJunctionA.subscribe(new StreamCallback() {
+            @Override
+            public void receive(Event[] streamEvents) {
+                for (Event event : streamEvents) {
+                    events.add(event);
+                }
+            }
+        });
+        streamJunctionA.startProcessing();
+
+        Object[] data = new Object[]{new String("IBM"), new String("t1"), 1};
+        Event event = new Event(System.currentTimeMillis(), new Object[]{new String("IBM"), new String("t1"), 2});
+        Object[] eventData = event.getData().clone();
+        streamPublisherA.send(System.currentTimeMillis(), data, 0);
+        streamPublisherA.send(event, 0);
+        streamPublisherA.send(System.currentTimeMillis(), new Object[]{new String("WSO2"), new String("t1"), 3}, 0);
+        streamPublisherA.send(System.currentTimeMillis(), new Object[]{null, new String("t1"), 4}, 0);
+        streamJunctionA.stopProcessing();
+
+        Assert.assertEquals(4, events.size());
+        Assert.assertSame(events.get(0).getData()[0], events.get(1).getData()[0]);
+        Assert.assertNotSame(events.get(0).getData()[1], events.get(1).getData()[1]);
+        Assert.assertNull(events.get(3).getData()[0]);
+        Assert.assertSame(eventData[0], event.getData()[0]);
+        Assert.assertNotSame(data[0], event.getData()[0]);
+        Assert.assertSame(data[0], events.get(1).getData()[0]);
+
+        StringDictionary dictionary = executionPlanContext.getStringDictionary("streamA", "symbol");
+        Assert.assertNull(executionPlanContext.getStringDictionary("streamA", "tenant"));
+        Assert.assertEquals(2, dictionary.size());
+        Assert.assertEquals(0, dictionary.encode("IBM"));
+        Assert.assertEquals(1, dictionary.encode("WSO2"));
+        Assert.assertSame(events.get(0).getData()[0], dictionary.decode(0));
+
+        Object[] state = dictionary.currentState();
+        Assert.assertEquals(2, dictionary.encode("ORCL"));
+        dictionary.restoreState(state);
+        Assert.assertEquals(2, dictionary.size());
+        Assert.assertEquals(1, dictionary.encode("WSO2"));
+
+        StreamDefinition streamB = StreamDefinition.id("streamB").attribute("price", Attribute.Type.INT)
+                .annotation(Annotation.annotation("dictionary").element("price"));
+        try {
+            new StreamJunction(streamB, executorService, 1024, executionPlanContext);
+            Assert.fail("dictionary on a non STRING attribute should be rejected");
+        } catch (ExecutionPlanCreationException e) {
+            //expected
+        }
+    }
+
+    @Test
+    public void PredicateIndexTest() throws InterruptedException {
+        log.info("predicate index");
+
+        StreamDefinition streamA = StreamDefinition.id("streamA").attribute("symbol", Attribute.Type.STRING)
+                .attribute("price", Attribute.Type.INT).attribute("volume", Attribute.Type.LONG);
+        StreamJunction streamJunctionA = new StreamJunction(streamA, executorService, 1024, executionPlanContext);
+        StreamJunction.Publisher streamPublisherA = streamJunctionA.constructPublisher();
+
+        ExpressionExecutor symbol = variable(new Attribute("symbol", Attribute.Type.STRING), 0);
+        ExpressionExecutor price = variable(new Attribute("price", Attribute.Type.INT), 1);
+        ExpressionExecutor volume = variable(new Attribute("volume", Attribute.Type.LONG), 2);
+        ExpressionExecutor[] conditions = new ExpressionExecutor[]{
+                new EqualCompareConditionExpressionExecutorStringString(symbol,
+                        new ConstantExpressionExecutor("IBM", Attribute.Type.STRING)),
+                new EqualCompareConditionExpressionExecutorStringString(symbol,
+                        new ConstantExpressionExecutor("WSO2", Attribute.Type.STRING)),
+                new GreaterThanCompareConditionExpressionExecutorIntInt(price,
+                        new ConstantExpressionExecutor(50, Attribute.Type.INT)),
+                new GreaterThanEqualCompareConditionExpressionExecutorIntInt(
+                        new ConstantExpressionExecutor(20, Attribute.Type.INT), price),
+                new AndConditionExpressionExecutor(
+                        new LessThanCompareConditionExpressionExecutorIntInt(price,
+                                new ConstantExpressionExecutor(80, Attribute.Type.INT)),
+                        new EqualCompareConditionExpressionExecutorLongInt(volume,
+                                new ConstantExpressionExecutor(100, Attribute.Type.INT)))};
+
+        final List<List<Object[]>> received = new ArrayList<List<Object[]>>();
+        for (ExpressionExecutor condition : conditions) {
+            final List<Object[]> events = new ArrayList<Object[]>();
+            received.add(events);
+            MetaStreamEvent metaStreamEvent = new MetaStreamEvent();
+            metaStreamEvent.addInputDefinition(streamA);
+            for (Attribute attribute : streamA.getAttributeList()) {
+                metaStreamEvent.addOutputData(attribute);
+            }
+            ProcessStreamReceiver receiver = new ProcessStreamReceiver("streamA");
+            receiver.setMetaStreamEvent(metaStreamEvent);
+            receiver.setStreamEventPool(new StreamEventPool(metaStreamEvent, 5));
+            receiver.init();
+            FilterProcessor filterProcessor = new FilterProcessor(condition);
+            filterProcessor.setNextProcessor(new Processor() {
+                @Override
+                public void process(ComplexEventChunk complexEventChunk) {
+                    for (ComplexEvent event = complexEventChunk.getFirst(); event != null; event = event.getNext()) {
+                        events.add(event.getOutputData().clone());
+                    }
+                }
+
+                @Override
+                public Processor getNextProcessor() {
+                    return null;
+                }
+
+                @Override
+                public void setNextProcessor(Processor processor) {
+                }
+
+                @Override
+                public void setToLast(Processor processor) {
+                }
+
+                @Override
+                public Processor cloneProcessor(String key) {
+                    return this;
+                }
+            });
+            receiver.setNext(filterProcessor);
+            streamJunctionA.subscribe(receiver);
+        }
+        final List<Event> all = new ArrayList<Event>();
+        streamJunctionA.subscribe(new StreamCallback() {
+            @Override
+            public void receive(Event[] streamEvents) {
+                for (Event event : streamEvents) {
+                    all.add(event);
+                }
+            }
+        });
+        streamJunctionA.startProcessing();
+
+        PredicateIndex predicateIndex = streamJunctionA.getPredicateIndex();
+        Assert.assertNotNull(predicateIndex);
+        Assert.assertEquals(5, predicateIndex.getIndexedCount());
+
+        //receivers are subscribed in reverse, the callback is at 0 and the first condition at 5
+        long[] matches = predicateIndex.match(new Object[]{"IBM", 20, 100L});
+        Assert.assertTrue(predicateIndex.accepts(matches, 0));
+        Assert.assertTrue(predicateIndex.accepts(matches, 1));
+        Assert.assertTrue(predicateIndex.accepts(matches, 2));
+        Assert.assertFalse(predicateIndex.accepts(matches, 3));
+        Assert.assertFalse(predicateIndex.accepts(matches, 4));
+        Assert.assertTrue(predicateIndex.accepts(matches, 5));
+        matches = predicateIndex.match(new Object[]{null, null, null});
+        for (int i = 1; i <= 5; i++) {
+            Assert.assertFalse(predicateIndex.accepts(matches, i));
+        }
+
+        String[] symbols = new String[]{"IBM", "WSO2", "ORCL", null};
+        Random random = new Random(7);
+        List<Event> batch = new ArrayList<Event>();
+        for (int i = 0; i < 200; i++) {
+            Object[] data = new Object[]{symbols[random.nextInt(symbols.length)],
+                    random.nextInt(10) == 0 ? null : random.nextInt(100),
+                    (long) (random.nextInt(3) * 50)};
+            if (i % 3 == 0) {
+                streamPublisherA.send(System.currentTimeMillis(), data, 0);
+            } else if (i % 3 == 1) {
+                streamPublisherA.send(new Event(System.currentTimeMillis(), data), 0);
+            } else {
+                batch.add(new Event(System.currentTimeMillis(), data));
+            }
+        }
+        streamPublisherA.send(batch.toArray(new Event[batch.size()]), 0);
+        streamJunctionA.stopProcessing();
+
+        Assert.assertEquals(200, all.size());
+        for (int i = 0; i < conditions.length; i++) {
+            List<Object[]> expected = new ArrayList<Object[]>();
+            for (Event event : all) {
+                StreamEvent streamEvent = new StreamEvent(0, 0, 3);
+                streamEvent.setOutputData(event.getData());
+                if ((Boolean) conditions[i].execute(streamEvent)) {
+                    expected.add(event.getData());
+                }
+            }
+            Assert.assertEquals(expected.size(), received.get(i).size());
+            for (int j = 0; j < expected.size(); j++) {
+                Assert.assertTrue(Arrays.equals(expected.get(j), received.get(i).get(j)));
+            }
+        }
+    }
+
+    private static ExpressionExecutor variable(Attribute attribute, int position) {
+        VariableExpressionExecutor executor = new VariableExpressionExecutor(attribute, 0, 0);
+        executor.setPosition(new int[]{0, SiddhiConstants.UNKNOWN_STATE, SiddhiConstants.OUTPUT_DATA_INDEX,
+                position});
+        return executor;
+    }
 }
@@ -18,11 +18,19 @@ package org.wso2.siddhi.core.stream.event;
 import junit.framework.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.wso2.siddhi.core.event.ArrayEventChunk;
+import org.wso2.siddhi.core.event.ColumnBatch;
+import org.wso2.siddhi.core.event.ComplexEvent;
+import org.wso2.siddhi.core.event.ComplexEventChunk;
 import org.wso2.siddhi.core.event.stream.StreamEvent;
 import org.wso2.siddhi.core.event.stream.StreamEventPool;
 import org.wso2.siddhi.core.event.stream.converter.ConversionStreamEventChunk;
 import org.wso2.siddhi.core.event.stream.converter.StreamEventConverter;
 import org.wso2.siddhi.core.event.stream.converter.ZeroStreamEventConverter;
+import org.wso2.siddhi.query.api.definition.Attribute;
+import org.wso2.siddhi.query.api.definition.StreamDefinition;
+
+import java.util.Random;
 
 
 public class ComplexEventChunkTestCase {
@@ -208,4 +216,176 @@ public class ComplexEventChunkTestCase {
     }
 
 
+
+    @Test
+    public void EventChunkColumnBatchTest() {
+        StreamDefinition streamDefinition = StreamDefinition.id("streamA").attribute("symbol", Attribute.Type.STRING).
+                attribute("price", Attribute.Type.LONG).attribute("volume", Attribute.Type.LONG);
+        ColumnBatch columnBatch = new ColumnBatch(streamDefinition, 5);
+        for (int i = 0; i < 3; i++) {
+            columnBatch.getStringColumn(0)[i] = "WSO2";
+            columnBatch.getLongColumn(1)[i] = 700l;
+            columnBatch.getLongColumn(2)[i] = i + 1l;
+        }
+        columnBatch.setSize(3);
+
+        StreamEventPool streamEventPool = new StreamEventPool(0, 0, 3, 5);
+        ConversionStreamEventChunk streamEventChunk = new ConversionStreamEventChunk(streamEventConverter, streamEventPool);
+        streamEventChunk.convertAndAssign(new long[]{10l, 20l, 30l}, columnBatch);
+
+        while (streamEventChunk.hasNext()) {
+            count++;
+            StreamEvent event = streamEventChunk.next();
+            Assert.assertEquals(count * 10l, event.getTimestamp());
+            Assert.assertEquals("WSO2", event.getOutputData()[0]);
+            Assert.assertEquals(count * 1l, event.getOutputData()[2]);
+        }
+        Assert.assertEquals(3, count);
+    }
+
+    @Test
+    public void ArrayEventChunkTest() {
+        ArrayEventChunk<StreamEvent> eventChunk = new ArrayEventChunk<StreamEvent>(2);
+        for (long i = 1; i <= 5; i++) {
+            eventChunk.add(event(i));
+        }
+        Assert.assertEquals(5, eventChunk.size());
+
+        eventChunk.next();
+        eventChunk.next();
+        eventChunk.insertBeforeCurrent(chain(10, 11, 12));
+        eventChunk.insertAfterCurrent(event(20));
+        eventChunk.next();
+        eventChunk.remove();
+        Assert.assertEquals(8, eventChunk.size());
+        Assert.assertEquals(3l, eventChunk.next().getOutputData()[0]);
+
+        assertValues(eventChunk, 1, 10, 11, 12, 2, 3, 4, 5);
+        Assert.assertEquals(12l, eventChunk.get(3).getOutputData()[0]);
+        Assert.assertEquals(5l, eventChunk.getLast().getOutputData()[0]);
+
+        StreamEvent firstEvent = eventChunk.detachAllBeforeCurrent();
+        Assert.assertEquals(1l, firstEvent.getOutputData()[0]);
+        Assert.assertNull(firstEvent.getNext().getNext().getNext().getNext().getNext());
+        assertValues(eventChunk, 3, 4, 5);
+
+        Assert.assertEquals(3l, eventChunk.poll().getOutputData()[0]);
+        eventChunk.reset();
+        eventChunk.next();
+        eventChunk.detach();
+        Assert.assertNull(eventChunk.getFirst());
+        Assert.assertEquals(0, eventChunk.size());
+    }
+
+    @Test
+    public void ArrayEventChunkRetainTest() {
+        ArrayEventChunk<StreamEvent> eventChunk = new ArrayEventChunk<StreamEvent>(2);
+        for (long i = 0; i < 6; i++) {
+            eventChunk.add(event(i));
+        }
+        eventChunk.next();
+        eventChunk.next();
+        ComplexEvent[] events = new ComplexEvent[eventChunk.size()];
+        eventChunk.copyTo(events);
+        Assert.assertEquals(3l, ((StreamEvent) events[3]).getOutputData()[0]);
+        eventChunk.retain(new int[]{1, 2, 5}, 3);
+        assertValues(eventChunk, 1, 2, 5);
+        Assert.assertEquals(1l, eventChunk.next().getOutputData()[0]);
+        eventChunk.retain(new int[0], 0);
+        Assert.assertNull(eventChunk.getFirst());
+        Assert.assertEquals(0, eventChunk.size());
+    }
+
+    @Test
+    public void ArrayEventChunkConformanceTest() {
+        Random random = new Random(7);
+        ArrayEventChunk<StreamEvent> arrayChunk = new ArrayEventChunk<StreamEvent>(2);
+        long value = 0;
+        for (int round = 0; round < 200; round++) {
+            //ComplexEventChunk does not track its last event on removals, hence a new one is used per round
+            ComplexEventChunk<StreamEvent> linkedChunk = new ComplexEventChunk<StreamEvent>();
+            for (StreamEvent streamEvent = arrayChunk.getFirst(); streamEvent != null; streamEvent = streamEvent.getNext()) {
+                linkedChunk.add(event((Long) streamEvent.getOutputData()[0]));
+            }
+            for (int i = random.nextInt(20); i > 0; i--) {
+                value++;
+                linkedChunk.add(event(value));
+                arrayChunk.add(event(value));
+            }
+            linkedChunk.reset();
+            arrayChunk.reset();
+            while (linkedChunk.hasNext()) {
+                Assert.assertTrue(arrayChunk.hasNext());
+                Assert.assertEquals(linkedChunk.next().getOutputData()[0], arrayChunk.next().getOutputData()[0]);
+                switch (random.nextInt(12)) {
+                    case 0:
+                    case 1:
+                    case 2:
+                    case 3:
+                        linkedChunk.remove();
+                        arrayChunk.remove();
+                        break;
+                    case 4:
+                        value++;
+                        linkedChunk.insertBeforeCurrent(chain(value, value + 1));
+                        arrayChunk.insertBeforeCurrent(chain(value, value + 1));
+                        value++;
+                        break;
+                    case 5:
+                        value++;
+                        linkedChunk.insertAfterCurrent(event(value));
+                        arrayChunk.insertAfterCurrent(event(value));
+                        break;
+                    default:
+                        //only iterate
+                }
+            }
+            Assert.assertFalse(arrayChunk.hasNext());
+            for (int i = random.nextInt(10); i > 0; i--) {
+                StreamEvent polledEvent = linkedChunk.poll();
+                if (polledEvent == null) {
+                    Assert.assertNull(arrayChunk.poll());
+                } else {
+                    Assert.assertEquals(polledEvent.getOutputData()[0], arrayChunk.poll().getOutputData()[0]);
+                }
+            }
+            int size = 0;
+            StreamEvent arrayEvent = arrayChunk.getFirst();
+            for (StreamEvent linkedEvent = linkedChunk.getFirst(); linkedEvent != null;
+                 linkedEvent = linkedEvent.getNext()) {
+                Assert.assertEquals(linkedEvent.getOutputData()[0], arrayEvent.getOutputData()[0]);
+                arrayEvent = arrayEvent.getNext();
+                size++;
+            }
+            Assert.assertNull(arrayEvent);
+            Assert.assertEquals(size, arrayChunk.size());
+        }
+    }
+
+    private void assertValues(ArrayEventChunk<StreamEvent> eventChunk, long... values) {
+        Assert.assertEquals(values.length, eventChunk.size());
+        StreamEvent streamEvent = eventChunk.getFirst();
+        for (long value : values) {
+            Assert.assertEquals(value, streamEvent.getOutputData()[0]);
+            streamEvent = streamEvent.getNext();
+        }
+        Assert.assertNull(streamEvent);
+    }
+
+    private StreamEvent chain(long... values) {
+        StreamEvent first = event(values[0]);
+        StreamEvent last = first;
+        for (int i = 1; i < values.length; i++) {
+            StreamEvent streamEvent = event(values[i]);
+            last.setNext(streamEvent);
+            last = streamEvent;
+        }
+        return first;
+    }
+
+    private StreamEvent event(long value) {
+        StreamEvent streamEvent = new StreamEvent(0, 0, 1);
+        streamEvent.setOutputData(new Object[]{value});
+        return streamEvent;
+    }
 }
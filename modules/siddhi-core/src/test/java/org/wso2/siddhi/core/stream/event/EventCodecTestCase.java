@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.stream.event;
+
+import junit.framework.Assert;
+import org.junit.Test;
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.event.EventCodec;
+import org.wso2.siddhi.core.event.stream.StreamEvent;
+import org.wso2.siddhi.query.api.definition.Attribute;
+import org.wso2.siddhi.query.api.definition.StreamDefinition;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+public class EventCodecTestCase {
+
+    private StreamDefinition streamDefinition = StreamDefinition.id("cseEventStream").
+            attribute("symbol", Attribute.Type.STRING).attribute("price", Attribute.Type.FLOAT).
+            attribute("volume", Attribute.Type.LONG).attribute("count", Attribute.Type.INT).
+            attribute("ratio", Attribute.Type.DOUBLE).attribute("active", Attribute.Type.BOOL).
+            attribute("tags", Attribute.Type.OBJECT);
+
+    @Test
+    public void EventCodecRoundTripTest() {
+        EventCodec eventCodec = new EventCodec(streamDefinition);
+        Object[] data = new Object[]{"WSO2 \u00e9\u4e2d\ud83d\ude00", 55.6f, 100l, 12, 0.25, true, new ArrayList<String>(Arrays.asList("a", "b"))};
+        Object[] nullData = new Object[]{null, 75.6f, null, 10, null, false, null};
+
+        ByteBuffer buffer = ByteBuffer.allocate(eventCodec.encodedSize(data) + eventCodec.encodedSize(nullData));
+        eventCodec.encode(new Event(1000, data), buffer);
+        Event expiredEvent = new Event(2000, nullData);
+        expiredEvent.setIsExpired(true);
+        eventCodec.encode(expiredEvent, buffer);
+        Assert.assertFalse(buffer.hasRemaining());
+
+        buffer.flip();
+        Event event = eventCodec.decode(buffer, new Event(7));
+        Assert.assertEquals(1000, event.getTimestamp());
+        Assert.assertFalse(event.isExpired());
+        Assert.assertTrue(Arrays.equals(data, event.getData()));
+
+        Object[] decodedData = new Object[7];
+        Assert.assertEquals(2000, eventCodec.decode(buffer, decodedData));
+        Assert.assertTrue(Arrays.equals(nullData, decodedData));
+        Assert.assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    public void EventCodecDirectBufferTest() {
+        EventCodec eventCodec = new EventCodec(streamDefinition);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(1024);
+
+        StreamEvent streamEvent = new StreamEvent(0, 0, 7);
+        streamEvent.setTimestamp(500);
+        streamEvent.setOutputData(new Object[]{"IBM", 10f, 5l, 1, 1.5, false, null});
+        streamEvent.setType(StreamEvent.Type.EXPIRED);
+        eventCodec.encode(streamEvent, buffer);
+
+        buffer.flip();
+        Event event = eventCodec.decode(buffer, new Event(7));
+        Assert.assertEquals(500, event.getTimestamp());
+        Assert.assertTrue(event.isExpired());
+        Assert.assertTrue(Arrays.equals(streamEvent.getOutputData(), event.getData()));
+    }
+
+    @Test
+    public void EventCodecSerializeOnceTest() {
+        EventCodec eventCodec = new EventCodec(streamDefinition);
+        Object[] data = new Object[]{"IBM", 10f, 5l, 1, 1.5, false, new ArrayList<String>(Arrays.asList("a"))};
+        byte[][] objects = new byte[7][];
+
+        int size = eventCodec.encodedSize(data, objects);
+        Assert.assertEquals(eventCodec.encodedSize(data), size);
+        Assert.assertNotNull(objects[6]);
+        Assert.assertNull(objects[0]);
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        eventCodec.encode(100, false, data, objects, buffer);
+        Assert.assertFalse(buffer.hasRemaining());
+
+        buffer.flip();
+        Assert.assertEquals(size, eventCodec.encodedLength(buffer));
+        Assert.assertTrue(Arrays.equals(data, eventCodec.decode(buffer, new Event(7)).getData()));
+    }
+
+    @Test
+    public void EventCodecCountEventsTest() {
+        EventCodec eventCodec = new EventCodec(streamDefinition);
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        for (int i = 0; i < 5; i++) {
+            eventCodec.encode(i, false, new Object[]{"IBM", 10f, (long) i, i, null, true, null}, buffer);
+        }
+        buffer.flip();
+        Assert.assertEquals(5, eventCodec.countEvents(buffer));
+        Assert.assertEquals(0, buffer.position());
+
+        buffer.limit(buffer.limit() - 1);
+        try {
+            eventCodec.countEvents(buffer);
+            Assert.fail("truncated buffer should be rejected");
+        } catch (IllegalArgumentException e) {
+            //expected
+        }
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.stream.input;
+
+import junit.framework.Assert;
+import org.apache.log4j.Logger;
+import org.junit.Before;
+import org.junit.Test;
+import org.wso2.siddhi.core.config.ExecutionPlanContext;
+import org.wso2.siddhi.core.config.SiddhiContext;
+import org.wso2.siddhi.core.event.ColumnBatch;
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.event.EventCodec;
+import org.wso2.siddhi.query.api.definition.Attribute;
+import org.wso2.siddhi.query.api.definition.StreamDefinition;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+
+public class EntryValveTestCase {
+    static final Logger log = Logger.getLogger(EntryValveTestCase.class);
+    private ExecutionPlanContext executionPlanContext;
+    private List<Object[]> received;
+    private List<Integer> streamIndexes;
+    private InputProcessor inputProcessor;
+    private StreamDefinition streamA;
+    private StreamDefinition streamB;
+
+    @Before
+    public void init() {
+        SiddhiContext siddhiContext = new SiddhiContext();
+        executionPlanContext = new ExecutionPlanContext();
+        executionPlanContext.setSiddhiContext(siddhiContext);
+        executionPlanContext.setExecutorService((ThreadPoolExecutor) Executors.newCachedThreadPool());
+        received = new ArrayList<Object[]>();
+        streamIndexes = new ArrayList<Integer>();
+        inputProcessor = new InputProcessor() {
+            @Override
+            public void send(Event event, int streamIndex) {
+                received.add(event.getData().clone());
+                streamIndexes.add(streamIndex);
+            }
+
+            @Override
+            public void send(Event[] events, int streamIndex) {
+                for (Event event : events) {
+                    send(event, streamIndex);
+                }
+            }
+
+            @Override
+            public void send(long timeStamp, Object[] data, int streamIndex) {
+                received.add(data.clone());
+                streamIndexes.add(streamIndex);
+            }
+
+            @Override
+            public void send(long[] timeStamps, ColumnBatch columnBatch, int streamIndex) {
+            }
+
+            @Override
+            public void send(ByteBuffer buffer, int streamIndex) {
+            }
+        };
+        streamA = StreamDefinition.id("streamA").attribute("symbol", Attribute.Type.STRING).attribute("price", Attribute.Type.INT);
+        streamB = StreamDefinition.id("streamB").attribute("active", Attribute.Type.BOOL);
+    }
+
+    @Test
+    public void EntryValveCopyTest() throws InterruptedException {
+        log.info("entry valve copying events in to preallocated slots");
+
+        SingleStreamEntryValve valve = new SingleStreamEntryValve(executionPlanContext, inputProcessor);
+        valve.addStream(0, streamA);
+        valve.addStream(1, streamB);
+        valve.startProcessing();
+
+        Object[] data = new Object[2];
+        for (int i = 0; i < 200; i++) {
+            data[0] = "IBM";
+            data[1] = i;
+            valve.send(System.currentTimeMillis(), data, 0);
+        }
+        data[1] = -1;
+        Event[] events = new Event[300];
+        for (int i = 0; i < events.length; i++) {
+            events[i] = new Event(System.currentTimeMillis(), new Object[]{"WSO2", 200 + i});
+        }
+        valve.send(events, 0);
+        events[0].getData()[1] = -1;
+        valve.send(new Event(System.currentTimeMillis(), new Object[]{true}), 1);
+
+        Thread.sleep(200);
+        Assert.assertEquals(501, received.size());
+        for (int i = 0; i < 500; i++) {
+            Assert.assertEquals(2, received.get(i).length);
+            Assert.assertEquals(i, received.get(i)[1]);
+            Assert.assertEquals(0, (int) streamIndexes.get(i));
+        }
+        Assert.assertEquals(1, received.get(500).length);
+        Assert.assertEquals(true, received.get(500)[0]);
+        Assert.assertEquals(1, (int) streamIndexes.get(500));
+        valve.stopProcessing();
+    }
+
+    @Test
+    public void EntryValveByteBufferTest() throws InterruptedException {
+        log.info("entry valve decoding events from a byte buffer");
+
+        SingleStreamEntryValve valve = new SingleStreamEntryValve(executionPlanContext, inputProcessor);
+        valve.addStream(0, streamA);
+        valve.startProcessing();
+
+        EventCodec eventCodec = new EventCodec(streamA);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(4096);
+        for (int i = 0; i < 100; i++) {
+            eventCodec.encode(System.currentTimeMillis(), false, new Object[]{i % 2 == 0 ? "IBM" : null, i}, buffer);
+        }
+        buffer.flip();
+        valve.send(buffer, 0);
+        Assert.assertFalse(buffer.hasRemaining());
+
+        Thread.sleep(200);
+        Assert.assertEquals(100, received.size());
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(i % 2 == 0 ? "IBM" : null, received.get(i)[0]);
+            Assert.assertEquals(i, received.get(i)[1]);
+        }
+        valve.stopProcessing();
+    }
+
+    @Test
+    public void EntryValveTruncatedByteBufferTest() throws InterruptedException {
+        log.info("entry valve rejecting a truncated byte buffer");
+
+        SingleStreamEntryValve valve = new SingleStreamEntryValve(executionPlanContext, inputProcessor);
+        valve.addStream(0, streamA);
+        valve.startProcessing();
+
+        EventCodec eventCodec = new EventCodec(streamA);
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        for (int i = 0; i < 10; i++) {
+            eventCodec.encode(System.currentTimeMillis(), false, new Object[]{"IBM", i}, buffer);
+        }
+        buffer.flip();
+        buffer.limit(buffer.limit() - 2);
+        try {
+            valve.send(buffer, 0);
+            Assert.fail("truncated buffer should be rejected");
+        } catch (IllegalArgumentException e) {
+            //expected
+        }
+        Assert.assertEquals(0, buffer.position());
+
+        Thread.sleep(200);
+        Assert.assertEquals(0, received.size());
+        valve.stopProcessing();
+    }
+
+    @Test
+    public void EntryValveOversizedDataTest() throws InterruptedException {
+        log.info("entry valve rejecting data not matching the stream attributes");
+
+        SingleStreamEntryValve valve = new SingleStreamEntryValve(executionPlanContext, inputProcessor);
+        valve.addStream(0, streamA);
+        valve.startProcessing();
+
+        try {
+            valve.send(System.currentTimeMillis(), new Object[]{"IBM", 1, 2}, 0);
+            Assert.fail("oversized data should be rejected");
+        } catch (IllegalArgumentException e) {
+            //expected
+        }
+        valve.send(System.currentTimeMillis(), new Object[]{"IBM", 1}, 0);
+
+        Thread.sleep(200);
+        Assert.assertEquals(1, received.size());
+        Assert.assertEquals(1, received.get(0)[1]);
+        valve.stopProcessing();
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.siddhi.core.stream.input;
+
+import junit.framework.Assert;
+import org.apache.log4j.Logger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.wso2.siddhi.core.config.ExecutionPlanContext;
+import org.wso2.siddhi.core.config.SiddhiContext;
+import org.wso2.siddhi.core.event.ColumnBatch;
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.event.EventCodec;
+import org.wso2.siddhi.core.stream.input.recorder.EventRecorder;
+import org.wso2.siddhi.core.stream.input.recorder.EventReplayer;
+import org.wso2.siddhi.core.util.timestamp.EventTimestampGenerator;
+import org.wso2.siddhi.query.api.definition.Attribute;
+import org.wso2.siddhi.query.api.definition.StreamDefinition;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+public class EventRecorderTestCase {
+    static final Logger log = Logger.getLogger(EventRecorderTestCase.class);
+    private File directory;
+    private StreamDefinition streamDefinition;
+    private EventCodec eventCodec;
+    private List<Event> received;
+    private List<Long> receivedTimes;
+    private EventTimestampGenerator timestampGenerator;
+    private InputProcessor inputProcessor;
+
+    @Before
+    public void init() throws IOException {
+        directory = File.createTempFile("siddhi", "log");
+        Assert.assertTrue(directory.delete() && directory.mkdirs());
+        streamDefinition = StreamDefinition.id("StockStream").attribute("symbol", Attribute.Type.STRING)
+                .attribute("price", Attribute.Type.FLOAT).attribute("volume", Attribute.Type.LONG);
+        eventCodec = new EventCodec(streamDefinition);
+        received = new ArrayList<Event>();
+        receivedTimes = new ArrayList<Long>();
+        inputProcessor = new InputProcessor() {
+            @Override
+            public void send(Event event, int streamIndex) {
+                received.add(new Event(event.getData().length).copyFrom(event));
+                if (timestampGenerator != null) {
+                    receivedTimes.add(timestampGenerator.currentTime());
+                }
+            }
+
+            @Override
+            public void send(Event[] events, int streamIndex) {
+                for (Event event : events) {
+                    send(event, streamIndex);
+                }
+            }
+
+            @Override
+            public void send(long timeStamp, Object[] data, int streamIndex) {
+                send(new Event(timeStamp, data), streamIndex);
+            }
+
+            @Override
+            public void send(long[] timeStamps, ColumnBatch columnBatch, int streamIndex) {
+            }
+
+            @Override
+            public void send(ByteBuffer buffer, int streamIndex) {
+                while (buffer.hasRemaining()) {
+                    send(eventCodec.decode(buffer, new Event(3)), streamIndex);
+                }
+            }
+        };
+    }
+
+    @After
+    public void cleanUp() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void RecordReplayTest() throws IOException, InterruptedException {
+        log.info("recording events across segments and replaying them at full speed");
+
+        String path = new File(directory, "StockStream").getPath();
+        EventRecorder eventRecorder = new EventRecorder(path, streamDefinition, 1024);
+        InputHandler inputHandler = new InputHandler("StockStream", 0, new InputProcessor() {
+            @Override
+            public void send(Event event, int streamIndex) {
+            }
+
+            @Override
+            public void send(Event[] events, int streamIndex) {
+            }
+
+            @Override
+            public void send(long timeStamp, Object[] data, int streamIndex) {
+            }
+
+            @Override
+            public void send(long[] timeStamps, ColumnBatch columnBatch, int streamIndex) {
+            }
+
+            @Override
+            public void send(ByteBuffer buffer, int streamIndex) {
+                buffer.position(buffer.limit());
+            }
+        });
+        inputHandler.setEventRecorder(eventRecorder);
+        for (int i = 0; i < 100; i++) {
+            inputHandler.send(i, new Object[]{"IBM", 75.6f + i, (long) i});
+        }
+        inputHandler.send(new Event[]{new Event(100, new Object[]{"WSO2", null, 100L}),
+                new Event(101, new Object[]{"WSO2", 57.6f, 101L})});
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        for (int i = 102; i < 110; i++) {
+            eventCodec.encode(i, false, new Object[]{"ORACLE", 20f, (long) i}, buffer);
+        }
+        buffer.flip();
+        inputHandler.send(buffer);
+        inputHandler.setEventRecorder(null);
+        inputHandler.send(110, new Object[]{"IBM", 75.6f, 110L});
+        eventRecorder.close();
+        Assert.assertTrue(new File(path + "-000002.log").exists());
+
+        InputHandler replayHandler = new InputHandler("StockStream", 0, inputProcessor);
+        new EventReplayer(path, streamDefinition).replay(replayHandler);
+
+        Assert.assertEquals(110, received.size());
+        for (int i = 0; i < received.size(); i++) {
+            Assert.assertEquals(i, received.get(i).getTimestamp());
+            Assert.assertEquals((long) i, received.get(i).getData()[2]);
+        }
+        Assert.assertEquals(76.6f, received.get(1).getData()[1]);
+        Assert.assertNull(received.get(100).getData()[1]);
+        Assert.assertEquals("ORACLE", received.get(109).getData()[0]);
+    }
+
+    @Test
+    public void ReplayBatchSizeTest() throws IOException, InterruptedException {
+        log.info("replaying events in slices of a bounded number of events");
+
+        String path = new File(directory, "StockStream").getPath();
+        EventRecorder eventRecorder = new EventRecorder(path, streamDefinition);
+        for (int i = 0; i < 100; i++) {
+            eventRecorder.record(i, new Object[]{"IBM", 75.6f, (long) i});
+        }
+        eventRecorder.close();
+
+        final List<Integer> sliceSizes = new ArrayList<Integer>();
+        InputHandler inputHandler = new InputHandler("StockStream", 0, new InputProcessor() {
+            @Override
+            public void send(Event event, int streamIndex) {
+            }
+
+            @Override
+            public void send(Event[] events, int streamIndex) {
+            }
+
+            @Override
+            public void send(long timeStamp, Object[] data, int streamIndex) {
+            }
+
+            @Override
+            public void send(long[] timeStamps, ColumnBatch columnBatch, int streamIndex) {
+            }
+
+            @Override
+            public void send(ByteBuffer buffer, int streamIndex) {
+                sliceSizes.add(eventCodec.countEvents(buffer));
+                inputProcessor.send(buffer, streamIndex);
+            }
+        });
+        new EventReplayer(path, streamDefinition, 16).replay(inputHandler);
+
+        Assert.assertEquals(7, sliceSizes.size());
+        for (int i = 0; i < 6; i++) {
+            Assert.assertEquals(16, (int) sliceSizes.get(i));
+        }
+        Assert.assertEquals(4, (int) sliceSizes.get(6));
+        Assert.assertEquals(100, received.size());
+        Assert.assertEquals(99L, received.get(99).getData()[2]);
+    }
+
+    @Test
+    public void PlaybackReplayTest() throws IOException, InterruptedException {
+        log.info("replaying events at recorded pace in to a playback execution plan");
+
+        String path = new File(directory, "StockStream").getPath();
+        EventRecorder eventRecorder = new EventRecorder(path, streamDefinition);
+        for (int i = 0; i < 5; i++) {
+            eventRecorder.record(1000 + i * 50, new Object[]{"IBM", 75.6f, (long) i});
+        }
+        eventRecorder.close();
+
+        ExecutionPlanContext executionPlanContext = new ExecutionPlanContext();
+        executionPlanContext.setSiddhiContext(new SiddhiContext());
+        executionPlanContext.setPlayback(true);
+        PlaybackEntryValve playbackEntryValve = new PlaybackEntryValve(executionPlanContext, inputProcessor);
+        playbackEntryValve.addStream(0, streamDefinition);
+        timestampGenerator = (EventTimestampGenerator) executionPlanContext.getTimestampGenerator();
+        InputHandler inputHandler = new InputHandler("StockStream", 0,
+                new SingleThreadEntryValve(executionPlanContext, playbackEntryValve));
+
+        long start = System.currentTimeMillis();
+        new EventReplayer(path, streamDefinition).replay(inputHandler, true);
+        long duration = System.currentTimeMillis() - start;
+
+        Assert.assertTrue("replay took " + duration + " ms", duration >= 190);
+        Assert.assertEquals(5, received.size());
+        for (int i = 0; i < 5; i++) {
+            Assert.assertEquals(1000L + i * 50, received.get(i).getTimestamp());
+            Assert.assertEquals(1000L + i * 50, (long) receivedTimes.get(i));
+        }
+    }
+}